@@ -0,0 +1,30 @@
+package com.catalyst.ProCounsellor.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.catalyst.ProCounsellor.repository.DocumentStore;
+import com.catalyst.ProCounsellor.repository.firestore.FirestoreDocumentStore;
+import com.catalyst.ProCounsellor.repository.memory.InMemoryDocumentStore;
+import com.google.cloud.firestore.Firestore;
+
+@Configuration
+public class DocumentStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.datastore", havingValue = "firestore", matchIfMissing = true)
+    public DocumentStore firestoreDocumentStore(Firestore firestore) {
+        return new FirestoreDocumentStore(firestore);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.datastore", havingValue = "memory")
+    public DocumentStore inMemoryDocumentStore(
+            @Value("${procounsellor.datastore.memory.read-latency-ms:0}") long readLatencyMillis,
+            @Value("${procounsellor.datastore.memory.write-latency-ms:0}") long writeLatencyMillis,
+            @Value("${procounsellor.datastore.memory.jitter-ms:0}") long jitterMillis) {
+        return new InMemoryDocumentStore(readLatencyMillis, writeLatencyMillis, jitterMillis);
+    }
+}
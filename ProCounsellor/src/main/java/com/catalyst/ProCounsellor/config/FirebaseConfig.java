@@ -1,35 +1,35 @@
 package com.catalyst.ProCounsellor.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.cloud.firestore.Firestore;
 import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.database.FirebaseDatabase;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.env.Environment;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
 
 @Configuration
 public class FirebaseConfig {
 
-    private final Environment env;
-
-    public FirebaseConfig(Environment env) {
-        this.env = env;
-    }
-
     @Bean
+    @ConditionalOnProperty(name = "procounsellor.datastore", havingValue = "firestore", matchIfMissing = true)
     public FirebaseApp firebaseApp() throws IOException {
         if (FirebaseApp.getApps().isEmpty()) {
             // Read Firebase credentials from the environment variable
             String firebaseConfigJson = System.getenv("FIREBASE_CONFIG");
-            
+
             if (firebaseConfigJson == null || firebaseConfigJson.isEmpty()) {
                 throw new IllegalStateException("FIREBASE_CONFIG environment variable is not set.");
             }
@@ -50,7 +50,40 @@ public class FirebaseConfig {
         }
     }
 
+    /**
+     * Offline app for the in-memory datastore: no FIREBASE_CONFIG, the Realtime Database
+     * points at the local emulator, and custom tokens are signed with a throwaway key.
+     * Pair it with procounsellor.push.sender=local and procounsellor.storage=local.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.datastore", havingValue = "memory")
+    public FirebaseApp localFirebaseApp(
+            @Value("${procounsellor.firebase.local.project-id:procounsellor-local}") String projectId,
+            @Value("${procounsellor.firebase.local.database-url:http://127.0.0.1:9000?ns=procounsellor-local}") String databaseUrl)
+            throws NoSuchAlgorithmException {
+        if (!FirebaseApp.getApps().isEmpty()) {
+            return FirebaseApp.getInstance();
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair signingKey = generator.generateKeyPair();
+        GoogleCredentials credentials = ServiceAccountCredentials.newBuilder()
+                .setProjectId(projectId)
+                .setClientId("local")
+                .setClientEmail("local@" + projectId + ".iam.gserviceaccount.com")
+                .setPrivateKey(signingKey.getPrivate())
+                .build();
+
+        FirebaseOptions options = FirebaseOptions.builder()
+                .setCredentials(credentials)
+                .setProjectId(projectId)
+                .setDatabaseUrl(databaseUrl)
+                .build();
+        return FirebaseApp.initializeApp(options);
+    }
+
     @Bean
+    @ConditionalOnProperty(name = "procounsellor.datastore", havingValue = "firestore", matchIfMissing = true)
     public Firestore firestore(FirebaseApp firebaseApp) {
         return FirestoreClient.getFirestore(firebaseApp);
     }
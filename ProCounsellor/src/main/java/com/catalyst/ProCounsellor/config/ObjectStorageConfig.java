@@ -0,0 +1,50 @@
+package com.catalyst.ProCounsellor.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.catalyst.ProCounsellor.storage.ObjectStorage;
+import com.catalyst.ProCounsellor.storage.gcs.GcsObjectStorage;
+import com.catalyst.ProCounsellor.storage.local.LocalObjectStorage;
+
+@Configuration
+public class ObjectStorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.storage", havingValue = "gcs", matchIfMissing = true)
+    public ObjectStorage gcsObjectStorage(
+            @Value("${procounsellor.storage.bucket:procounsellor-71824.firebasestorage.app}") String bucket,
+            @Value("${procounsellor.storage.gcs.credentials-bucket:pro_counsellor_firebase_config}") String credentialsBucket,
+            @Value("${procounsellor.storage.gcs.credentials-path:firebase/credentials/procounsellor-71824-firebase-adminsdk-a73ra-0c3dfaf526.json}") String credentialsPath) {
+        return new GcsObjectStorage(bucket, credentialsBucket, credentialsPath);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.storage", havingValue = "local")
+    public LocalObjectStorage localObjectStorage(
+            @Value("${procounsellor.storage.local.root:local-storage}") String root,
+            @Value("${procounsellor.storage.local.base-url:http://localhost:8080/local-storage/}") String baseUrl,
+            @Value("${procounsellor.storage.local.upload-base-url:http://localhost:8080/local-storage-upload/}") String uploadBaseUrl) throws IOException {
+        return new LocalObjectStorage(Paths.get(root), baseUrl, uploadBaseUrl);
+    }
+
+    // Serves locally stored objects at the URLs handed out by LocalObjectStorage
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.storage", havingValue = "local")
+    public WebMvcConfigurer localObjectStorageResources(@Value("${procounsellor.storage.local.root:local-storage}") String root) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                registry.addResourceHandler("/local-storage/**")
+                        .addResourceLocations(Paths.get(root).toAbsolutePath().toUri().toString());
+            }
+        };
+    }
+}
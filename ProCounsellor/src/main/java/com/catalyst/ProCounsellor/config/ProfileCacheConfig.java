@@ -0,0 +1,45 @@
+package com.catalyst.ProCounsellor.config;
+
+import java.time.Duration;
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.catalyst.ProCounsellor.model.Counsellor;
+import com.catalyst.ProCounsellor.model.User;
+import com.catalyst.ProCounsellor.repository.DocumentCache;
+
+/**
+ * Near-caches for user and counsellor profiles. Weight is one unit per profile plus
+ * one per element of its list fields, which is where large profiles get large.
+ */
+@Configuration
+public class ProfileCacheConfig {
+
+    @Value("${procounsellor.cache.profiles.max-weight:200000}")
+    private long maxWeight;
+
+    @Value("${procounsellor.cache.profiles.expire-after-write-seconds:60}")
+    private long expireAfterWriteSeconds;
+
+    @Bean
+    public DocumentCache<User> userCache() {
+        return new DocumentCache<>("users", User.class, maxWeight, Duration.ofSeconds(expireAfterWriteSeconds),
+                user -> 1 + size(user.getChatIdsCreatedForUser()) + size(user.getAppointmentIds())
+                        + size(user.getUserReviewIds()) + size(user.getInterestedColleges()));
+    }
+
+    @Bean
+    public DocumentCache<Counsellor> counsellorCache() {
+        return new DocumentCache<>("counsellors", Counsellor.class, maxWeight, Duration.ofSeconds(expireAfterWriteSeconds),
+                counsellor -> 1 + size(counsellor.getChatIdsCreatedForCounsellor())
+                        + size(counsellor.getAppointmentIds()) + size(counsellor.getReviewIds())
+                        + size(counsellor.getClientIds()) + size(counsellor.getFollowerIds()));
+    }
+
+    private static int size(Collection<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
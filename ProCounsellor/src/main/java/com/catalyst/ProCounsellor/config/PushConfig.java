@@ -0,0 +1,66 @@
+package com.catalyst.ProCounsellor.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.catalyst.ProCounsellor.notification.FcmPushSender;
+import com.catalyst.ProCounsellor.notification.LocalPushSender;
+import com.catalyst.ProCounsellor.notification.PushDispatcher;
+import com.catalyst.ProCounsellor.notification.PushSender;
+import com.catalyst.ProCounsellor.notification.VoipPushClient;
+import com.eatthepath.pushy.apns.ApnsClientBuilder;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.StorageOptions;
+import com.google.firebase.FirebaseApp;
+
+@Configuration
+public class PushConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.push.sender", havingValue = "fcm", matchIfMissing = true)
+    public PushSender fcmPushSender(FirebaseApp firebaseApp) {
+        return new FcmPushSender(firebaseApp);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "procounsellor.push.sender", havingValue = "local")
+    public PushSender localPushSender(
+            @Value("${procounsellor.push.local.batch-latency-ms:0}") long batchLatencyMillis,
+            @Value("${procounsellor.push.local.jitter-ms:0}") long jitterMillis) {
+        return new LocalPushSender(batchLatencyMillis, jitterMillis);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public PushDispatcher pushDispatcher(PushSender pushSender,
+            @Value("${procounsellor.push.queue-capacity:10000}") int queueCapacity,
+            @Value("${procounsellor.push.workers:2}") int workers,
+            @Value("${procounsellor.push.max-attempts:5}") int maxAttempts,
+            @Value("${procounsellor.push.initial-backoff-ms:500}") long initialBackoffMillis,
+            @Value("${procounsellor.push.max-backoff-ms:30000}") long maxBackoffMillis) {
+        return new PushDispatcher(pushSender, queueCapacity, workers, maxAttempts, initialBackoffMillis, maxBackoffMillis);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public VoipPushClient voipPushClient(
+            @Value("${procounsellor.apns.cert-bucket:voipcert}") String certBucket,
+            @Value("${procounsellor.apns.cert-object:voip_cert.p12}") String certObject,
+            @Value("${procounsellor.apns.cert-password:ProCounsellor@2024}") String certPassword,
+            @Value("${procounsellor.apns.host:" + ApnsClientBuilder.DEVELOPMENT_APNS_HOST + "}") String apnsHost,
+            @Value("${procounsellor.apns.topic:com.catalyst.ProCounsellor.voip}") String topic,
+            @Value("${procounsellor.apns.connections:2}") int connections,
+            @Value("${procounsellor.apns.failure-threshold:3}") int failureThreshold,
+            @Value("${procounsellor.apns.health-check-seconds:30}") long healthCheckSeconds) {
+        Supplier<byte[]> certificateLoader = () -> {
+            Blob blob = StorageOptions.getDefaultInstance().getService().get(certBucket, certObject);
+            if (blob == null) {
+                throw new IllegalStateException("Could not find " + certObject + " in bucket " + certBucket);
+            }
+            return blob.getContent();
+        };
+        return new VoipPushClient(certificateLoader, certPassword, apnsHost, topic, connections, failureThreshold, healthCheckSeconds);
+    }
+}
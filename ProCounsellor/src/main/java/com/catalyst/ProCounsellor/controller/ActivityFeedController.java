@@ -0,0 +1,58 @@
+package com.catalyst.ProCounsellor.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.ActivityLog;
+import com.catalyst.ProCounsellor.service.ActivityFeedService;
+
+@RestController
+@RequestMapping("/api/activity")
+public class ActivityFeedController {
+
+    @Autowired
+    private ActivityFeedService activityFeedService;
+
+    // Newest first. Pass nextCursor back as cursor for the next page.
+    @GetMapping("/{recipientId}")
+    public ResponseEntity<CursorPage<ActivityLog>> getFeed(@PathVariable String recipientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(activityFeedService.getFeed(recipientId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{recipientId}/unseen-count")
+    public ResponseEntity<Map<String, Long>> getUnseenCount(@PathVariable String recipientId) {
+        try {
+            return ResponseEntity.ok(Map.of("unseen", activityFeedService.getUnseenCount(recipientId)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/{recipientId}/seen")
+    public ResponseEntity<Void> markSeen(@PathVariable String recipientId) {
+        try {
+            activityFeedService.markSeen(recipientId);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
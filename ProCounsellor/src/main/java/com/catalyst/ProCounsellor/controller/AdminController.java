@@ -1,10 +1,12 @@
 package com.catalyst.ProCounsellor.controller;
 
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -18,6 +20,56 @@ public class AdminController {
 	@Autowired
     private AdminService adminService;
 	
+	@GetMapping("/cache-stats")
+	public Map<String, Map<String, Object>> getCacheStats() {
+		return adminService.getCacheStats();
+	}
+	
+	@GetMapping("/push-stats")
+	public Map<String, Object> getPushStats() {
+		return adminService.getPushStats();
+	}
+	
+	@GetMapping("/voip-push-stats")
+	public Map<String, Object> getVoipPushStats() {
+		return adminService.getVoipPushStats();
+	}
+	
+	@GetMapping("/payment-webhook-stats")
+	public Map<String, Object> getPaymentWebhookStats() {
+		return adminService.getPaymentWebhookStats();
+	}
+	
+	// One-off: moves callHistory arrays off user and counsellor profiles into callRecords
+	@PostMapping("/migrations/call-history")
+	public Map<String, Object> migrateCallHistory() throws ExecutionException, InterruptedException {
+		return adminService.migrateCallHistory();
+	}
+	
+	// One-off: moves activityLog arrays off user and counsellor profiles into the activity feed
+	@PostMapping("/migrations/activity-log")
+	public Map<String, Object> migrateActivityLog() throws ExecutionException, InterruptedException {
+		return adminService.migrateActivityLog();
+	}
+	
+	// One-off: moves transactions arrays off user and counsellor profiles into the wallet ledgers
+	@PostMapping("/migrations/wallet-transactions")
+	public Map<String, Object> migrateWalletTransactions() throws ExecutionException, InterruptedException {
+		return adminService.migrateWalletTransactions();
+	}
+	
+	// One-off: creates slot claims for active appointments booked before claims existed
+	@PostMapping("/migrations/appointment-slots")
+	public Map<String, Object> migrateAppointmentSlots() throws ExecutionException, InterruptedException {
+		return adminService.migrateAppointmentSlots();
+	}
+	
+	// One-off: sets startAt on appointments booked before it existed, for the time-range reads
+	@PostMapping("/migrations/appointment-start-times")
+	public Map<String, Object> migrateAppointmentStartTimes() throws ExecutionException, InterruptedException {
+		return adminService.migrateAppointmentStartTimes();
+	}
+	
 	@GetMapping("/{adminId}")
 	public Admin getAdminById(@PathVariable String adminId) throws ExecutionException, InterruptedException {	
 		return adminService.getAdminById(adminId);
@@ -1,10 +1,15 @@
 package com.catalyst.ProCounsellor.controller;
 
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.CallHistory;
+import com.catalyst.ProCounsellor.service.CallRecordService;
 import com.catalyst.ProCounsellor.service.CallService;
 
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,6 +19,9 @@ public class CallController {
     @Autowired
     private CallService callService;
 
+    @Autowired
+    private CallRecordService callRecordService;
+
     //Creates a new call with ongoing status.
     @PostMapping("/start")
     public String startCall(@RequestParam String callerId, @RequestParam String receiverId, @RequestParam String callType) {
@@ -31,6 +39,20 @@ public class CallController {
         callService.declinedCall(callId);
     }
     
+    // Calls the participant made or received, newest first. Pass nextCursor back as cursor for the next page.
+    @GetMapping("/history/{participantId}")
+    public ResponseEntity<CursorPage<CallHistory>> getCallHistory(@PathVariable String participantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(callRecordService.getCallHistory(participantId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
     //Stores SDP offer.
     @PostMapping("/{callId}/offer")
     public void saveCallOffer(@PathVariable String callId, @RequestBody Map<String, String> request) {
@@ -1,9 +1,20 @@
 package com.catalyst.ProCounsellor.controller;
 
+import com.catalyst.ProCounsellor.dto.AttachmentFinalizeRequest;
+import com.catalyst.ProCounsellor.dto.AttachmentFinalizeResult;
+import com.catalyst.ProCounsellor.dto.AttachmentUploadRequest;
+import com.catalyst.ProCounsellor.dto.ChatParticipant;
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.dto.InboxEntry;
 import com.catalyst.ProCounsellor.dto.MessageRequest;
+import com.catalyst.ProCounsellor.dto.ReadMarkerRequest;
+import com.catalyst.ProCounsellor.dto.SeenStatusRequest;
+import com.catalyst.ProCounsellor.exception.ChatNotFoundException;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.User;
 import com.catalyst.ProCounsellor.service.ChatService;
+import com.catalyst.ProCounsellor.service.InboxService;
+import com.catalyst.ProCounsellor.storage.SignedUpload;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +34,9 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private InboxService inboxService;
+
     @PostMapping("/start-chat")
     public ResponseEntity<?> startChat(@RequestParam String userId, @RequestParam String counsellorId) {
         try {
@@ -79,6 +93,36 @@ public class ChatController {
         }
     }
 
+    // Direct upload, step 1: get a signed URL and PUT the file to it
+    @PostMapping("/{chatId}/attachments/upload-url")
+    public ResponseEntity<?> requestAttachmentUpload(@PathVariable String chatId, @RequestBody AttachmentUploadRequest request) {
+        try {
+            SignedUpload upload = chatService.requestAttachmentUpload(chatId, request);
+            return ResponseEntity.ok(upload);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (IllegalAccessException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating upload URL.");
+        }
+    }
+
+    // Direct upload, step 2: record the message once the file is in storage
+    @PostMapping("/{chatId}/attachments/finalize")
+    public ResponseEntity<?> finalizeAttachment(@PathVariable String chatId, @RequestBody AttachmentFinalizeRequest request) {
+        try {
+            AttachmentFinalizeResult result = chatService.finalizeAttachment(chatId, request);
+            return ResponseEntity.status(result.isCreated() ? HttpStatus.CREATED : HttpStatus.OK).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (IllegalAccessException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error sending file.");
+        }
+    }
+
     @GetMapping("/{chatId}/messages")
     public CompletableFuture<ResponseEntity<List<Map<String, Object>>>> getChatMessages(@PathVariable String chatId) {
         // Call the service method and handle the result asynchronously
@@ -87,6 +131,16 @@ public class ChatController {
                 .exceptionally(ex -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));  // Return an empty body on error
     }
     
+    @GetMapping("/{chatId}/messages/page")
+    public CompletableFuture<ResponseEntity<CursorPage<Map<String, Object>>>> getChatMessagesPage(
+            @PathVariable String chatId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "50") int limit) {
+        return chatService.getChatMessagesPage(chatId, before, limit)
+                .thenApply(page -> ResponseEntity.ok(page))
+                .exceptionally(ex -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+    }
+    
     @GetMapping("/exists")
     public ResponseEntity<Boolean> checkChatExists(
             @RequestParam String userId,
@@ -124,6 +178,26 @@ public class ChatController {
         }
     }
     
+    @GetMapping("/user/{userId}/counsellors/participants")
+    public ResponseEntity<?> getCounsellorParticipantsForUser(@PathVariable String userId) {
+        try {
+            List<ChatParticipant> participants = chatService.getCounsellorParticipantsForUser(userId);
+            return ResponseEntity.ok(participants);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching counsellors.");
+        }
+    }
+
+    @GetMapping("/counsellor/{counsellorId}/users/participants")
+    public ResponseEntity<?> getUserParticipantsForCounsellor(@PathVariable String counsellorId) {
+        try {
+            List<ChatParticipant> participants = chatService.getUserParticipantsForCounsellor(counsellorId);
+            return ResponseEntity.ok(participants);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching users.");
+        }
+    }
+    
     @GetMapping("/{chatId}/messages/{messageId}/is-seen")
     public CompletableFuture<ResponseEntity<Boolean>> isMessageSeen(
             @PathVariable String chatId,
@@ -151,4 +225,60 @@ public class ChatController {
                     return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error marking message as seen.");
                 });
     }
+
+    // Marks every message up to messageId as read by readerId in one write
+    @PostMapping("/{chatId}/read-marker")
+    public CompletableFuture<ResponseEntity<?>> markReadUpTo(@PathVariable String chatId, @RequestBody ReadMarkerRequest request) {
+        return chatService.markReadUpTo(chatId, request.getReaderId(), request.getMessageId())
+                .<ResponseEntity<?>>thenApply(watermark -> ResponseEntity.ok(Collections.singletonMap("messageId", watermark)))
+                .exceptionally(ex -> {
+                    if (ex.getCause() instanceof IllegalArgumentException) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getCause().getMessage());
+                    }
+                    if (ex.getCause() instanceof ChatNotFoundException) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getCause().getMessage());
+                    }
+                    if (ex.getCause() instanceof IllegalAccessException) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getCause().getMessage());
+                    }
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating read marker.");
+                });
+    }
+
+    @GetMapping("/{chatId}/read-markers")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> getReadMarkers(@PathVariable String chatId) {
+        return chatService.getReadMarkers(chatId)
+                .thenApply(markers -> ResponseEntity.ok(markers))
+                .exceptionally(ex -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+    }
+
+    @PostMapping("/{chatId}/messages/seen-status")
+    public CompletableFuture<ResponseEntity<Map<String, Boolean>>> getSeenStatus(
+            @PathVariable String chatId,
+            @RequestBody SeenStatusRequest request) {
+        return chatService.getSeenStatus(chatId, request.getReaderId(), request.getMessageIds())
+                .thenApply(seen -> ResponseEntity.ok(seen))
+                .exceptionally(ex -> {
+                    if (ex.getCause() instanceof IllegalArgumentException) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+                    }
+                    if (ex.getCause() instanceof ChatNotFoundException) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+                    }
+                    if (ex.getCause() instanceof IllegalAccessException) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+                    }
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+                });
+    }
+
+    // Conversations with last message and unread count, most recent first
+    @GetMapping("/inbox/{participantId}")
+    public CompletableFuture<ResponseEntity<List<InboxEntry>>> getInbox(
+            @PathVariable String participantId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return inboxService.getInbox(participantId, Math.max(1, Math.min(limit, 200)))
+                .thenApply(entries -> ResponseEntity.ok(entries))
+                .exceptionally(ex -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null));
+    }
 }
@@ -1,6 +1,8 @@
 package com.catalyst.ProCounsellor.controller;
 
 import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,9 +22,15 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.catalyst.ProCounsellor.config.JwtUtil;
+import com.catalyst.ProCounsellor.dto.AvailableDay;
+import com.catalyst.ProCounsellor.dto.CounsellorSearchQuery;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.dto.CursorPage;
 import com.catalyst.ProCounsellor.model.AppointmentBooking;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.User;
+import com.catalyst.ProCounsellor.service.CounsellorAvailabilityService;
+import com.catalyst.ProCounsellor.service.CounsellorSearchService;
 import com.catalyst.ProCounsellor.service.CounsellorService;
 import com.catalyst.ProCounsellor.service.PhotoService;
 import com.catalyst.ProCounsellor.service.UserService;
@@ -42,6 +50,12 @@ public class CounsellorController {
 	@Autowired
 	private PhotoService photoService;
 	
+	@Autowired
+	private CounsellorAvailabilityService counsellorAvailabilityService;
+	
+	@Autowired
+	private CounsellorSearchService counsellorSearchService;
+	
 	@PatchMapping("/{counsellorId}")
     public ResponseEntity<?> updateCounsellorFields(
             @PathVariable String counsellorId,
@@ -115,6 +129,82 @@ public class CounsellorController {
         }
     }
 	
+	@GetMapping("/{counsellorId}/appointments/upcoming")
+	public ResponseEntity<?> getUpcomingAppointments(@PathVariable String counsellorId,
+	        @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit,
+	        HttpServletRequest request) {
+	    return appointmentPage(counsellorId, request, () -> counsellorService.getUpcomingAppointments(counsellorId, cursor, limit));
+	}
+	
+	@GetMapping("/{counsellorId}/appointments/past")
+	public ResponseEntity<?> getPastAppointments(@PathVariable String counsellorId,
+	        @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit,
+	        HttpServletRequest request) {
+	    return appointmentPage(counsellorId, request, () -> counsellorService.getPastAppointments(counsellorId, cursor, limit));
+	}
+	
+	@GetMapping("/{counsellorId}/appointments/between")
+	public ResponseEntity<?> getAppointmentsBetween(@PathVariable String counsellorId,
+	        @RequestParam String from, @RequestParam String to,
+	        @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit,
+	        HttpServletRequest request) {
+	    return appointmentPage(counsellorId, request,
+	            () -> counsellorService.getAppointmentsBetween(counsellorId, LocalDate.parse(from), LocalDate.parse(to), cursor, limit));
+	}
+	
+	private ResponseEntity<?> appointmentPage(String counsellorId, HttpServletRequest request, AppointmentPageQuery query) {
+	    try {
+	    	Counsellor counsellor = JwtUtil.getAuthenticatedCounsellor(request);
+
+	        if (!counsellor.getUserName().equals(counsellorId)) {
+	        	return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized access");
+	        }
+	        return ResponseEntity.ok(query.run());
+	    } catch (IllegalArgumentException | DateTimeException e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    } catch (Exception e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching appointments: " + e.getMessage());
+	    }
+	}
+	
+	private interface AppointmentPageQuery {
+	    CursorPage<AppointmentBooking> run() throws Exception;
+	}
+	
+	@PostMapping("/cancelAppointment")
+	public ResponseEntity<?> cancelAppointment(@RequestParam String counsellorId, @RequestParam String appointmentId, HttpServletRequest request) {
+	    try {
+	    	Counsellor counsellor = JwtUtil.getAuthenticatedCounsellor(request);
+
+	        if (!counsellor.getUserName().equals(counsellorId)) {
+	        	return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized access");
+	        }
+	        counsellorService.cancelAppointment(appointmentId, counsellorId);
+	        return ResponseEntity.ok(Map.of("message", "Appointment cancelled successfully"));
+	    } catch (Exception e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    }
+	}
+	
+	// Free slots for booking; defaults to the seven days starting today
+	@GetMapping("/{counsellorId}/availability")
+	public ResponseEntity<?> getAvailability(@PathVariable String counsellorId,
+	        @RequestParam(required = false) String from, @RequestParam(required = false) String to) {
+	    try {
+	        LocalDate fromDate = from != null ? LocalDate.parse(from) : LocalDate.now();
+	        LocalDate toDate = to != null ? LocalDate.parse(to) : fromDate.plusDays(6);
+	        List<AvailableDay> availability = counsellorAvailabilityService.getAvailability(counsellorId, fromDate, toDate);
+	        if (availability == null) {
+	            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Counsellor not found");
+	        }
+	        return ResponseEntity.ok(availability);
+	    } catch (IllegalArgumentException | DateTimeException e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    } catch (Exception e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching availability: " + e.getMessage());
+	    }
+	}
+	
 	@GetMapping("/getAppointmentById")
 	public ResponseEntity<AppointmentBooking> getAppointmentById(@RequestParam String counsellorId, @RequestParam String appointmentId, HttpServletRequest request) {
 	    try {
@@ -136,17 +226,43 @@ public class CounsellorController {
 	}
 	
 	@GetMapping("/all-counsellors")
-    public List<Counsellor> getAllCounsellors() {
-        return counsellorService.getAllCounsellors();
-    }
+	public ResponseEntity<?> getAllCounsellors(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit) {
+	    try {
+	        return ResponseEntity.ok(counsellorService.getAllCounsellors(cursor, limit));
+	    } catch (IllegalArgumentException e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    } catch (ExecutionException | InterruptedException e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching counsellors: " + e.getMessage());
+	    }
+	}
 	 
 	@GetMapping("/sorted-by-rating")
-	public List<Counsellor> getCounsellorsSortedByRating() {
-	    return counsellorService.getAllCounsellorsSortedByRating();
+	public ResponseEntity<?> getCounsellorsSortedByRating(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit) {
+	    try {
+	        return ResponseEntity.ok(counsellorService.getAllCounsellorsSortedByRating(cursor, limit));
+	    } catch (IllegalArgumentException e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    } catch (ExecutionException | InterruptedException e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching counsellors: " + e.getMessage());
+	    }
+	}
+	 
+	// Faceted discovery, answered from the in-memory index: filters come from the query parameters of CounsellorSearchQuery
+	@GetMapping("/search")
+	public ResponseEntity<?> searchCounsellors(CounsellorSearchQuery query,
+	        @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit) {
+	    try {
+	        return ResponseEntity.ok(counsellorSearchService.search(query, cursor, limit));
+	    } catch (IllegalArgumentException e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    } catch (InterruptedException e) {
+	        Thread.currentThread().interrupt();
+	        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+	    }
 	}
 	 
 	@GetMapping("/counsellors-online")
-	public List<Counsellor> getCounsellorsWithOnlineState() throws InterruptedException, ExecutionException {
+	public List<CounsellorSummary> getCounsellorsWithOnlineState() throws InterruptedException, ExecutionException {
 	     return counsellorService.getOnlineCounsellors();
 	}
 	
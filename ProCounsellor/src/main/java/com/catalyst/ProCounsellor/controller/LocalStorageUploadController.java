@@ -0,0 +1,47 @@
+package com.catalyst.ProCounsellor.controller;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.catalyst.ProCounsellor.storage.local.LocalObjectStorage;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Receives signed uploads when the local storage stand-in is active, playing the
+ * part Cloud Storage plays in production.
+ */
+@RestController
+@ConditionalOnProperty(name = "procounsellor.storage", havingValue = "local")
+public class LocalStorageUploadController {
+
+    private static final String PREFIX = "/local-storage-upload/";
+
+    @Autowired
+    private LocalObjectStorage localObjectStorage;
+
+    @PutMapping(PREFIX + "**")
+    public ResponseEntity<?> upload(HttpServletRequest request,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            @RequestParam long expires,
+            @RequestParam long maxBytes,
+            @RequestParam String signature) {
+        String path = request.getRequestURI().substring(request.getRequestURI().indexOf(PREFIX) + PREFIX.length());
+        try {
+            localObjectStorage.acceptSignedUpload(path, contentType, maxBytes, expires, signature, request.getInputStream());
+            return ResponseEntity.ok().build();
+        } catch (SecurityException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error storing upload.");
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.catalyst.ProCounsellor.controller;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -23,19 +24,17 @@ import org.springframework.web.multipart.MultipartFile;
 import com.catalyst.ProCounsellor.config.JwtUtil;
 import com.catalyst.ProCounsellor.dto.AppointmentBookingRequest;
 import com.catalyst.ProCounsellor.dto.CounsellorDataInUserDashboard;
+import com.catalyst.ProCounsellor.dto.CursorPage;
 import com.catalyst.ProCounsellor.exception.UserNotFoundException;
 import com.catalyst.ProCounsellor.model.AppointmentBooking;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.User;
+import com.catalyst.ProCounsellor.repository.CourseRepository;
+import com.catalyst.ProCounsellor.repository.StatesRepository;
 import com.catalyst.ProCounsellor.service.CounsellorService;
 import com.catalyst.ProCounsellor.service.PhotoService;
 import com.catalyst.ProCounsellor.service.UserService;
-import com.google.api.core.ApiFuture;
 import com.google.api.gax.rpc.NotFoundException;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.firebase.cloud.FirestoreClient;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -51,6 +50,12 @@ public class UserController {
 	
 	@Autowired
 	private PhotoService photoService;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private StatesRepository statesRepository;
 	
 	
 	@PatchMapping("/{userId}")
@@ -127,6 +132,21 @@ public class UserController {
         }
     }
     
+    @PostMapping("/cancelAppointment")
+    public ResponseEntity<?> cancelAppointment(@RequestParam String userId, @RequestParam String appointmentId, HttpServletRequest request) {
+        try {
+	        User user = JwtUtil.getAuthenticatedUser(request);
+
+	        if (!user.getUserName().equals(userId)) {
+	            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized access");
+	        }
+            userService.cancelAppointment(appointmentId, userId);
+            return ResponseEntity.ok(Map.of("message", "Appointment cancelled successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/getUserAllAppointments")
     public ResponseEntity<?> getAppointmentsByUserId(@RequestParam String userId, HttpServletRequest request) throws Exception {
     	User user = JwtUtil.getAuthenticatedUser(request);
@@ -150,6 +170,48 @@ public class UserController {
         return ResponseEntity.ok(upcomingAppointments);
     }
     
+    @GetMapping("/{userId}/appointments/upcoming")
+    public ResponseEntity<?> getUpcomingAppointmentsPage(@PathVariable String userId,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest request) {
+        return appointmentPage(userId, request, () -> userService.getUpcomingAppointments(userId, cursor, limit));
+    }
+    
+    @GetMapping("/{userId}/appointments/past")
+    public ResponseEntity<?> getPastAppointmentsPage(@PathVariable String userId,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest request) {
+        return appointmentPage(userId, request, () -> userService.getPastAppointments(userId, cursor, limit));
+    }
+    
+    @GetMapping("/{userId}/appointments/between")
+    public ResponseEntity<?> getAppointmentsBetween(@PathVariable String userId,
+            @RequestParam String from, @RequestParam String to,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest request) {
+        return appointmentPage(userId, request,
+                () -> userService.getAppointmentsBetween(userId, LocalDate.parse(from), LocalDate.parse(to), cursor, limit));
+    }
+    
+    private ResponseEntity<?> appointmentPage(String userId, HttpServletRequest request, AppointmentPageQuery query) {
+        try {
+            User user = JwtUtil.getAuthenticatedUser(request);
+
+            if (!user.getUserName().equals(userId)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized access");
+            }
+            return ResponseEntity.ok(query.run());
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching appointments: " + e.getMessage());
+        }
+    }
+    
+    private interface AppointmentPageQuery {
+        CursorPage<AppointmentBooking> run() throws Exception;
+    }
+    
 	@GetMapping("/selectedCounsellorAppointments")
     public ResponseEntity<List<AppointmentBooking>> getAppointmentsByCounsellor(
     		@RequestParam String userId, @RequestParam String counsellorId, HttpServletRequest request) {
@@ -209,9 +271,15 @@ public class UserController {
     }
 	
 	@GetMapping("/all-users")
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
-    }
+	public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit) {
+	    try {
+	        return ResponseEntity.ok(userService.getAllUsers(cursor, limit));
+	    } catch (IllegalArgumentException e) {
+	        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+	    } catch (ExecutionException | InterruptedException e) {
+	        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error fetching users: " + e.getMessage());
+	    }
+	}
 	
 	@PostMapping("/{userId}/subscribe/{counsellorId}")
 	public ResponseEntity<String> subscribeToCounsellor(@PathVariable String userId, @PathVariable String counsellorId) {
@@ -289,28 +357,12 @@ public class UserController {
 	
 	@GetMapping("/course-types")
 	public ResponseEntity<List<String>> getCourseTypes() throws Exception {
-	    Firestore db = FirestoreClient.getFirestore();
-	    ApiFuture<QuerySnapshot> future = db.collection("courseTypes").get();
-	    List<String> courses = new ArrayList<>();
-
-	    for (DocumentSnapshot doc : future.get().getDocuments()) {
-	        courses.add(doc.getString("name"));
-	    }
-
-	    return ResponseEntity.ok(courses);
+	    return ResponseEntity.ok(courseRepository.findAllNames());
 	}
 
 	@GetMapping("/states")
 	public ResponseEntity<List<String>> getStates() throws Exception {
-	    Firestore db = FirestoreClient.getFirestore();
-	    ApiFuture<QuerySnapshot> future = db.collection("states").get();
-	    List<String> states = new ArrayList<>();
-
-	    for (DocumentSnapshot doc : future.get().getDocuments()) {
-	        states.add(doc.getString("name"));
-	    }
-
-	    return ResponseEntity.ok(states);
+	    return ResponseEntity.ok(statesRepository.findAllNames());
 	}
 	
 	@PostMapping("/{userId1}/add-friend/{userId2}")
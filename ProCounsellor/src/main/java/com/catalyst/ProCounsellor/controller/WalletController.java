@@ -1,8 +1,13 @@
 package com.catalyst.ProCounsellor.controller;
 
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.dto.WalletBalance;
+import com.catalyst.ProCounsellor.model.LedgerEntry;
+import com.catalyst.ProCounsellor.service.WalletLedgerService;
 import com.catalyst.ProCounsellor.service.WalletService;
 import com.razorpay.RazorpayException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,6 +17,9 @@ public class WalletController {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
     @PostMapping("/add")
     public ResponseEntity<String> addFunds(@RequestParam String userName, @RequestParam double amount) {
         try {
@@ -41,4 +49,28 @@ public class WalletController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<WalletBalance> getBalance(@PathVariable String accountId) {
+        try {
+            WalletBalance balance = walletLedgerService.getBalance(accountId);
+            return balance != null ? ResponseEntity.ok(balance) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Ledger entries newest first, each with the balance after it. Pass nextCursor back as cursor for the next page.
+    @GetMapping("/{accountId}/statement")
+    public ResponseEntity<CursorPage<LedgerEntry>> getStatement(@PathVariable String accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(walletLedgerService.getStatement(accountId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
\ No newline at end of file
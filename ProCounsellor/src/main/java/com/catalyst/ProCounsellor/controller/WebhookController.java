@@ -1,33 +1,28 @@
 package com.catalyst.ProCounsellor.controller;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.catalyst.ProCounsellor.service.WalletService;
+import com.catalyst.ProCounsellor.service.PaymentWebhookService;
 import com.razorpay.Utils;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.io.BufferedReader;
 
 @RestController
 @RequestMapping("/api/payment")
 public class WebhookController {
     @Autowired
-    private WalletService walletService;
+    private PaymentWebhookService paymentWebhookService;
 
+    // Verifies and stores the event, then acknowledges; the wallet is credited by the webhook workers
     @PostMapping("/webhook")
-    public ResponseEntity<String> handleWebhook(HttpServletRequest request) {
+    public ResponseEntity<String> handleWebhook(@RequestBody String payload, HttpServletRequest request) {
         try {
-            StringBuilder jsonPayload = new StringBuilder();
-            String line;
-            BufferedReader reader = request.getReader();
-            while ((line = reader.readLine()) != null) {
-                jsonPayload.append(line);
-            }
-
-            String payload = jsonPayload.toString();
+            // The raw body, byte for byte, is what the signature covers
             JSONObject webhookData = new JSONObject(payload);
 
             // Optional: Validate webhook signature
@@ -54,8 +49,8 @@ public class WebhookController {
                 String userName = (notes != null && notes.has("userName")) ? notes.getString("userName") : null;
 
                 if (userName != null) {
-                    walletService.addFunds(userName, amount, paymentId); // ✅ Pass paymentId
-                    return ResponseEntity.ok("Wallet updated successfully");
+                    boolean accepted = paymentWebhookService.accept(paymentId, event, userName, amount);
+                    return ResponseEntity.ok(accepted ? "Webhook accepted" : "Duplicate webhook ignored");
                 } else {
                     System.out.println("⚠️ UserName missing in notes");
                     return ResponseEntity.status(400).body("UserName missing in notes");
@@ -64,9 +59,12 @@ public class WebhookController {
 
             // Log other events if needed
             System.out.println("Unhandled event type: " + event);
+        } catch (JSONException e) {
+            return ResponseEntity.badRequest().body("Malformed webhook payload");
         } catch (Exception e) {
+            // Not stored: a 5xx makes Razorpay deliver it again
             e.printStackTrace();
-            return ResponseEntity.badRequest().body("Error processing webhook");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error processing webhook");
         }
         return ResponseEntity.ok("Webhook received");
     }
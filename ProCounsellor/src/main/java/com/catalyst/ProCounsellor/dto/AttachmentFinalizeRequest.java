@@ -0,0 +1,12 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+@Data
+public class AttachmentFinalizeRequest {
+    private String senderId;
+    // objectPath returned by the upload-url call
+    private String objectPath;
+    private String fileName;
+    private String receiverFcmToken;
+}
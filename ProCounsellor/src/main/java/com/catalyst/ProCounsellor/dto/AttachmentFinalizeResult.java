@@ -0,0 +1,11 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+@Data
+public class AttachmentFinalizeResult {
+    private String messageId;
+    private String fileUrl;
+    // false when the attachment had already been finalized and the existing message is returned
+    private boolean created;
+}
@@ -0,0 +1,10 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+@Data
+public class AttachmentUploadRequest {
+    private String senderId;
+    private String fileName;
+    private String contentType;
+}
@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/** Free slot start times (HH:mm) of one counsellor working day, in ascending order. */
+@Data
+public class AvailableDay {
+    private String date;
+    private String weekday;
+    private List<String> slots;
+}
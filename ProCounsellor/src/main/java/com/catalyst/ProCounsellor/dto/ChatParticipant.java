@@ -0,0 +1,19 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+/**
+ * Compact profile of the other side of a chat, used by the chat list screens
+ * instead of the full User/Counsellor document.
+ */
+@Data
+public class ChatParticipant {
+    private String userName;
+    private String role;
+    private String firstName;
+    private String lastName;
+    private String photo;
+    private String photoSmall;
+    private String state; // ONLINE / OFFLINE, from the presence index
+    private String fcmToken;
+}
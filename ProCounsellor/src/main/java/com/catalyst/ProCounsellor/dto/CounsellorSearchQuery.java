@@ -0,0 +1,16 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+/** Facet filters for counsellor discovery; unset fields do not filter. */
+@Data
+public class CounsellorSearchQuery {
+    private String expertise;
+    private String language;
+    private String state;
+    private Double minRatePerMinute;
+    private Double maxRatePerMinute;
+    private Integer minRating;
+    private Boolean verified;
+    private String sort; // rating (default), price_asc or price_desc
+}
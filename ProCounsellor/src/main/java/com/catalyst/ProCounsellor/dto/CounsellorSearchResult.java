@@ -0,0 +1,19 @@
+package com.catalyst.ProCounsellor.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * One page of counsellor search results. {@code total} counts every match, and
+ * {@code facets} maps each facet field to value counts, computed with all other
+ * filters applied but not the facet's own.
+ */
+@Data
+public class CounsellorSearchResult {
+    private List<CounsellorSummary> items;
+    private String nextCursor;
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+}
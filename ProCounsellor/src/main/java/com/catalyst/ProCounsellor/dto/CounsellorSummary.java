@@ -0,0 +1,26 @@
+package com.catalyst.ProCounsellor.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Listing-card view of a counsellor, served by the list and search endpoints
+ * instead of the full Counsellor document.
+ */
+@Data
+public class CounsellorSummary {
+    private String userName;
+    private String firstName;
+    private String lastName;
+    private String photoUrlSmall;
+    private String organisationName;
+    private String experience;
+    private Integer rating;
+    private Double ratePerMinute;
+    private Double ratePerYear;
+    private List<String> expertise;
+    private List<String> languagesKnow;
+    private List<String> stateOfCounsellor;
+    private boolean verified;
+}
@@ -0,0 +1,19 @@
+package com.catalyst.ProCounsellor.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/** One page of a cursor-paginated listing. Pass nextCursor back to get the following page; null means there is none. */
+@Data
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public static <T> CursorPage<T> of(List<T> items, String nextCursor) {
+        CursorPage<T> page = new CursorPage<>();
+        page.setItems(items);
+        page.setNextCursor(nextCursor);
+        return page;
+    }
+}
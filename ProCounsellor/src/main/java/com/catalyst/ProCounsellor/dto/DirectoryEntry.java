@@ -0,0 +1,26 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+/**
+ * Name and photo of a user or counsellor, as held by the profile directory.
+ * {@code role} is null when no profile exists for the id.
+ */
+@Data
+public class DirectoryEntry {
+    private String userName;
+    private String role;
+    private String firstName;
+    private String lastName;
+    private String photoUrl;
+    private String smallPhotoUrl;
+
+    public boolean isFound() {
+        return role != null;
+    }
+
+    /** "First Last", or the userName when either part is missing. */
+    public String getDisplayName() {
+        return firstName != null && lastName != null ? firstName + " " + lastName : userName;
+    }
+}
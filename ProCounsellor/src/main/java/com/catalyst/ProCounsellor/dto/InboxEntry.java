@@ -0,0 +1,18 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+/** One conversation in a participant's inbox, kept at inboxes/{participantId}/{chatId}. */
+@Data
+public class InboxEntry {
+    private String chatId;
+    private String peerId;
+    private String peerName;
+    private String peerPhotoSmall;
+    private String peerRole;
+    private String lastMessageId;
+    private String lastMessage;
+    private String lastSenderId;
+    private Long lastMessageAt;
+    private Integer unreadCount;
+}
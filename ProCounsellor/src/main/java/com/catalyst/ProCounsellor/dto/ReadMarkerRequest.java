@@ -0,0 +1,10 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+@Data
+public class ReadMarkerRequest {
+    private String readerId;
+    // Newest message the reader has seen; everything up to and including it counts as read
+    private String messageId;
+}
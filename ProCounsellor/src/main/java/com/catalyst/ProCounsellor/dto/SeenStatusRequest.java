@@ -0,0 +1,12 @@
+package com.catalyst.ProCounsellor.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class SeenStatusRequest {
+    // Participant whose read state is asked for, usually the other side of the chat
+    private String readerId;
+    private List<String> messageIds;
+}
@@ -0,0 +1,17 @@
+package com.catalyst.ProCounsellor.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/** Listing view of a user; the full User document is only served by the single-user endpoints. */
+@Data
+public class UserSummary {
+    private String userName;
+    private String firstName;
+    private String lastName;
+    private String photoSmall;
+    private String interestedCourse;
+    private List<String> userInterestedStateOfCounsellors;
+    private List<String> languagesKnow;
+}
@@ -0,0 +1,10 @@
+package com.catalyst.ProCounsellor.dto;
+
+import lombok.Data;
+
+@Data
+public class WalletBalance {
+    private String accountId;
+    private long balance;
+    private long lastSeq; // seq of the latest ledger entry, 0 if none
+}
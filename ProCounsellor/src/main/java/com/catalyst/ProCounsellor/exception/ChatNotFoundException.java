@@ -0,0 +1,7 @@
+package com.catalyst.ProCounsellor.exception;
+
+public class ChatNotFoundException extends RuntimeException {
+    public ChatNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,228 @@
+package com.catalyst.ProCounsellor.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Decode, downscale and JPEG-encode helpers for photo variants. Downscaling halves
+ * the image with bilinear filtering until it is within 2x of the target and then
+ * does one final step, which is close to area-averaging quality at a fraction of
+ * the cost of {@link java.awt.Image#SCALE_SMOOTH}.
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    public static BufferedImage decode(byte[] bytes) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+        if (image == null) {
+            throw new IOException("Unsupported or corrupt image");
+        }
+        return image;
+    }
+
+    /**
+     * Decodes at reduced resolution when the image is much larger than needed: rows
+     * and columns are skipped while reading so the longer edge stays at least twice
+     * {@code minEdge}. For a 12MP camera photo this trims the decode and makes the
+     * following resize several times cheaper, since it starts from far fewer pixels.
+     */
+    public static BufferedImage decode(byte[] bytes, int minEdge) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported or corrupt image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longerEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longerEdge / (2 * minEdge));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * EXIF orientation (1 to 8) of a JPEG, or 1 when there is none. ImageIO decodes
+     * pixels as stored and ignores this tag, so phone photos taken in portrait come out
+     * sideways unless {@link #applyOrientation} is used.
+     */
+    public static int readOrientation(byte[] bytes) {
+        if (bytes.length < 4 || (bytes[0] & 0xFF) != 0xFF || (bytes[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= bytes.length && (bytes[pos] & 0xFF) == 0xFF) {
+            int marker = bytes[pos + 1] & 0xFF;
+            // Start of scan: no metadata segments after this
+            if (marker == 0xDA || marker == 0xD9) {
+                break;
+            }
+            int length = readShort(bytes, pos + 2, true);
+            int segment = pos + 4;
+            if (marker == 0xE1 && segment + 6 <= bytes.length && bytes[segment] == 'E' && bytes[segment + 1] == 'x'
+                    && bytes[segment + 2] == 'i' && bytes[segment + 3] == 'f' && bytes[segment + 4] == 0 && bytes[segment + 5] == 0) {
+                return readTiffOrientation(bytes, segment + 6, Math.min(bytes.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    /** Rotates and/or mirrors the image so it displays upright for the given EXIF orientation. */
+    public static BufferedImage applyOrientation(BufferedImage source, int orientation) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        AffineTransform transform;
+        switch (orientation) {
+            case 2: transform = new AffineTransform(-1, 0, 0, 1, width, 0); break;
+            case 3: transform = new AffineTransform(-1, 0, 0, -1, width, height); break;
+            case 4: transform = new AffineTransform(1, 0, 0, -1, 0, height); break;
+            case 5: transform = new AffineTransform(0, 1, 1, 0, 0, 0); break;
+            case 6: transform = new AffineTransform(0, 1, -1, 0, height, 0); break;
+            case 7: transform = new AffineTransform(0, -1, -1, 0, height, width); break;
+            case 8: transform = new AffineTransform(0, -1, 1, 0, 0, width); break;
+            default: return source;
+        }
+        boolean swapsEdges = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swapsEdges ? height : width, swapsEdges ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, oriented.getWidth(), oriented.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    /**
+     * Scales the image so its longer edge is at most {@code maxEdge} pixels, keeping
+     * the aspect ratio. Images that are already small enough are only converted to
+     * opaque RGB (transparent areas become white), never upscaled.
+     */
+    public static BufferedImage resize(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = toRgb(source);
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = scale(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            current = scale(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    public static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Orientation tag (0x0112) of IFD0 in the TIFF structure starting at tiff
+    private static int readTiffOrientation(byte[] bytes, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean bigEndian;
+        if (bytes[tiff] == 'M' && bytes[tiff + 1] == 'M') {
+            bigEndian = true;
+        } else if (bytes[tiff] == 'I' && bytes[tiff + 1] == 'I') {
+            bigEndian = false;
+        } else {
+            return 1;
+        }
+        long ifd = tiff + (readInt(bytes, tiff + 4, bigEndian) & 0xFFFFFFFFL);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readShort(bytes, (int) ifd, bigEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + 12 * i;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(bytes, entry, bigEndian) == 0x0112) {
+                int orientation = readShort(bytes, entry + 8, bigEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] bytes, int pos, boolean bigEndian) {
+        int first = bytes[pos] & 0xFF;
+        int second = bytes[pos + 1] & 0xFF;
+        return bigEndian ? (first << 8) | second : (second << 8) | first;
+    }
+
+    private static int readInt(byte[] bytes, int pos, boolean bigEndian) {
+        return bigEndian
+                ? (readShort(bytes, pos, true) << 16) | readShort(bytes, pos + 2, true)
+                : (readShort(bytes, pos + 2, false) << 16) | readShort(bytes, pos, false);
+    }
+
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(source, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -1,11 +1,19 @@
 package com.catalyst.ProCounsellor.model;
 
 import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.DocumentId;
 
 import lombok.Data;
 
 @Data
 public class ActivityLog {
+    @DocumentId
+    private String id;
+
+    private String recipientId;
+    private String actorId;
+    private String type;
     private String activity;
     private Timestamp timestamp;
+    private long createdAt; // epoch millis, the feed's sort key
 }
@@ -16,6 +16,7 @@ public class AppointmentBooking {
     private String date; // Format: yyyy-MM-dd
     private String startTime; // Format: HH:mm
     private String endTime;   // Format: HH:mm
+    private Long startAt; // epoch millis of date + startTime, the range-query sort key
 
     private String mode; // e.g., "call", "video", "offline"
     private String status; // "booked", "cancelled", "reschedule,"completed","user didnt come"
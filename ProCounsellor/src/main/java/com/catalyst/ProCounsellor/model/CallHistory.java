@@ -5,6 +5,7 @@ import com.google.cloud.firestore.annotation.DocumentId;
 import lombok.Data;
 
 import java.util.Date;
+import java.util.List;
 
 @Data
 public class CallHistory {
@@ -19,4 +20,5 @@ public class CallHistory {
     private long endTime; 
     private String duration; // Change from int to String
     private String callType;
+    private List<String> participants; // callerId and receiverId, for the per-participant history query
 }
\ No newline at end of file
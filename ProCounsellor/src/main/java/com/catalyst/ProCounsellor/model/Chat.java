@@ -1,16 +1,21 @@
 package com.catalyst.ProCounsellor.model;
 
 import java.util.Date;
+import java.util.List;
 
+import com.google.cloud.firestore.annotation.DocumentId;
 import com.google.cloud.firestore.annotation.ServerTimestamp;
 
 import lombok.Data;
 
 @Data
 public class Chat {
-	private String id; // Firestore document ID
+	@DocumentId
+	private String id;
     private String userId;
-    private String counselorId;
+    private String counsellorId;
+    private String userId2; // set for user-to-user chats
+    private List<String> participants; // sorted ids, user-to-user chats only
 
     @ServerTimestamp
     private Date createdAt;
@@ -19,15 +19,13 @@ public class Counsellor {
     private String description;// to be written in third party
     private String email;
     private Long walletAmount;
-    private List<Transaction> transactions;
     private BankDetails bankDetails;
     private String photoUrl;
     private String photoUrlSmall;
+    private String photoUrlMedium;
     private String password;
     private String organisationName;
     private String experience;
-    private List<ActivityLog> activityLog;
-    private List<CallHistory> callHistory;
     private List<String> stateOfCounsellor;
     private List<Map<String,String>> chatIdsCreatedForCounsellor;
     private Double ratePerYear;
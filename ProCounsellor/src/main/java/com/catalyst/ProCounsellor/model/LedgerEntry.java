@@ -0,0 +1,23 @@
+package com.catalyst.ProCounsellor.model;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+
+import lombok.Data;
+
+/** One wallet transaction, stored under wallets/{accountId}/ledger. */
+@Data
+public class LedgerEntry {
+    @DocumentId
+    private String id;
+
+    private long seq; // per-account, increasing; migrated history uses seq <= 0
+    private String type; // "credit" or "debit"
+    private long amount;
+    private long balanceAfter;
+    private long timestamp;
+    private String description;
+    private String counterpartyId;
+    private String paymentId; // Razorpay payment, for credits
+    private String payoutId; // Razorpay payout, for withdrawals
+    private String reversesEntryId; // for reversals, the entry this one undoes
+}
@@ -0,0 +1,25 @@
+package com.catalyst.ProCounsellor.model;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+
+import lombok.Data;
+
+/** A verified gateway webhook waiting to be applied, keyed by payment id so redeliveries collapse. */
+@Data
+public class PaymentEvent {
+    public static final String PENDING = "pending";
+    public static final String APPLIED = "applied";
+    public static final String FAILED = "failed";
+
+    @DocumentId
+    private String paymentId;
+
+    private String event;
+    private String userName;
+    private double amount;
+    private String status;
+    private int attempts;
+    private long receivedAt;
+    private long processedAt;
+    private String lastError;
+}
@@ -19,13 +19,11 @@ public class User {
     private String email;   
     private String password;
     private Long walletAmount;
-    private List<Transaction> transactions;
     private BankDetails bankDetails;
     private String role;
-    private List<ActivityLog> activityLog;
-    private List<CallHistory> callHistory;
     private String photo;
     private String photoSmall;
+    private String photoMedium;
     private List<String> userInterestedStateOfCounsellors;
     //mandatory field
     private String interestedCourse; //right now, allowing only one degree interest per user. //Aligning with counsellor's expertise
@@ -0,0 +1,50 @@
+package com.catalyst.ProCounsellor.notification;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.firebase.ErrorCode;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+
+/**
+ * Sends each message of a batch with its own FCM v1 request. The legacy batch
+ * endpoint behind {@code sendAll} has been shut down, and {@code sendEach} needs
+ * firebase-admin 9.2.0; this runs on the dispatcher's workers, so the round trips
+ * stay off the request thread either way.
+ */
+public class FcmPushSender implements PushSender {
+
+    private static final Set<MessagingErrorCode> RETRYABLE =
+            EnumSet.of(MessagingErrorCode.UNAVAILABLE, MessagingErrorCode.INTERNAL, MessagingErrorCode.QUOTA_EXCEEDED);
+    // Errors without an FCM-specific code, such as timeouts and connection failures
+    private static final Set<ErrorCode> RETRYABLE_PLATFORM =
+            EnumSet.of(ErrorCode.UNAVAILABLE, ErrorCode.INTERNAL, ErrorCode.DEADLINE_EXCEEDED, ErrorCode.UNKNOWN);
+
+    private final FirebaseMessaging messaging;
+
+    public FcmPushSender(FirebaseApp firebaseApp) {
+        this.messaging = FirebaseMessaging.getInstance(firebaseApp);
+    }
+
+    @Override
+    public List<PushResult> sendBatch(List<Message> messages) {
+        List<PushResult> results = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                results.add(PushResult.sent(messaging.send(message)));
+            } catch (FirebaseMessagingException e) {
+                boolean retryable = e.getMessagingErrorCode() != null
+                        ? RETRYABLE.contains(e.getMessagingErrorCode())
+                        : RETRYABLE_PLATFORM.contains(e.getErrorCode());
+                results.add(PushResult.failed(e.getMessage(), retryable));
+            }
+        }
+        return results;
+    }
+}
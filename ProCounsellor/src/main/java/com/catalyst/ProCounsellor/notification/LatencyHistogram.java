@@ -0,0 +1,43 @@
+package com.catalyst.ProCounsellor.notification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Lock-free latency histogram with fixed millisecond buckets, for the admin stats endpoints. */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MILLIS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < BOUNDS_MILLIS.length && millis > BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMillis.addAndGet(millis);
+        maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long n = count.get();
+        result.put("count", n);
+        result.put("meanMillis", n > 0 ? (double) totalMillis.get() / n : 0.0);
+        result.put("maxMillis", maxMillis.get());
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            histogram.put("le" + BOUNDS_MILLIS[i], buckets.get(i));
+        }
+        histogram.put("gt" + BOUNDS_MILLIS[BOUNDS_MILLIS.length - 1], buckets.get(BOUNDS_MILLIS.length));
+        result.put("buckets", histogram);
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+package com.catalyst.ProCounsellor.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.firebase.messaging.Message;
+
+/**
+ * Stand-in for FCM that accepts every message after a configurable per-batch
+ * delay. Used for local runs and dispatcher throughput tests; nothing leaves the process.
+ */
+public class LocalPushSender implements PushSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPushSender.class);
+
+    private final long batchLatencyMillis;
+    private final long jitterMillis;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LocalPushSender(long batchLatencyMillis, long jitterMillis) {
+        this.batchLatencyMillis = batchLatencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    @Override
+    public List<PushResult> sendBatch(List<Message> messages) throws InterruptedException {
+        long delay = batchLatencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+        List<PushResult> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            results.add(PushResult.sent("local-" + sequence.incrementAndGet()));
+        }
+        logger.debug("Accepted {} push messages locally", messages.size());
+        return results;
+    }
+
+    public long getSentCount() {
+        return sequence.get();
+    }
+}
@@ -0,0 +1,208 @@
+package com.catalyst.ProCounsellor.notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.firebase.messaging.Message;
+
+/**
+ * Takes push delivery off the request thread. Messages go into a bounded queue;
+ * worker threads drain it in batches of up to {@link PushSender#MAX_BATCH_SIZE}
+ * and hand each batch to the {@link PushSender}. Transient failures are retried
+ * with exponential backoff and jitter; when the queue is full new messages are
+ * dropped (and counted) rather than blocking the caller.
+ */
+public class PushDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushDispatcher.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final PushSender sender;
+    private final BlockingQueue<PendingPush> queue;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService retryScheduler;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+
+    public PushDispatcher(PushSender sender, int queueCapacity, int workerCount, int maxAttempts,
+            long initialBackoffMillis, long maxBackoffMillis) {
+        this.sender = sender;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "push-dispatcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "push-dispatcher-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * Queues a message for delivery and returns immediately. Returns false if the
+     * queue is full or the dispatcher is shutting down, in which case the message is dropped.
+     */
+    public boolean dispatch(Message message) {
+        if (message == null) {
+            return false;
+        }
+        if (running && queue.offer(new PendingPush(message))) {
+            enqueued.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        logger.warn("Push queue full or closed, dropping notification");
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueRemainingCapacity", queue.remainingCapacity());
+        stats.put("pendingRetries", pendingRetries.get());
+        stats.put("enqueued", enqueued.get());
+        stats.put("sent", sent.get());
+        stats.put("failed", failed.get());
+        stats.put("retried", retried.get());
+        stats.put("dropped", dropped.get());
+        stats.put("batches", batches.get());
+        stats.put("batchLatency", batchLatency.snapshot());
+        stats.put("deliveryLatency", deliveryLatency.snapshot());
+        return stats;
+    }
+
+    /** Stops accepting messages and gives the workers a bounded time to flush the queue. */
+    public void shutdown() {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Push dispatcher stopped with {} notifications still queued", queue.size());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingPush> batch = new ArrayList<>(PushSender.MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPush first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, PushSender.MAX_BATCH_SIZE - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Push dispatcher worker error: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingPush> batch) throws InterruptedException {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingPush push : batch) {
+            messages.add(push.message);
+        }
+        batches.incrementAndGet();
+        long start = System.nanoTime();
+        List<PushResult> results;
+        try {
+            results = sender.sendBatch(messages);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("Push batch of {} failed: {}", batch.size(), e.getMessage());
+            results = null;
+        } finally {
+            batchLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingPush push = batch.get(i);
+            // A batch that failed as a whole (network, auth refresh) is treated as transient
+            PushResult result = results != null && i < results.size() ? results.get(i) : PushResult.failed("batch failed", true);
+            if (result.isSuccess()) {
+                sent.incrementAndGet();
+                deliveryLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - push.enqueuedAtNanos));
+            } else if (result.isRetryable() && push.attempts + 1 < maxAttempts && running) {
+                scheduleRetry(push);
+            } else {
+                failed.incrementAndGet();
+                logger.warn("Dropping push notification after {} attempt(s): {}", push.attempts + 1, result.getError());
+            }
+        }
+    }
+
+    private void scheduleRetry(PendingPush push) {
+        push.attempts++;
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(push.attempts - 1, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        retried.incrementAndGet();
+        pendingRetries.incrementAndGet();
+        retryScheduler.schedule(() -> {
+            pendingRetries.decrementAndGet();
+            if (!queue.offer(push)) {
+                dropped.incrementAndGet();
+                logger.warn("Push queue full, dropping retried notification");
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static class PendingPush {
+        final Message message;
+        final long enqueuedAtNanos = System.nanoTime();
+        int attempts;
+
+        PendingPush(Message message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.catalyst.ProCounsellor.notification;
+
+import lombok.Data;
+
+@Data
+public class PushResult {
+    private boolean success;
+    private String messageId;
+    private String error;
+    // Transient failures (throttling, backend errors) are worth another attempt
+    private boolean retryable;
+
+    public static PushResult sent(String messageId) {
+        PushResult result = new PushResult();
+        result.setSuccess(true);
+        result.setMessageId(messageId);
+        return result;
+    }
+
+    public static PushResult failed(String error, boolean retryable) {
+        PushResult result = new PushResult();
+        result.setError(error);
+        result.setRetryable(retryable);
+        return result;
+    }
+}
@@ -0,0 +1,17 @@
+package com.catalyst.ProCounsellor.notification;
+
+import java.util.List;
+
+import com.google.firebase.messaging.Message;
+
+/**
+ * Delivers a batch of push messages. Implementations return one result per
+ * message, in the same order, and only throw when the whole batch failed.
+ */
+public interface PushSender {
+
+    /** Largest batch accepted by {@link #sendBatch}. */
+    int MAX_BATCH_SIZE = 500;
+
+    List<PushResult> sendBatch(List<Message> messages) throws Exception;
+}
@@ -0,0 +1,235 @@
+package com.catalyst.ProCounsellor.notification;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.eatthepath.pushy.apns.ApnsClient;
+import com.eatthepath.pushy.apns.ApnsClientBuilder;
+import com.eatthepath.pushy.apns.ApnsClientMetricsListener;
+import com.eatthepath.pushy.apns.PushNotificationResponse;
+import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
+import com.eatthepath.pushy.apns.util.TokenUtil;
+
+/**
+ * Long-lived APNs client for VoIP call pushes. The certificate is fetched once and
+ * the Pushy client (with its pool of HTTP/2 connections) is built at startup and
+ * shared by every call, so a push only pays for the request itself.
+ * <p>
+ * Pushy pings idle connections and replaces ones that die; on top of that a
+ * periodic health check rebuilds the whole client after repeated connection or
+ * send failures, e.g. when the certificate was rotated or the client never came up.
+ */
+public class VoipPushClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoipPushClient.class);
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final Supplier<byte[]> certificateLoader;
+    private final String certificatePassword;
+    private final String apnsHost;
+    private final String topic;
+    private final int connections;
+    private final int failureThreshold;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile ApnsClient client;
+    private volatile byte[] certificate;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final LatencyHistogram sendLatency = new LatencyHistogram();
+
+    public VoipPushClient(Supplier<byte[]> certificateLoader, String certificatePassword, String apnsHost, String topic,
+            int connections, int failureThreshold, long healthCheckSeconds) {
+        this.certificateLoader = certificateLoader;
+        this.certificatePassword = certificatePassword;
+        this.apnsHost = apnsHost;
+        this.topic = topic;
+        this.connections = connections;
+        this.failureThreshold = failureThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "voip-push-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Warm up off the startup path; a failure here is retried by the health check
+        scheduler.execute(this::warmUp);
+        scheduler.scheduleWithFixedDelay(this::healthCheck, healthCheckSeconds, healthCheckSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Sends a VoIP push and waits for the APNs verdict. */
+    public PushNotificationResponse<SimpleApnsPushNotification> send(String voipToken, String payload)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        ApnsClient apnsClient = getClient();
+        SimpleApnsPushNotification notification =
+                new SimpleApnsPushNotification(TokenUtil.sanitizeTokenString(voipToken), topic, payload);
+        long start = System.nanoTime();
+        try {
+            PushNotificationResponse<SimpleApnsPushNotification> response =
+                    apnsClient.sendNotification(notification).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            consecutiveFailures.set(0);
+            (response.isAccepted() ? accepted : rejected).incrementAndGet();
+            return response;
+        } catch (ExecutionException | TimeoutException e) {
+            failed.incrementAndGet();
+            consecutiveFailures.incrementAndGet();
+            throw e;
+        } finally {
+            sendLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    public boolean isHealthy() {
+        return client != null && consecutiveFailures.get() < failureThreshold;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("healthy", isHealthy());
+        stats.put("openConnections", openConnections.get());
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        stats.put("reconnects", reconnects.get());
+        stats.put("sendLatency", sendLatency.snapshot());
+        return stats;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        closeQuietly(client);
+    }
+
+    private ApnsClient getClient() throws ExecutionException {
+        ApnsClient current = client;
+        if (current == null) {
+            synchronized (this) {
+                current = client;
+                if (current == null) {
+                    current = buildClient();
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void warmUp() {
+        try {
+            getClient();
+            logger.info("APNs VoIP client ready ({} connections to {})", connections, apnsHost);
+        } catch (Exception e) {
+            logger.error("APNs VoIP client warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void healthCheck() {
+        if (client == null) {
+            warmUp();
+        } else if (consecutiveFailures.get() >= failureThreshold) {
+            logger.warn("APNs VoIP client failed {} times in a row, reconnecting", consecutiveFailures.get());
+            reconnect();
+        }
+    }
+
+    /** Replaces the client with a fresh one, reloading the certificate. */
+    public void reconnect() {
+        ApnsClient previous;
+        synchronized (this) {
+            previous = client;
+            certificate = null;
+            try {
+                client = buildClient();
+                consecutiveFailures.set(0);
+                reconnects.incrementAndGet();
+            } catch (ExecutionException e) {
+                logger.error("APNs VoIP reconnect failed: {}", e.getMessage());
+                return;
+            }
+        }
+        closeQuietly(previous);
+    }
+
+    private ApnsClient buildClient() throws ExecutionException {
+        try {
+            if (certificate == null) {
+                certificate = certificateLoader.get();
+            }
+            return new ApnsClientBuilder()
+                    .setApnsServer(apnsHost)
+                    .setClientCredentials(new ByteArrayInputStream(certificate), certificatePassword)
+                    .setConcurrentConnections(connections)
+                    .setIdlePingInterval(Duration.ofMinutes(1))
+                    .setConnectionTimeout(Duration.ofSeconds(10))
+                    .setMetricsListener(new ConnectionMetrics())
+                    .build();
+        } catch (Exception e) {
+            consecutiveFailures.incrementAndGet();
+            throw new ExecutionException("Could not create APNs client: " + e.getMessage(), e);
+        }
+    }
+
+    private void closeQuietly(ApnsClient apnsClient) {
+        if (apnsClient != null) {
+            apnsClient.close().whenComplete((ignored, e) -> {
+                if (e != null) {
+                    logger.warn("Closing APNs client failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    private class ConnectionMetrics implements ApnsClientMetricsListener {
+
+        @Override
+        public void handleWriteFailure(ApnsClient apnsClient, long notificationId) {
+            consecutiveFailures.incrementAndGet();
+        }
+
+        @Override
+        public void handleNotificationSent(ApnsClient apnsClient, long notificationId) {
+        }
+
+        @Override
+        public void handleNotificationAccepted(ApnsClient apnsClient, long notificationId) {
+        }
+
+        @Override
+        public void handleNotificationRejected(ApnsClient apnsClient, long notificationId) {
+        }
+
+        @Override
+        public void handleConnectionAdded(ApnsClient apnsClient) {
+            openConnections.incrementAndGet();
+        }
+
+        @Override
+        public void handleConnectionRemoved(ApnsClient apnsClient) {
+            openConnections.decrementAndGet();
+        }
+
+        @Override
+        public void handleConnectionCreationFailed(ApnsClient apnsClient) {
+            consecutiveFailures.incrementAndGet();
+        }
+    }
+}
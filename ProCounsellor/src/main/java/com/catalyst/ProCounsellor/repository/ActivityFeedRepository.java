@@ -0,0 +1,53 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.ActivityLog;
+
+/**
+ * Activity entries, one document each, plus a small per-recipient state document
+ * holding the unseen counter. Feed reads need a composite index on
+ * recipientId + createdAt descending.
+ */
+@Repository
+public class ActivityFeedRepository extends DocumentRepository<ActivityLog> {
+
+    private static final String FEED_STATE = "activityFeedState";
+
+    public ActivityFeedRepository(DocumentStore store) {
+        super(store, "activityFeed", ActivityLog.class);
+    }
+
+    /** Newest first. */
+    public CursorPage<ActivityLog> findByRecipient(String recipientId, String cursor, int pageSize)
+            throws ExecutionException, InterruptedException {
+        DocumentQuery query = DocumentQuery.create()
+                .whereEqualTo("recipientId", recipientId)
+                .orderBy("createdAt", true);
+        return findPage(query, cursor, pageSize,
+                entry -> PageCursor.encode(List.of(entry.getCreatedAt()), entry.getId()));
+    }
+
+    public void incrementUnseen(String recipientId, long delta) throws ExecutionException, InterruptedException {
+        store.increment(FEED_STATE, recipientId, "unseen", delta);
+    }
+
+    public long findUnseenCount(String recipientId) throws ExecutionException, InterruptedException {
+        Map<String, Object> state = store.getFields(FEED_STATE, recipientId, "unseen");
+        Object unseen = state != null ? state.get("unseen") : null;
+        return unseen instanceof Number ? ((Number) unseen).longValue() : 0;
+    }
+
+    public void markSeen(String recipientId, long seenAt) throws ExecutionException, InterruptedException {
+        Map<String, Object> state = new HashMap<>();
+        state.put("unseen", 0L);
+        state.put("lastSeenAt", seenAt);
+        store.merge(FEED_STATE, recipientId, state);
+    }
+}
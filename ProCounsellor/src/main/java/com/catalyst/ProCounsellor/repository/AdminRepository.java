@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.Admin;
+
+@Repository
+public class AdminRepository extends DocumentRepository<Admin> {
+
+    public AdminRepository(DocumentStore store) {
+        super(store, "admins", Admin.class);
+    }
+}
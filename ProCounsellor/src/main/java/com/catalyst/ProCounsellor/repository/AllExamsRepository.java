@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.feedingModel.AllExams;
+
+@Repository
+public class AllExamsRepository extends DocumentRepository<AllExams> {
+
+    public AllExamsRepository(DocumentStore store) {
+        super(store, "allExams", AllExams.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.AppointmentBooking;
+import com.google.cloud.Timestamp;
+
+/**
+ * Time-range reads filter on userId or counsellorId and range over startAt, so they
+ * need composite indexes on (userId, startAt) and (counsellorId, startAt), both
+ * directions.
+ */
+@Repository
+public class AppointmentRepository extends DocumentRepository<AppointmentBooking> {
+
+    // One claim per counsellor, date and start time, held by the active appointment in that slot
+    static final String SLOTS = "appointmentSlots";
+
+    public AppointmentRepository(DocumentStore store) {
+        super(store, "appointments", AppointmentBooking.class);
+    }
+
+    public List<AppointmentBooking> findByCounsellorId(String counsellorId) throws ExecutionException, InterruptedException {
+        return findBy("counsellorId", counsellorId);
+    }
+
+    public List<AppointmentBooking> findActive() throws ExecutionException, InterruptedException {
+        return find(DocumentQuery.create().whereIn("status", List.of("pending", "confirmed")));
+    }
+
+    /** Active bookings of the counsellor between the two yyyy-MM-dd dates, both inclusive. */
+    public List<AppointmentBooking> findActiveInDateRange(String counsellorId, String fromDate, String toDate) throws ExecutionException, InterruptedException {
+        return find(DocumentQuery.create()
+                .whereEqualTo("counsellorId", counsellorId)
+                .whereIn("status", List.of("pending", "confirmed"))
+                .whereGreaterThanOrEqualTo("date", fromDate)
+                .whereLessThanOrEqualTo("date", toDate));
+    }
+
+    /**
+     * Appointments of one participant ({@code participantField} is userId or
+     * counsellorId) starting in [from, to), by startAt. Either bound may be null.
+     * Documents without startAt are not matched.
+     */
+    public CursorPage<AppointmentBooking> findByStartRange(String participantField, String participantId, Long from, Long to,
+            boolean descending, String cursor, int pageSize) throws ExecutionException, InterruptedException {
+        return findPage(startRangeQuery(participantField, participantId, from, to, descending), cursor, pageSize,
+                appointment -> PageCursor.encode(List.of(appointment.getStartAt()), appointment.getAppointmentId()));
+    }
+
+    public List<AppointmentBooking> findAllByStartRange(String participantField, String participantId, Long from, Long to)
+            throws ExecutionException, InterruptedException {
+        return find(startRangeQuery(participantField, participantId, from, to, false));
+    }
+
+    private static DocumentQuery startRangeQuery(String participantField, String participantId, Long from, Long to, boolean descending) {
+        DocumentQuery query = DocumentQuery.create().whereEqualTo(participantField, participantId);
+        if (from != null) {
+            query.whereGreaterThanOrEqualTo("startAt", from);
+        }
+        if (to != null) {
+            query.whereLessThan("startAt", to);
+        }
+        return query.orderBy("startAt", descending);
+    }
+
+    public static String slotId(String counsellorId, String date, String startTime) {
+        return counsellorId + "_" + date + "_" + startTime.replace(":", "");
+    }
+
+    /**
+     * Claims the appointment's slot with a create-if-absent write, so of any number
+     * of concurrent bookings exactly one wins. False if the slot is already held.
+     */
+    public boolean claimSlot(AppointmentBooking appointment) throws ExecutionException, InterruptedException {
+        Map<String, Object> claim = new LinkedHashMap<>();
+        claim.put("appointmentId", appointment.getAppointmentId());
+        claim.put("counsellorId", appointment.getCounsellorId());
+        claim.put("userId", appointment.getUserId());
+        claim.put("date", appointment.getDate());
+        claim.put("startTime", appointment.getStartTime());
+        claim.put("claimedAt", Timestamp.now());
+        return store.create(SLOTS, slotId(appointment), claim);
+    }
+
+    /** Id of the appointment holding the slot, or null if it is free. */
+    public String findSlotHolder(String counsellorId, String date, String startTime) throws ExecutionException, InterruptedException {
+        Map<String, Object> claim = store.getData(SLOTS, slotId(counsellorId, date, startTime));
+        return claim != null ? (String) claim.get("appointmentId") : null;
+    }
+
+    /** Frees the appointment's slot, unless it has meanwhile been claimed by another appointment. */
+    public void releaseSlot(AppointmentBooking appointment) throws ExecutionException, InterruptedException {
+        String holder = findSlotHolder(appointment.getCounsellorId(), appointment.getDate(), appointment.getStartTime());
+        if (appointment.getAppointmentId().equals(holder)) {
+            store.delete(SLOTS, slotId(appointment));
+        }
+    }
+
+    private static String slotId(AppointmentBooking appointment) {
+        return slotId(appointment.getCounsellorId(), appointment.getDate(), appointment.getStartTime());
+    }
+
+    public List<AppointmentBooking> findByUserCounsellorAndStatus(String userId, String counsellorId, String status) throws ExecutionException, InterruptedException {
+        return find(DocumentQuery.create()
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("counsellorId", counsellorId)
+                .whereEqualTo("status", status));
+    }
+}
@@ -0,0 +1,31 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.CallHistory;
+
+/**
+ * One document per finished call, keyed by callId. History reads need a composite
+ * index on participants (array-contains) + startTime descending.
+ */
+@Repository
+public class CallRecordRepository extends DocumentRepository<CallHistory> {
+
+    public CallRecordRepository(DocumentStore store) {
+        super(store, "callRecords", CallHistory.class);
+    }
+
+    /** Calls the participant made or received, newest first. */
+    public CursorPage<CallHistory> findByParticipant(String participantId, String cursor, int pageSize)
+            throws ExecutionException, InterruptedException {
+        DocumentQuery query = DocumentQuery.create()
+                .whereArrayContains("participants", participantId)
+                .orderBy("startTime", true);
+        return findPage(query, cursor, pageSize,
+                record -> PageCursor.encode(List.of(record.getStartTime()), record.getCallId()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.Chat;
+
+@Repository
+public class ChatRepository extends DocumentRepository<Chat> {
+
+    public ChatRepository(DocumentStore store) {
+        super(store, "chats", Chat.class);
+    }
+
+    public Chat findByUserAndCounsellor(String userId, String counsellorId) throws ExecutionException, InterruptedException {
+        List<Chat> chats = find(DocumentQuery.create()
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("counsellorId", counsellorId)
+                .limit(1));
+        return chats.isEmpty() ? null : chats.get(0);
+    }
+
+    public Chat findByUsers(String userId, String userId2) throws ExecutionException, InterruptedException {
+        List<Chat> chats = find(DocumentQuery.create()
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("userId2", userId2)
+                .limit(1));
+        return chats.isEmpty() ? null : chats.get(0);
+    }
+
+    /** Looks up a user-to-user chat by its sorted participant list. */
+    public Chat findByParticipants(List<String> participants) throws ExecutionException, InterruptedException {
+        return findFirstBy("participants", participants);
+    }
+
+    public List<Chat> findByUserId(String userId) throws ExecutionException, InterruptedException {
+        return findBy("userId", userId);
+    }
+
+    public List<Chat> findByCounsellorId(String counsellorId) throws ExecutionException, InterruptedException {
+        return findBy("counsellorId", counsellorId);
+    }
+}
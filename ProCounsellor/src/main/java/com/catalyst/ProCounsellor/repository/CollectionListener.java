@@ -0,0 +1,22 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.Map;
+
+/**
+ * Receives the documents of a collection registered through
+ * {@link DocumentStore#watchCollection}: first every existing document, then each
+ * later change. Calls for one listener never overlap.
+ */
+public interface CollectionListener {
+
+    /** The document was created or written ({@code data} is its full content) or deleted ({@code data} is null). */
+    void onChange(String id, Map<String, Object> data);
+
+    /** Every document that existed at registration time has been reported. */
+    default void onInitialSync() {
+    }
+
+    /** The watch failed and delivers nothing more; register again to resume. */
+    default void onError(Exception error) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.feedingModel.CollegeRanking;
+
+@Repository
+public class CollegeRankingRepository extends DocumentRepository<CollegeRanking> {
+
+    public CollegeRankingRepository(DocumentStore store) {
+        super(store, "collegeRankings", CollegeRanking.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.feedingModel.CommunityPost;
+
+@Repository
+public class CommunityPostRepository extends DocumentRepository<CommunityPost> {
+
+    public CommunityPostRepository(DocumentStore store) {
+        super(store, "communityPosts", CommunityPost.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.feedingModel.Community;
+
+@Repository
+public class CommunityRepository extends DocumentRepository<Community> {
+
+    public CommunityRepository(DocumentStore store) {
+        super(store, "communities", Community.class);
+    }
+}
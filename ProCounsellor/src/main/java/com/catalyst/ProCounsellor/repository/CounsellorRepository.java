@@ -0,0 +1,120 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.ChatParticipant;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.Counsellor;
+
+@Repository
+public class CounsellorRepository extends DocumentRepository<Counsellor> {
+
+    public static final String[] SUMMARY_FIELDS = { "firstName", "lastName", "photoUrlSmall", "organisationName", "experience",
+            "rating", "ratePerMinute", "ratePerYear", "expertise", "languagesKnow", "stateOfCounsellor", "verified" };
+
+    // Profile edits waiting for admin approval, keyed by counsellor userName
+    private static final String PENDING_UPDATES = "updates";
+
+    public CounsellorRepository(DocumentStore store, DocumentCache<Counsellor> counsellorCache) {
+        super(store, "counsellors", Counsellor.class, counsellorCache);
+    }
+
+    public Counsellor findByPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
+        return findFirstBy("phoneNumber", phoneNumber);
+    }
+
+    public Counsellor findByEmail(String email) throws ExecutionException, InterruptedException {
+        return findFirstBy("email", email);
+    }
+
+    /** One page of counsellor summaries in document id order, read with a field mask. */
+    public CursorPage<CounsellorSummary> findSummaryPage(String cursor, int pageSize) throws ExecutionException, InterruptedException {
+        return findFieldsPage(DocumentQuery.create(), cursor, pageSize, SUMMARY_FIELDS, CounsellorRepository::toSummary);
+    }
+
+    /** Highest rated first; counsellors without a rating are not listed. */
+    public CursorPage<CounsellorSummary> findSummaryPageOrderByRatingDesc(String cursor, int pageSize) throws ExecutionException, InterruptedException {
+        return findFieldsPage(DocumentQuery.create().orderBy("rating", true), cursor, pageSize, SUMMARY_FIELDS, CounsellorRepository::toSummary);
+    }
+
+    /** Listing projection of the given counsellors in one field-masked batch, in request order. */
+    public List<CounsellorSummary> findSummariesById(Collection<String> counsellorIds) throws ExecutionException, InterruptedException {
+        List<CounsellorSummary> summaries = new ArrayList<>();
+        findAllFieldsById(counsellorIds, SUMMARY_FIELDS).forEach((id, fields) -> summaries.add(toSummary(id, fields)));
+        return summaries;
+    }
+
+    /** Builds the summary from raw document fields; tolerant of missing or loosely typed values. */
+    public static CounsellorSummary toSummary(String userName, Map<String, Object> data) {
+        CounsellorSummary summary = new CounsellorSummary();
+        summary.setUserName(userName);
+        summary.setFirstName(asString(data.get("firstName")));
+        summary.setLastName(asString(data.get("lastName")));
+        summary.setPhotoUrlSmall(asString(data.get("photoUrlSmall")));
+        summary.setOrganisationName(asString(data.get("organisationName")));
+        summary.setExperience(asString(data.get("experience")));
+        summary.setRating(data.get("rating") instanceof Number ? ((Number) data.get("rating")).intValue() : null);
+        summary.setRatePerMinute(data.get("ratePerMinute") instanceof Number ? ((Number) data.get("ratePerMinute")).doubleValue() : null);
+        summary.setRatePerYear(data.get("ratePerYear") instanceof Number ? ((Number) data.get("ratePerYear")).doubleValue() : null);
+        summary.setExpertise(asStrings(data.get("expertise")));
+        summary.setLanguagesKnow(asStrings(data.get("languagesKnow")));
+        summary.setStateOfCounsellor(asStrings(data.get("stateOfCounsellor")));
+        summary.setVerified(Boolean.TRUE.equals(data.get("verified")));
+        return summary;
+    }
+
+    /** Chat-list projection of the given counsellors, fetched in one field-masked batch. */
+    public Map<String, ChatParticipant> findChatParticipants(Collection<String> counsellorIds) throws ExecutionException, InterruptedException {
+        Map<String, ChatParticipant> participants = new LinkedHashMap<>();
+        findAllFieldsById(counsellorIds, "firstName", "lastName", "photoUrl", "photoUrlSmall", "fcmToken")
+                .forEach((id, fields) -> {
+                    ChatParticipant participant = new ChatParticipant();
+                    participant.setUserName(id);
+                    participant.setRole("counsellor");
+                    participant.setFirstName((String) fields.get("firstName"));
+                    participant.setLastName((String) fields.get("lastName"));
+                    participant.setPhoto((String) fields.get("photoUrl"));
+                    participant.setPhotoSmall((String) fields.get("photoUrlSmall"));
+                    participant.setFcmToken((String) fields.get("fcmToken"));
+                    participants.put(id, participant);
+                });
+        return participants;
+    }
+
+    public Map<String, Object> findPendingUpdates(String userName) throws ExecutionException, InterruptedException {
+        return store.getData(PENDING_UPDATES, userName);
+    }
+
+    public void savePendingUpdates(String userName, Map<String, Object> updates) throws ExecutionException, InterruptedException {
+        store.merge(PENDING_UPDATES, userName, updates);
+    }
+
+    public void deletePendingUpdates(String userName) throws ExecutionException, InterruptedException {
+        store.delete(PENDING_UPDATES, userName);
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static List<String> asStrings(Object value) {
+        if (!(value instanceof Collection)) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>();
+        for (Object element : (Collection<?>) value) {
+            if (element != null) {
+                strings.add(element.toString());
+            }
+        }
+        return List.copyOf(strings);
+    }
+}
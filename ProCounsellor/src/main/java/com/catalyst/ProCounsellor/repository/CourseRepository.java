@@ -0,0 +1,24 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.Course;
+
+@Repository
+public class CourseRepository extends DocumentRepository<Course> {
+
+    public CourseRepository(DocumentStore store) {
+        super(store, "courseTypes", Course.class);
+    }
+
+    /** Course names only, read with a field mask. */
+    public List<String> findAllNames() throws ExecutionException, InterruptedException {
+        List<String> names = new ArrayList<>();
+        findFields(DocumentQuery.create(), "name").values().forEach(fields -> names.add((String) fields.get("name")));
+        return names;
+    }
+}
@@ -0,0 +1,162 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded near-cache for one collection, used by {@link DocumentRepository#findById}.
+ * Capacity is measured in weight units (see the weigher) rather than entries, so a
+ * few profiles with long id lists cannot crowd out everything else.
+ * <p>
+ * Entries are dropped when this process writes the document through the
+ * repository, or when they reach the configured age; writes made by other
+ * instances therefore show up within that age. A document is deep-copied once
+ * when cached, and each hit gets a shallow copy whose list and map fields are
+ * fresh containers, so adding to or removing from them never leaks into the
+ * cache. Nested objects are shared and must not be mutated in place.
+ */
+public class DocumentCache<T> {
+
+    // Invalidation generations, striped by id, so a load that raced with a write is not cached
+    private static final int STRIPES = 64;
+
+    private final String name;
+    private final Class<T> type;
+    private final ToIntFunction<T> weigher;
+    private final Cache<String, CachedDocument<T>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final ObjectMapper objectMapper = DocumentJson.newObjectMapper();
+    private final Constructor<T> constructor;
+    private final List<Field> fields = new ArrayList<>();
+
+    public DocumentCache(String name, Class<T> type, long maximumWeight, Duration expireAfterWrite, ToIntFunction<T> weigher) {
+        this.name = name;
+        this.type = type;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String id, CachedDocument<T> entry) -> entry.weight)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.weigher = weigher;
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(type.getName() + " needs a no-argument constructor to be cached", e);
+        }
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Returns a shallow copy of the cached document, or null on a miss. Counts a hit or a miss. */
+    public T get(String id) {
+        CachedDocument<T> entry = cache.getIfPresent(id);
+        return entry != null ? shallowCopy(entry.document) : null;
+    }
+
+    /** Marks the start of a load; pass the result to {@link #put}. */
+    public long beginLoad(String id) {
+        return generations.get(stripe(id));
+    }
+
+    /** Caches a deep copy of a freshly loaded document unless the id was invalidated since {@link #beginLoad}. */
+    public void put(String id, T document, long loadGeneration) {
+        if (document == null || generations.get(stripe(id)) != loadGeneration) {
+            return;
+        }
+        cache.put(id, new CachedDocument<>(deepCopy(document), Math.max(1, weigher.applyAsInt(document))));
+        // An invalidation may have landed between the check and the put
+        if (generations.get(stripe(id)) != loadGeneration) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidate(String id) {
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    /** Hit/miss counters and current occupancy, for the admin stats endpoint. */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.size());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    private T deepCopy(T document) {
+        return objectMapper.convertValue(document, type);
+    }
+
+    // Field-by-field copy; collections and maps get new containers holding the same elements
+    private T shallowCopy(T document) {
+        try {
+            T copy = constructor.newInstance();
+            for (Field field : fields) {
+                Object value = field.get(document);
+                if (value instanceof List) {
+                    value = new ArrayList<>((List<?>) value);
+                } else if (value instanceof Collection) {
+                    value = new LinkedHashSet<>((Collection<?>) value);
+                } else if (value instanceof Map) {
+                    value = new LinkedHashMap<>((Map<?, ?>) value);
+                }
+                field.set(copy, value);
+            }
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot copy cached " + type.getName(), e);
+        }
+    }
+
+    private static int stripe(String id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+
+    private static class CachedDocument<T> {
+        final T document;
+        final int weight;
+
+        CachedDocument(T document, int weight) {
+            this.document = document;
+            this.weight = weight;
+        }
+    }
+}
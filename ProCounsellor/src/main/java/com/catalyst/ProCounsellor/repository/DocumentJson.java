@@ -0,0 +1,64 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.io.IOException;
+import java.util.Date;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.google.cloud.Timestamp;
+
+/**
+ * Jackson setup for converting model objects without a JSON round trip:
+ * {@link Timestamp} and {@link Date} values are carried through as embedded
+ * objects instead of being flattened, so converted documents keep their types.
+ */
+public final class DocumentJson {
+
+    private DocumentJson() {
+    }
+
+    public static ObjectMapper newObjectMapper() {
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(Timestamp.class, new EmbeddedSerializer<>(Timestamp.class));
+        module.addSerializer(Date.class, new EmbeddedSerializer<>(Date.class));
+        module.addDeserializer(Timestamp.class, new EmbeddedDeserializer<>(Timestamp.class));
+        module.addDeserializer(Date.class, new EmbeddedDeserializer<>(Date.class));
+        return new ObjectMapper()
+                .registerModule(module)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private static class EmbeddedSerializer<T> extends StdSerializer<T> {
+        EmbeddedSerializer(Class<T> type) {
+            super(type);
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeEmbeddedObject(value);
+        }
+    }
+
+    private static class EmbeddedDeserializer<T> extends StdDeserializer<T> {
+        EmbeddedDeserializer(Class<T> type) {
+            super(type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT && handledType().isInstance(p.getEmbeddedObject())) {
+                return (T) p.getEmbeddedObject();
+            }
+            return (T) ctxt.handleUnexpectedToken(handledType(), p);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Engine-neutral description of a collection query. Each {@link DocumentStore}
+ * translates it into its own query form.
+ */
+public class DocumentQuery {
+
+    public enum Operator {
+        EQUAL,
+        ARRAY_CONTAINS,
+        IN,
+        GREATER_THAN_OR_EQUAL,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL
+    }
+
+    public static class Filter {
+        private final String field;
+        private final Operator operator;
+        private final Object value;
+
+        Filter(String field, Operator operator, Object value) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public Operator getOperator() {
+            return operator;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    public static class Order {
+        private final String field;
+        private final boolean descending;
+
+        Order(String field, boolean descending) {
+            this.field = field;
+            this.descending = descending;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+    }
+
+    private final List<Filter> filters = new ArrayList<>();
+    private final List<Order> orders = new ArrayList<>();
+    private int limit;
+    private List<Object> startAfter;
+
+    public static DocumentQuery create() {
+        return new DocumentQuery();
+    }
+
+    public DocumentQuery whereEqualTo(String field, Object value) {
+        filters.add(new Filter(field, Operator.EQUAL, value));
+        return this;
+    }
+
+    public DocumentQuery whereArrayContains(String field, Object value) {
+        filters.add(new Filter(field, Operator.ARRAY_CONTAINS, value));
+        return this;
+    }
+
+    public DocumentQuery whereIn(String field, List<?> values) {
+        filters.add(new Filter(field, Operator.IN, values));
+        return this;
+    }
+
+    public DocumentQuery whereGreaterThanOrEqualTo(String field, Object value) {
+        filters.add(new Filter(field, Operator.GREATER_THAN_OR_EQUAL, value));
+        return this;
+    }
+
+    public DocumentQuery whereLessThan(String field, Object value) {
+        filters.add(new Filter(field, Operator.LESS_THAN, value));
+        return this;
+    }
+
+    public DocumentQuery whereLessThanOrEqualTo(String field, Object value) {
+        filters.add(new Filter(field, Operator.LESS_THAN_OR_EQUAL, value));
+        return this;
+    }
+
+    public DocumentQuery orderBy(String field) {
+        return orderBy(field, false);
+    }
+
+    public DocumentQuery orderBy(String field, boolean descending) {
+        orders.add(new Order(field, descending));
+        return this;
+    }
+
+    public DocumentQuery limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Resumes after the document with the given order-field values and id, in that
+     * order. Ties on the order fields are broken by document id, following the
+     * direction of the last order.
+     */
+    public DocumentQuery startAfter(List<?> orderValues, String documentId) {
+        if (orderValues.size() != orders.size()) {
+            throw new IllegalArgumentException("Cursor has " + orderValues.size() + " values for " + orders.size() + " orders");
+        }
+        List<Object> cursor = new ArrayList<>(orderValues);
+        cursor.add(documentId);
+        this.startAfter = cursor;
+        return this;
+    }
+
+    public List<Filter> getFilters() {
+        return Collections.unmodifiableList(filters);
+    }
+
+    public List<Order> getOrders() {
+        return Collections.unmodifiableList(orders);
+    }
+
+    /** Maximum number of results, or 0 for no limit. */
+    public int getLimit() {
+        return limit;
+    }
+
+    /** Order-field values followed by the document id, or null when not resuming. */
+    public List<Object> getStartAfter() {
+        return startAfter != null ? Collections.unmodifiableList(startAfter) : null;
+    }
+
+    /** Whether the last order is descending, which is also the direction of the document id tie-break. */
+    public boolean isDescendingTieBreak() {
+        return !orders.isEmpty() && orders.get(orders.size() - 1).isDescending();
+    }
+}
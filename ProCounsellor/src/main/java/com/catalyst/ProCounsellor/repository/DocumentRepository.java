@@ -0,0 +1,278 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+
+/**
+ * Typed access to one collection of the configured {@link DocumentStore}.
+ * Repositories created with a {@link DocumentCache} serve {@link #findById} and
+ * {@link #findAllById} from it and drop the entry on every write made here.
+ */
+public abstract class DocumentRepository<T> {
+
+    protected final DocumentStore store;
+    private final String collection;
+    private final Class<T> type;
+    private final DocumentCache<T> cache;
+    private final List<Consumer<String>> writeListeners = new CopyOnWriteArrayList<>();
+
+    protected DocumentRepository(DocumentStore store, String collection, Class<T> type) {
+        this(store, collection, type, null);
+    }
+
+    protected DocumentRepository(DocumentStore store, String collection, Class<T> type, DocumentCache<T> cache) {
+        this.store = store;
+        this.collection = collection;
+        this.type = type;
+        this.cache = cache;
+    }
+
+    /** Registers a callback that receives the id of every document written or deleted through this repository. */
+    public void addWriteListener(Consumer<String> listener) {
+        writeListeners.add(listener);
+    }
+
+    /** Streams every document of the collection and its later changes; see {@link DocumentStore#watchCollection}. */
+    public DocumentWatch watchCollection(CollectionListener listener) {
+        return store.watchCollection(collection, listener);
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String newId() {
+        return store.newId(collection);
+    }
+
+    public boolean existsById(String id) throws ExecutionException, InterruptedException {
+        return store.exists(collection, id);
+    }
+
+    public T findById(String id) throws ExecutionException, InterruptedException {
+        if (cache == null) {
+            return store.get(collection, id, type);
+        }
+        T cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.beginLoad(id);
+        T document = store.get(collection, id, type);
+        cache.put(id, document, generation);
+        return document;
+    }
+
+    /** Returns the raw document fields, or null if it does not exist. */
+    public Map<String, Object> findDataById(String id) throws ExecutionException, InterruptedException {
+        return store.getData(collection, id);
+    }
+
+    /** Reads only the given fields of the document, or null if it does not exist. */
+    public Map<String, Object> findFieldsById(String id, String... fields) throws ExecutionException, InterruptedException {
+        return store.getFields(collection, id, fields);
+    }
+
+    /** Batched lookup keyed by id, in request order; missing documents are left out. */
+    public Map<String, T> findAllById(Collection<String> ids) throws ExecutionException, InterruptedException {
+        if (cache == null) {
+            return store.getAll(collection, ids, type);
+        }
+        Map<String, T> hits = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        Map<String, Long> generations = new LinkedHashMap<>();
+        for (String id : ids) {
+            if (hits.containsKey(id) || generations.containsKey(id)) {
+                continue;
+            }
+            T cached = cache.get(id);
+            if (cached != null) {
+                hits.put(id, cached);
+            } else {
+                misses.add(id);
+                generations.put(id, cache.beginLoad(id));
+            }
+        }
+        Map<String, T> loaded = misses.isEmpty() ? Collections.emptyMap() : store.getAll(collection, misses, type);
+        loaded.forEach((id, document) -> cache.put(id, document, generations.get(id)));
+
+        // Back in request order
+        Map<String, T> results = new LinkedHashMap<>();
+        for (String id : ids) {
+            T document = hits.containsKey(id) ? hits.get(id) : loaded.get(id);
+            if (document != null) {
+                results.put(id, document);
+            }
+        }
+        return results;
+    }
+
+    public Map<String, Map<String, Object>> findAllDataById(Collection<String> ids) throws ExecutionException, InterruptedException {
+        return store.getAllData(collection, ids);
+    }
+
+    public Map<String, Map<String, Object>> findAllFieldsById(Collection<String> ids, String... fields) throws ExecutionException, InterruptedException {
+        return store.getAllFields(collection, ids, fields);
+    }
+
+    public List<T> findAll() throws ExecutionException, InterruptedException {
+        return store.find(collection, DocumentQuery.create(), type);
+    }
+
+    public List<T> find(DocumentQuery query) throws ExecutionException, InterruptedException {
+        return store.find(collection, query, type);
+    }
+
+    /** Runs the query reading only the listed fields; keyed by id in query order. */
+    public Map<String, Map<String, Object>> findFields(DocumentQuery query, String... fields) throws ExecutionException, InterruptedException {
+        return store.findFields(collection, query, fields);
+    }
+
+    /**
+     * Runs the query one page at a time. {@code cursor} is the token from the previous
+     * page (null for the first), and {@code cursorOf} builds the token for a document
+     * with {@link PageCursor#encode} from the query's order fields and the document id.
+     */
+    public CursorPage<T> findPage(DocumentQuery query, String cursor, int pageSize, Function<T, String> cursorOf)
+            throws ExecutionException, InterruptedException {
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor.decode(cursor).applyTo(query);
+        }
+        // One extra row tells whether another page follows
+        List<T> results = new ArrayList<>(find(query.limit(pageSize + 1)));
+        if (results.size() <= pageSize) {
+            return CursorPage.of(results, null);
+        }
+        List<T> page = new ArrayList<>(results.subList(0, pageSize));
+        return CursorPage.of(page, cursorOf.apply(page.get(pageSize - 1)));
+    }
+
+    /**
+     * Field-masked variant of {@link #findPage}: reads only the listed fields and maps
+     * each document with {@code projection}. The query's (top-level) order fields are
+     * added to the mask so the token can be built from the last document on the page.
+     */
+    public <S> CursorPage<S> findFieldsPage(DocumentQuery query, String cursor, int pageSize, String[] fields,
+            BiFunction<String, Map<String, Object>, S> projection) throws ExecutionException, InterruptedException {
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor.decode(cursor).applyTo(query);
+        }
+        Set<String> mask = new LinkedHashSet<>(Arrays.asList(fields));
+        query.getOrders().forEach(order -> mask.add(order.getField()));
+        // One extra row tells whether another page follows
+        List<Map.Entry<String, Map<String, Object>>> results =
+                new ArrayList<>(findFields(query.limit(pageSize + 1), mask.toArray(new String[0])).entrySet());
+
+        List<S> page = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> result : results.subList(0, Math.min(pageSize, results.size()))) {
+            page.add(projection.apply(result.getKey(), result.getValue()));
+        }
+        if (results.size() <= pageSize) {
+            return CursorPage.of(page, null);
+        }
+        Map.Entry<String, Map<String, Object>> last = results.get(pageSize - 1);
+        List<Object> orderValues = new ArrayList<>();
+        query.getOrders().forEach(order -> orderValues.add(last.getValue().get(order.getField())));
+        return CursorPage.of(page, PageCursor.encode(orderValues, last.getKey()));
+    }
+
+    /** One page of document ids in id order; no document fields are read. */
+    public CursorPage<String> findIdPage(String cursor, int pageSize) throws ExecutionException, InterruptedException {
+        return findFieldsPage(DocumentQuery.create(), cursor, pageSize, new String[0], (id, fields) -> id);
+    }
+
+    public List<T> findBy(String field, Object value) throws ExecutionException, InterruptedException {
+        return find(DocumentQuery.create().whereEqualTo(field, value));
+    }
+
+    /** Returns the first document whose field equals the value, or null. */
+    public T findFirstBy(String field, Object value) throws ExecutionException, InterruptedException {
+        List<T> results = find(DocumentQuery.create().whereEqualTo(field, value).limit(1));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    /** Saves the document only if the id is free; returns false if it already exists. */
+    public boolean create(String id, T document) throws ExecutionException, InterruptedException {
+        boolean created = store.create(collection, id, document);
+        if (created) {
+            afterWrite(id);
+        }
+        return created;
+    }
+
+    public void save(String id, T document) throws ExecutionException, InterruptedException {
+        store.set(collection, id, document);
+        afterWrite(id);
+    }
+
+    public void saveAll(Map<String, T> documents) throws ExecutionException, InterruptedException {
+        store.setAll(collection, documents);
+        documents.keySet().forEach(this::afterWrite);
+    }
+
+    public void update(String id, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        store.update(collection, id, fields);
+        afterWrite(id);
+    }
+
+    public void update(String id, String field, Object value) throws ExecutionException, InterruptedException {
+        store.update(collection, id, Collections.singletonMap(field, value));
+        afterWrite(id);
+    }
+
+    public void merge(String id, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        store.merge(collection, id, fields);
+        afterWrite(id);
+    }
+
+    public void increment(String id, String field, long delta) throws ExecutionException, InterruptedException {
+        store.increment(collection, id, field, delta);
+        afterWrite(id);
+    }
+
+    public void arrayUnion(String id, String field, Object... values) throws ExecutionException, InterruptedException {
+        store.arrayUnion(collection, id, field, values);
+        afterWrite(id);
+    }
+
+    public void arrayRemove(String id, String field, Object... values) throws ExecutionException, InterruptedException {
+        store.arrayRemove(collection, id, field, values);
+        afterWrite(id);
+    }
+
+    public void removeFields(String id, String... fields) throws ExecutionException, InterruptedException {
+        store.removeFields(collection, id, fields);
+        afterWrite(id);
+    }
+
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        store.delete(collection, id);
+        afterWrite(id);
+    }
+
+    /** Drops cached state for a document of this collection written directly through the store, e.g. in a transaction. */
+    public void afterExternalWrite(String id) {
+        afterWrite(id);
+    }
+
+    private void afterWrite(String id) {
+        if (cache != null) {
+            cache.invalidate(id);
+        }
+        writeListeners.forEach(listener -> listener.accept(id));
+    }
+}
@@ -0,0 +1,90 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Storage engine behind the typed repositories. The Firestore engine is used in
+ * production; the in-memory engine lets the controllers run without a Firebase
+ * project (see {@code procounsellor.datastore} in application.properties).
+ */
+public interface DocumentStore {
+
+    /** Generates a new random document id for the given collection. */
+    String newId(String collection);
+
+    boolean exists(String collection, String id) throws ExecutionException, InterruptedException;
+
+    /** Returns the document mapped to {@code type}, or null if it does not exist. */
+    <T> T get(String collection, String id, Class<T> type) throws ExecutionException, InterruptedException;
+
+    /** Returns the raw document fields, or null if it does not exist. */
+    Map<String, Object> getData(String collection, String id) throws ExecutionException, InterruptedException;
+
+    /**
+     * Returns only the listed fields (dotted paths allowed) of the document, or null
+     * if it does not exist. Useful for skipping large arrays on hot paths.
+     */
+    Map<String, Object> getFields(String collection, String id, String... fields) throws ExecutionException, InterruptedException;
+
+    /**
+     * Fetches several documents in one round trip. The result is keyed by id in
+     * the order the ids were given; ids without a document are left out.
+     */
+    <T> Map<String, T> getAll(String collection, Collection<String> ids, Class<T> type) throws ExecutionException, InterruptedException;
+
+    /** Raw-field variant of {@link #getAll(String, Collection, Class)}. */
+    Map<String, Map<String, Object>> getAllData(String collection, Collection<String> ids) throws ExecutionException, InterruptedException;
+
+    /** Batched, field-masked read: only the listed fields of each existing document, in request order. */
+    Map<String, Map<String, Object>> getAllFields(String collection, Collection<String> ids, String... fields) throws ExecutionException, InterruptedException;
+
+    <T> List<T> find(String collection, DocumentQuery query, Class<T> type) throws ExecutionException, InterruptedException;
+
+    /** Field-masked variant of {@link #find}: only the listed fields of each match, keyed by id in query order. */
+    Map<String, Map<String, Object>> findFields(String collection, DocumentQuery query, String... fields) throws ExecutionException, InterruptedException;
+
+    /** Creates the document only if the id is free. Returns false, writing nothing, if it already exists. */
+    boolean create(String collection, String id, Object document) throws ExecutionException, InterruptedException;
+
+    /** Creates or fully overwrites the document. */
+    void set(String collection, String id, Object document) throws ExecutionException, InterruptedException;
+
+    /** Writes all documents in a single batch. */
+    void setAll(String collection, Map<String, ?> documents) throws ExecutionException, InterruptedException;
+
+    /** Merges the given fields into the document, creating it if needed. */
+    void merge(String collection, String id, Map<String, Object> fields) throws ExecutionException, InterruptedException;
+
+    /** Updates fields of an existing document. Dotted keys address nested fields. */
+    void update(String collection, String id, Map<String, Object> fields) throws ExecutionException, InterruptedException;
+
+    /**
+     * Atomically adds {@code delta} to a top-level numeric field, creating the
+     * document and the field (starting from 0) if needed.
+     */
+    void increment(String collection, String id, String field, long delta) throws ExecutionException, InterruptedException;
+
+    void arrayUnion(String collection, String id, String field, Object... values) throws ExecutionException, InterruptedException;
+
+    void arrayRemove(String collection, String id, String field, Object... values) throws ExecutionException, InterruptedException;
+
+    /** Deletes the listed fields (dotted paths allowed) from an existing document. */
+    void removeFields(String collection, String id, String... fields) throws ExecutionException, InterruptedException;
+
+    /**
+     * Runs the work atomically and returns its result. Exceptions thrown by the work
+     * abort the transaction and surface as the cause of an ExecutionException.
+     */
+    <R> R runTransaction(DocumentTransaction.Work<R> work) throws ExecutionException, InterruptedException;
+
+    void delete(String collection, String id) throws ExecutionException, InterruptedException;
+
+    /**
+     * Streams the whole collection to {@code listener}: the current documents, then
+     * every later write or delete, until the returned handle is closed.
+     */
+    DocumentWatch watchCollection(String collection, CollectionListener listener);
+}
@@ -0,0 +1,26 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Reads and writes inside {@link DocumentStore#runTransaction}. As in Firestore,
+ * all reads must come before the first write, and the work may run more than
+ * once under contention, so it should have no side effects outside the store.
+ */
+public interface DocumentTransaction {
+
+    /** Returns the raw document fields, or null if it does not exist. */
+    Map<String, Object> getData(String collection, String id) throws ExecutionException, InterruptedException;
+
+    /** Creates or fully overwrites the document. */
+    void set(String collection, String id, Object document);
+
+    /** Merges the given fields into the document, creating it if needed. */
+    void merge(String collection, String id, Map<String, Object> fields);
+
+    @FunctionalInterface
+    interface Work<R> {
+        R run(DocumentTransaction transaction) throws Exception;
+    }
+}
@@ -0,0 +1,11 @@
+package com.catalyst.ProCounsellor.repository;
+
+/**
+ * Handle for a change listener registered through {@link DocumentStore#watchCollection}.
+ */
+public interface DocumentWatch extends AutoCloseable {
+
+    /** Stops delivering change notifications. */
+    @Override
+    void close();
+}
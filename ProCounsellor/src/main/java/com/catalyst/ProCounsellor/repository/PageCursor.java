@@ -0,0 +1,64 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Opaque page token: the order-field values and id of the last document on a page,
+ * as URL-safe base64 JSON. Clients pass it back unchanged; only scalar order values
+ * (strings, numbers, booleans) survive the round trip.
+ */
+public final class PageCursor {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Object> orderValues;
+    private final String documentId;
+
+    private PageCursor(List<Object> orderValues, String documentId) {
+        this.orderValues = orderValues;
+        this.documentId = documentId;
+    }
+
+    public static String encode(List<?> orderValues, String documentId) {
+        List<Object> values = new ArrayList<>(orderValues);
+        values.add(documentId);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cursor values are not serializable", e);
+        }
+    }
+
+    /** Throws IllegalArgumentException for tokens this class did not produce. */
+    public static PageCursor decode(String token) {
+        try {
+            List<Object> values = objectMapper.readValue(Base64.getUrlDecoder().decode(token), new TypeReference<List<Object>>() {});
+            if (values.isEmpty() || !(values.get(values.size() - 1) instanceof String)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(values.subList(0, values.size() - 1), (String) values.get(values.size() - 1));
+        } catch (IllegalArgumentException | IOException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /** Positions the query after this cursor's document. */
+    public DocumentQuery applyTo(DocumentQuery query) {
+        return query.startAfter(orderValues, documentId);
+    }
+
+    public List<Object> getOrderValues() {
+        return orderValues;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+}
@@ -0,0 +1,37 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.PaymentEvent;
+
+@Repository
+public class PaymentEventRepository extends DocumentRepository<PaymentEvent> {
+
+    public PaymentEventRepository(DocumentStore store) {
+        super(store, "paymentEvents", PaymentEvent.class);
+    }
+
+    /** Pending events, oldest first; pass the previous page's nextCursor to continue. */
+    public CursorPage<PaymentEvent> findPending(String cursor, int pageSize) throws ExecutionException, InterruptedException {
+        DocumentQuery query = DocumentQuery.create()
+                .whereEqualTo("status", PaymentEvent.PENDING)
+                .orderBy("receivedAt");
+        return findPage(query, cursor, pageSize,
+                event -> PageCursor.encode(List.of(event.getReceivedAt()), event.getPaymentId()));
+    }
+
+    public void markProcessed(String paymentId, String status, int attempts, String lastError) throws ExecutionException, InterruptedException {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("status", status);
+        fields.put("attempts", attempts);
+        fields.put("processedAt", System.currentTimeMillis());
+        fields.put("lastError", lastError);
+        update(paymentId, fields);
+    }
+}
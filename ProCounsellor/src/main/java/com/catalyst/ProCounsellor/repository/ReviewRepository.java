@@ -0,0 +1,22 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.UserReview;
+
+@Repository
+public class ReviewRepository extends DocumentRepository<UserReview> {
+
+    public ReviewRepository(DocumentStore store) {
+        super(store, "reviews", UserReview.class);
+    }
+
+    public List<UserReview> findByUserAndCounsellor(String userName, String counsellorName) throws ExecutionException, InterruptedException {
+        return find(DocumentQuery.create()
+                .whereEqualTo("userName", userName)
+                .whereEqualTo("counsellorName", counsellorName));
+    }
+}
@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.TopNews;
+
+@Repository
+public class TopNewsRepository extends DocumentRepository<TopNews> {
+
+    public TopNewsRepository(DocumentStore store) {
+        super(store, "news", TopNews.class);
+    }
+}
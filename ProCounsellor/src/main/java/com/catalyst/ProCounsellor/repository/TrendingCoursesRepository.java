@@ -0,0 +1,13 @@
+package com.catalyst.ProCounsellor.repository;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.model.feedingModel.TrendingCourses;
+
+@Repository
+public class TrendingCoursesRepository extends DocumentRepository<TrendingCourses> {
+
+    public TrendingCoursesRepository(DocumentStore store) {
+        super(store, "trendingCourses", TrendingCourses.class);
+    }
+}
@@ -0,0 +1,84 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.ChatParticipant;
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.dto.UserSummary;
+import com.catalyst.ProCounsellor.model.User;
+
+@Repository
+public class UserRepository extends DocumentRepository<User> {
+
+    private static final String[] SUMMARY_FIELDS = { "firstName", "lastName", "photoSmall", "interestedCourse",
+            "userInterestedStateOfCounsellors", "languagesKnow" };
+
+    public UserRepository(DocumentStore store, DocumentCache<User> userCache) {
+        super(store, "users", User.class, userCache);
+    }
+
+    public User findByPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
+        return findFirstBy("phoneNumber", phoneNumber);
+    }
+
+    public User findByEmail(String email) throws ExecutionException, InterruptedException {
+        return findFirstBy("email", email);
+    }
+
+    /** Chat-list projection of the given users, fetched in one field-masked batch. */
+    public Map<String, ChatParticipant> findChatParticipants(Collection<String> userIds) throws ExecutionException, InterruptedException {
+        Map<String, ChatParticipant> participants = new LinkedHashMap<>();
+        findAllFieldsById(userIds, "firstName", "lastName", "photo", "photoSmall", "fcmToken")
+                .forEach((id, fields) -> {
+                    ChatParticipant participant = new ChatParticipant();
+                    participant.setUserName(id);
+                    participant.setRole("user");
+                    participant.setFirstName((String) fields.get("firstName"));
+                    participant.setLastName((String) fields.get("lastName"));
+                    participant.setPhoto((String) fields.get("photo"));
+                    participant.setPhotoSmall((String) fields.get("photoSmall"));
+                    participant.setFcmToken((String) fields.get("fcmToken"));
+                    participants.put(id, participant);
+                });
+        return participants;
+    }
+
+    /** One page of user summaries in document id order, read with a field mask. */
+    public CursorPage<UserSummary> findSummaryPage(String cursor, int pageSize) throws ExecutionException, InterruptedException {
+        return findFieldsPage(DocumentQuery.create(), cursor, pageSize, SUMMARY_FIELDS, UserRepository::toSummary);
+    }
+
+    /**
+     * Reads just the appointmentIds field instead of the whole profile. Returns null
+     * if the user does not exist and an empty list if they have no bookings.
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> findAppointmentIds(String userId) throws ExecutionException, InterruptedException {
+        Map<String, Object> fields = findFieldsById(userId, "appointmentIds");
+        if (fields == null) {
+            return null;
+        }
+        List<String> appointmentIds = (List<String>) fields.get("appointmentIds");
+        return appointmentIds != null ? appointmentIds : new ArrayList<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static UserSummary toSummary(String userName, Map<String, Object> fields) {
+        UserSummary summary = new UserSummary();
+        summary.setUserName(userName);
+        summary.setFirstName((String) fields.get("firstName"));
+        summary.setLastName((String) fields.get("lastName"));
+        summary.setPhotoSmall((String) fields.get("photoSmall"));
+        summary.setInterestedCourse((String) fields.get("interestedCourse"));
+        summary.setUserInterestedStateOfCounsellors((List<String>) fields.get("userInterestedStateOfCounsellors"));
+        summary.setLanguagesKnow((List<String>) fields.get("languagesKnow"));
+        return summary;
+    }
+}
@@ -0,0 +1,64 @@
+package com.catalyst.ProCounsellor.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.stereotype.Repository;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.LedgerEntry;
+
+/**
+ * Wallet state documents (wallets/{accountId}: balance, seq, openingBalance) and
+ * their ledger subcollections (wallets/{accountId}/ledger, one entry per
+ * transaction). Balance and ledger are only changed together, in a store
+ * transaction run by the wallet ledger service.
+ */
+@Repository
+public class WalletLedgerRepository {
+
+    public static final String WALLETS = "wallets";
+    // Keys of postings that must apply at most once, e.g. gateway payment ids
+    public static final String IDEMPOTENCY_KEYS = "walletIdempotencyKeys";
+
+    private final DocumentStore store;
+
+    public WalletLedgerRepository(DocumentStore store) {
+        this.store = store;
+    }
+
+    public static String ledgerCollection(String accountId) {
+        return WALLETS + "/" + accountId + "/ledger";
+    }
+
+    /** Wallet state fields, or null if the account has no ledger yet. */
+    public Map<String, Object> findWallet(String accountId) throws ExecutionException, InterruptedException {
+        return store.getData(WALLETS, accountId);
+    }
+
+    /** Newest first. */
+    public CursorPage<LedgerEntry> findStatement(String accountId, String cursor, int pageSize)
+            throws ExecutionException, InterruptedException {
+        return new Ledger(store, accountId).findPage(DocumentQuery.create().orderBy("seq", true), cursor, pageSize,
+                entry -> PageCursor.encode(List.of(entry.getSeq()), entry.getId()));
+    }
+
+    public void saveEntries(String accountId, Map<String, LedgerEntry> entries) throws ExecutionException, InterruptedException {
+        new Ledger(store, accountId).saveAll(entries);
+    }
+
+    public void updateEntry(String accountId, String entryId, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        new Ledger(store, accountId).update(entryId, fields);
+    }
+
+    public <R> R runTransaction(DocumentTransaction.Work<R> work) throws ExecutionException, InterruptedException {
+        return store.runTransaction(work);
+    }
+
+    private static class Ledger extends DocumentRepository<LedgerEntry> {
+        Ledger(DocumentStore store, String accountId) {
+            super(store, ledgerCollection(accountId), LedgerEntry.class);
+        }
+    }
+}
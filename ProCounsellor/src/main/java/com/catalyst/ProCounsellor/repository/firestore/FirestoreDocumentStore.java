@@ -0,0 +1,280 @@
+package com.catalyst.ProCounsellor.repository.firestore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.catalyst.ProCounsellor.repository.CollectionListener;
+import com.catalyst.ProCounsellor.repository.DocumentQuery;
+import com.catalyst.ProCounsellor.repository.DocumentStore;
+import com.catalyst.ProCounsellor.repository.DocumentTransaction;
+import com.catalyst.ProCounsellor.repository.DocumentWatch;
+import com.google.api.gax.rpc.AlreadyExistsException;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+
+public class FirestoreDocumentStore implements DocumentStore {
+
+    private final Firestore firestore;
+
+    public FirestoreDocumentStore(Firestore firestore) {
+        this.firestore = firestore;
+    }
+
+    @Override
+    public String newId(String collection) {
+        return firestore.collection(collection).document().getId();
+    }
+
+    @Override
+    public boolean exists(String collection, String id) throws ExecutionException, InterruptedException {
+        return firestore.collection(collection).document(id).get().get().exists();
+    }
+
+    @Override
+    public <T> T get(String collection, String id, Class<T> type) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = firestore.collection(collection).document(id).get().get();
+        return snapshot.exists() ? snapshot.toObject(type) : null;
+    }
+
+    @Override
+    public Map<String, Object> getData(String collection, String id) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = firestore.collection(collection).document(id).get().get();
+        return snapshot.exists() ? snapshot.getData() : null;
+    }
+
+    @Override
+    public Map<String, Object> getFields(String collection, String id, String... fields) throws ExecutionException, InterruptedException {
+        DocumentSnapshot snapshot = firestore.collection(collection).document(id).get(FieldMask.of(fields)).get();
+        return snapshot.exists() ? snapshot.getData() : null;
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(String collection, Collection<String> ids, Class<T> type) throws ExecutionException, InterruptedException {
+        Map<String, T> results = new LinkedHashMap<>();
+        for (DocumentSnapshot snapshot : fetchAll(collection, ids, null)) {
+            if (snapshot.exists()) {
+                results.put(snapshot.getId(), snapshot.toObject(type));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getAllData(String collection, Collection<String> ids) throws ExecutionException, InterruptedException {
+        return toDataMap(fetchAll(collection, ids, null));
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getAllFields(String collection, Collection<String> ids, String... fields) throws ExecutionException, InterruptedException {
+        return toDataMap(fetchAll(collection, ids, FieldMask.of(fields)));
+    }
+
+    private static Map<String, Map<String, Object>> toDataMap(List<DocumentSnapshot> snapshots) {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (DocumentSnapshot snapshot : snapshots) {
+            if (snapshot.exists()) {
+                results.put(snapshot.getId(), snapshot.getData());
+            }
+        }
+        return results;
+    }
+
+    // getAll answers in request order, so the caller's ordering is preserved
+    private List<DocumentSnapshot> fetchAll(String collection, Collection<String> ids, FieldMask mask) throws ExecutionException, InterruptedException {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DocumentReference> refs = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            refs.add(firestore.collection(collection).document(id));
+        }
+        DocumentReference[] refArray = refs.toArray(new DocumentReference[0]);
+        return (mask != null ? firestore.getAll(refArray, mask) : firestore.getAll(refArray)).get();
+    }
+
+    @Override
+    public <T> List<T> find(String collection, DocumentQuery query, Class<T> type) throws ExecutionException, InterruptedException {
+        List<T> results = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : toQuery(collection, query).get().get().getDocuments()) {
+            results.add(doc.toObject(type));
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> findFields(String collection, DocumentQuery query, String... fields) throws ExecutionException, InterruptedException {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (QueryDocumentSnapshot doc : toQuery(collection, query).select(fields).get().get().getDocuments()) {
+            results.put(doc.getId(), doc.getData());
+        }
+        return results;
+    }
+
+    @Override
+    public boolean create(String collection, String id, Object document) throws ExecutionException, InterruptedException {
+        try {
+            firestore.collection(collection).document(id).create(document).get();
+            return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AlreadyExistsException) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void set(String collection, String id, Object document) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id).set(document).get();
+    }
+
+    @Override
+    public void setAll(String collection, Map<String, ?> documents) throws ExecutionException, InterruptedException {
+        WriteBatch batch = firestore.batch();
+        for (Map.Entry<String, ?> entry : documents.entrySet()) {
+            batch.set(firestore.collection(collection).document(entry.getKey()), entry.getValue());
+        }
+        batch.commit().get();
+    }
+
+    @Override
+    public void merge(String collection, String id, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id).set(fields, SetOptions.merge()).get();
+    }
+
+    @Override
+    public void increment(String collection, String id, String field, long delta) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id)
+                .set(Collections.singletonMap(field, FieldValue.increment(delta)), SetOptions.merge())
+                .get();
+    }
+
+    @Override
+    public void update(String collection, String id, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id).update(fields).get();
+    }
+
+    @Override
+    public void arrayUnion(String collection, String id, String field, Object... values) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id).update(field, FieldValue.arrayUnion(values)).get();
+    }
+
+    @Override
+    public void arrayRemove(String collection, String id, String field, Object... values) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id).update(field, FieldValue.arrayRemove(values)).get();
+    }
+
+    @Override
+    public void removeFields(String collection, String id, String... fields) throws ExecutionException, InterruptedException {
+        Map<String, Object> deletes = new LinkedHashMap<>();
+        for (String field : fields) {
+            deletes.put(field, FieldValue.delete());
+        }
+        firestore.collection(collection).document(id).update(deletes).get();
+    }
+
+    @Override
+    public <R> R runTransaction(DocumentTransaction.Work<R> work) throws ExecutionException, InterruptedException {
+        return firestore.runTransaction(transaction -> work.run(new DocumentTransaction() {
+            @Override
+            public Map<String, Object> getData(String collection, String id) throws ExecutionException, InterruptedException {
+                DocumentSnapshot snapshot = transaction.get(firestore.collection(collection).document(id)).get();
+                return snapshot.exists() ? snapshot.getData() : null;
+            }
+
+            @Override
+            public void set(String collection, String id, Object document) {
+                transaction.set(firestore.collection(collection).document(id), document);
+            }
+
+            @Override
+            public void merge(String collection, String id, Map<String, Object> fields) {
+                transaction.set(firestore.collection(collection).document(id), fields, SetOptions.merge());
+            }
+        })).get();
+    }
+
+    @Override
+    public void delete(String collection, String id) throws ExecutionException, InterruptedException {
+        firestore.collection(collection).document(id).delete().get();
+    }
+
+    @Override
+    public DocumentWatch watchCollection(String collection, CollectionListener listener) {
+        AtomicBoolean initialSnapshot = new AtomicBoolean(true);
+        ListenerRegistration registration = firestore.collection(collection)
+                .addSnapshotListener((snapshot, error) -> {
+                    if (error != null) {
+                        listener.onError(error);
+                        return;
+                    }
+                    // The first snapshot reports every existing document as added
+                    for (DocumentChange change : snapshot.getDocumentChanges()) {
+                        QueryDocumentSnapshot document = change.getDocument();
+                        listener.onChange(document.getId(),
+                                change.getType() == DocumentChange.Type.REMOVED ? null : document.getData());
+                    }
+                    if (initialSnapshot.getAndSet(false)) {
+                        listener.onInitialSync();
+                    }
+                });
+        return registration::remove;
+    }
+
+    private Query toQuery(String collection, DocumentQuery query) {
+        Query result = firestore.collection(collection);
+        for (DocumentQuery.Filter filter : query.getFilters()) {
+            switch (filter.getOperator()) {
+                case EQUAL:
+                    result = result.whereEqualTo(filter.getField(), filter.getValue());
+                    break;
+                case ARRAY_CONTAINS:
+                    result = result.whereArrayContains(filter.getField(), filter.getValue());
+                    break;
+                case IN:
+                    result = result.whereIn(filter.getField(), (List<?>) filter.getValue());
+                    break;
+                case GREATER_THAN_OR_EQUAL:
+                    result = result.whereGreaterThanOrEqualTo(filter.getField(), filter.getValue());
+                    break;
+                case LESS_THAN:
+                    result = result.whereLessThan(filter.getField(), filter.getValue());
+                    break;
+                case LESS_THAN_OR_EQUAL:
+                    result = result.whereLessThanOrEqualTo(filter.getField(), filter.getValue());
+                    break;
+            }
+        }
+        for (DocumentQuery.Order order : query.getOrders()) {
+            result = result.orderBy(order.getField(),
+                    order.isDescending() ? Query.Direction.DESCENDING : Query.Direction.ASCENDING);
+        }
+        if (query.getStartAfter() != null) {
+            // Firestore's implicit id ordering, made explicit so the cursor can name the document
+            result = result.orderBy(FieldPath.documentId(),
+                    query.isDescendingTieBreak() ? Query.Direction.DESCENDING : Query.Direction.ASCENDING)
+                    .startAfter(query.getStartAfter().toArray());
+        }
+        if (query.getLimit() > 0) {
+            result = result.limit(query.getLimit());
+        }
+        return result;
+    }
+}
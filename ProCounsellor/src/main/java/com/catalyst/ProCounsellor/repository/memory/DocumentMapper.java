@@ -0,0 +1,110 @@
+package com.catalyst.ProCounsellor.repository.memory;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.catalyst.ProCounsellor.repository.DocumentJson;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.MapType;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.annotation.DocumentId;
+import com.google.cloud.firestore.annotation.ServerTimestamp;
+
+/**
+ * Converts model objects to and from the plain maps held by {@link InMemoryDocumentStore},
+ * following the same conventions as the Firestore mapper: bean property names,
+ * {@link DocumentId} populated from the key and {@link ServerTimestamp} filled on write.
+ * Timestamps and dates are carried through unchanged so they stay comparable in queries.
+ */
+class DocumentMapper {
+
+    private final ObjectMapper objectMapper;
+    private final MapType mapType;
+    private final Map<Class<?>, Optional<Field>> documentIdFields = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Field>> serverTimestampFields = new ConcurrentHashMap<>();
+
+    DocumentMapper() {
+        this.objectMapper = DocumentJson.newObjectMapper();
+        this.mapType = objectMapper.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, Object.class);
+    }
+
+    Map<String, Object> toData(Object document) {
+        Map<String, Object> data = objectMapper.convertValue(document, mapType);
+        documentIdField(document.getClass()).ifPresent(field -> data.remove(field.getName()));
+        for (Field field : serverTimestampFields(document.getClass())) {
+            if (data.get(field.getName()) == null) {
+                data.put(field.getName(), field.getType() == Date.class ? new Date() : Timestamp.now());
+            }
+        }
+        return data;
+    }
+
+    /** Converts a single field value (model object, enum, list) into its stored form. */
+    Object toValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean
+                || value instanceof Timestamp || value instanceof Date) {
+            return value;
+        }
+        return objectMapper.convertValue(value, Object.class);
+    }
+
+    <T> T toObject(String id, Map<String, Object> data, Class<T> type) {
+        T object = objectMapper.convertValue(data, type);
+        documentIdField(type).ifPresent(field -> {
+            try {
+                field.set(object, id);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot set document id on " + type.getName(), e);
+            }
+        });
+        return object;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> V deepCopy(V value) {
+        if (value instanceof Map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            ((Map<String, Object>) value).forEach((k, v) -> copy.put(k, deepCopy(v)));
+            return (V) copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            ((List<Object>) value).forEach(v -> copy.add(deepCopy(v)));
+            return (V) copy;
+        }
+        if (value instanceof Date) {
+            return (V) new Date(((Date) value).getTime());
+        }
+        return value;
+    }
+
+    private Optional<Field> documentIdField(Class<?> type) {
+        return documentIdFields.computeIfAbsent(type, t -> {
+            for (Field field : t.getDeclaredFields()) {
+                if (field.isAnnotationPresent(DocumentId.class) && field.getType() == String.class) {
+                    field.setAccessible(true);
+                    return Optional.of(field);
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    private List<Field> serverTimestampFields(Class<?> type) {
+        return serverTimestampFields.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Field field : t.getDeclaredFields()) {
+                if (field.isAnnotationPresent(ServerTimestamp.class)) {
+                    fields.add(field);
+                }
+            }
+            return fields;
+        });
+    }
+}
@@ -0,0 +1,591 @@
+package com.catalyst.ProCounsellor.repository.memory;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+import com.catalyst.ProCounsellor.repository.CollectionListener;
+import com.catalyst.ProCounsellor.repository.DocumentQuery;
+import com.catalyst.ProCounsellor.repository.DocumentStore;
+import com.catalyst.ProCounsellor.repository.DocumentTransaction;
+import com.catalyst.ProCounsellor.repository.DocumentWatch;
+import com.google.cloud.Timestamp;
+
+/**
+ * Heap-backed {@link DocumentStore} for load tests and local runs. Every call
+ * sleeps for the configured read or write latency (plus random jitter) so that
+ * round-trip counts show up in measurements the same way they do against Firestore.
+ * Documents are copied on write, so readers never observe a partially applied update.
+ */
+public class InMemoryDocumentStore implements DocumentStore {
+
+    private static final String ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final int ID_LENGTH = 20;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Map<String, Object>>> collections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<CollectionWatch>> collectionWatchers = new ConcurrentHashMap<>();
+    private final DocumentMapper mapper = new DocumentMapper();
+    private final SecureRandom random = new SecureRandom();
+    private final Object transactionLock = new Object();
+
+    private final long readLatencyMillis;
+    private final long writeLatencyMillis;
+    private final long jitterMillis;
+
+    public InMemoryDocumentStore() {
+        this(0, 0, 0);
+    }
+
+    public InMemoryDocumentStore(long readLatencyMillis, long writeLatencyMillis, long jitterMillis) {
+        this.readLatencyMillis = readLatencyMillis;
+        this.writeLatencyMillis = writeLatencyMillis;
+        this.jitterMillis = jitterMillis;
+    }
+
+    @Override
+    public String newId(String collection) {
+        StringBuilder id = new StringBuilder(ID_LENGTH);
+        for (int i = 0; i < ID_LENGTH; i++) {
+            id.append(ID_CHARS.charAt(random.nextInt(ID_CHARS.length())));
+        }
+        return id.toString();
+    }
+
+    @Override
+    public boolean exists(String collection, String id) throws InterruptedException {
+        pause(readLatencyMillis);
+        return documents(collection).containsKey(id);
+    }
+
+    @Override
+    public <T> T get(String collection, String id, Class<T> type) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, Object> data = documents(collection).get(id);
+        return data != null ? mapper.toObject(id, data, type) : null;
+    }
+
+    @Override
+    public Map<String, Object> getData(String collection, String id) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, Object> data = documents(collection).get(id);
+        return data != null ? DocumentMapper.deepCopy(data) : null;
+    }
+
+    @Override
+    public Map<String, Object> getFields(String collection, String id, String... fields) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, Object> data = documents(collection).get(id);
+        return data != null ? project(data, fields) : null;
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(String collection, Collection<String> ids, Class<T> type) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, T> results = new LinkedHashMap<>();
+        for (String id : ids) {
+            Map<String, Object> data = documents(collection).get(id);
+            if (data != null) {
+                results.put(id, mapper.toObject(id, data, type));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getAllData(String collection, Collection<String> ids) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String id : ids) {
+            Map<String, Object> data = documents(collection).get(id);
+            if (data != null) {
+                results.put(id, DocumentMapper.deepCopy(data));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getAllFields(String collection, Collection<String> ids, String... fields) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (String id : ids) {
+            Map<String, Object> data = documents(collection).get(id);
+            if (data != null) {
+                results.put(id, project(data, fields));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public <T> List<T> find(String collection, DocumentQuery query, Class<T> type) throws InterruptedException {
+        pause(readLatencyMillis);
+        List<T> results = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : run(collection, query)) {
+            results.add(mapper.toObject(entry.getKey(), entry.getValue(), type));
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> findFields(String collection, DocumentQuery query, String... fields) throws InterruptedException {
+        pause(readLatencyMillis);
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : run(collection, query)) {
+            results.put(entry.getKey(), project(entry.getValue(), fields));
+        }
+        return results;
+    }
+
+    // Matching documents, sorted and cut to the query's cursor and limit
+    private List<Map.Entry<String, Map<String, Object>>> run(String collection, DocumentQuery query) {
+        List<Map.Entry<String, Map<String, Object>>> matches = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : documents(collection).entrySet()) {
+            if (matches(entry.getValue(), query)) {
+                matches.add(entry);
+            }
+        }
+        Comparator<Map.Entry<String, Map<String, Object>>> comparator = comparator(query);
+        matches.sort(comparator);
+        if (query.getStartAfter() != null) {
+            Map.Entry<String, Map<String, Object>> cursor = cursorEntry(query);
+            matches.removeIf(entry -> comparator.compare(entry, cursor) <= 0);
+        }
+
+        int limit = query.getLimit() > 0 ? Math.min(query.getLimit(), matches.size()) : matches.size();
+        return matches.subList(0, limit);
+    }
+
+    @Override
+    public boolean create(String collection, String id, Object document) throws InterruptedException {
+        pause(writeLatencyMillis);
+        if (documents(collection).putIfAbsent(id, mapper.toData(document)) != null) {
+            return false;
+        }
+        notifyWatchers(collection, id);
+        return true;
+    }
+
+    @Override
+    public void set(String collection, String id, Object document) throws InterruptedException {
+        pause(writeLatencyMillis);
+        documents(collection).put(id, mapper.toData(document));
+        notifyWatchers(collection, id);
+    }
+
+    @Override
+    public void setAll(String collection, Map<String, ?> documents) throws InterruptedException {
+        pause(writeLatencyMillis);
+        Map<String, Map<String, Object>> converted = new LinkedHashMap<>();
+        documents.forEach((id, document) -> converted.put(id, mapper.toData(document)));
+        documents(collection).putAll(converted);
+        converted.keySet().forEach(id -> notifyWatchers(collection, id));
+    }
+
+    @Override
+    public void merge(String collection, String id, Map<String, Object> fields) throws InterruptedException {
+        pause(writeLatencyMillis);
+        documents(collection).compute(id, (key, existing) -> {
+            Map<String, Object> copy = existing != null ? DocumentMapper.deepCopy(existing) : new LinkedHashMap<>();
+            mergeInto(copy, fields);
+            return copy;
+        });
+        notifyWatchers(collection, id);
+    }
+
+    @Override
+    public void increment(String collection, String id, String field, long delta) throws InterruptedException {
+        pause(writeLatencyMillis);
+        documents(collection).compute(id, (key, existing) -> {
+            Map<String, Object> copy = existing != null ? DocumentMapper.deepCopy(existing) : new LinkedHashMap<>();
+            Object current = getPath(copy, field);
+            setPath(copy, field, (current instanceof Number ? ((Number) current).longValue() : 0L) + delta);
+            return copy;
+        });
+        notifyWatchers(collection, id);
+    }
+
+    @Override
+    public void update(String collection, String id, Map<String, Object> fields) throws ExecutionException, InterruptedException {
+        modify(collection, id, data -> {
+            fields.forEach((path, value) -> setPath(data, path, mapper.toValue(value)));
+            return data;
+        });
+    }
+
+    @Override
+    public void arrayUnion(String collection, String id, String field, Object... values) throws ExecutionException, InterruptedException {
+        modify(collection, id, data -> {
+            List<Object> array = arrayAt(data, field);
+            for (Object value : values) {
+                Object stored = mapper.toValue(value);
+                if (array.stream().noneMatch(element -> valuesEqual(element, stored))) {
+                    array.add(stored);
+                }
+            }
+            return data;
+        });
+    }
+
+    @Override
+    public void arrayRemove(String collection, String id, String field, Object... values) throws ExecutionException, InterruptedException {
+        modify(collection, id, data -> {
+            List<Object> array = arrayAt(data, field);
+            for (Object value : values) {
+                Object stored = mapper.toValue(value);
+                array.removeIf(element -> valuesEqual(element, stored));
+            }
+            return data;
+        });
+    }
+
+    @Override
+    public void removeFields(String collection, String id, String... fields) throws ExecutionException, InterruptedException {
+        modify(collection, id, data -> {
+            for (String field : fields) {
+                int dot = field.lastIndexOf('.');
+                Object parent = dot < 0 ? data : getPath(data, field.substring(0, dot));
+                if (parent instanceof Map) {
+                    ((Map<?, ?>) parent).remove(field.substring(dot + 1));
+                }
+            }
+            return data;
+        });
+    }
+
+    @Override
+    public <R> R runTransaction(DocumentTransaction.Work<R> work) throws ExecutionException, InterruptedException {
+        pause(writeLatencyMillis);
+        // Transactions run one at a time and buffer their writes until the work returns
+        List<Runnable> writes = new ArrayList<>();
+        List<String> written = new ArrayList<>();
+        R result;
+        synchronized (transactionLock) {
+            try {
+                result = work.run(new DocumentTransaction() {
+                    @Override
+                    public Map<String, Object> getData(String collection, String id) {
+                        Map<String, Object> data = documents(collection).get(id);
+                        return data != null ? DocumentMapper.deepCopy(data) : null;
+                    }
+
+                    @Override
+                    public void set(String collection, String id, Object document) {
+                        Map<String, Object> data = mapper.toData(document);
+                        writes.add(() -> documents(collection).put(id, data));
+                        written.add(collection + "/" + id);
+                    }
+
+                    @Override
+                    public void merge(String collection, String id, Map<String, Object> fields) {
+                        writes.add(() -> documents(collection).compute(id, (key, existing) -> {
+                            Map<String, Object> copy = existing != null ? DocumentMapper.deepCopy(existing) : new LinkedHashMap<>();
+                            mergeInto(copy, fields);
+                            return copy;
+                        }));
+                        written.add(collection + "/" + id);
+                    }
+                });
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+            writes.forEach(Runnable::run);
+        }
+        for (String path : written) {
+            int slash = path.lastIndexOf('/');
+            notifyWatchers(path.substring(0, slash), path.substring(slash + 1));
+        }
+        return result;
+    }
+
+    @Override
+    public void delete(String collection, String id) throws InterruptedException {
+        pause(writeLatencyMillis);
+        documents(collection).remove(id);
+        notifyWatchers(collection, id);
+    }
+
+    /** Removes every document; intended for resetting state between test runs. */
+    public void clear() {
+        collections.clear();
+    }
+
+    private ConcurrentMap<String, Map<String, Object>> documents(String collection) {
+        return collections.computeIfAbsent(collection, key -> new ConcurrentHashMap<>());
+    }
+
+    private void modify(String collection, String id, UnaryOperator<Map<String, Object>> change)
+            throws ExecutionException, InterruptedException {
+        pause(writeLatencyMillis);
+        try {
+            documents(collection).compute(id, (key, existing) -> {
+                if (existing == null) {
+                    throw new NoSuchElementException("No document to update: " + collection + "/" + id);
+                }
+                return change.apply(DocumentMapper.deepCopy(existing));
+            });
+        } catch (NoSuchElementException e) {
+            throw new ExecutionException(e);
+        }
+        notifyWatchers(collection, id);
+    }
+
+    @Override
+    public DocumentWatch watchCollection(String collection, CollectionListener listener) {
+        CollectionWatch watch = new CollectionWatch(collection, listener);
+        // Registered before the initial pass, so a concurrent write is delivered at least once
+        collectionWatchers.computeIfAbsent(collection, k -> ConcurrentHashMap.newKeySet()).add(watch);
+        for (String id : documents(collection).keySet()) {
+            watch.deliver(id);
+        }
+        watch.initialSyncDone();
+        return () -> collectionWatchers.computeIfPresent(collection, (k, registered) -> {
+            registered.remove(watch);
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    private void notifyWatchers(String collection, String id) {
+        Set<CollectionWatch> collectionWatches = collectionWatchers.get(collection);
+        if (collectionWatches != null) {
+            new ArrayList<>(collectionWatches).forEach(watch -> watch.deliver(id));
+        }
+    }
+
+    // Each delivery reads the document as it is now, so out-of-order notifications still converge
+    private class CollectionWatch {
+        private final String collection;
+        private final CollectionListener listener;
+
+        CollectionWatch(String collection, CollectionListener listener) {
+            this.collection = collection;
+            this.listener = listener;
+        }
+
+        synchronized void deliver(String id) {
+            Map<String, Object> data = documents(collection).get(id);
+            listener.onChange(id, data != null ? DocumentMapper.deepCopy(data) : null);
+        }
+
+        synchronized void initialSyncDone() {
+            listener.onInitialSync();
+        }
+    }
+
+    private void pause(long baseMillis) throws InterruptedException {
+        long millis = baseMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mergeInto(Map<String, Object> target, Map<String, Object> fields) {
+        fields.forEach((key, value) -> {
+            Object stored = mapper.toValue(value);
+            if (stored instanceof Map && target.get(key) instanceof Map) {
+                mergeInto((Map<String, Object>) target.get(key), (Map<String, Object>) stored);
+            } else {
+                target.put(key, stored);
+            }
+        });
+    }
+
+    private static Map<String, Object> project(Map<String, Object> data, String... fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            if (hasPath(data, field)) {
+                setPath(projected, field, DocumentMapper.deepCopy(getPath(data, field)));
+            }
+        }
+        return projected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object getPath(Map<String, Object> data, String path) {
+        Object current = data;
+        for (String segment : path.split("\\.")) {
+            if (!(current instanceof Map)) {
+                return null;
+            }
+            current = ((Map<String, Object>) current).get(segment);
+        }
+        return current;
+    }
+
+    private static boolean hasPath(Map<String, Object> data, String path) {
+        int dot = path.lastIndexOf('.');
+        Object parent = dot < 0 ? data : getPath(data, path.substring(0, dot));
+        return parent instanceof Map && ((Map<?, ?>) parent).containsKey(path.substring(dot + 1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setPath(Map<String, Object> data, String path, Object value) {
+        String[] segments = path.split("\\.");
+        Map<String, Object> current = data;
+        for (int i = 0; i < segments.length - 1; i++) {
+            Object next = current.get(segments[i]);
+            if (!(next instanceof Map)) {
+                next = new LinkedHashMap<String, Object>();
+                current.put(segments[i], next);
+            }
+            current = (Map<String, Object>) next;
+        }
+        current.put(segments[segments.length - 1], value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> arrayAt(Map<String, Object> data, String path) {
+        Object existing = getPath(data, path);
+        if (existing instanceof List) {
+            return (List<Object>) existing;
+        }
+        List<Object> array = new ArrayList<>();
+        setPath(data, path, array);
+        return array;
+    }
+
+    private boolean matches(Map<String, Object> data, DocumentQuery query) {
+        for (DocumentQuery.Filter filter : query.getFilters()) {
+            if (!hasPath(data, filter.getField())) {
+                return false;
+            }
+            Object actual = getPath(data, filter.getField());
+            switch (filter.getOperator()) {
+                case EQUAL:
+                    if (!valuesEqual(actual, mapper.toValue(filter.getValue()))) {
+                        return false;
+                    }
+                    break;
+                case ARRAY_CONTAINS:
+                    Object expected = mapper.toValue(filter.getValue());
+                    if (!(actual instanceof List) || ((List<?>) actual).stream().noneMatch(element -> valuesEqual(element, expected))) {
+                        return false;
+                    }
+                    break;
+                case IN:
+                    if (((List<?>) filter.getValue()).stream().noneMatch(candidate -> valuesEqual(actual, mapper.toValue(candidate)))) {
+                        return false;
+                    }
+                    break;
+                case GREATER_THAN_OR_EQUAL:
+                    if (!comparable(actual, mapper.toValue(filter.getValue())) || compareValues(actual, mapper.toValue(filter.getValue())) < 0) {
+                        return false;
+                    }
+                    break;
+                case LESS_THAN:
+                    if (!comparable(actual, mapper.toValue(filter.getValue())) || compareValues(actual, mapper.toValue(filter.getValue())) >= 0) {
+                        return false;
+                    }
+                    break;
+                case LESS_THAN_OR_EQUAL:
+                    if (!comparable(actual, mapper.toValue(filter.getValue())) || compareValues(actual, mapper.toValue(filter.getValue())) > 0) {
+                        return false;
+                    }
+                    break;
+            }
+        }
+        for (DocumentQuery.Order order : query.getOrders()) {
+            // Firestore leaves out documents that lack an ordered field
+            if (!hasPath(data, order.getField())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Comparator<Map.Entry<String, Map<String, Object>>> comparator(DocumentQuery query) {
+        Comparator<Map.Entry<String, Map<String, Object>>> comparator = (a, b) -> 0;
+        for (DocumentQuery.Order order : query.getOrders()) {
+            Comparator<Map.Entry<String, Map<String, Object>>> byField =
+                    (a, b) -> compareValues(getPath(a.getValue(), order.getField()), getPath(b.getValue(), order.getField()));
+            comparator = comparator.thenComparing(order.isDescending() ? byField.reversed() : byField);
+        }
+        // Firestore breaks ties by document id in the direction of the last order
+        Comparator<Map.Entry<String, Map<String, Object>>> byKey = Map.Entry.comparingByKey();
+        return comparator.thenComparing(query.isDescendingTieBreak() ? byKey.reversed() : byKey);
+    }
+
+    // Stand-in document holding the cursor values, so it can be placed with the query comparator
+    private Map.Entry<String, Map<String, Object>> cursorEntry(DocumentQuery query) {
+        List<Object> values = query.getStartAfter();
+        Map<String, Object> data = new LinkedHashMap<>();
+        List<DocumentQuery.Order> orders = query.getOrders();
+        for (int i = 0; i < orders.size(); i++) {
+            setPath(data, orders.get(i).getField(), mapper.toValue(values.get(i)));
+        }
+        return Map.entry((String) values.get(values.size() - 1), data);
+    }
+
+    static boolean valuesEqual(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue()) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static int compareValues(Object a, Object b) {
+        int rankA = typeRank(a);
+        int rankB = typeRank(b);
+        if (rankA != rankB) {
+            return Integer.compare(rankA, rankB);
+        }
+        if (a == null) {
+            return 0;
+        }
+        if (a instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        if (a instanceof Date && b instanceof Timestamp) {
+            return Timestamp.of((Date) a).compareTo((Timestamp) b);
+        }
+        if (a instanceof Timestamp && b instanceof Date) {
+            return ((Timestamp) a).compareTo(Timestamp.of((Date) b));
+        }
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return 0;
+    }
+
+    // Firestore range filters only match values of the same type as the bound
+    private static boolean comparable(Object actual, Object bound) {
+        return actual != null && typeRank(actual) == typeRank(bound);
+    }
+
+    // Cross-type ordering used by Firestore: null, booleans, numbers, timestamps, strings, everything else
+    private static int typeRank(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Boolean) {
+            return 1;
+        }
+        if (value instanceof Number) {
+            return 2;
+        }
+        if (value instanceof Timestamp || value instanceof Date) {
+            return 3;
+        }
+        if (value instanceof String) {
+            return 4;
+        }
+        return 5;
+    }
+}
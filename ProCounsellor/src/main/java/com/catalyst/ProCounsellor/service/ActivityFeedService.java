@@ -0,0 +1,181 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.ActivityLog;
+import com.catalyst.ProCounsellor.repository.ActivityFeedRepository;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentJson;
+import com.catalyst.ProCounsellor.repository.DocumentRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.Timestamp;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-recipient activity feed ("X followed you", "X liked your review"). Each
+ * entry is its own document, so publishing costs two small writes (the entry and
+ * the unseen counter) no matter how long the feed is, and never touches the
+ * recipient's profile. Publishing runs on a bounded background pool; callers get
+ * a future but normally do not wait on it.
+ */
+@Service
+public class ActivityFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityFeedService.class);
+
+    public static final String TYPE_FRIEND = "friend";
+    public static final String TYPE_SUBSCRIBE = "subscribe";
+    public static final String TYPE_FOLLOW = "follow";
+    public static final String TYPE_REVIEW = "review";
+    public static final String TYPE_REVIEW_LIKE = "reviewLike";
+    public static final String TYPE_REVIEW_COMMENT = "reviewComment";
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String LEGACY_FIELD = "activityLog";
+    private static final int MIGRATION_BATCH_SIZE = 100;
+
+    private final ActivityFeedRepository activityFeedRepository;
+    private final UserRepository userRepository;
+    private final CounsellorRepository counsellorRepository;
+    private final ThreadPoolExecutor executor;
+    private final ObjectMapper objectMapper = DocumentJson.newObjectMapper();
+
+    public ActivityFeedService(ActivityFeedRepository activityFeedRepository, UserRepository userRepository,
+            CounsellorRepository counsellorRepository,
+            @Value("${procounsellor.activity.threads:2}") int threads,
+            @Value("${procounsellor.activity.queue-capacity:1000}") int queueCapacity) {
+        this.activityFeedRepository = activityFeedRepository;
+        this.userRepository = userRepository;
+        this.counsellorRepository = counsellorRepository;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "activity-feed-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Appends an entry to the recipient's feed and bumps their unseen counter. The
+     * returned future completes once both writes are stored, or exceptionally if
+     * the queue is full or a write fails (already logged).
+     */
+    public CompletableFuture<Void> publish(String recipientId, String actorId, String type, String activity) {
+        ActivityLog entry = new ActivityLog();
+        entry.setId(activityFeedRepository.newId());
+        entry.setRecipientId(recipientId);
+        entry.setActorId(actorId);
+        entry.setType(type);
+        entry.setActivity(activity);
+        entry.setTimestamp(Timestamp.now());
+        entry.setCreatedAt(System.currentTimeMillis());
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    activityFeedRepository.save(entry.getId(), entry);
+                    activityFeedRepository.incrementUnseen(recipientId, 1);
+                    future.complete(null);
+                } catch (Exception e) {
+                    logger.error("Failed to publish {} activity for {}: {}", type, recipientId, e.getMessage());
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Activity feed queue full, dropping {} activity for {}", type, recipientId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** Newest first; pass the previous page's nextCursor to continue. */
+    public CursorPage<ActivityLog> getFeed(String recipientId, String cursor, int limit) throws ExecutionException, InterruptedException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return activityFeedRepository.findByRecipient(recipientId, cursor, pageSize);
+    }
+
+    public long getUnseenCount(String recipientId) throws ExecutionException, InterruptedException {
+        return activityFeedRepository.findUnseenCount(recipientId);
+    }
+
+    public void markSeen(String recipientId) throws ExecutionException, InterruptedException {
+        activityFeedRepository.markSeen(recipientId, System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Copies activityLog arrays left on profiles into the feed (as already seen) and
+     * deletes the arrays. Entry ids are derived from the recipient and array position,
+     * so re-running does not duplicate anything.
+     */
+    public Map<String, Object> migrateProfileActivityLogs() throws ExecutionException, InterruptedException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", migrate(userRepository));
+        result.put("counsellors", migrate(counsellorRepository));
+        return result;
+    }
+
+    // Reads one page of ids at a time, then only the activityLog field of that page
+    private Map<String, Integer> migrate(DocumentRepository<?> profiles) throws ExecutionException, InterruptedException {
+        int profilesMigrated = 0;
+        int entriesCopied = 0;
+        String cursor = null;
+        do {
+            CursorPage<String> ids = profiles.findIdPage(cursor, MIGRATION_BATCH_SIZE);
+            cursor = ids.getNextCursor();
+            List<String> batch = ids.getItems();
+            for (Map.Entry<String, Map<String, Object>> profile : profiles.findAllFieldsById(batch, LEGACY_FIELD).entrySet()) {
+                Object log = profile.getValue().get(LEGACY_FIELD);
+                if (!(log instanceof List)) {
+                    continue;
+                }
+                String recipientId = profile.getKey();
+                Map<String, ActivityLog> entries = new LinkedHashMap<>();
+                List<?> elements = (List<?>) log;
+                for (int i = 0; i < elements.size(); i++) {
+                    ActivityLog entry = objectMapper.convertValue(elements.get(i), ActivityLog.class);
+                    entry.setId(recipientId + "-legacy-" + i);
+                    entry.setRecipientId(recipientId);
+                    if (entry.getTimestamp() != null) {
+                        entry.setCreatedAt(entry.getTimestamp().toSqlTimestamp().getTime());
+                    }
+                    entries.put(entry.getId(), entry);
+                }
+                if (!entries.isEmpty()) {
+                    activityFeedRepository.saveAll(entries);
+                }
+                profiles.removeFields(recipientId, LEGACY_FIELD);
+                profilesMigrated++;
+                entriesCopied += entries.size();
+            }
+        } while (cursor != null);
+        logger.info("Moved {} activity entries off {} profiles", entriesCopied, profilesMigrated);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("profilesMigrated", profilesMigrated);
+        counts.put("entriesCopied", entriesCopied);
+        return counts;
+    }
+}
@@ -5,100 +5,97 @@ import com.catalyst.ProCounsellor.exception.InvalidCredentialsException;
 import com.catalyst.ProCounsellor.exception.UserNotFoundException;
 import com.catalyst.ProCounsellor.model.Admin;
 import com.catalyst.ProCounsellor.model.Counsellor;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.catalyst.ProCounsellor.notification.PushDispatcher;
+import com.catalyst.ProCounsellor.notification.VoipPushClient;
+import com.catalyst.ProCounsellor.repository.AdminRepository;
+import com.catalyst.ProCounsellor.repository.DocumentCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import org.springframework.http.HttpStatus;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 @Service
 public class AdminService {
 
-    private static final String ADMINS = "admins";
+    @Autowired
+    private AdminRepository adminRepository;
+    
+    @Autowired
+    private List<DocumentCache<?>> documentCaches;
+    
+    @Autowired
+    private PushDispatcher pushDispatcher;
+    
+    @Autowired
+    private VoipPushClient voipPushClient;
+
+    @Autowired
+    private CallRecordService callRecordService;
+
+    @Autowired
+    private ActivityFeedService activityFeedService;
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
+    @Autowired
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private AppointmentBookingService appointmentBookingService;
 
     // Signup functionality
     public String signup(Admin user) throws ExecutionException, InterruptedException {
-        Firestore dbFirestore = FirestoreClient.getFirestore();
-        DocumentReference documentReference = dbFirestore.collection(ADMINS).document(user.getUserName());
-
-        // Check if user already exists
-        if (documentReference.get().get().exists()) {
+        // Save new user unless one already exists
+        if (!adminRepository.create(user.getUserName(), user)) {
             return "User already exists with ID: " + user.getUserName();
         }
-
-        // Save new user
-        ApiFuture<WriteResult> collectionsApiFuture = documentReference.set(user);
         return "Signup successful! User ID: " + user.getUserName();
     }
 
     // Signin functionality
     public HttpStatus signin(String identifier, String password) throws ExecutionException, InterruptedException {
-        Firestore dbFirestore = FirestoreClient.getFirestore();
-        CollectionReference adminsCollection = dbFirestore.collection(ADMINS);
-
-        // Determine the identifier type and query the Firestore
-        Query query;
+        // Determine the identifier type and look the admin up by it
+        Admin existingAdmin;
         if (identifier.contains("@")) {
-            query = adminsCollection.whereEqualTo("email", identifier);
+            existingAdmin = adminRepository.findFirstBy("email", identifier);
         } else if (identifier.contains("+91")) {
-            query = adminsCollection.whereEqualTo("phoneNumber", identifier);
+            existingAdmin = adminRepository.findFirstBy("phoneNumber", identifier);
         } else {
-            DocumentReference docRef = adminsCollection.document(identifier);
-
-            // Check if the document exists
-            DocumentSnapshot documentSnapshot = docRef.get().get();
-            if (documentSnapshot.exists()) {
-                Admin existingAdmin = documentSnapshot.toObject(Admin.class);
-
-                // Validate the password
-                if (existingAdmin.getPassword().equals(password)) {
-                    return HttpStatus.OK;
-                } else {
-                    throw new InvalidCredentialsException("Invalid credentials provided.");
-                }
-            } else {
+            existingAdmin = adminRepository.findById(identifier);
+            if (existingAdmin == null) {
                 throw new UserNotFoundException("Admin not found for userName: " + identifier);
             }
         }
 
-        // Execute the query for email or phoneNumber
-        List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
-
-        if (!documents.isEmpty()) {
-            QueryDocumentSnapshot document = documents.get(0);
-            Admin existingAdmin = document.toObject(Admin.class);
-
-            if (existingAdmin.getPassword().equals(password)) {
-                return HttpStatus.OK;
-            } else {
-                throw new InvalidCredentialsException("Invalid credentials provided.");
-            }
-        } else {
+        if (existingAdmin == null) {
             throw new UserNotFoundException("Admin not found for the provided credentials.");
         }
+        // Validate the password
+        if (existingAdmin.getPassword().equals(password)) {
+            return HttpStatus.OK;
+        } else {
+            throw new InvalidCredentialsException("Invalid credentials provided.");
+        }
     }
     
     public String getAdminId(String identifier) throws InterruptedException, ExecutionException {
-	    Firestore dbFirestore = FirestoreClient.getFirestore();
-	    CollectionReference adminsCollection = dbFirestore.collection(ADMINS);
-	    Query query;
+	    Admin admin;
 
 	    if (identifier.matches("^.+@.+\\..+$")) {
-	        query = adminsCollection.whereEqualTo("email", identifier).limit(1);
+	        admin = adminRepository.findFirstBy("email", identifier);
 	    } else if (identifier.matches("^\\+91\\d{10}$")) {
-	        query = adminsCollection.whereEqualTo("phoneNumber", identifier).limit(1);
+	        admin = adminRepository.findFirstBy("phoneNumber", identifier);
 	    } else {
 	        return identifier;
 	    }
 
-	    List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
-
-	    if (!documents.isEmpty()) {
-	        Admin admin = documents.get(0).toObject(Admin.class);
+	    if (admin != null) {
 	        return admin.getUserName();
 	    }
 
@@ -106,9 +103,47 @@ public class AdminService {
 	}
     
 	 public Admin getAdminById(String adminId) throws ExecutionException, InterruptedException {
-		 	Firestore firestore = FirestoreClient.getFirestore();
-	        DocumentSnapshot snapshot = firestore.collection("admins").document(adminId).get().get();
-	        return snapshot.exists() ? snapshot.toObject(Admin.class) : null;
+	        return adminRepository.findById(adminId);
+	    }
+	 
+	 public Map<String, Map<String, Object>> getCacheStats() {
+		 	Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+		 	for (DocumentCache<?> cache : documentCaches) {
+		 		stats.put(cache.getName(), cache.getStats());
+		 	}
+		 	return stats;
+	    }
+	 
+	 public Map<String, Object> getPushStats() {
+		 	return pushDispatcher.getStats();
+	    }
+	 
+	 public Map<String, Object> getVoipPushStats() {
+		 	return voipPushClient.getStats();
+	    }
+	 
+	 public Map<String, Object> getPaymentWebhookStats() {
+		 	return paymentWebhookService.getStats();
+	    }
+	 
+	 public Map<String, Object> migrateCallHistory() throws ExecutionException, InterruptedException {
+		 	return callRecordService.migrateProfileCallHistory();
+	    }
+	 
+	 public Map<String, Object> migrateActivityLog() throws ExecutionException, InterruptedException {
+		 	return activityFeedService.migrateProfileActivityLogs();
+	    }
+	 
+	 public Map<String, Object> migrateWalletTransactions() throws ExecutionException, InterruptedException {
+		 	return walletLedgerService.migrateProfileTransactions();
+	    }
+	 
+	 public Map<String, Object> migrateAppointmentSlots() throws ExecutionException, InterruptedException {
+		 	return appointmentBookingService.migrateSlotClaims();
+	    }
+	 
+	 public Map<String, Object> migrateAppointmentStartTimes() throws ExecutionException, InterruptedException {
+		 	return appointmentBookingService.migrateStartTimes();
 	    }
  
 }
@@ -6,15 +6,12 @@ import org.springframework.stereotype.Service;
 import com.catalyst.ProCounsellor.model.CallHistory;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.User;
-import com.eatthepath.pushy.apns.ApnsClient;
-import com.eatthepath.pushy.apns.ApnsClientBuilder;
+import com.catalyst.ProCounsellor.notification.PushDispatcher;
+import com.catalyst.ProCounsellor.notification.VoipPushClient;
 import com.eatthepath.pushy.apns.PushNotificationResponse;
 import com.eatthepath.pushy.apns.util.SimpleApnsPayloadBuilder;
 import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
-import com.eatthepath.pushy.apns.util.TokenUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
@@ -25,16 +22,8 @@ import io.agora.media.RtcTokenBuilder2;
 
 import com.google.firebase.messaging.AndroidConfig;
 import com.google.firebase.messaging.AndroidNotification;
-import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.Message;
 
-
-import com.google.cloud.storage.*;
-
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -49,6 +38,12 @@ public class AgoraTokenService {
     private final DatabaseReference agoraCallSignalling;
     @Autowired
 	private SharedService sharedService;
+    @Autowired
+    private CallRecordService callRecordService;
+    @Autowired
+    private PushDispatcher pushDispatcher;
+    @Autowired
+    private VoipPushClient voipPushClient;
 
     private String appId = System.getenv("AGORA_APP_ID");
     private String appCertificate = System.getenv("AGORA_APP_CERTIFICATE");
@@ -133,28 +128,7 @@ public class AgoraTokenService {
                 startCall(channelId, callerName, receiverId, callType);
             }
 
-            // Step 2: Load .p12 file from GCS
-            String bucketName = "voipcert";
-            String objectName = "voip_cert.p12";
-            Storage storage = StorageOptions.getDefaultInstance().getService();
-            Blob blob = storage.get(bucketName, objectName);
-
-            if (blob == null) {
-                System.err.println("❌ Could not find voip_cert.p12 in GCS.");
-                return;
-            }
-
-            byte[] p12Bytes = blob.getContent();
-            InputStream p12Stream = new ByteArrayInputStream(p12Bytes);
-            String p12Password = "ProCounsellor@2024";
-
-            // Step 3: Initialize APNs Client
-            ApnsClient apnsClient = new ApnsClientBuilder()
-                    .setApnsServer(ApnsClientBuilder.DEVELOPMENT_APNS_HOST)
-                    .setClientCredentials(p12Stream, p12Password)
-                    .build();
-
-            // Step 4: Construct JSON payload
+            // Step 2: Construct JSON payload
             Map<String, Object> payloadMap = new HashMap<>();
 
             if (isCancel) {
@@ -192,19 +166,8 @@ public class AgoraTokenService {
             ObjectMapper objectMapper = new ObjectMapper();
             String payload = objectMapper.writeValueAsString(payloadMap);
 
-            // Step 5: Prepare push
-            String topic = "com.catalyst.ProCounsellor.voip";
-            String token = TokenUtil.sanitizeTokenString(voipToken);
-
-            SimpleApnsPushNotification pushNotification = new SimpleApnsPushNotification(
-                    token,
-                    topic,
-                    payload
-            );
-
-            // Step 6: Send push
-            PushNotificationResponse<SimpleApnsPushNotification> response =
-                    apnsClient.sendNotification(pushNotification).get();
+            // Step 3: Send push over the shared, already connected APNs client
+            PushNotificationResponse<SimpleApnsPushNotification> response = voipPushClient.send(voipToken, payload);
 
             if (response.isAccepted()) {
                 if (isCancel) {
@@ -215,8 +178,6 @@ public class AgoraTokenService {
             } else {
                 System.err.println("❌ VoIP notification rejected: " + response.getRejectionReason());
             }
-
-            apnsClient.close().get();
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("❌ Error sending VoIP notification: " + e.getMessage());
@@ -244,13 +205,8 @@ public class AgoraTokenService {
             .setAndroidConfig(androidConfig)
             .build();
 
-        // ✅ Step 4: Send push
-        try {
-            FirebaseMessaging.getInstance().send(message);
-            System.out.println("✅ Android Call Notification Sent!");
-        } catch (Exception e) {
-            System.err.println("❌ Error sending Android call notification: " + e.getMessage());
-        }
+        // ✅ Step 4: Queue push
+        pushDispatcher.dispatch(message);
     }
 
     public void endCall(String callId) {
@@ -278,7 +234,7 @@ public class AgoraTokenService {
                             callRef.child("missedCallStatusSeen").setValueAsync(false);                       }
  
                         try {
-                        	saveCallDetailsToCallerAndReceiver(callHistory, callHistory.getCallerId(), callHistory.getReceiverId());
+                        	saveCallRecord(callHistory);
                         } catch (Exception e) {
                             System.err.println("Error saving call details: " + e.getMessage());
                         }
@@ -320,7 +276,7 @@ public class AgoraTokenService {
                         }
  
                         try {
-                        	saveCallDetailsToCallerAndReceiver(callHistory, callHistory.getCallerId(), callHistory.getReceiverId());
+                        	saveCallRecord(callHistory);
                         } catch (Exception e) {
                             System.err.println("Error saving call details: " + e.getMessage());
                         }
@@ -337,55 +293,9 @@ public class AgoraTokenService {
         });
     }
     
-    public void saveCallDetailsToCallerAndReceiver(CallHistory callHistory, String callerId, String receiverId) {
+    public void saveCallRecord(CallHistory callHistory) {
         try {
-            // Check who is the user and who is the counsellor
-            DocumentSnapshot callerDoc = FirestoreClient.getFirestore()
-                    .collection("users").document(callerId).get().get();
-            DocumentSnapshot receiverDoc = FirestoreClient.getFirestore()
-                    .collection("users").document(receiverId).get().get();
-
-            // Fetch caller and receiver user/counsellor objects
-            User callerUser = callerDoc.exists() ? sharedService.getUserById(callerId) : null;
-            Counsellor callerCounsellor = callerDoc.exists() ? null : sharedService.getCounsellorById(callerId);
-
-            User receiverUser = receiverDoc.exists() ? sharedService.getUserById(receiverId) : null;
-            Counsellor receiverCounsellor = receiverDoc.exists() ? null : sharedService.getCounsellorById(receiverId);
-
-            // Update call history for each entity if not null
-            if (callerUser != null) {
-                if (callerUser.getCallHistory() == null) {
-                    callerUser.setCallHistory(new ArrayList<>());
-                }
-                callerUser.getCallHistory().add(callHistory);
-                sharedService.updateUser(callerUser);
-            }
-
-            if (callerCounsellor != null) {
-                if (callerCounsellor.getCallHistory() == null) {
-                    callerCounsellor.setCallHistory(new ArrayList<>());
-                }
-                callerCounsellor.getCallHistory().add(callHistory);
-                sharedService.updateCounsellor(callerCounsellor);
-            }
-
-            if (receiverUser != null) {
-                if (receiverUser.getCallHistory() == null) {
-                    receiverUser.setCallHistory(new ArrayList<>());
-                }
-                receiverUser.getCallHistory().add(callHistory);
-                sharedService.updateUser(receiverUser);
-            }
-
-            if (receiverCounsellor != null) {
-                if (receiverCounsellor.getCallHistory() == null) {
-                    receiverCounsellor.setCallHistory(new ArrayList<>());
-                }
-                receiverCounsellor.getCallHistory().add(callHistory);
-                sharedService.updateCounsellor(receiverCounsellor);
-            }
-
-            System.out.println("Call details updated for both Caller and Receiver.");
+            callRecordService.record(callHistory);
         } catch (Exception e) {
             System.err.println("Error saving call history: " + e.getMessage());
         }
@@ -3,10 +3,15 @@ package com.catalyst.ProCounsellor.service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import org.slf4j.Logger;
@@ -15,27 +20,36 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.catalyst.ProCounsellor.dto.AppointmentBookingRequest;
+import com.catalyst.ProCounsellor.dto.CursorPage;
 import com.catalyst.ProCounsellor.model.AppointmentBooking;
 import com.catalyst.ProCounsellor.model.Counsellor;
-import com.catalyst.ProCounsellor.model.User;
-import com.google.api.core.ApiFuture;
+import com.catalyst.ProCounsellor.repository.AppointmentRepository;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.FieldValue;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
 
 @Service
 public class AppointmentBookingService {
 	
 	@Autowired
-    private Firestore firestore;
+    private AppointmentRepository appointmentRepository;
+	
+	@Autowired
+    private UserRepository userRepository;
+	
+	@Autowired
+    private CounsellorRepository counsellorRepository;
+	
+	@Autowired
+    private CounsellorAvailabilityService counsellorAvailabilityService;
 	
 	private static final Logger logger = LoggerFactory.getLogger(AppointmentBookingService.class);
 	
     private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+    
+    private static final List<String> ACTIVE_STATUSES = List.of("pending", "confirmed");
+    
+    public static final int MAX_PAGE_SIZE = 100;
 
 
 	public String bookAppointment(AppointmentBookingRequest request) throws Exception {
@@ -54,15 +68,13 @@ public class AppointmentBookingService {
 	
 	    // Fetch counsellor details
 	    logger.debug("Fetching counsellor details for ID: {}", request.getCounsellorId());
-	    DocumentSnapshot counsellorSnapshot = firestore.collection("counsellors")
-	            .document(request.getCounsellorId()).get().get();
+	    Counsellor counsellor = counsellorRepository.findById(request.getCounsellorId());
 	
-	    if (!counsellorSnapshot.exists()) {
+	    if (counsellor == null) {
 	        logger.warn("Counsellor not found with ID: {}", request.getCounsellorId());
 	        throw new RuntimeException("Counsellor not found");
 	    }
 	
-	    Counsellor counsellor = counsellorSnapshot.toObject(Counsellor.class);
 	    logger.debug("Counsellor details retrieved: {}", counsellor.getUserName());
 	
 	    String weekday = LocalDate.parse(request.getDate()).getDayOfWeek().toString();
@@ -83,25 +95,9 @@ public class AppointmentBookingService {
 	        throw new RuntimeException("Selected time is outside counsellor's working hours");
 	    }
 	
-	    logger.debug("Checking if slot is already booked...");
-	    ApiFuture<QuerySnapshot> query = firestore.collection("appointments")
-	            .whereEqualTo("counsellorId", request.getCounsellorId())
-	            .whereEqualTo("date", request.getDate())
-	            .whereEqualTo("startTime", request.getStartTime())
-	            .whereIn("status", List.of("pending", "confirmed"))
-	            .get();
-	
-	    if (!query.get().isEmpty()) {
-	        logger.warn("Slot already booked for counsellorId={}, date={}, startTime={}", 
-	                    request.getCounsellorId(), request.getDate(), request.getStartTime());
-	        throw new RuntimeException("Selected slot is already booked");
-	    }
-	
 	    logger.debug("Checking if user has already booked a pending appointment with this counsellor...");
-	    QuerySnapshot pendingUserAppointments = firestore.collection("appointments")
-	            .whereEqualTo("userId", request.getUserId())
-	            .whereEqualTo("counsellorId", request.getCounsellorId())
-	            .whereEqualTo("status", "booked").get().get();
+	    List<AppointmentBooking> pendingUserAppointments = appointmentRepository.findByUserCounsellorAndStatus(
+	            request.getUserId(), request.getCounsellorId(), "booked");
 	
 	    if (!pendingUserAppointments.isEmpty()) {
 	        logger.warn("User {} already has a pending appointment with counsellor {}", 
@@ -116,46 +112,107 @@ public class AppointmentBookingService {
 	    appointment.setDate(request.getDate());
 	    appointment.setStartTime(request.getStartTime());
 	    appointment.setEndTime(end.format(timeFormatter));
+	    appointment.setStartAt(startInstant(appointmentDateTime));
 	    appointment.setMode(request.getMode());
 	    appointment.setNotes(request.getNotes());
 	    appointment.setStatus("pending");
 	    appointment.setCreatedAt(Timestamp.now());
 	    appointment.setUpdatedAt(Timestamp.now());
 	
-	    DocumentReference newDoc = firestore.collection("appointments").document();
-	    appointment.setAppointmentId(newDoc.getId());
+	    appointment.setAppointmentId(appointmentRepository.newId());
 	
-	    newDoc.set(appointment);
+	    // The claim write itself detects a taken slot, so concurrent requests cannot both book it
+	    if (!appointmentRepository.claimSlot(appointment)) {
+	        logger.warn("Slot already booked for counsellorId={}, date={}, startTime={}", 
+	                    request.getCounsellorId(), request.getDate(), request.getStartTime());
+	        throw new RuntimeException("Selected slot is already booked");
+	    }
+	
+	    try {
+	        appointmentRepository.save(appointment.getAppointmentId(), appointment);
+	    } catch (ExecutionException | InterruptedException | RuntimeException e) {
+	        logger.error("Failed to save appointment {}, releasing its slot", appointment.getAppointmentId(), e);
+	        appointmentRepository.releaseSlot(appointment);
+	        throw e;
+	    }
+	    counsellorAvailabilityService.invalidate(request.getCounsellorId());
 	    logger.info("Appointment booked with ID: {}", appointment.getAppointmentId());
 	
 	    logger.debug("Updating appointmentId in user and counsellor records...");
 	
-	    firestore.collection("users")
-	        .document(request.getUserId())
-	        .update("appointmentIds", FieldValue.arrayUnion(appointment.getAppointmentId()));
+	    userRepository.arrayUnion(request.getUserId(), "appointmentIds", appointment.getAppointmentId());
 	
-	    firestore.collection("counsellors")
-	        .document(request.getCounsellorId())
-	        .update("appointmentIds", FieldValue.arrayUnion(appointment.getAppointmentId()));
+	    counsellorRepository.arrayUnion(request.getCounsellorId(), "appointmentIds", appointment.getAppointmentId());
 	
 	    logger.info("Successfully updated appointment references in user and counsellor documents.");
 	
 	    return appointment.getAppointmentId();
 	}
 
-	public List<AppointmentBooking> getAppointmentsByCounsellorId(String counsellorId) throws Exception {
-        logger.info("Fetching appointments for counsellor ID: {}", counsellorId);
+	/** Cancels a pending or confirmed appointment on behalf of its user or counsellor, freeing the slot. */
+	public void cancelAppointment(String appointmentId, String requesterId) throws ExecutionException, InterruptedException {
+	    logger.info("Cancelling appointment {} for {}", appointmentId, requesterId);
+
+	    AppointmentBooking appointment = appointmentRepository.findById(appointmentId);
+	    if (appointment == null) {
+	        logger.warn("No appointment found with ID: {}", appointmentId);
+	        throw new RuntimeException("Appointment not found");
+	    }
+	    if (!requesterId.equals(appointment.getUserId()) && !requesterId.equals(appointment.getCounsellorId())) {
+	        logger.warn("{} is not a participant of appointment {}", requesterId, appointmentId);
+	        throw new RuntimeException("Appointment not found");
+	    }
+	    if (!ACTIVE_STATUSES.contains(appointment.getStatus())) {
+	        logger.warn("Appointment {} is {} and cannot be cancelled", appointmentId, appointment.getStatus());
+	        throw new RuntimeException("Only pending or confirmed appointments can be cancelled");
+	    }
 
-        ApiFuture<QuerySnapshot> future = firestore.collection("appointments")
-                .whereEqualTo("counsellorId", counsellorId)
-                .get();
+	    appointmentRepository.update(appointmentId, Map.of("status", "cancelled", "updatedAt", Timestamp.now()));
+	    appointmentRepository.releaseSlot(appointment);
+	    counsellorAvailabilityService.invalidate(appointment.getCounsellorId());
+	    logger.info("Appointment {} cancelled", appointmentId);
+	}
 
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<AppointmentBooking> appointments = new ArrayList<>();
+	/**
+	 * Back-fills slot claims for active appointments booked before claims existed.
+	 * Safe to re-run; slots already held by another appointment are reported as
+	 * conflicts (earlier double bookings) and left for manual resolution.
+	 */
+	public Map<String, Object> migrateSlotClaims() throws ExecutionException, InterruptedException {
+	    int claimed = 0;
+	    int alreadyClaimed = 0;
+	    List<String> conflicts = new ArrayList<>();
+	    List<AppointmentBooking> active = appointmentRepository.findActive();
+	    for (AppointmentBooking appointment : active) {
+	        if (appointment.getCounsellorId() == null || appointment.getDate() == null || appointment.getStartTime() == null) {
+	            logger.warn("Skipping appointment {} without a complete slot", appointment.getAppointmentId());
+	            continue;
+	        }
+	        if (appointmentRepository.claimSlot(appointment)) {
+	            claimed++;
+	            continue;
+	        }
+	        String holder = appointmentRepository.findSlotHolder(appointment.getCounsellorId(), appointment.getDate(), appointment.getStartTime());
+	        if (appointment.getAppointmentId().equals(holder)) {
+	            alreadyClaimed++;
+	        } else {
+	            logger.warn("Appointment {} double-books the slot held by {}", appointment.getAppointmentId(), holder);
+	            conflicts.add(appointment.getAppointmentId());
+	        }
+	    }
 
-        for (QueryDocumentSnapshot doc : documents) {
-            appointments.add(doc.toObject(AppointmentBooking.class));
-        }
+	    Map<String, Object> result = new LinkedHashMap<>();
+	    result.put("activeAppointments", active.size());
+	    result.put("claimed", claimed);
+	    result.put("alreadyClaimed", alreadyClaimed);
+	    result.put("conflicts", conflicts);
+	    return result;
+	}
+
+	public List<AppointmentBooking> getAppointmentsByCounsellorId(String counsellorId) throws Exception {
+        logger.info("Fetching appointments for counsellor ID: {}", counsellorId);
+
+        List<AppointmentBooking> appointments = appointmentRepository.findByCounsellorId(counsellorId);
 
         logger.info("Total appointments found: {}", appointments.size());
         return appointments;
@@ -165,11 +222,11 @@ public class AppointmentBookingService {
 	public AppointmentBooking getAppointmentById(String appointmentId) throws ExecutionException, InterruptedException {
 	    logger.info("Fetching appointment by ID: {}", appointmentId);
 
-	    DocumentSnapshot snapshot = firestore.collection("appointments").document(appointmentId).get().get();
+	    AppointmentBooking appointment = appointmentRepository.findById(appointmentId);
 
-	    if (snapshot.exists()) {
+	    if (appointment != null) {
 	        logger.info("Appointment found for ID: {}", appointmentId);
-	        return snapshot.toObject(AppointmentBooking.class);
+	        return appointment;
 	    } else {
 	        logger.warn("No appointment found with ID: {}", appointmentId);
 	        return null;
@@ -177,37 +234,23 @@ public class AppointmentBookingService {
 	}
 	
 	public List<AppointmentBooking> getAppointmentsByUserId(String userId) throws Exception {
-        logger.info("Fetching user document for userId: {}", userId);
+        logger.info("Fetching appointment IDs for userId: {}", userId);
 
-        DocumentReference userRef = firestore.collection("users").document(userId);
-        ApiFuture<DocumentSnapshot> userFuture = userRef.get();
-        DocumentSnapshot userSnapshot = userFuture.get();
+        List<String> appointmentIds = userRepository.findAppointmentIds(userId);
 
-        if (!userSnapshot.exists()) {
+        if (appointmentIds == null) {
             logger.warn("User not found for userId: {}", userId);
             return Collections.emptyList();
         }
 
-        User user = userSnapshot.toObject(User.class);
-        List<String> appointmentIds = user.getAppointmentIds();
-
-        if (appointmentIds == null || appointmentIds.isEmpty()) {
+        if (appointmentIds.isEmpty()) {
             logger.info("No appointment IDs found for userId: {}", userId);
             return Collections.emptyList();
         }
 
         logger.info("Found {} appointment IDs for userId: {}", appointmentIds.size(), userId);
 
-        List<AppointmentBooking> appointments = new ArrayList<>();
-        for (String appointmentId : appointmentIds) {
-            logger.debug("Fetching appointment with ID: {}", appointmentId);
-            DocumentSnapshot doc = firestore.collection("appointments").document(appointmentId).get().get();
-            if (doc.exists()) {
-                appointments.add(doc.toObject(AppointmentBooking.class));
-            } else {
-                logger.warn("Appointment not found for ID: {}", appointmentId);
-            }
-        }
+        List<AppointmentBooking> appointments = hydrateAppointments(appointmentIds);
 
         logger.info("Returning {} appointments for userId: {}", appointments.size(), userId);
         return appointments;
@@ -216,52 +259,91 @@ public class AppointmentBookingService {
 	public List<AppointmentBooking> getUpcomingAppointmentsByUserId(String userId) throws Exception {
         logger.info("Fetching upcoming appointments for userId: {}", userId);
 
-        // Step 1: Fetch user document
-        DocumentSnapshot userSnapshot = firestore.collection("users").document(userId).get().get();
-        if (!userSnapshot.exists()) {
-            logger.warn("User not found for userId: {}", userId);
-            return Collections.emptyList();
-        }
-
-        User user = userSnapshot.toObject(User.class);
-        List<String> appointmentIds = user.getAppointmentIds();
-
-        if (appointmentIds == null || appointmentIds.isEmpty()) {
-            logger.info("No appointment IDs found for userId: {}", userId);
-            return Collections.emptyList();
-        }
-
-        logger.info("Found {} appointments for userId: {}", appointmentIds.size(), userId);
-
-        List<AppointmentBooking> upcomingAppointments = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
+        List<AppointmentBooking> upcomingAppointments = appointmentRepository.findAllByStartRange(
+                "userId", userId, System.currentTimeMillis(), null);
 
-        for (String appointmentId : appointmentIds) {
-            DocumentSnapshot doc = firestore.collection("appointments").document(appointmentId).get().get();
-            if (!doc.exists()) {
-                logger.warn("Appointment not found: {}", appointmentId);
-                continue;
-            }
-
-            AppointmentBooking appointment = doc.toObject(AppointmentBooking.class);
-
-            try {
-                String dateStr = appointment.getDate();         // yyyy-MM-dd
-                String startTimeStr = appointment.getStartTime(); // HH:mm
+        logger.info("Returning {} upcoming appointments for userId: {}", upcomingAppointments.size(), userId);
+        return upcomingAppointments;
+    }
+	
+	/** Appointments of the user or counsellor ({@code participantField} userId or counsellorId) not yet started, earliest first. */
+	public CursorPage<AppointmentBooking> getUpcomingAppointments(String participantField, String participantId, String cursor, int limit)
+	        throws ExecutionException, InterruptedException {
+	    return appointmentRepository.findByStartRange(participantField, participantId, System.currentTimeMillis(), null,
+	            false, cursor, pageSize(limit));
+	}
+	
+	/** Appointments already started, latest first. */
+	public CursorPage<AppointmentBooking> getPastAppointments(String participantField, String participantId, String cursor, int limit)
+	        throws ExecutionException, InterruptedException {
+	    return appointmentRepository.findByStartRange(participantField, participantId, null, System.currentTimeMillis(),
+	            true, cursor, pageSize(limit));
+	}
+	
+	/** Appointments on the days from {@code from} to {@code to}, both inclusive, earliest first. */
+	public CursorPage<AppointmentBooking> getAppointmentsBetween(String participantField, String participantId,
+	        LocalDate from, LocalDate to, String cursor, int limit) throws ExecutionException, InterruptedException {
+	    if (to.isBefore(from)) {
+	        throw new IllegalArgumentException("'to' must not be before 'from'");
+	    }
+	    return appointmentRepository.findByStartRange(participantField, participantId,
+	            startInstant(from.atStartOfDay()), startInstant(to.plusDays(1).atStartOfDay()), false, cursor, pageSize(limit));
+	}
+	
+	/**
+	 * Back-fills startAt on appointments booked before it existed, so they show up in
+	 * time-range reads. Safe to re-run; documents that already have it are skipped.
+	 */
+	public Map<String, Object> migrateStartTimes() throws ExecutionException, InterruptedException {
+	    int updated = 0;
+	    int alreadySet = 0;
+	    List<String> unreadable = new ArrayList<>();
+	    for (AppointmentBooking appointment : appointmentRepository.findAll()) {
+	        if (appointment.getStartAt() != null) {
+	            alreadySet++;
+	            continue;
+	        }
+	        try {
+	            LocalDateTime start = LocalDateTime.of(LocalDate.parse(appointment.getDate()),
+	                    LocalTime.parse(appointment.getStartTime(), timeFormatter));
+	            appointmentRepository.update(appointment.getAppointmentId(), "startAt", startInstant(start));
+	            updated++;
+	        } catch (DateTimeParseException | NullPointerException e) {
+	            logger.warn("Cannot derive startAt for appointment {}: date={}, startTime={}",
+	                    appointment.getAppointmentId(), appointment.getDate(), appointment.getStartTime());
+	            unreadable.add(appointment.getAppointmentId());
+	        }
+	    }
 
-                LocalDateTime appointmentStart = LocalDateTime.parse(dateStr + "T" + startTimeStr);
-                if (appointmentStart.isAfter(now)) {
-                    logger.debug("Appointment {} is upcoming", appointmentId);
-                    upcomingAppointments.add(appointment);
-                } else {
-                    logger.debug("Appointment {} has already started or ended", appointmentId);
-                }
-            } catch (Exception e) {
-                logger.error("Failed to parse appointment date/time for ID: {}", appointmentId, e);
+	    Map<String, Object> result = new LinkedHashMap<>();
+	    result.put("updated", updated);
+	    result.put("alreadySet", alreadySet);
+	    result.put("unreadable", unreadable);
+	    return result;
+	}
+	
+	// Appointment times are wall-clock times in the server's zone, as in the past-booking check
+	private static long startInstant(LocalDateTime start) {
+	    return start.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+	
+	private static int pageSize(int limit) {
+	    return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+	}
+	
+	// Loads all appointments in one batched read, keeping the booking order of appointmentIds
+	private List<AppointmentBooking> hydrateAppointments(List<String> appointmentIds) throws ExecutionException, InterruptedException {
+        Map<String, AppointmentBooking> found = appointmentRepository.findAllById(appointmentIds);
+
+        List<AppointmentBooking> appointments = new ArrayList<>(found.size());
+        for (String appointmentId : new LinkedHashSet<>(appointmentIds)) {
+            AppointmentBooking appointment = found.get(appointmentId);
+            if (appointment != null) {
+                appointments.add(appointment);
+            } else {
+                logger.warn("Appointment not found for ID: {}", appointmentId);
             }
         }
-
-        logger.info("Returning {} upcoming appointments for userId: {}", upcomingAppointments.size(), userId);
-        return upcomingAppointments;
+        return appointments;
     }
 }
@@ -0,0 +1,121 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.CallHistory;
+import com.catalyst.ProCounsellor.repository.CallRecordRepository;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentJson;
+import com.catalyst.ProCounsellor.repository.DocumentRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Finished calls live in their own collection, one document per call, instead of
+ * an ever-growing callHistory array on both participants' profiles.
+ */
+@Service
+public class CallRecordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallRecordService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String LEGACY_FIELD = "callHistory";
+    private static final int MIGRATION_BATCH_SIZE = 100;
+
+    private final CallRecordRepository callRecordRepository;
+    private final UserRepository userRepository;
+    private final CounsellorRepository counsellorRepository;
+    private final ObjectMapper objectMapper = DocumentJson.newObjectMapper();
+
+    public CallRecordService(CallRecordRepository callRecordRepository, UserRepository userRepository,
+            CounsellorRepository counsellorRepository) {
+        this.callRecordRepository = callRecordRepository;
+        this.userRepository = userRepository;
+        this.counsellorRepository = counsellorRepository;
+    }
+
+    /** Stores the finished call once, visible to both participants. Re-recording the same callId overwrites it. */
+    public void record(CallHistory call) throws ExecutionException, InterruptedException {
+        call.setParticipants(participants(call));
+        callRecordRepository.save(call.getCallId(), call);
+    }
+
+    /** Newest first; pass the previous page's nextCursor to continue. */
+    public CursorPage<CallHistory> getCallHistory(String participantId, String cursor, int limit)
+            throws ExecutionException, InterruptedException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return callRecordRepository.findByParticipant(participantId, cursor, pageSize);
+    }
+
+    /**
+     * Copies callHistory arrays left on profiles into the call-record collection and
+     * deletes the arrays. Safe to re-run: records are keyed by callId, and entries
+     * written without one get an id derived from caller, receiver and start time.
+     */
+    public Map<String, Object> migrateProfileCallHistory() throws ExecutionException, InterruptedException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", migrate(userRepository));
+        result.put("counsellors", migrate(counsellorRepository));
+        return result;
+    }
+
+    // Ids come from a field-masked scan, so no profile is ever read in full
+    private Map<String, Integer> migrate(DocumentRepository<?> profiles) throws ExecutionException, InterruptedException {
+        int profilesMigrated = 0;
+        int callsCopied = 0;
+        String cursor = null;
+        do {
+            CursorPage<String> ids = profiles.findIdPage(cursor, MIGRATION_BATCH_SIZE);
+            cursor = ids.getNextCursor();
+            List<String> batch = ids.getItems();
+            for (Map.Entry<String, Map<String, Object>> entry : profiles.findAllFieldsById(batch, LEGACY_FIELD).entrySet()) {
+                Object history = entry.getValue().get(LEGACY_FIELD);
+                if (!(history instanceof List)) {
+                    continue;
+                }
+                Map<String, CallHistory> records = new LinkedHashMap<>();
+                for (Object element : (List<?>) history) {
+                    CallHistory call = objectMapper.convertValue(element, CallHistory.class);
+                    if (call.getCallId() == null) {
+                        call.setCallId(call.getCallerId() + "-" + call.getReceiverId() + "-" + call.getStartTime());
+                    }
+                    call.setParticipants(participants(call));
+                    records.put(call.getCallId(), call);
+                }
+                if (!records.isEmpty()) {
+                    callRecordRepository.saveAll(records);
+                }
+                profiles.removeFields(entry.getKey(), LEGACY_FIELD);
+                profilesMigrated++;
+                callsCopied += records.size();
+            }
+        } while (cursor != null);
+        logger.info("Moved {} calls off {} profiles", callsCopied, profilesMigrated);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("profilesMigrated", profilesMigrated);
+        counts.put("callsCopied", callsCopied);
+        return counts;
+    }
+
+    private static List<String> participants(CallHistory call) {
+        LinkedHashSet<String> participants = new LinkedHashSet<>();
+        if (call.getCallerId() != null) {
+            participants.add(call.getCallerId());
+        }
+        if (call.getReceiverId() != null) {
+            participants.add(call.getReceiverId());
+        }
+        return new ArrayList<>(participants);
+    }
+}
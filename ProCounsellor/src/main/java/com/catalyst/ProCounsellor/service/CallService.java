@@ -1,16 +1,10 @@
 package com.catalyst.ProCounsellor.service;
  
 import com.catalyst.ProCounsellor.model.CallHistory;
-import com.catalyst.ProCounsellor.model.Counsellor;
-import com.catalyst.ProCounsellor.model.User;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.database.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
  
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -21,7 +15,7 @@ public class CallService {
     @Autowired
     private FirebaseDatabase firebaseDatabase;
     @Autowired
-	private SharedService sharedService;
+    private CallRecordService callRecordService;
  
     public String startCall(String callerId, String receiverId, String callType) {
         String callId = firebaseDatabase.getReference("calls").push().getKey();
@@ -67,7 +61,7 @@ public class CallService {
                             callRef.child("missedCallStatusSeen").setValueAsync(false);                       }
  
                         try {
-                            saveCallDetailsToUserAndCounsellor(callHistory, callHistory.getCallerId(), callHistory.getReceiverId());
+                            saveCallRecord(callHistory);
                         } catch (Exception e) {
                             System.err.println("Error saving call details: " + e.getMessage());
                         }
@@ -109,7 +103,7 @@ public class CallService {
                         }
  
                         try {
-                            saveCallDetailsToUserAndCounsellor(callHistory, callHistory.getCallerId(), callHistory.getReceiverId());
+                            saveCallRecord(callHistory);
                         } catch (Exception e) {
                             System.err.println("Error saving call details: " + e.getMessage());
                         }
@@ -126,54 +120,9 @@ public class CallService {
         });
     }
     
-    public void saveCallDetailsToUserAndCounsellor(CallHistory callHistory, String callerId, String receiverId) {
+    public void saveCallRecord(CallHistory callHistory) {
         try {
-            Firestore firestore = FirestoreClient.getFirestore();
-
-            // 🔍 Check if caller is a user
-            boolean callerIsUser = firestore.collection("users").document(callerId).get().get().exists();
-
-            // 🔍 Check if receiver is a user
-            boolean receiverIsUser = firestore.collection("users").document(receiverId).get().get().exists();
-
-            // 🔁 Prepare call participants
-            User user = null;
-            Counsellor counsellor = null;
-
-            if (callerIsUser) {
-                user = sharedService.getUserById(callerId);
-            } else {
-                counsellor = sharedService.getCounsellorById(callerId);
-            }
-
-            if (receiverIsUser) {
-                if (user == null) {
-                    user = sharedService.getUserById(receiverId);
-                }
-            } else {
-                if (counsellor == null) {
-                    counsellor = sharedService.getCounsellorById(receiverId);
-                }
-            }
-
-            // ✅ Make sure both exist before proceeding
-            if (user != null) {
-                if (user.getCallHistory() == null) {
-                    user.setCallHistory(new ArrayList<>());
-                }
-                user.getCallHistory().add(callHistory);
-                sharedService.updateUser(user);
-            }
-
-            if (counsellor != null) {
-                if (counsellor.getCallHistory() == null) {
-                    counsellor.setCallHistory(new ArrayList<>());
-                }
-                counsellor.getCallHistory().add(callHistory);
-                sharedService.updateCounsellor(counsellor);
-            }
-
-            System.out.println("✅ Call details updated for available participants.");
+            callRecordService.record(callHistory);
         } catch (Exception e) {
             System.err.println("❌ Error saving call history: " + e.getMessage());
         }
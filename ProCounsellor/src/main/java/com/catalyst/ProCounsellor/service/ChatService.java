@@ -1,104 +1,125 @@
 package com.catalyst.ProCounsellor.service;
 
+import com.catalyst.ProCounsellor.dto.AttachmentFinalizeRequest;
+import com.catalyst.ProCounsellor.dto.AttachmentFinalizeResult;
+import com.catalyst.ProCounsellor.dto.AttachmentUploadRequest;
+import com.catalyst.ProCounsellor.dto.ChatParticipant;
+import com.catalyst.ProCounsellor.dto.CursorPage;
 import com.catalyst.ProCounsellor.dto.MessageRequest;
+import com.catalyst.ProCounsellor.exception.ChatNotFoundException;
+import com.catalyst.ProCounsellor.model.Chat;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.User;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
+import com.catalyst.ProCounsellor.model.StateType;
+import com.catalyst.ProCounsellor.notification.PushDispatcher;
+import com.catalyst.ProCounsellor.repository.ChatRepository;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.catalyst.ProCounsellor.storage.ObjectStorage;
+import com.catalyst.ProCounsellor.storage.SignedUpload;
+import com.catalyst.ProCounsellor.storage.StoredObject;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.MutableData;
 import com.google.firebase.messaging.AndroidConfig;
 import com.google.firebase.messaging.AndroidNotification;
 import com.google.firebase.messaging.ApnsConfig;
 import com.google.firebase.messaging.Aps;
 import com.google.firebase.messaging.ApsAlert;
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.Notification;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
-import com.google.cloud.storage.Acl;
-import com.google.cloud.storage.Blob;
-import com.google.cloud.storage.Bucket;
-import com.google.cloud.storage.Storage;
-import com.google.firebase.cloud.StorageClient;
-import com.google.cloud.firestore.DocumentSnapshot;
 
 
 @Service
 public class ChatService {
 
+    private static final int MAX_MESSAGE_PAGE_SIZE = 200;
+
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
-    private Firestore firestore;
+    private CounsellorRepository counsellorRepository;
 
     @Autowired
     private FirebaseDatabase firebaseDatabase; // This is for Realtime Database
     
     @Autowired
-	private UserService userService;
+    private PushDispatcher pushDispatcher;
+    
+    @Autowired
+    private ObjectStorage objectStorage;
+    
+    @Autowired
+    private InboxService inboxService;
     
     @Autowired
-	private CounsellorService counsellorService;
+    private PresenceService presenceService;
+    
+    @Value("${procounsellor.chat.attachments.max-bytes:52428800}")
+    private long attachmentMaxBytes;
+    
+    @Value("${procounsellor.chat.attachments.upload-url-ttl-seconds:900}")
+    private long attachmentUploadUrlTtlSeconds;
     
     @Autowired
 	private SharedService sharedService;
 
     public String startChat(String userId, String counsellorId) throws ExecutionException, InterruptedException {
         // Step 1: Validate userId exists in the users table (Firestore)
-        DocumentReference userDocRef = firestore.collection("users").document(userId);
-        DocumentSnapshot userSnapshot = userDocRef.get().get();
-        if (!userSnapshot.exists()) {
+        if (!userRepository.existsById(userId)) {
             throw new IllegalArgumentException("Invalid userId: User does not exist.");
         }
 
         // Step 2: Validate counsellorId exists in the counsellors table (Firestore)
-        DocumentReference counsellorDocRef = firestore.collection("counsellors").document(counsellorId);
-        DocumentSnapshot counsellorSnapshot = counsellorDocRef.get().get();
-        if (!counsellorSnapshot.exists()) {
+        if (!counsellorRepository.existsById(counsellorId)) {
             throw new IllegalArgumentException("Invalid counsellorId: Counsellor does not exist.");
         }
 
         // Step 3: Check if a chat already exists between the user and counselor (Firestore)
-        ApiFuture<QuerySnapshot> existingChatQuery = firestore.collection("chats")
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("counsellorId", counsellorId)
-                .get();
-
-        QuerySnapshot querySnapshot = existingChatQuery.get();
-        if (!querySnapshot.isEmpty()) {
+        Chat existingChat = chatRepository.findByUserAndCounsellor(userId, counsellorId);
+        if (existingChat != null) {
             // A chat already exists, return the existing chatId
-            return querySnapshot.getDocuments().get(0).getId();
+            return existingChat.getId();
         }
 
         // Step 4: Create a new chat if it does not exist (Firestore)
-        Map<String, Object> chatData = new HashMap<>();
-        chatData.put("userId", userId);
-        chatData.put("counsellorId", counsellorId);
-        chatData.put("createdAt", FieldValue.serverTimestamp());
+        Chat chat = new Chat();
+        chat.setUserId(userId);
+        chat.setCounsellorId(counsellorId);
 
-        DocumentReference newChatRef = firestore.collection("chats").document();
-        newChatRef.set(chatData).get();
+        String newChatId = chatRepository.newId();
+        chatRepository.save(newChatId, chat);
         
-        addChatIdToUser(userDocRef, newChatRef.getId(), userId, counsellorId);
-        addChatIdToCounsellor(counsellorDocRef, newChatRef.getId(), counsellorId, userId);
+        addChatIdToUser(userId, newChatId, userId, counsellorId);
+        addChatIdToCounsellor(counsellorId, newChatId, counsellorId, userId);
         
-        return newChatRef.getId();
+        return newChatId;
     }
     
 //    public String startChatUserToUser(String userId, String userId2) throws ExecutionException, InterruptedException {
@@ -144,15 +165,11 @@ public class ChatService {
 //    }
     
     public String startChatUserToUser(String userId, String userId2) throws ExecutionException, InterruptedException {
-        DocumentReference userDocRef = firestore.collection("users").document(userId);
-        DocumentSnapshot userSnapshot = userDocRef.get().get();
-        if (!userSnapshot.exists()) {
+        if (!userRepository.existsById(userId)) {
             throw new IllegalArgumentException("Invalid userId: User does not exist.");
         }
 
-        DocumentReference user2DocRef = firestore.collection("users").document(userId2);
-        DocumentSnapshot user2Snapshot = user2DocRef.get().get();
-        if (!user2Snapshot.exists()) {
+        if (!userRepository.existsById(userId2)) {
             throw new IllegalArgumentException("Invalid user: userId2 does not exist.");
         }
 
@@ -160,48 +177,34 @@ public class ChatService {
         List<String> participants = Arrays.asList(userId, userId2);
         Collections.sort(participants);
 
-        ApiFuture<QuerySnapshot> existingChatQuery = firestore.collection("chats")
-            .whereEqualTo("participants", participants)
-            .get();
-
-        QuerySnapshot querySnapshot = existingChatQuery.get();
-        if (!querySnapshot.isEmpty()) {
-            return querySnapshot.getDocuments().get(0).getId();
+        Chat existingChat = chatRepository.findByParticipants(participants);
+        if (existingChat != null) {
+            return existingChat.getId();
         }
 
         // ✅ Step 4: Create new chat
-        Map<String, Object> chatData = new HashMap<>();
-        chatData.put("userId", userId);
-        chatData.put("userId2", userId2);
-        chatData.put("participants", participants); // ✅ Added sorted participant list
-        chatData.put("createdAt", FieldValue.serverTimestamp());
+        Chat chat = new Chat();
+        chat.setUserId(userId);
+        chat.setUserId2(userId2);
+        chat.setParticipants(participants); // ✅ Added sorted participant list
 
-        DocumentReference newChatRef = firestore.collection("chats").document();
-        newChatRef.set(chatData).get();
+        String newChatId = chatRepository.newId();
+        chatRepository.save(newChatId, chat);
 
-        addChatIdToUser(userDocRef, newChatRef.getId(), userId, userId2);
-        addChatIdToUser(user2DocRef, newChatRef.getId(), userId2, userId);
+        addChatIdToUser(userId, newChatId, userId, userId2);
+        addChatIdToUser(userId2, newChatId, userId2, userId);
 
-        return newChatRef.getId();
+        return newChatId;
     }
 
 
-    private void addChatIdToCounsellor(DocumentReference counsellorDocRef, String newChatId, String user1, String user2) throws InterruptedException, ExecutionException {
-    	ApiFuture<DocumentSnapshot> future = counsellorDocRef.get();
-        DocumentSnapshot document = future.get();
+    private void addChatIdToCounsellor(String counsellorId, String newChatId, String user1, String user2) throws InterruptedException, ExecutionException {
+        Counsellor counsellor = counsellorRepository.findById(counsellorId);
        
-        if (document.exists()) {
-            // Retrieve the existing chatIdsCreatedForCounsellor list
-        	List<Map<String, String>> chatIds;
-
-            if (document.exists()) {
-                // Retrieve existing list or initialize if null
-                chatIds = (List<Map<String, String>>) document.get("chatIdsCreatedForCounsellor");
-                if (chatIds == null) {
-                    chatIds = new ArrayList<>();
-                }
-            } else {
-                // If document doesn't exist, initialize list
+        if (counsellor != null) {
+            // Retrieve existing list or initialize if null
+        	List<Map<String, String>> chatIds = counsellor.getChatIdsCreatedForCounsellor();
+            if (chatIds == null) {
                 chatIds = new ArrayList<>();
             }
             
@@ -214,8 +217,7 @@ public class ChatService {
                 chatIds.add(m);
 
                 // Update Firestore document with the new list
-                ApiFuture<WriteResult> writeResult = counsellorDocRef.update("chatIdsCreatedForCounsellor", chatIds);
-                writeResult.get();  // Wait for the update to complete
+                counsellorRepository.update(counsellorId, "chatIdsCreatedForCounsellor", chatIds);
 
                 System.out.println("Chat ID added successfully: " + newChatId);
             } else {
@@ -224,22 +226,13 @@ public class ChatService {
         }
 	}
 
-	private void addChatIdToUser(DocumentReference userDocRef, String newChatId, String user1, String user2) throws InterruptedException, ExecutionException {
-		ApiFuture<DocumentSnapshot> future = userDocRef.get();
-        DocumentSnapshot document = future.get();
+	private void addChatIdToUser(String userId, String newChatId, String user1, String user2) throws InterruptedException, ExecutionException {
+		User user = userRepository.findById(userId);
         
-        if (document.exists()) {
-            // Retrieve the existing chatIdsCreatedForCounsellor list
-        	List<Map<String, String>> chatIds;
-
-            if (document.exists()) {
-                // Retrieve existing list or initialize if null
-                chatIds = (List<Map<String, String>>) document.get("chatIdsCreatedForUser");
-                if (chatIds == null) {
-                    chatIds = new ArrayList<>();
-                }
-            } else {
-                // If document doesn't exist, initialize list
+        if (user != null) {
+            // Retrieve existing list or initialize if null
+        	List<Map<String, String>> chatIds = user.getChatIdsCreatedForUser();
+            if (chatIds == null) {
                 chatIds = new ArrayList<>();
             }
 
@@ -252,8 +245,7 @@ public class ChatService {
                 chatIds.add(m);
 
                 // Update Firestore document with the new list
-                ApiFuture<WriteResult> writeResult = userDocRef.update("chatIdsCreatedForUser", chatIds);
-                writeResult.get();  // Wait for the update to complete
+                userRepository.update(userId, "chatIdsCreatedForUser", chatIds);
 
                 System.out.println("Chat ID added successfully: " + newChatId);
             } else {
@@ -264,18 +256,18 @@ public class ChatService {
 
 	public void sendMessage(String chatId, MessageRequest messageRequest) throws ExecutionException, InterruptedException, IllegalAccessException {
         // Fetch the chat document to validate the user and counselor IDs (Firestore)
-        DocumentSnapshot chatSnapshot = firestore.collection("chats").document(chatId).get().get();
+        Chat chat = chatRepository.findById(chatId);
 
-        if (!chatSnapshot.exists()) {
+        if (chat == null) {
             throw new IllegalArgumentException("Chat not found.");
         }
 
         // Get the userId and counselorId from the chat document (Firestore)
-        String storedUserId = chatSnapshot.getString("userId");
-        String storedCounselorId = chatSnapshot.getString("counsellorId");
+        String storedUserId = chat.getUserId();
+        String storedCounselorId = chat.getCounsellorId();
         
         
-        String storedUserId2 = chatSnapshot.getString("userId2");
+        String storedUserId2 = chat.getUserId2();
 
         // Validate that the senderId is either the userId or counselorId
         if (!messageRequest.getSenderId().equals(storedUserId) && !messageRequest.getSenderId().equals(storedCounselorId) &&!messageRequest.getSenderId().equals(storedUserId2)) {
@@ -292,9 +284,11 @@ public class ChatService {
         messageData.put("senderId", messageRequest.getSenderId());
         messageData.put("text", messageRequest.getText());
         messageData.put("isSeen", false);
-        messageData.put("timestamp", System.currentTimeMillis());
+        long timestamp = System.currentTimeMillis();
+        messageData.put("timestamp", timestamp);
 
         chatMessagesRef.child(messageId).setValueAsync(messageData);
+        inboxService.recordMessage(chatId, chat, messageId, messageRequest.getSenderId(), messageRequest.getText(), timestamp);
         
         // ✅ Send push notification
         sendPushNotification(messageRequest.getReceiverFcmToken(), messageRequest.getSenderId(), messageRequest.getText());
@@ -339,56 +333,171 @@ public class ChatService {
 	        .putData("message", messageText)
 	        .build();
 
-	    try {
-	        String response = FirebaseMessaging.getInstance().send(message);
-	        System.out.println("✅ Push notification sent successfully: " + response);
-	    } catch (FirebaseMessagingException e) {
-	        System.err.println("❌ Failed to send push notification: " + e.getMessage());
-	    }
+	    // Delivered asynchronously so the FCM round trip stays off the send path
+	    pushDispatcher.dispatch(message);
 	}
 
 	public String sendFileMessage(String chatId, String senderId, String receiverFcmToken, MultipartFile file) throws Exception {
         // Fetch chat details to verify sender
-        DocumentSnapshot chatSnapshot = firestore.collection("chats").document(chatId).get().get();
+        Chat chat = chatRepository.findById(chatId);
 
-        if (!chatSnapshot.exists()) {
+        if (chat == null) {
             throw new IllegalArgumentException("Chat not found.");
         }
 
-        String storedUserId = chatSnapshot.getString("userId");
-        String storedCounselorId = chatSnapshot.getString("counsellorId");
-        String storedUserId2 = chatSnapshot.getString("userId2");
+        String storedUserId = chat.getUserId();
+        String storedCounselorId = chat.getCounsellorId();
+        String storedUserId2 = chat.getUserId2();
         // Validate sender
         if (!senderId.equals(storedUserId) && !senderId.equals(storedCounselorId) &&!senderId.equals(storedUserId2)) {
             throw new IllegalAccessException("You are not authorized to send a file in this chat.");
         }
 
-        // Upload file to Firebase Storage
+        // Upload file to object storage (publicly readable)
         String fileName = "chats/" + chatId + "/" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        Bucket bucket = StorageClient.getInstance().bucket("procounsellor-71824.firebasestorage.app");
-        Blob blob = bucket.create(fileName, file.getInputStream(), file.getContentType());
-        
-        blob.createAcl(Acl.of(Acl.User.ofAllUsers(), Acl.Role.READER));//Make URL publicly accessible.
+        String fileUrl = objectStorage.upload(fileName, file.getInputStream(), file.getContentType());
 
-        String fileUrl = "https://storage.googleapis.com/" + bucket.getName() + "/" + fileName;
+        String messageId = firebaseDatabase.getReference("chats").child(chatId).child("messages").push().getKey();
+        saveFileMessage(chatId, chat, messageId, senderId, fileUrl, file.getOriginalFilename(), file.getContentType());
+        sendPushNotification(receiverFcmToken, senderId, "📎 Sent a file");
+
+        return fileUrl;
+    }
+
+    /**
+     * Step one of a direct upload: checks the sender belongs to the chat and returns a
+     * short-lived URL the client uploads the file to, scoped to chats/{chatId}/.
+     */
+    public SignedUpload requestAttachmentUpload(String chatId, AttachmentUploadRequest request) throws Exception {
+        requireChatMember(chatId, request.getSenderId());
+        if (request.getFileName() == null || request.getFileName().isBlank() || request.getContentType() == null) {
+            throw new IllegalArgumentException("fileName and contentType are required.");
+        }
+        String objectPath = "chats/" + chatId + "/" + System.currentTimeMillis() + "_" + sanitizeFileName(request.getFileName());
+        return objectStorage.signUpload(objectPath, request.getContentType(), attachmentMaxBytes, Duration.ofSeconds(attachmentUploadUrlTtlSeconds));
+    }
+
+    /**
+     * Step two: once the client has uploaded, records the chat message and notifies
+     * the receiver. The object must exist under this chat's prefix. Finalizing the same
+     * object again (a client retry) returns the message already recorded for it.
+     */
+    public AttachmentFinalizeResult finalizeAttachment(String chatId, AttachmentFinalizeRequest request) throws Exception {
+        Chat chat = requireChatMember(chatId, request.getSenderId());
+        String objectPath = request.getObjectPath();
+        if (objectPath == null || !objectPath.startsWith("chats/" + chatId + "/") || objectPath.contains("..")) {
+            throw new IllegalAccessException("Attachment does not belong to this chat.");
+        }
+        StoredObject object = objectStorage.stat(objectPath);
+        if (object == null) {
+            throw new IllegalArgumentException("Attachment has not been uploaded.");
+        }
+
+        String fileName = request.getFileName() != null ? request.getFileName() : objectPath.substring(objectPath.lastIndexOf('/') + 1);
+        String fileUrl = objectStorage.publicUrl(objectPath);
+
+        DatabaseReference chatRef = firebaseDatabase.getReference("chats").child(chatId);
+        String messageId = chatRef.child("messages").push().getKey();
+        String recordedMessageId = claimAttachment(chatRef.child("attachments").child(attachmentKey(objectPath)), messageId);
 
+        AttachmentFinalizeResult result = new AttachmentFinalizeResult();
+        result.setFileUrl(fileUrl);
+        result.setMessageId(recordedMessageId);
+        result.setCreated(messageId.equals(recordedMessageId));
+        if (result.isCreated()) {
+            saveFileMessage(chatId, chat, messageId, request.getSenderId(), fileUrl, fileName, object.getContentType());
+            sendPushNotification(request.getReceiverFcmToken(), request.getSenderId(), "📎 Sent a file");
+        }
+        return result;
+    }
+
+    /**
+     * Records {@code messageId} against an attachment unless one is already recorded, and
+     * returns whichever message id the attachment ends up with.
+     */
+    private String claimAttachment(DatabaseReference attachmentRef, String messageId) throws ExecutionException, InterruptedException {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        attachmentRef.runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                if (currentData.getValue() != null) {
+                    return Transaction.abort();
+                }
+                currentData.setValue(messageId);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    future.completeExceptionally(new Exception("Failed to record attachment: " + error.getMessage()));
+                } else {
+                    future.complete(currentData.getValue(String.class));
+                }
+            }
+        }, false);
+        return future.get();
+    }
+
+    // Object paths contain '/' and '.', which are not allowed in Realtime Database keys
+    private static String attachmentKey(String objectPath) {
+        StringBuilder key = new StringBuilder(objectPath.length());
+        for (char c : objectPath.toCharArray()) {
+            if (c == '%' || c == '.' || c == '/' || c == '#' || c == '$' || c == '[' || c == ']') {
+                key.append('%').append(String.format("%02X", (int) c));
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    private Chat requireChatMember(String chatId, String senderId) throws ExecutionException, InterruptedException, IllegalAccessException {
+        Chat chat = chatRepository.findById(chatId);
+        if (chat == null) {
+            throw new IllegalArgumentException("Chat not found.");
+        }
+        if (!isParticipant(chat, senderId)) {
+            throw new IllegalAccessException("You are not authorized to send a file in this chat.");
+        }
+        return chat;
+    }
+
+    private void requireChatReader(String chatId, String readerId) throws ExecutionException, InterruptedException, IllegalAccessException {
+        Chat chat = chatRepository.findById(chatId);
+        if (chat == null) {
+            throw new ChatNotFoundException("Chat not found.");
+        }
+        if (!isParticipant(chat, readerId)) {
+            throw new IllegalAccessException("You are not a participant of this chat.");
+        }
+    }
+
+    private static boolean isParticipant(Chat chat, String participantId) {
+        return participantId != null
+                && (participantId.equals(chat.getUserId()) || participantId.equals(chat.getCounsellorId()) || participantId.equals(chat.getUserId2()));
+    }
+
+    private static String sanitizeFileName(String fileName) {
+        String baseName = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+        return baseName.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private void saveFileMessage(String chatId, Chat chat, String messageId, String senderId, String fileUrl, String fileName, String fileType) {
         // Save message in Firebase Realtime Database
         DatabaseReference chatMessagesRef = firebaseDatabase.getReference("chats").child(chatId).child("messages");
-        String messageId = chatMessagesRef.push().getKey();
 
         Map<String, Object> messageData = new HashMap<>();
         messageData.put("senderId", senderId);
         messageData.put("fileUrl", fileUrl);
-        messageData.put("fileName", file.getOriginalFilename());
-        messageData.put("fileType", file.getContentType());
+        messageData.put("fileName", fileName);
+        messageData.put("fileType", fileType);
         messageData.put("isSeen", false);
-        messageData.put("timestamp", System.currentTimeMillis());
+        long timestamp = System.currentTimeMillis();
+        messageData.put("timestamp", timestamp);
 
         chatMessagesRef.child(messageId).setValueAsync(messageData);
-        
-        sendPushNotification(receiverFcmToken, senderId, "📎 Sent a file");
-
-        return fileUrl;
+        inboxService.recordMessage(chatId, chat, messageId, senderId, "📎 " + fileName, timestamp);
     }
 
     public CompletableFuture<List<Map<String, Object>>> getChatMessages(String chatId) {
@@ -427,58 +536,126 @@ public class ChatService {
         return future;
     }
     
-    public boolean doesChatExist(String userId, String counsellorId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection("chats")
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("counsellorId", counsellorId)
-                .get();
+    /**
+     * One page of chat history, newest page first and oldest-to-newest within the page.
+     * Pass the returned nextCursor as {@code before} to load the previous (older) page.
+     * Only {@code limit} messages are read from the database, however long the chat is.
+     */
+    public CompletableFuture<CursorPage<Map<String, Object>>> getChatMessagesPage(String chatId, String before, int limit) {
+        CompletableFuture<CursorPage<Map<String, Object>>> future = new CompletableFuture<>();
+        int pageSize = Math.max(1, Math.min(limit, MAX_MESSAGE_PAGE_SIZE));
+
+        // Message keys are push ids, so key order is send order
+        Query query = firebaseDatabase.getReference("chats")
+                .child(chatId)
+                .child("messages")
+                .orderByKey();
+        // This SDK has no endBefore: read up to the cursor inclusive and drop it below.
+        // One extra message tells whether an older page exists.
+        query = before != null ? query.endAt(before).limitToLast(pageSize + 2) : query.limitToLast(pageSize + 1);
 
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot) {
+                List<Map<String, Object>> messages = new ArrayList<>();
+                for (DataSnapshot messageSnapshot : dataSnapshot.getChildren()) {
+                    if (messageSnapshot.getKey().equals(before)) {
+                        continue;
+                    }
+                    Map<String, Object> message = (Map<String, Object>) messageSnapshot.getValue();
+                    message.put("id", messageSnapshot.getKey());
+                    messages.add(message);
+                }
+                String nextCursor = null;
+                if (messages.size() > pageSize) {
+                    messages = new ArrayList<>(messages.subList(messages.size() - pageSize, messages.size()));
+                    nextCursor = (String) messages.get(0).get("id");
+                }
+                future.complete(CursorPage.of(messages, nextCursor));
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError) {
+                future.completeExceptionally(new Exception("Error fetching chat messages: " + databaseError.getMessage()));
+            }
+        });
+
+        return future;
+    }
+    
+    public boolean doesChatExist(String userId, String counsellorId) throws ExecutionException, InterruptedException {
         // Check if any document matches the query
-        return !query.get().getDocuments().isEmpty();
+        return chatRepository.findByUserAndCounsellor(userId, counsellorId) != null;
     }
     
     public boolean doesChatExistUserToUser(String userId, String userId2) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection("chats")
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("userId2", userId2)
-                .get();
-
         // Check if any document matches the query
-        return !query.get().getDocuments() .isEmpty();
+        return chatRepository.findByUsers(userId, userId2) != null;
     }
     
     public List<Counsellor> getCounsellorsForUser(String userId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection("chats")
-                .whereEqualTo("userId", userId)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<Counsellor> counsellors = new ArrayList<>();
-        for (QueryDocumentSnapshot document : querySnapshot.getDocuments()) {
+        List<Chat> chats = chatRepository.findByUserId(userId);
+        List<String> counsellorIds = new ArrayList<>();
+        for (Chat chat : chats) {
             // Extract counsellorId from each chat document
-        	Counsellor counsellor = counsellorService.getCounsellorById(document.getString("counsellorId"));
-            if (counsellor != null) {
-            	counsellors.add(counsellor);
-            }
+            counsellorIds.add(chat.getCounsellorId());
         }
-        return counsellors;
+        return inChatOrder(counsellorIds, counsellorRepository.findAllById(counsellorIds));
     }
 
     public List<User> getUsersForCounsellor(String counsellorId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection("chats")
-                .whereEqualTo("counsellorId", counsellorId)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<User> users = new ArrayList<>();
-        for (QueryDocumentSnapshot document : querySnapshot.getDocuments()) {
+        List<Chat> chats = chatRepository.findByCounsellorId(counsellorId);
+        List<String> userIds = new ArrayList<>();
+        for (Chat chat : chats) {
             // Extract userId from each chat document
-            User user = userService.getUserById(document.getString("userId"));
-            if (user != null) {
-                users.add(user);
+            userIds.add(chat.getUserId());
+        }
+        return inChatOrder(userIds, userRepository.findAllById(userIds));
+    }
+    
+    /**
+     * Chat partners of a user as compact participant records (names, photos,
+     * presence, FCM token). Profiles come from one field-masked batch and presence
+     * from the listener-backed index, for users and counsellors alike.
+     */
+    public List<ChatParticipant> getCounsellorParticipantsForUser(String userId) throws ExecutionException, InterruptedException {
+        List<String> counsellorIds = new ArrayList<>();
+        for (Chat chat : chatRepository.findByUserId(userId)) {
+            counsellorIds.add(chat.getCounsellorId());
+        }
+        List<ChatParticipant> participants = inChatOrder(counsellorIds, counsellorRepository.findChatParticipants(counsellorIds));
+        for (ChatParticipant participant : participants) {
+            participant.setState(stateOf(presenceService.isCounsellorOnline(participant.getUserName())));
+        }
+        return participants;
+    }
+
+    public List<ChatParticipant> getUserParticipantsForCounsellor(String counsellorId) throws ExecutionException, InterruptedException {
+        List<String> userIds = new ArrayList<>();
+        for (Chat chat : chatRepository.findByCounsellorId(counsellorId)) {
+            userIds.add(chat.getUserId());
+        }
+        List<ChatParticipant> participants = inChatOrder(userIds, userRepository.findChatParticipants(userIds));
+        for (ChatParticipant participant : participants) {
+            participant.setState(stateOf(presenceService.isUserOnline(participant.getUserName())));
+        }
+        return participants;
+    }
+
+    private static String stateOf(boolean online) {
+        return (online ? StateType.ONLINE : StateType.OFFLINE).name();
+    }
+    
+    // One entry per chat, in chat order, skipping partners whose profile no longer exists
+    private static <T> List<T> inChatOrder(List<String> partnerIds, Map<String, T> partners) {
+        List<T> result = new ArrayList<>();
+        for (String partnerId : partnerIds) {
+            T partner = partners.get(partnerId);
+            if (partner != null) {
+                result.add(partner);
             }
         }
-        return users;
+        return result;
     }
     
     public CompletableFuture<Boolean> isMessageSeen(String chatId, String messageId) {
@@ -496,7 +673,20 @@ public class ChatService {
             public void onDataChange(DataSnapshot dataSnapshot) {
                 if (dataSnapshot.exists()) {
                     Boolean isSeen = dataSnapshot.child("isSeen").getValue(Boolean.class);
-                    future.complete(isSeen != null && isSeen); // Return true if isSeen is true
+                    if (isSeen != null && isSeen) {
+                        future.complete(true);
+                        return;
+                    }
+                    // Otherwise seen if another participant's read watermark has reached it
+                    String senderId = dataSnapshot.child("senderId").getValue(String.class);
+                    getReadMarkers(chatId).whenComplete((markers, error) -> {
+                        if (error != null) {
+                            future.completeExceptionally(error);
+                            return;
+                        }
+                        future.complete(markers.entrySet().stream().anyMatch(marker -> !marker.getKey().equals(senderId)
+                                && marker.getValue() != null && messageId.compareTo(marker.getValue()) <= 0));
+                    });
                 } else {
                     future.completeExceptionally(new IllegalArgumentException("Message not found."));
                 }
@@ -532,4 +722,118 @@ public class ChatService {
         return future;
     }
 
+    /**
+     * Marks everything up to and including {@code messageId} as read by {@code readerId}
+     * with a single write to chats/{chatId}/readMarkers/{readerId}. Push ids sort in send
+     * order, so the watermark only ever moves forward; an older id is a no-op. The reader
+     * must be a participant of the chat.
+     */
+    public CompletableFuture<String> markReadUpTo(String chatId, String readerId, String messageId) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        if (readerId == null || messageId == null) {
+            future.completeExceptionally(new IllegalArgumentException("readerId and messageId are required."));
+            return future;
+        }
+        try {
+            requireChatReader(chatId, readerId);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        readMarkerRef(chatId, readerId).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                String current = currentData.child("messageId").getValue(String.class);
+                if (current != null && current.compareTo(messageId) >= 0) {
+                    return Transaction.abort();
+                }
+                Map<String, Object> marker = new HashMap<>();
+                marker.put("messageId", messageId);
+                marker.put("readAt", System.currentTimeMillis());
+                currentData.setValue(marker);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    future.completeExceptionally(new Exception("Failed to update read marker: " + error.getMessage()));
+                } else {
+                    // The watermark after the update, which is newer than messageId if another device got there first
+                    String watermark = currentData.child("messageId").getValue(String.class);
+                    if (committed) {
+                        inboxService.markRead(chatId, readerId, watermark);
+                    }
+                    future.complete(watermark);
+                }
+            }
+        }, false);
+
+        return future;
+    }
+
+    /** Last-read message id per participant of the chat. */
+    public CompletableFuture<Map<String, String>> getReadMarkers(String chatId) {
+        CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+        firebaseDatabase.getReference("chats").child(chatId).child("readMarkers")
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot dataSnapshot) {
+                        Map<String, String> markers = new HashMap<>();
+                        for (DataSnapshot marker : dataSnapshot.getChildren()) {
+                            markers.put(marker.getKey(), marker.child("messageId").getValue(String.class));
+                        }
+                        future.complete(markers);
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError databaseError) {
+                        future.completeExceptionally(new Exception("Error fetching read markers: " + databaseError.getMessage()));
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Seen state of many messages for one reader, derived from the reader's watermark:
+     * a message is seen if its id is not after the watermark. One read, whatever the count.
+     * The reader must be a participant of the chat.
+     */
+    public CompletableFuture<Map<String, Boolean>> getSeenStatus(String chatId, String readerId, List<String> messageIds) {
+        CompletableFuture<Map<String, Boolean>> future = new CompletableFuture<>();
+        if (readerId == null || messageIds == null) {
+            future.completeExceptionally(new IllegalArgumentException("readerId and messageIds are required."));
+            return future;
+        }
+        try {
+            requireChatReader(chatId, readerId);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        readMarkerRef(chatId, readerId).child("messageId").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot dataSnapshot) {
+                String watermark = dataSnapshot.getValue(String.class);
+                Map<String, Boolean> seen = new LinkedHashMap<>();
+                for (String messageId : messageIds) {
+                    seen.put(messageId, watermark != null && messageId.compareTo(watermark) <= 0);
+                }
+                future.complete(seen);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError databaseError) {
+                future.completeExceptionally(new Exception("Error fetching read marker: " + databaseError.getMessage()));
+            }
+        });
+        return future;
+    }
+
+    private DatabaseReference readMarkerRef(String chatId, String readerId) {
+        return firebaseDatabase.getReference("chats").child(chatId).child("readMarkers").child(readerId);
+    }
+
 }
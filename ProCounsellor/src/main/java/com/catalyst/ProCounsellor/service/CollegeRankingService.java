@@ -1,79 +1,56 @@
 package com.catalyst.ProCounsellor.service;
 
 import com.catalyst.ProCounsellor.model.feedingModel.CollegeRanking;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.catalyst.ProCounsellor.repository.CollegeRankingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 @Service
 public class CollegeRankingService {
 
-    private static final String COLLECTION_NAME = "collegeRankings";
+    @Autowired
+    private CollegeRankingRepository collegeRankingRepository;
 
     public CollegeRanking createCollege(CollegeRanking college) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-        college.setCollegeId(docRef.getId()); // Auto-generate ID
-        ApiFuture<WriteResult> future = docRef.set(college);
-        future.get(); // wait
+        college.setCollegeId(collegeRankingRepository.newId()); // Auto-generate ID
+        collegeRankingRepository.save(college.getCollegeId(), college);
         return college;
     }
     
     public List<CollegeRanking> createCollegeBulk(List<CollegeRanking> colleges) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        WriteBatch batch = firestore.batch();
+        Map<String, CollegeRanking> batch = new LinkedHashMap<>();
 
         for (CollegeRanking college : colleges) {
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-            college.setCollegeId(docRef.getId());
-            batch.set(docRef, college);
+            college.setCollegeId(collegeRankingRepository.newId());
+            batch.put(college.getCollegeId(), college);
         }
 
-        batch.commit().get();
+        collegeRankingRepository.saveAll(batch);
 
         return colleges;
     }
 
     public CollegeRanking getCollegeById(String collegeId) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(collegeId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        if (document.exists()) {
-            return document.toObject(CollegeRanking.class);
-        } else {
-            return null; // or throw custom exception
-        }
+        return collegeRankingRepository.findById(collegeId);
     }
 
     public List<CollegeRanking> getAllColleges() throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        return documents.stream()
-                        .map(doc -> doc.toObject(CollegeRanking.class))
-                        .collect(Collectors.toList());
+        return collegeRankingRepository.findAll();
     }
 
     public CollegeRanking updateCollege(String collegeId, CollegeRanking updatedCollege) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(collegeId);
         updatedCollege.setCollegeId(collegeId);
-        ApiFuture<WriteResult> future = docRef.set(updatedCollege);
-        future.get(); // wait
+        collegeRankingRepository.save(collegeId, updatedCollege);
         return updatedCollege;
     }
 
     public String deleteCollege(String collegeId) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(collegeId);
-        ApiFuture<WriteResult> writeResult = docRef.delete();
-        writeResult.get(); // wait
+        collegeRankingRepository.deleteById(collegeId);
         return "College with ID " + collegeId + " deleted successfully.";
     }
 }
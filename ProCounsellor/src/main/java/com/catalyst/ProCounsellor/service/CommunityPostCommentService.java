@@ -2,8 +2,8 @@ package com.catalyst.ProCounsellor.service;
 
 import com.catalyst.ProCounsellor.model.feedingModel.CommunityPost;
 import com.catalyst.ProCounsellor.model.feedingModel.CommunityPostComment;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.catalyst.ProCounsellor.repository.CommunityPostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,19 +16,15 @@ import java.util.ArrayList;
 @Service
 public class CommunityPostCommentService {
 
-    private static final String POST_COLLECTION = "communityPosts";
+    @Autowired
+    private CommunityPostRepository communityPostRepository;
 
     public CommunityPostComment addComment(CommunityPostComment comment) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference postRef = firestore.collection(POST_COLLECTION).document(comment.getPostId());
-
-        DocumentSnapshot postSnapshot = postRef.get().get();
-        if (!postSnapshot.exists()) {
+        CommunityPost post = communityPostRepository.findById(comment.getPostId());
+        if (post == null) {
             throw new RuntimeException("Post with ID " + comment.getPostId() + " not found.");
         }
 
-        CommunityPost post = postSnapshot.toObject(CommunityPost.class);
-
         if (post.getComments() == null) {
             post.setComments(new ArrayList<>());
         }
@@ -36,44 +32,35 @@ public class CommunityPostCommentService {
         comment.setTimestamp(DateTimeFormatter.ISO_INSTANT.format(Instant.now()));
         post.getComments().add(comment);
 
-        postRef.set(post).get();
+        communityPostRepository.save(comment.getPostId(), post);
 
         return comment;
     }
 
     public List<CommunityPostComment> getCommentsByPostId(String postId) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference postRef = firestore.collection(POST_COLLECTION).document(postId);
-        DocumentSnapshot postSnapshot = postRef.get().get();
+        CommunityPost post = communityPostRepository.findById(postId);
 
-        if (!postSnapshot.exists()) {
+        if (post == null) {
             throw new RuntimeException("Post with ID " + postId + " not found.");
         }
 
-        CommunityPost post = postSnapshot.toObject(CommunityPost.class);
-
         return post.getComments() != null ? post.getComments() : new ArrayList<>();
     }
 
     public String deleteComment(String postId, int commentIndex) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference postRef = firestore.collection(POST_COLLECTION).document(postId);
-        DocumentSnapshot postSnapshot = postRef.get().get();
+        CommunityPost post = communityPostRepository.findById(postId);
 
-        if (!postSnapshot.exists()) {
+        if (post == null) {
             throw new RuntimeException("Post with ID " + postId + " not found.");
         }
 
-        CommunityPost post = postSnapshot.toObject(CommunityPost.class);
-
         if (post.getComments() == null || commentIndex < 0 || commentIndex >= post.getComments().size()) {
             throw new RuntimeException("Invalid comment index.");
         }
 
         post.getComments().remove(commentIndex); // remove by index
-        postRef.set(post).get();
+        communityPostRepository.save(postId, post);
 
         return "Comment deleted successfully.";
     }
 }
-
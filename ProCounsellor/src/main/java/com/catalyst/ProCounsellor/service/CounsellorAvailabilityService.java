@@ -0,0 +1,217 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.AvailableDay;
+import com.catalyst.ProCounsellor.model.AppointmentBooking;
+import com.catalyst.ProCounsellor.repository.AppointmentRepository;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Free 30-minute slots of a counsellor over a date range, from the working days and
+ * office hours on the profile minus active bookings. Bookings are loaded with one
+ * range query and kept per counsellor as minute-of-day bitmaps; the entry is dropped
+ * whenever this process books or cancels one of the counsellor's appointments.
+ * Writes from other instances show up once the entry expires, and booking still
+ * re-checks the slot, so a stale answer can only offer a slot that is then refused.
+ */
+@Service
+public class CounsellorAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounsellorAvailabilityService.class);
+
+    public static final int SLOT_MINUTES = 30;
+
+    private static final String[] SCHEDULE_FIELDS = { "workingDays", "officeStartTime", "officeEndTime" };
+    private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    // Invalidation generations, striped by counsellor, so a load that raced with a booking is not cached
+    private static final int STRIPES = 64;
+
+    private final AppointmentRepository appointmentRepository;
+    private final CounsellorRepository counsellorRepository;
+    private final int maxRangeDays;
+    private final Cache<String, Occupancy> occupancy;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public CounsellorAvailabilityService(AppointmentRepository appointmentRepository, CounsellorRepository counsellorRepository,
+            @Value("${procounsellor.availability.max-range-days:31}") int maxRangeDays,
+            @Value("${procounsellor.cache.availability.max-entries:10000}") long maxEntries,
+            @Value("${procounsellor.cache.availability.expire-after-write-seconds:60}") long expireAfterWriteSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.counsellorRepository = counsellorRepository;
+        this.maxRangeDays = maxRangeDays;
+        this.occupancy = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .build();
+    }
+
+    /**
+     * Working days between the two dates (both inclusive) with their free slots.
+     * Slots start at the office start time and must end by the office end time;
+     * slots already in the past are left out. Returns null if the counsellor does
+     * not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public List<AvailableDay> getAvailability(String counsellorId, LocalDate from, LocalDate to) throws ExecutionException, InterruptedException {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new IllegalArgumentException("Date range is limited to " + maxRangeDays + " days");
+        }
+
+        Map<String, Object> schedule = counsellorRepository.findFieldsById(counsellorId, SCHEDULE_FIELDS);
+        if (schedule == null) {
+            return null;
+        }
+        List<String> workingDays = (List<String>) schedule.get("workingDays");
+        int officeStart = minuteOfDay((String) schedule.get("officeStartTime"));
+        int officeEnd = minuteOfDay((String) schedule.get("officeEndTime"));
+        List<AvailableDay> days = new ArrayList<>();
+        if (workingDays == null || workingDays.isEmpty() || officeStart < 0 || officeEnd < 0) {
+            logger.debug("Counsellor {} has no schedule set", counsellorId);
+            return days;
+        }
+
+        Occupancy busy = occupancy(counsellorId, from, to);
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            String weekday = weekday(date.getDayOfWeek());
+            if (!workingDays.contains(weekday)) {
+                continue;
+            }
+            List<String> slots = new ArrayList<>();
+            for (int start = officeStart; start + SLOT_MINUTES <= officeEnd; start += SLOT_MINUTES) {
+                LocalTime startTime = LocalTime.ofSecondOfDay(start * 60L);
+                if (LocalDateTime.of(date, startTime).isBefore(now) || !busy.isFree(date, start, start + SLOT_MINUTES)) {
+                    continue;
+                }
+                slots.add(startTime.format(timeFormatter));
+            }
+            AvailableDay day = new AvailableDay();
+            day.setDate(date.toString());
+            day.setWeekday(weekday);
+            day.setSlots(slots);
+            days.add(day);
+        }
+        return days;
+    }
+
+    /** Drops the cached bookings of the counsellor; call after booking or cancelling one of their appointments. */
+    public void invalidate(String counsellorId) {
+        generations.incrementAndGet(stripe(counsellorId));
+        occupancy.invalidate(counsellorId);
+    }
+
+    private Occupancy occupancy(String counsellorId, LocalDate from, LocalDate to) throws ExecutionException, InterruptedException {
+        Occupancy cached = occupancy.getIfPresent(counsellorId);
+        if (cached != null && cached.covers(from, to)) {
+            return cached;
+        }
+
+        long generation = generations.get(stripe(counsellorId));
+        List<AppointmentBooking> bookings = appointmentRepository.findActiveInDateRange(counsellorId, from.toString(), to.toString());
+        Occupancy loaded = new Occupancy(from, to);
+        for (AppointmentBooking booking : bookings) {
+            loaded.mark(booking);
+        }
+        logger.debug("Loaded {} active bookings of counsellor {} for {} to {}", bookings.size(), counsellorId, from, to);
+
+        if (generations.get(stripe(counsellorId)) == generation) {
+            occupancy.put(counsellorId, loaded);
+            // A booking may have landed between the check and the put
+            if (generations.get(stripe(counsellorId)) != generation) {
+                occupancy.invalidate(counsellorId);
+            }
+        }
+        return loaded;
+    }
+
+    // Same spelling as the workingDays entries, e.g. "Monday"
+    private static String weekday(DayOfWeek dayOfWeek) {
+        return dayOfWeek.getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+    }
+
+    // -1 if the time is missing or malformed
+    private static int minuteOfDay(String time) {
+        if (time == null) {
+            return -1;
+        }
+        try {
+            return LocalTime.parse(time).toSecondOfDay() / 60;
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static int stripe(String counsellorId) {
+        return Math.floorMod(counsellorId.hashCode(), STRIPES);
+    }
+
+    /** Booked minutes per day over a loaded date range; days without bookings have no bitmap. */
+    private static class Occupancy {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Map<LocalDate, BitSet> busyMinutes = new HashMap<>();
+
+        Occupancy(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        boolean covers(LocalDate rangeFrom, LocalDate rangeTo) {
+            return !rangeFrom.isBefore(from) && !rangeTo.isAfter(to);
+        }
+
+        void mark(AppointmentBooking booking) {
+            int start = minuteOfDay(booking.getStartTime());
+            int end = minuteOfDay(booking.getEndTime());
+            if (start < 0) {
+                logger.warn("Skipping appointment {} with unreadable start time {}", booking.getAppointmentId(), booking.getStartTime());
+                return;
+            }
+            if (end <= start) {
+                end = Math.min(start + SLOT_MINUTES, 24 * 60);
+            }
+            try {
+                busyMinutes.computeIfAbsent(LocalDate.parse(booking.getDate()), date -> new BitSet(24 * 60)).set(start, end);
+            } catch (DateTimeParseException e) {
+                logger.warn("Skipping appointment {} with unreadable date {}", booking.getAppointmentId(), booking.getDate());
+            }
+        }
+
+        boolean isFree(LocalDate date, int startMinute, int endMinute) {
+            BitSet busy = busyMinutes.get(date);
+            if (busy == null) {
+                return true;
+            }
+            int next = busy.nextSetBit(startMinute);
+            return next < 0 || next >= endMinute;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.CounsellorSearchQuery;
+import com.catalyst.ProCounsellor.dto.CounsellorSearchResult;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.repository.CollectionListener;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentWatch;
+import com.catalyst.ProCounsellor.repository.PageCursor;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory discovery index over the counsellors collection, kept current by a
+ * collection listener, so browsing never reads Firestore. Each query is one pass
+ * over a pre-sorted snapshot that filters, counts facets and cuts the page. The
+ * snapshot is re-sorted lazily, and only after a change to a searchable field, so
+ * presence, wallet and chat writes to counsellor profiles cost nothing here.
+ */
+@Service
+public class CounsellorSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounsellorSearchService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final long INITIAL_SYNC_TIMEOUT_SECONDS = 10;
+    private static final long RESUBSCRIBE_DELAY_SECONDS = 5;
+
+    private static final String FACET_EXPERTISE = "expertise";
+    private static final String FACET_LANGUAGE = "languagesKnow";
+    private static final String FACET_STATE = "stateOfCounsellor";
+    private static final String FACET_VERIFIED = "verified";
+
+    private enum Sort {
+        RATING(Comparator.comparing(CounsellorSummary::getRating, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))),
+        PRICE_ASC(Comparator.comparing(CounsellorSummary::getRatePerMinute, Comparator.nullsLast(Comparator.<Double>naturalOrder()))),
+        PRICE_DESC(Comparator.comparing(CounsellorSummary::getRatePerMinute, Comparator.nullsLast(Comparator.<Double>reverseOrder())));
+
+        final Comparator<CounsellorSummary> order;
+
+        Sort(Comparator<CounsellorSummary> bySortKey) {
+            this.order = bySortKey.thenComparing(CounsellorSummary::getUserName);
+        }
+    }
+
+    private final CounsellorRepository counsellorRepository;
+    private final ConcurrentMap<String, CounsellorSummary> entries = new ConcurrentHashMap<>();
+    // Bumped on every change to a searchable field; the sorted snapshot is rebuilt when it lags behind
+    private final AtomicLong version = new AtomicLong();
+    private final CountDownLatch initialSync = new CountDownLatch(1);
+    private final ScheduledExecutorService resubscriber = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "counsellor-index-resubscribe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile SortedSnapshot snapshot;
+    private volatile DocumentWatch watch;
+
+    public CounsellorSearchService(CounsellorRepository counsellorRepository) {
+        this.counsellorRepository = counsellorRepository;
+        subscribe();
+    }
+
+    /** One page of counsellors matching every set filter, with facet counts over all matches. */
+    public CounsellorSearchResult search(CounsellorSearchQuery query, String cursor, int limit) throws InterruptedException {
+        Sort sort = parseSort(query.getSort());
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        CounsellorSummary after = cursor != null && !cursor.isEmpty() ? cursorPosition(sort, PageCursor.decode(cursor)) : null;
+
+        Map<String, Map<String, int[]>> counts = new LinkedHashMap<>();
+        for (String facet : List.of(FACET_EXPERTISE, FACET_LANGUAGE, FACET_STATE, FACET_VERIFIED)) {
+            counts.put(facet, new HashMap<>());
+        }
+        List<CounsellorSummary> page = new ArrayList<>();
+        boolean more = false;
+        int total = 0;
+
+        for (CounsellorSummary hit : sorted(sort)) {
+            if (!matchesRanges(hit, query)) {
+                continue;
+            }
+            boolean expertise = query.getExpertise() == null || containsIgnoreCase(hit.getExpertise(), query.getExpertise());
+            boolean language = query.getLanguage() == null || containsIgnoreCase(hit.getLanguagesKnow(), query.getLanguage());
+            boolean state = query.getState() == null || containsIgnoreCase(hit.getStateOfCounsellor(), query.getState());
+            boolean verified = query.getVerified() == null || query.getVerified() == hit.isVerified();
+            int failed = (expertise ? 0 : 1) + (language ? 0 : 1) + (state ? 0 : 1) + (verified ? 0 : 1);
+
+            // A facet counts the hits that pass every other filter, so its own selection does not hide the alternatives
+            if (failed > 1) {
+                continue;
+            }
+            if (failed == 0 || !expertise) {
+                count(counts.get(FACET_EXPERTISE), hit.getExpertise());
+            }
+            if (failed == 0 || !language) {
+                count(counts.get(FACET_LANGUAGE), hit.getLanguagesKnow());
+            }
+            if (failed == 0 || !state) {
+                count(counts.get(FACET_STATE), hit.getStateOfCounsellor());
+            }
+            if (failed == 0 || !verified) {
+                counts.get(FACET_VERIFIED).computeIfAbsent(String.valueOf(hit.isVerified()), value -> new int[1])[0]++;
+            }
+            if (failed > 0) {
+                continue;
+            }
+
+            total++;
+            if (after == null || sort.order.compare(hit, after) > 0) {
+                if (page.size() < pageSize) {
+                    page.add(copy(hit));
+                } else {
+                    more = true;
+                }
+            }
+        }
+
+        CounsellorSearchResult result = new CounsellorSearchResult();
+        result.setItems(page);
+        result.setTotal(total);
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        counts.forEach((facet, values) -> {
+            Map<String, Integer> sortedValues = new TreeMap<>();
+            values.forEach((value, count) -> sortedValues.put(value, count[0]));
+            facets.put(facet, sortedValues);
+        });
+        result.setFacets(facets);
+        if (more) {
+            CounsellorSummary last = page.get(page.size() - 1);
+            result.setNextCursor(PageCursor.encode(Arrays.asList(sortKey(sort, last)), last.getUserName()));
+        }
+        return result;
+    }
+
+    /** Every counsellor with the given expertise, highest rated first. */
+    public List<CounsellorSummary> findByExpertise(String course) throws InterruptedException {
+        List<CounsellorSummary> hits = new ArrayList<>();
+        for (CounsellorSummary hit : sorted(Sort.RATING)) {
+            if (course != null && containsIgnoreCase(hit.getExpertise(), course)) {
+                hits.add(copy(hit));
+            }
+        }
+        return hits;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resubscriber.shutdownNow();
+        DocumentWatch current = watch;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void subscribe() {
+        watch = counsellorRepository.watchCollection(new IndexListener());
+    }
+
+    private void apply(String userName, Map<String, Object> data) {
+        if (data == null) {
+            if (entries.remove(userName) != null) {
+                version.incrementAndGet();
+            }
+            return;
+        }
+        CounsellorSummary hit = CounsellorRepository.toSummary(userName, data);
+        if (!hit.equals(entries.put(userName, hit))) {
+            version.incrementAndGet();
+        }
+    }
+
+    private List<CounsellorSummary> sorted(Sort sort) throws InterruptedException {
+        if (initialSync.getCount() > 0 && !initialSync.await(INITIAL_SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("Counsellor search index not synced yet, answering from partial data");
+        }
+        SortedSnapshot current = snapshot;
+        if (current == null || current.version != version.get()) {
+            synchronized (this) {
+                current = snapshot;
+                long latest = version.get();
+                if (current == null || current.version != latest) {
+                    current = new SortedSnapshot(latest, entries.values());
+                    snapshot = current;
+                }
+            }
+        }
+        return current.bySort.get(sort);
+    }
+
+    private static boolean matchesRanges(CounsellorSummary hit, CounsellorSearchQuery query) {
+        Double rate = hit.getRatePerMinute();
+        if (query.getMinRatePerMinute() != null && (rate == null || rate < query.getMinRatePerMinute())) {
+            return false;
+        }
+        if (query.getMaxRatePerMinute() != null && (rate == null || rate > query.getMaxRatePerMinute())) {
+            return false;
+        }
+        return query.getMinRating() == null || (hit.getRating() != null && hit.getRating() >= query.getMinRating());
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.RATING;
+        }
+        try {
+            return Sort.valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + sort + " (use rating, price_asc or price_desc)");
+        }
+    }
+
+    private static Object sortKey(Sort sort, CounsellorSummary hit) {
+        if (sort == Sort.RATING) {
+            return hit.getRating();
+        }
+        return hit.getRatePerMinute();
+    }
+
+    // Stand-in hit carrying the cursor's sort key and id, placed with the sort's comparator
+    private static CounsellorSummary cursorPosition(Sort sort, PageCursor cursor) {
+        if (cursor.getOrderValues().size() != 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        Object key = cursor.getOrderValues().get(0);
+        if (key != null && !(key instanceof Number)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        CounsellorSummary position = new CounsellorSummary();
+        position.setUserName(cursor.getDocumentId());
+        if (key != null) {
+            if (sort == Sort.RATING) {
+                position.setRating(((Number) key).intValue());
+            } else {
+                position.setRatePerMinute(((Number) key).doubleValue());
+            }
+        }
+        return position;
+    }
+
+    private static boolean containsIgnoreCase(List<String> values, String wanted) {
+        if (values != null) {
+            for (String value : values) {
+                if (wanted.equalsIgnoreCase(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void count(Map<String, int[]> facet, List<String> values) {
+        if (values != null) {
+            for (int i = 0; i < values.size(); i++) {
+                // Count a value once per counsellor even if the list repeats it
+                if (values.indexOf(values.get(i)) == i) {
+                    facet.computeIfAbsent(values.get(i), value -> new int[1])[0]++;
+                }
+            }
+        }
+    }
+
+    // Index entries are shared by all readers; callers get their own copy
+    private static CounsellorSummary copy(CounsellorSummary hit) {
+        CounsellorSummary copy = new CounsellorSummary();
+        copy.setUserName(hit.getUserName());
+        copy.setFirstName(hit.getFirstName());
+        copy.setLastName(hit.getLastName());
+        copy.setPhotoUrlSmall(hit.getPhotoUrlSmall());
+        copy.setOrganisationName(hit.getOrganisationName());
+        copy.setExperience(hit.getExperience());
+        copy.setRating(hit.getRating());
+        copy.setRatePerMinute(hit.getRatePerMinute());
+        copy.setRatePerYear(hit.getRatePerYear());
+        copy.setExpertise(hit.getExpertise());
+        copy.setLanguagesKnow(hit.getLanguagesKnow());
+        copy.setStateOfCounsellor(hit.getStateOfCounsellor());
+        copy.setVerified(hit.isVerified());
+        return copy;
+    }
+
+    private static class SortedSnapshot {
+        final long version;
+        final Map<Sort, List<CounsellorSummary>> bySort = new EnumMap<>(Sort.class);
+
+        SortedSnapshot(long version, Collection<CounsellorSummary> hits) {
+            this.version = version;
+            for (Sort sort : Sort.values()) {
+                List<CounsellorSummary> ordered = new ArrayList<>(hits);
+                ordered.sort(sort.order);
+                bySort.put(sort, ordered);
+            }
+        }
+    }
+
+    private class IndexListener implements CollectionListener {
+
+        // Ids seen in this subscription's initial pass; anything else was deleted while unsubscribed
+        private Set<String> initialIds = new HashSet<>();
+
+        @Override
+        public void onChange(String id, Map<String, Object> data) {
+            if (initialIds != null) {
+                initialIds.add(id);
+            }
+            apply(id, data);
+        }
+
+        @Override
+        public void onInitialSync() {
+            for (String id : entries.keySet()) {
+                if (!initialIds.contains(id)) {
+                    apply(id, null);
+                }
+            }
+            initialIds = null;
+            logger.info("Counsellor search index loaded: {} counsellors", entries.size());
+            initialSync.countDown();
+        }
+
+        @Override
+        public void onError(Exception error) {
+            logger.error("Counsellor search listener failed, resubscribing in {}s: {}", RESUBSCRIBE_DELAY_SECONDS, error.getMessage());
+            // Queries answer from the last known state rather than waiting out the retry
+            initialSync.countDown();
+            resubscriber.schedule(CounsellorSearchService.this::subscribe, RESUBSCRIBE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+}
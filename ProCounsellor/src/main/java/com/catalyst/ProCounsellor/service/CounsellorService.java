@@ -1,22 +1,20 @@
 package com.catalyst.ProCounsellor.service;
 
 import com.catalyst.ProCounsellor.config.JwtKeyProvider;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.dto.CursorPage;
 import com.catalyst.ProCounsellor.exception.InvalidCredentialsException;
 import com.catalyst.ProCounsellor.exception.UserNotFoundException;
 import com.catalyst.ProCounsellor.model.AppointmentBooking;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.CounsellorState;
 import com.catalyst.ProCounsellor.model.User;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.google.cloud.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.cloud.FirestoreClient;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import io.jsonwebtoken.Jwts;
 
@@ -26,12 +24,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -49,27 +47,28 @@ public class CounsellorService {
 	@Autowired 
     private MailOtpService mailOtpService;
 	
-    private static final String COUNSELLORS = "counsellors";
-    
-    Firestore firestore = FirestoreClient.getFirestore();
+	@Autowired
+	private CounsellorRepository counsellorRepository;
+	
+	@Autowired
+	private PresenceService presenceService;
     
     private static final Logger logger = LoggerFactory.getLogger(CounsellorService.class);
     
+    public static final int MAX_PAGE_SIZE = 100;
+    
     public Counsellor updateCounsellorFields(String counsellorId, Map<String, Object> updates) throws ExecutionException, InterruptedException {
         logger.info("Attempting to update counsellor with ID: {}", counsellorId);
         logger.debug("Update fields: {}", updates);
 
-        DocumentReference docRef = firestore.collection(COUNSELLORS).document(counsellorId);
-
         try {
-            ApiFuture<WriteResult> writeResultFuture = docRef.update(updates);
-            WriteResult writeResult = writeResultFuture.get();
+            // The wallet balance is only ever written by the ledger
+            counsellorRepository.update(counsellorId, WalletLedgerService.withoutLedgerFields(updates));
 
-            logger.info("Successfully updated counsellor ID: {} at {}", counsellorId, writeResult.getUpdateTime());
+            logger.info("Successfully updated counsellor ID: {}", counsellorId);
 
-            DocumentSnapshot document = docRef.get().get();
-            if (document.exists()) {
-                Counsellor updatedCounsellor = document.toObject(Counsellor.class);
+            Counsellor updatedCounsellor = counsellorRepository.findById(counsellorId);
+            if (updatedCounsellor != null) {
                 logger.debug("Updated counsellor data: {}", updatedCounsellor);
                 return updatedCounsellor;
             } else {
@@ -111,7 +110,6 @@ public class CounsellorService {
 		if(!counsellor.isEmailOtpVerified() || !counsellor.isPhoneOtpVerified()) {
 			throw new Exception("Email or phone number has not been verified yet");
 		}
-        Firestore dbFirestore = FirestoreClient.getFirestore();
 
         counsellor.setUserName(counsellor.getPhoneNumber().replaceFirst("^\\+\\d{2}", ""));
         counsellor.setRole("counsellor");
@@ -169,29 +167,29 @@ public class CounsellorService {
         }
 
         // Check for uniqueness
-        DocumentReference userDocRef = dbFirestore.collection(COUNSELLORS).document(counsellor.getUserName());
-        if (userDocRef.get().get().exists()) {
+        if (counsellorRepository.existsById(counsellor.getUserName())) {
             logger.warn("Signup failed: Username already exists - {}", counsellor.getUserName());
             return "User already exists with userName: " + counsellor.getUserName();
         }
 
-        CollectionReference counsellorsCollection = dbFirestore.collection(COUNSELLORS);
-        Query phoneQuery = counsellorsCollection.whereEqualTo("phoneNumber", counsellor.getPhoneNumber());
-        Query emailQuery = counsellorsCollection.whereEqualTo("email", counsellor.getEmail());
-
-        if (!phoneQuery.get().get().isEmpty()) {
+        if (counsellorRepository.findByPhoneNumber(counsellor.getPhoneNumber()) != null) {
             logger.warn("Signup failed: Phone number already exists - {}", counsellor.getPhoneNumber());
             return "Phone number already exists: " + counsellor.getPhoneNumber();
         }
 
-        if (!emailQuery.get().get().isEmpty()) {
+        if (counsellorRepository.findByEmail(counsellor.getEmail()) != null) {
             logger.warn("Signup failed: Email already exists - {}", counsellor.getEmail());
             return "Email already exists: " + counsellor.getEmail();
         }
 
-        // Save new counsellor
-        ApiFuture<WriteResult> collectionsApiFuture = userDocRef.set(counsellor);
-        logger.info("Counsellor signup successful for username: {}, time: {}", counsellor.getUserName(), collectionsApiFuture.get().getUpdateTime());
+        // Save new counsellor; create-if-absent so an existing profile is never overwritten,
+        // and the opening balance comes from the ledger, not the request
+        counsellor.setWalletAmount(null);
+        if (!counsellorRepository.create(counsellor.getUserName(), counsellor)) {
+            logger.warn("Signup failed: Username already exists - {}", counsellor.getUserName());
+            return "User already exists with userName: " + counsellor.getUserName();
+        }
+        logger.info("Counsellor signup successful for username: {}", counsellor.getUserName());
 
         return "Signup successful! User ID: " + counsellor.getUserName();
     }
@@ -233,24 +231,19 @@ public class CounsellorService {
 	public HttpStatus counsellorSignin(String identifier, String password) throws ExecutionException, InterruptedException {
 	    logger.info("Attempting counsellor signin for identifier: {}", identifier);
 
-	    Firestore dbFirestore = FirestoreClient.getFirestore();
-	    CollectionReference counsellorsCollection = dbFirestore.collection(COUNSELLORS);
-
-	    Query query;
+	    Counsellor existingCounsellor;
 
 	    if (identifier.contains("@")) {
 	        logger.debug("Identifier treated as email: {}", identifier);
-	        query = counsellorsCollection.whereEqualTo("email", identifier);
+	        existingCounsellor = counsellorRepository.findByEmail(identifier);
 	    } else if (identifier.contains("+91")) {
 	        logger.debug("Identifier treated as phone number: {}", identifier);
-	        query = counsellorsCollection.whereEqualTo("phoneNumber", identifier);
+	        existingCounsellor = counsellorRepository.findByPhoneNumber(identifier);
 	    } else {
 	        logger.debug("Identifier treated as userName: {}", identifier);
-	        DocumentReference docRef = counsellorsCollection.document(identifier);
-	        DocumentSnapshot documentSnapshot = docRef.get().get();
+	        existingCounsellor = counsellorRepository.findById(identifier);
 
-	        if (documentSnapshot.exists()) {
-	            Counsellor existingCounsellor = documentSnapshot.toObject(Counsellor.class);
+	        if (existingCounsellor != null) {
 	            if (existingCounsellor.getPassword().equals(password)) {
 	                logger.info("Signin successful for userName: {}", identifier);
 	                return HttpStatus.OK;
@@ -264,10 +257,7 @@ public class CounsellorService {
 	        }
 	    }
 
-	    List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
-
-	    if (!documents.isEmpty()) {
-	        Counsellor existingCounsellor = documents.get(0).toObject(Counsellor.class);
+	    if (existingCounsellor != null) {
 	        if (existingCounsellor.getPassword().equals(password)) {
 	            logger.info("Signin successful for identifier: {}", identifier);
 	            return HttpStatus.OK;
@@ -286,21 +276,16 @@ public class CounsellorService {
 
 	    try {
 	        logger.debug("Querying counsellor document with email: {}", email);
-	        ApiFuture<QuerySnapshot> query = firestore.collection(COUNSELLORS)
-	                .whereEqualTo("email", email)
-	                .get();
-
-	        List<QueryDocumentSnapshot> documents = query.get().getDocuments();
+	        Counsellor counsellor = counsellorRepository.findByEmail(email);
 
-	        if (documents.isEmpty()) {
+	        if (counsellor == null) {
 	            logger.warn("No counsellor found with email: {}", email);
 	            return false;
 	        }
 
-	        DocumentReference userDoc = documents.get(0).getReference();
-	        logger.debug("Counsellor found. Updating password for document: {}", userDoc.getId());
+	        logger.debug("Counsellor found. Updating password for document: {}", counsellor.getUserName());
 
-	        userDoc.update("password", newPassword);
+	        counsellorRepository.update(counsellor.getUserName(), "password", newPassword);
 	        logger.info("Password successfully reset for email: {}", email);
 
 	        return true;
@@ -313,17 +298,16 @@ public class CounsellorService {
 	public Counsellor getCounsellorById(String counsellorId) throws ExecutionException, InterruptedException {
         logger.info("Fetching counsellor with ID: {}", counsellorId);
 
-        DocumentSnapshot snapshot = null;
+        Counsellor counsellor = null;
         try {
-            snapshot = firestore.collection("counsellors").document(counsellorId).get().get();
+            counsellor = counsellorRepository.findById(counsellorId);
         } catch (InterruptedException | ExecutionException e) {
             logger.error("Error retrieving counsellor with ID {}: {}", counsellorId, e.getMessage(), e);
             throw e;
         }
 
-        if (snapshot.exists()) {
+        if (counsellor != null) {
             logger.info("Counsellor found with ID: {}", counsellorId);
-            Counsellor counsellor = snapshot.toObject(Counsellor.class);
             logger.debug("Mapped document to Counsellor object: {}", counsellor);
             return counsellor;
         } else {
@@ -336,93 +320,47 @@ public class CounsellorService {
 		return appointmentBookingService.getAppointmentsByCounsellorId(counsellorId);
 	}
 	
+	public void cancelAppointment(String appointmentId, String counsellorId) throws ExecutionException, InterruptedException {
+		appointmentBookingService.cancelAppointment(appointmentId, counsellorId);
+	}
+	
+	public CursorPage<AppointmentBooking> getUpcomingAppointments(String counsellorId, String cursor, int limit) throws ExecutionException, InterruptedException {
+		return appointmentBookingService.getUpcomingAppointments("counsellorId", counsellorId, cursor, limit);
+	}
+	
+	public CursorPage<AppointmentBooking> getPastAppointments(String counsellorId, String cursor, int limit) throws ExecutionException, InterruptedException {
+		return appointmentBookingService.getPastAppointments("counsellorId", counsellorId, cursor, limit);
+	}
+	
+	public CursorPage<AppointmentBooking> getAppointmentsBetween(String counsellorId, LocalDate from, LocalDate to, String cursor, int limit) throws ExecutionException, InterruptedException {
+		return appointmentBookingService.getAppointmentsBetween("counsellorId", counsellorId, from, to, cursor, limit);
+	}
+	
 	public AppointmentBooking getAppointmentById(String appointmentId) throws ExecutionException, InterruptedException {
 		return appointmentBookingService.getAppointmentById(appointmentId);
 	}
     
-    public List<Counsellor> getAllCounsellors() {
-        Firestore firestore = FirestoreClient.getFirestore();
-        ApiFuture<QuerySnapshot> querySnapshot = firestore.collection(COUNSELLORS).get();
-
-        List<Counsellor> counsellors = new ArrayList<>();
-        try {
-            for (QueryDocumentSnapshot doc : querySnapshot.get().getDocuments()) {
-            	Counsellor counsellor = doc.toObject(Counsellor.class);
-            	counsellors.add(counsellor);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error fetching all counsellors", e);
-        }
-        return counsellors;
+    /** {@code cursor} is the nextCursor of the previous page, null for the first; throws IllegalArgumentException for a bad cursor. */
+    public CursorPage<CounsellorSummary> getAllCounsellors(String cursor, int limit) throws ExecutionException, InterruptedException {
+        return counsellorRepository.findSummaryPage(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
     
-    public List<Counsellor> getAllCounsellorsSortedByRating() {
-        Firestore firestore = FirestoreClient.getFirestore();
-        Query query = firestore.collection(COUNSELLORS).orderBy("rating", Query.Direction.DESCENDING);
-
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-
-        List<Counsellor> counsellors = new ArrayList<>();
-        try {
-            for (QueryDocumentSnapshot doc : querySnapshot.get().getDocuments()) {
-            	Counsellor counsellor = doc.toObject(Counsellor.class);
-            	counsellors.add(counsellor);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error fetching counsellors sorted by rating", e);
-        }
-        return counsellors;
+    public CursorPage<CounsellorSummary> getAllCounsellorsSortedByRating(String cursor, int limit) throws ExecutionException, InterruptedException {
+        return counsellorRepository.findSummaryPageOrderByRatingDesc(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
     
-    public List<Counsellor> getOnlineCounsellors() throws InterruptedException, ExecutionException {
-        List<Counsellor> onlineCounsellorsList = new ArrayList<>();
-        List<String> onlineCounsellorNames = new ArrayList<>();
-
-        // Initialize Firebase Realtime Database reference
-        DatabaseReference databaseReference = FirebaseDatabase.getInstance().getReference("counsellorStates");
-
-        // Create a CountDownLatch to block the thread until the data is fetched
-        CountDownLatch latch = new CountDownLatch(1);
-
-        // Fetch the data asynchronously
-        databaseReference.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                for (DataSnapshot childSnapshot : dataSnapshot.getChildren()) {
-                	Map<String, Object> counsellorData = (Map<String, Object>) childSnapshot.getValue();
-                    String state = (String) counsellorData.get("state"); 
-                    if ("online".equalsIgnoreCase(state)) {
-                        onlineCounsellorNames.add(childSnapshot.getKey());
-                    }
-                }
-                // Release the latch to allow the thread to continue
-                latch.countDown();
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                System.err.println("Error fetching online counsellors: " + databaseError.getMessage());
-                latch.countDown(); // Release the latch even if there was an error
-            }
-        });
-
-        // Block until the latch is released (data is fetched)
-        latch.await();
-
-        // Fetch the counsellor objects synchronously for each online counsellor
-        for (String counsellorName : onlineCounsellorNames) {
-            Counsellor counsellor = getCounsellorById(counsellorName);
-            if (counsellor != null) {
-                onlineCounsellorsList.add(counsellor);
-            }
-        }
-
-        return onlineCounsellorsList;
+    public List<CounsellorSummary> getOnlineCounsellors() throws InterruptedException, ExecutionException {
+        // Names come from the in-memory presence index, summaries from one field-masked batch
+        List<String> onlineCounsellorNames = presenceService.getOnlineCounsellorNames();
+        return counsellorRepository.findSummariesById(onlineCounsellorNames);
     }
     
     public void updateUserPhotoUrl(String userId, String photoUrl) {
-        Firestore firestore = FirestoreClient.getFirestore();
-        firestore.collection(COUNSELLORS).document(userId).update("photoUrl", photoUrl);
+        try {
+            counsellorRepository.update(userId, "photoUrl", photoUrl);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Failed to update photo for counsellor {}: {}", userId, e.getMessage(), e);
+        }
     }
     
     public List<User> getSubscribedClients(String counsellorId) {
@@ -499,10 +437,7 @@ public class CounsellorService {
 	            DatabaseReference databaseReference = FirebaseDatabase.getInstance().getReference("counsellorStates");
 
 	            // Check if the user exists in Firestore
-	            ApiFuture<DocumentSnapshot> future = firestore.collection(COUNSELLORS).document(counsellorName).get();
-	            DocumentSnapshot document = future.get();
-
-	            if (!document.exists()) {
+	            if (!counsellorRepository.existsById(counsellorName)) {
 	                System.err.println("Counsellor not found in Firestore: " + counsellorName);
 	                return false; // User does not exist, deny the update
 	            }
@@ -513,6 +448,7 @@ public class CounsellorService {
 	            counsellorState.setState(state);
 
 	            databaseReference.child(counsellorName).setValueAsync(counsellorState);
+	            presenceService.recordCounsellorState(counsellorName, state);
 	            return true;
 
 	        } catch (Exception e) {
@@ -523,73 +459,27 @@ public class CounsellorService {
 	    }
 	 
 	 /**
-	  * Check if the counsellor is online by fetching their state from Firebase Realtime Database.
+	  * Check if the counsellor is online, answered from the listener-backed presence index.
 	  *
 	  * @param userName the counsellorName of the user
 	  * @return true if the counsellor's state is "online", false otherwise
 	  */
 	 public boolean isCounsellorOnline(String counsellorName) throws InterruptedException {
-		    // Create a CountDownLatch initialized to 1 (indicating that we need to wait for 1 event)
-		    CountDownLatch latch = new CountDownLatch(1);
-
-		    // Variable to hold the result
-		    final boolean[] isOnline = {false};
-
-		    // Get the reference to the user's state in the Realtime Database
-		    DatabaseReference databaseReference = FirebaseDatabase.getInstance().getReference("counsellorStates").child(counsellorName);
-
-		    // Add listener to fetch the user's state
-		    databaseReference.addListenerForSingleValueEvent(new ValueEventListener() {
-		        @Override
-		        public void onDataChange(DataSnapshot dataSnapshot) {
-		            // Check if the counsellor exists and retrieve their state
-		            if (dataSnapshot.exists()) {
-		                CounsellorState counsellorState = dataSnapshot.getValue(CounsellorState.class);
-		                if (counsellorState != null) {
-		                    // Check if the state is 'online'
-		                    isOnline[0] = "online".equalsIgnoreCase(counsellorState.getState());
-		                }
-		            } else {
-		                System.err.println("Counsellor state not found in Realtime Database for: " + counsellorName);
-		            }
-		            
-		            // Decrease the latch count, indicating that the operation has completed
-		            latch.countDown();
-		        }
-
-		        @Override
-		        public void onCancelled(DatabaseError databaseError) {
-		            // Log error
-		            System.err.println("Error fetching user state: " + databaseError.getMessage());
-		            // Decrease the latch count in case of an error
-		            latch.countDown();
-		        }
-		    });
-
-		    // Wait for the latch to count down to 0 (i.e., for the callback to complete)
-		    latch.await();
-
-		    // Return the result after the callback completes
-		    return isOnline[0];
+		    return presenceService.isCounsellorOnline(counsellorName);
 		}
 
 	 public String getCounsellorId(String identifier) throws InterruptedException, ExecutionException {
-		    Firestore dbFirestore = FirestoreClient.getFirestore();
-		    CollectionReference counsellorsCollection = dbFirestore.collection(COUNSELLORS);
-		    Query query;
+		    Counsellor counsellor;
 
 		    if (identifier.matches("^.+@.+\\..+$")) {
-		        query = counsellorsCollection.whereEqualTo("email", identifier).limit(1);
+		        counsellor = counsellorRepository.findByEmail(identifier);
 		    } else if (identifier.matches("^\\+91\\d{10}$")) {
-		        query = counsellorsCollection.whereEqualTo("phoneNumber", identifier).limit(1);
+		        counsellor = counsellorRepository.findByPhoneNumber(identifier);
 		    } else {
 		    	return identifier;
 		    }
 
-		    List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
-
-		    if (!documents.isEmpty()) {
-		        Counsellor counsellor = documents.get(0).toObject(Counsellor.class);
+		    if (counsellor != null) {
 		        return counsellor.getUserName();
 		    }
 
@@ -597,15 +487,10 @@ public class CounsellorService {
 		}
 	 
 	 public Counsellor getCounsellorFromPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
-	        Firestore dbFirestore = FirestoreClient.getFirestore();
-	        CollectionReference counsellorsCollection = dbFirestore.collection(COUNSELLORS);
-
 	        // Query to find user by phone number
-	        Query query = counsellorsCollection.whereEqualTo("phoneNumber", phoneNumber);
-	        List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+	        Counsellor counsellor = counsellorRepository.findByPhoneNumber(phoneNumber);
 
-	        if (!documents.isEmpty()) {
-	        	Counsellor counsellor = documents.get(0).toObject(Counsellor.class);
+	        if (counsellor != null) {
 	            return counsellor;
 	        } else {
 	            throw new UserNotFoundException("No counsellor found with phone number: " + phoneNumber);
@@ -627,16 +512,13 @@ public class CounsellorService {
 		 dbRef.child(counsellorId).updateChildrenAsync(updates);
 	  }
 	 public String applyPendingUpdates(String userName) throws ExecutionException, InterruptedException {
-	        Firestore db = FirestoreClient.getFirestore();
-
 	        // Step 1: Get the update map from 'updates/{userName}'
-	        DocumentSnapshot updatesSnapshot = db.collection("updates").document(userName).get().get();
-	        if (!updatesSnapshot.exists()) {
+	        Map<String, Object> updates = counsellorRepository.findPendingUpdates(userName);
+	        if (updates == null) {
 	            throw new RuntimeException("No update document found for user: " + userName);
 	        }
 
-	        Map<String, Object> updates = updatesSnapshot.getData();
-	        if (updates == null || updates.isEmpty()) {
+	        if (updates.isEmpty()) {
 	            throw new RuntimeException("Update data is empty for user: " + userName);
 	        }
 
@@ -644,15 +526,13 @@ public class CounsellorService {
 	        updates.remove("lastUpdatedAt");  // Optional: remove Firestore internal fields
 
 	        // Step 3: Apply updates to counsellors/{userName}
-	        DocumentReference counsellorDoc = db.collection("counsellors").document(userName);
-	        ApiFuture<WriteResult> future = counsellorDoc.set(updates, SetOptions.merge());
-	        WriteResult result = future.get();
+	        counsellorRepository.merge(userName, WalletLedgerService.withoutLedgerFields(updates));
+	        Timestamp updatedAt = Timestamp.now();
 	        
-	        ApiFuture<WriteResult> deleteFuture = db.collection("updates").document(userName).delete();
-	        deleteFuture.get(); // Wait for delete to complete
+	        counsellorRepository.deletePendingUpdates(userName);
 
 
-	        return "Counsellor document updated successfully at " + result.getUpdateTime();
+	        return "Counsellor document updated successfully at " + updatedAt;
 	    }
 
 	    
@@ -663,16 +543,13 @@ public class CounsellorService {
 	            throw new IllegalArgumentException("Update map cannot be null or empty.");
 	        }
 
-	        Firestore dbFirestore = FirestoreClient.getFirestore();
-	        DocumentReference updateDocRef = dbFirestore.collection("updates").document(userName);
-
 	        // Add a timestamp
-	        updates.put("lastUpdatedAt", FieldValue.serverTimestamp());
+	        Timestamp lastUpdatedAt = Timestamp.now();
+	        updates.put("lastUpdatedAt", lastUpdatedAt);
 
 	        // Merge the updates into the document
-	        ApiFuture<WriteResult> future = updateDocRef.set(updates, SetOptions.merge());
-	        WriteResult result = future.get();
+	        counsellorRepository.savePendingUpdates(userName, updates);
 
-	        return "Updates saved successfully at " + result.getUpdateTime();
+	        return "Updates saved successfully at " + lastUpdatedAt;
 	    }
 }
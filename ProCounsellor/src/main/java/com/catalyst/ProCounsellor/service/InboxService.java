@@ -0,0 +1,271 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.DirectoryEntry;
+import com.catalyst.ProCounsellor.dto.InboxEntry;
+import com.catalyst.ProCounsellor.model.Chat;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-participant inbox in the Realtime Database: inboxes/{participantId}/{chatId}
+ * holds the last message preview, its time, the unread count and the peer's
+ * display info. It is updated as messages are sent and read, so an inbox is a
+ * single ordered read instead of one read per chat.
+ */
+@Service
+public class InboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboxService.class);
+
+    private static final String INBOXES = "inboxes";
+    private static final int PREVIEW_LENGTH = 100;
+    // Unread counts are recounted up to this many messages; clients show "99+" beyond it
+    private static final int MAX_RECOUNT = 100;
+    // Recounts retried when messages keep arriving while a read is being applied
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    @Autowired
+    private FirebaseDatabase firebaseDatabase;
+
+    @Autowired
+    private ProfileDirectoryService profileDirectoryService;
+
+    private final ThreadPoolExecutor executor;
+
+    public InboxService(@Value("${procounsellor.inbox.threads:2}") int threads,
+            @Value("${procounsellor.inbox.queue-capacity:1000}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A full queue runs the update on the sending thread rather than losing an unread count
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "inbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Records a new message in the inbox of every participant of the chat: the preview
+     * moves to the top and everyone but the sender gets one more unread message.
+     * Asynchronous, including the peer profile lookup; failures are logged and never
+     * fail the send.
+     */
+    public void recordMessage(String chatId, Chat chat, String messageId, String senderId, String preview, long timestamp) {
+        executor.execute(() -> applyMessage(chatId, chat, messageId, senderId, preview, timestamp));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void applyMessage(String chatId, Chat chat, String messageId, String senderId, String preview, long timestamp) {
+        List<String> participants = participants(chat);
+        Map<String, DirectoryEntry> profiles;
+        try {
+            profiles = profileDirectoryService.resolveAll(participants);
+        } catch (Exception e) {
+            logger.warn("Could not resolve inbox peers for chat {}: {}", chatId, e.getMessage());
+            profiles = Collections.emptyMap();
+        }
+
+        String trimmedPreview = preview != null && preview.length() > PREVIEW_LENGTH ? preview.substring(0, PREVIEW_LENGTH) : preview;
+        for (String participant : participants) {
+            String peer = participants.stream().filter(id -> !id.equals(participant)).findFirst().orElse(participant);
+            DirectoryEntry peerProfile = profiles.get(peer);
+            boolean incoming = !participant.equals(senderId);
+
+            entryRef(participant, chatId).runTransaction(new Transaction.Handler() {
+                @Override
+                public Transaction.Result doTransaction(MutableData currentData) {
+                    String currentLast = currentData.child("lastMessageId").getValue(String.class);
+                    Integer unread = currentData.child("unreadCount").getValue(Integer.class);
+                    int unreadCount = (unread != null ? unread : 0) + (incoming ? 1 : 0);
+                    currentData.child("unreadCount").setValue(unreadCount);
+                    // Concurrent sends may land out of order; keep the newest message as the preview
+                    if (currentLast == null || currentLast.compareTo(messageId) < 0) {
+                        currentData.child("chatId").setValue(chatId);
+                        currentData.child("peerId").setValue(peer);
+                        if (peerProfile != null && peerProfile.isFound()) {
+                            currentData.child("peerName").setValue(peerProfile.getDisplayName());
+                            currentData.child("peerPhotoSmall").setValue(
+                                    peerProfile.getSmallPhotoUrl() != null ? peerProfile.getSmallPhotoUrl() : peerProfile.getPhotoUrl());
+                            currentData.child("peerRole").setValue(peerProfile.getRole());
+                        }
+                        currentData.child("lastMessageId").setValue(messageId);
+                        currentData.child("lastMessage").setValue(trimmedPreview);
+                        currentData.child("lastSenderId").setValue(senderId);
+                        currentData.child("lastMessageAt").setValue(timestamp);
+                    }
+                    return Transaction.success(currentData);
+                }
+
+                @Override
+                public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                    if (error != null) {
+                        logger.warn("Inbox update for {} in chat {} failed: {}", participant, chatId, error.getMessage());
+                    }
+                }
+            }, false);
+        }
+    }
+
+    /**
+     * Brings the reader's unread count in line with a new read watermark: zero if it
+     * reached the last message, otherwise the number of incoming messages after it
+     * (bounded). The count is written in a transaction on the inbox entry, so an
+     * increment from {@link #recordMessage} that lands meanwhile is never overwritten.
+     */
+    public void markRead(String chatId, String readerId, String watermark) {
+        // Common case first: the watermark reached the last message, so no recount is needed
+        applyReadCount(chatId, readerId, watermark, null, MAX_READ_ATTEMPTS);
+    }
+
+    private void recount(String chatId, String readerId, String watermark, int attemptsLeft) {
+        firebaseDatabase.getReference("chats").child(chatId).child("messages")
+                .orderByKey().startAt(watermark).limitToFirst(MAX_RECOUNT + 1)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot messages) {
+                        int unread = 0;
+                        String newestKey = watermark;
+                        for (DataSnapshot message : messages.getChildren()) {
+                            if (message.getKey().compareTo(watermark) > 0) {
+                                newestKey = message.getKey();
+                                // Own messages never counted as unread when they were recorded
+                                if (!readerId.equals(message.child("senderId").getValue(String.class))) {
+                                    unread++;
+                                }
+                            }
+                        }
+                        boolean capped = messages.getChildrenCount() > MAX_RECOUNT;
+                        applyReadCount(chatId, readerId, watermark, new Recount(unread, newestKey, capped), attemptsLeft);
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        logger.warn("Unread recount for {} in chat {} failed: {}", readerId, chatId, error.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Sets the unread count if the entry's current last message allows it: zero when
+     * the watermark covers it, the recount when the recount saw it. Otherwise the
+     * transaction is aborted and the messages are recounted, up to the attempt limit.
+     */
+    private void applyReadCount(String chatId, String readerId, String watermark, Recount recount, int attemptsLeft) {
+        entryRef(readerId, chatId).runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                if (currentData.getValue() == null) {
+                    return Transaction.success(currentData); // no inbox entry to correct
+                }
+                String lastMessageId = currentData.child("lastMessageId").getValue(String.class);
+                if (lastMessageId == null || lastMessageId.compareTo(watermark) <= 0) {
+                    currentData.child("unreadCount").setValue(0);
+                    return Transaction.success(currentData);
+                }
+                if (recount != null && (recount.capped || lastMessageId.compareTo(recount.newestKey) <= 0)) {
+                    currentData.child("unreadCount").setValue(recount.unread);
+                    return Transaction.success(currentData);
+                }
+                return Transaction.abort();
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot currentData) {
+                if (error != null) {
+                    logger.warn("Inbox read for {} in chat {} failed: {}", readerId, chatId, error.getMessage());
+                } else if (!committed) {
+                    if (attemptsLeft > 0) {
+                        recount(chatId, readerId, watermark, attemptsLeft - 1);
+                    } else {
+                        logger.warn("Gave up recounting unread messages for {} in chat {}: messages keep arriving", readerId, chatId);
+                    }
+                }
+            }
+        }, false);
+    }
+
+    private static class Recount {
+        final int unread;
+        final String newestKey;
+        final boolean capped;
+
+        Recount(int unread, String newestKey, boolean capped) {
+            this.unread = unread;
+            this.newestKey = newestKey;
+            this.capped = capped;
+        }
+    }
+
+    /** The participant's conversations, most recent first, in a single read. */
+    public CompletableFuture<List<InboxEntry>> getInbox(String participantId, int limit) {
+        CompletableFuture<List<InboxEntry>> future = new CompletableFuture<>();
+        firebaseDatabase.getReference(INBOXES).child(participantId)
+                .orderByChild("lastMessageAt")
+                .limitToLast(limit)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot snapshot) {
+                        List<InboxEntry> entries = new ArrayList<>();
+                        for (DataSnapshot child : snapshot.getChildren()) {
+                            InboxEntry entry = child.getValue(InboxEntry.class);
+                            if (entry != null) {
+                                entry.setChatId(child.getKey());
+                                entries.add(entry);
+                            }
+                        }
+                        // Children arrive oldest first
+                        Collections.reverse(entries);
+                        future.complete(entries);
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError error) {
+                        future.completeExceptionally(new Exception("Error fetching inbox: " + error.getMessage()));
+                    }
+                });
+        return future;
+    }
+
+    private DatabaseReference entryRef(String participantId, String chatId) {
+        return firebaseDatabase.getReference(INBOXES).child(participantId).child(chatId);
+    }
+
+    private static List<String> participants(Chat chat) {
+        Set<String> participants = new LinkedHashSet<>();
+        for (String id : new String[] { chat.getUserId(), chat.getCounsellorId(), chat.getUserId2() }) {
+            if (id != null) {
+                participants.add(id);
+            }
+        }
+        return new ArrayList<>(participants);
+    }
+}
@@ -0,0 +1,282 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.model.PaymentEvent;
+import com.catalyst.ProCounsellor.notification.LatencyHistogram;
+import com.catalyst.ProCounsellor.repository.PaymentEventRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Applies verified Razorpay webhooks off the request thread. The webhook handler
+ * only stores the event, keyed by payment id so gateway retries collapse into one
+ * document, and queues it; workers then credit the wallet. The wallet credit is
+ * itself keyed by payment id in the ledger, so an event picked up twice (after a
+ * crash, or by two instances) is still applied exactly once.
+ * <p>
+ * Events that never made it into the in-memory queue (queue full, restart) are
+ * found by a periodic sweep of pending events. Failures are retried with
+ * exponential backoff and jitter; an unknown user or exhausted retries leave the
+ * event in the failed state for manual follow-up.
+ */
+@Service
+public class PaymentWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookService.class);
+
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final WalletService walletService;
+    private final BlockingQueue<String> queue;
+    // Payment ids queued, being applied or waiting for a retry on this instance
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long sweepMinAgeMillis;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean running = true;
+    // Where the next sweep resumes; null starts again from the oldest pending event. Only the sweep touches it.
+    private String sweepCursor;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong alreadyApplied = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong swept = new AtomicLong();
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+    private final LatencyHistogram processingLag = new LatencyHistogram();
+    private final LatencyHistogram applyLatency = new LatencyHistogram();
+
+    public PaymentWebhookService(PaymentEventRepository paymentEventRepository, WalletService walletService,
+            @Value("${procounsellor.payments.webhook.workers:2}") int workerCount,
+            @Value("${procounsellor.payments.webhook.queue-capacity:1000}") int queueCapacity,
+            @Value("${procounsellor.payments.webhook.max-attempts:8}") int maxAttempts,
+            @Value("${procounsellor.payments.webhook.initial-backoff-ms:1000}") long initialBackoffMillis,
+            @Value("${procounsellor.payments.webhook.max-backoff-ms:300000}") long maxBackoffMillis,
+            @Value("${procounsellor.payments.webhook.sweep-interval-seconds:60}") long sweepIntervalSeconds,
+            @Value("${procounsellor.payments.webhook.sweep-min-age-seconds:30}") long sweepMinAgeSeconds) {
+        this.paymentEventRepository = paymentEventRepository;
+        this.walletService = walletService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.sweepMinAgeMillis = TimeUnit.SECONDS.toMillis(sweepMinAgeSeconds);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-webhook-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workLoop);
+        }
+        scheduler.scheduleWithFixedDelay(this::sweep, 0, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stores a verified payment.captured event and queues it. Returns false if an
+     * event for this payment was already received, in which case nothing changes.
+     */
+    public boolean accept(String paymentId, String eventName, String userName, double amount) throws ExecutionException, InterruptedException {
+        PaymentEvent event = new PaymentEvent();
+        event.setPaymentId(paymentId);
+        event.setEvent(eventName);
+        event.setUserName(userName);
+        event.setAmount(amount);
+        event.setStatus(PaymentEvent.PENDING);
+        event.setReceivedAt(System.currentTimeMillis());
+        if (!paymentEventRepository.create(paymentId, event)) {
+            duplicates.incrementAndGet();
+            return false;
+        }
+        received.incrementAndGet();
+        enqueue(paymentId);
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("inFlight", inFlight.size());
+        stats.put("pendingRetries", pendingRetries.get());
+        stats.put("oldestPendingAgeMillis", oldestPendingAgeMillis.get());
+        stats.put("received", received.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("applied", applied.get());
+        stats.put("alreadyApplied", alreadyApplied.get());
+        stats.put("failed", failed.get());
+        stats.put("retried", retried.get());
+        stats.put("overflowed", overflowed.get());
+        stats.put("swept", swept.get());
+        stats.put("processingLag", processingLag.snapshot());
+        stats.put("applyLatency", applyLatency.snapshot());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        scheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                // Still pending in the store; the next start's sweep picks them up
+                logger.warn("Payment webhook workers stopped with {} events queued", queue.size());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(String paymentId) {
+        if (!inFlight.add(paymentId)) {
+            return;
+        }
+        if (!running || !queue.offer(paymentId)) {
+            inFlight.remove(paymentId);
+            overflowed.incrementAndGet();
+            logger.warn("Payment webhook queue full, {} left for the sweep", paymentId);
+        }
+    }
+
+    private void workLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                String paymentId = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (paymentId != null) {
+                    process(paymentId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Payment webhook worker error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void process(String paymentId) throws InterruptedException {
+        boolean retrying = false;
+        try {
+            PaymentEvent event = paymentEventRepository.findById(paymentId);
+            if (event == null || !PaymentEvent.PENDING.equals(event.getStatus())) {
+                return;
+            }
+            int attempt = event.getAttempts() + 1;
+            long start = System.nanoTime();
+            try {
+                boolean credited = walletService.addFunds(event.getUserName(), event.getAmount(), paymentId);
+                applyLatency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                paymentEventRepository.markProcessed(paymentId, PaymentEvent.APPLIED, attempt, null);
+                (credited ? applied : alreadyApplied).incrementAndGet();
+                processingLag.record(System.currentTimeMillis() - event.getReceivedAt());
+            } catch (IllegalArgumentException e) {
+                // Unknown user: retrying cannot help
+                paymentEventRepository.markProcessed(paymentId, PaymentEvent.FAILED, attempt, e.getMessage());
+                failed.incrementAndGet();
+                logger.error("Payment {} rejected: {}", paymentId, e.getMessage());
+            } catch (ExecutionException e) {
+                if (attempt < maxAttempts && running) {
+                    paymentEventRepository.markProcessed(paymentId, PaymentEvent.PENDING, attempt, e.getMessage());
+                    scheduleRetry(paymentId, attempt);
+                    retrying = true;
+                } else {
+                    paymentEventRepository.markProcessed(paymentId, PaymentEvent.FAILED, attempt, e.getMessage());
+                    failed.incrementAndGet();
+                    logger.error("Payment {} failed after {} attempt(s): {}", paymentId, attempt, e.getMessage());
+                }
+            }
+        } catch (ExecutionException e) {
+            // The event could not be read or updated; it stays pending for the sweep
+            logger.warn("Payment {} bookkeeping failed: {}", paymentId, e.getMessage());
+        } finally {
+            if (!retrying) {
+                inFlight.remove(paymentId);
+            }
+        }
+    }
+
+    private void scheduleRetry(String paymentId, int attempt) {
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        retried.incrementAndGet();
+        pendingRetries.incrementAndGet();
+        scheduler.schedule(() -> {
+            pendingRetries.decrementAndGet();
+            if (!queue.offer(paymentId)) {
+                inFlight.remove(paymentId);
+                overflowed.incrementAndGet();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void sweep() {
+        try {
+            long now = System.currentTimeMillis();
+            boolean fromStart = sweepCursor == null;
+            CursorPage<PaymentEvent> page = paymentEventRepository.findPending(sweepCursor, SWEEP_BATCH_SIZE);
+            List<PaymentEvent> events = page.getItems();
+            if (fromStart) {
+                oldestPendingAgeMillis.set(events.isEmpty() ? 0 : now - events.get(0).getReceivedAt());
+            }
+
+            String next = page.getNextCursor();
+            for (PaymentEvent event : events) {
+                // Oldest first, so the rest are young too: most likely still on their way through another
+                // instance's queue. The next pass starts over from the oldest.
+                if (now - event.getReceivedAt() < sweepMinAgeMillis) {
+                    next = null;
+                    break;
+                }
+                if (!inFlight.contains(event.getPaymentId())) {
+                    swept.incrementAndGet();
+                    enqueue(event.getPaymentId());
+                }
+            }
+            // Stuck events beyond one batch are reached on the following passes instead of starving
+            sweepCursor = next;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Payment webhook sweep failed: {}", e.getMessage());
+        }
+    }
+}
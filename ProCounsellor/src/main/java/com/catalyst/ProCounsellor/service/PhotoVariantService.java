@@ -0,0 +1,174 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.image.ImageResizer;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.catalyst.ProCounsellor.storage.ObjectStorage;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Builds the small and medium JPEG variants of an uploaded profile photo on a
+ * bounded background pool, uploads them next to the original and patches the
+ * profile's small/medium photo fields. The upload request returns as soon as the
+ * original is stored; if the pool is saturated the variants are skipped and list
+ * screens keep falling back to the full-size photo. Each upload writes variants
+ * under its own versioned name, and only the newest upload per profile may patch
+ * the profile, so a slow task for an older photo cannot overwrite a newer one.
+ */
+@Service
+public class PhotoVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariantService.class);
+
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final int LOCK_STRIPES = 64;
+
+    private final ObjectStorage objectStorage;
+    private final UserRepository userRepository;
+    private final CounsellorRepository counsellorRepository;
+    private final int smallEdge;
+    private final int mediumEdge;
+    private final ThreadPoolExecutor executor;
+    // Profiles ("role:userId") with variant tasks in flight; entries are guarded by the profile's lock stripe
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong lastVersion = new AtomicLong();
+    // Striped by profile, so a newer upload cannot slip in between the version check and the profile write
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public PhotoVariantService(ObjectStorage objectStorage, UserRepository userRepository, CounsellorRepository counsellorRepository,
+            @Value("${procounsellor.photos.variants.small-edge:128}") int smallEdge,
+            @Value("${procounsellor.photos.variants.medium-edge:512}") int mediumEdge,
+            @Value("${procounsellor.photos.variants.threads:2}") int threads,
+            @Value("${procounsellor.photos.variants.queue-capacity:100}") int queueCapacity) {
+        this.objectStorage = objectStorage;
+        this.userRepository = userRepository;
+        this.counsellorRepository = counsellorRepository;
+        this.smallEdge = smallEdge;
+        this.mediumEdge = mediumEdge;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /** Queues variant generation for a photo just uploaded for the given user or counsellor. */
+    public void generateVariants(String userId, String role, byte[] photoBytes) {
+        String key = role + ":" + userId;
+        // Upload time in millis, bumped if needed so two uploads never share a version
+        long version = lastVersion.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+        synchronized (lock(key)) {
+            InFlight tasks = inFlight.computeIfAbsent(key, k -> new InFlight());
+            tasks.latest = version;
+            tasks.count++;
+        }
+        try {
+            executor.execute(() -> process(key, userId, role, photoBytes, version));
+        } catch (RejectedExecutionException e) {
+            finished(key);
+            logger.warn("Photo variant queue full, skipping variants for {} [{}]", role, userId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void process(String key, String userId, String role, byte[] photoBytes, long version) {
+        try {
+            if (isSuperseded(key, version)) {
+                return;
+            }
+            String folder = "user".equals(role) ? "users/" : "counsellors/";
+            // ImageIO ignores the EXIF orientation that browsers apply to the original
+            BufferedImage original = ImageResizer.applyOrientation(ImageResizer.decode(photoBytes, mediumEdge),
+                    ImageResizer.readOrientation(photoBytes));
+            // Cascade: the small variant is scaled from the medium one, not from the original
+            BufferedImage medium = ImageResizer.resize(original, mediumEdge);
+            BufferedImage small = ImageResizer.resize(medium, smallEdge);
+
+            String prefix = folder + userId + "/photo_";
+            String mediumUrl = objectStorage.upload(prefix + "medium_" + version + ".jpg", ImageResizer.encodeJpeg(medium, JPEG_QUALITY), "image/jpeg");
+            String smallUrl = objectStorage.upload(prefix + "small_" + version + ".jpg", ImageResizer.encodeJpeg(small, JPEG_QUALITY), "image/jpeg");
+
+            Map<String, Object> fields = new HashMap<>();
+            if ("user".equals(role)) {
+                fields.put("photoSmall", smallUrl);
+                fields.put("photoMedium", mediumUrl);
+            } else {
+                fields.put("photoUrlSmall", smallUrl);
+                fields.put("photoUrlMedium", mediumUrl);
+            }
+            synchronized (lock(key)) {
+                if (isSuperseded(key, version)) {
+                    return;
+                }
+                if ("user".equals(role)) {
+                    userRepository.update(userId, fields);
+                } else {
+                    counsellorRepository.update(userId, fields);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Failed to generate photo variants for {} [{}]: {}", role, userId, e.getMessage(), e);
+        } finally {
+            finished(key);
+        }
+    }
+
+    private boolean isSuperseded(String key, long version) {
+        synchronized (lock(key)) {
+            InFlight tasks = inFlight.get(key);
+            if (tasks != null && tasks.latest > version) {
+                logger.debug("Skipping photo variants for {} version {}: superseded by {}", key, version, tasks.latest);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    // Forgets the profile once none of its tasks are left
+    private void finished(String key) {
+        synchronized (lock(key)) {
+            InFlight tasks = inFlight.get(key);
+            if (tasks != null && --tasks.count == 0) {
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    private Object lock(String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static class InFlight {
+        long latest;
+        int count;
+    }
+}
@@ -0,0 +1,215 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory index of who is online, kept current by long-lived child listeners on
+ * the counsellorStates and userStates nodes of the Realtime Database. Lookups are
+ * answered from memory; the first lookup after startup waits (bounded) for the
+ * initial sync so it does not report everyone as offline. A cancelled listener is
+ * re-attached with exponential backoff, and names removed in the gap are dropped
+ * once the new listener has synced.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    private static final String COUNSELLOR_STATES = "counsellorStates";
+    private static final String USER_STATES = "userStates";
+    private static final long INITIAL_SYNC_TIMEOUT_SECONDS = 10;
+    private static final long INITIAL_RESUBSCRIBE_DELAY_SECONDS = 1;
+    private static final long MAX_RESUBSCRIBE_DELAY_SECONDS = 60;
+
+    private final ScheduledExecutorService resubscriber = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "presence-resubscribe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PresenceNode counsellors;
+    private final PresenceNode users;
+
+    public PresenceService(FirebaseDatabase firebaseDatabase) {
+        this.counsellors = new PresenceNode(firebaseDatabase.getReference(COUNSELLOR_STATES));
+        this.users = new PresenceNode(firebaseDatabase.getReference(USER_STATES));
+    }
+
+    public boolean isCounsellorOnline(String counsellorName) throws InterruptedException {
+        return counsellors.isOnline(counsellorName);
+    }
+
+    public boolean isUserOnline(String userName) throws InterruptedException {
+        return users.isOnline(userName);
+    }
+
+    /** Online counsellor names in alphabetical order. */
+    public List<String> getOnlineCounsellorNames() throws InterruptedException {
+        return counsellors.onlineNames();
+    }
+
+    public List<String> getOnlineUserNames() throws InterruptedException {
+        return users.onlineNames();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resubscriber.shutdownNow();
+        counsellors.close();
+        users.close();
+    }
+
+    /** Applies a state this instance just wrote, without waiting for the listener echo. */
+    public void recordCounsellorState(String counsellorName, String state) {
+        counsellors.apply(counsellorName, state);
+    }
+
+    public void recordUserState(String userName, String state) {
+        users.apply(userName, state);
+    }
+
+    private class PresenceNode {
+
+        private final DatabaseReference reference;
+        private final String path;
+        private final NavigableSet<String> online = new ConcurrentSkipListSet<>();
+        private final CountDownLatch initialSync = new CountDownLatch(1);
+        // Consecutive cancellations without a completed sync in between; drives the backoff
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile Subscription subscription;
+
+        PresenceNode(DatabaseReference reference) {
+            this.reference = reference;
+            this.path = reference.getKey();
+            subscribe();
+        }
+
+        private void subscribe() {
+            Subscription current = new Subscription();
+            subscription = current;
+            reference.addChildEventListener(current);
+            // Value events fire after the child events of the same sync, so this marks the initial load as done
+            reference.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot snapshot) {
+                    current.synced();
+                }
+
+                @Override
+                public void onCancelled(DatabaseError error) {
+                    // The child listener is cancelled with it and schedules the retry
+                    logger.error("Initial presence load for {} failed: {}", path, error.getMessage());
+                    initialSync.countDown();
+                }
+            });
+        }
+
+        void close() {
+            Subscription current = subscription;
+            if (current != null) {
+                reference.removeEventListener(current);
+            }
+        }
+
+        boolean isOnline(String name) throws InterruptedException {
+            awaitInitialSync();
+            return online.contains(name);
+        }
+
+        List<String> onlineNames() throws InterruptedException {
+            awaitInitialSync();
+            return new ArrayList<>(online);
+        }
+
+        void apply(String name, String state) {
+            if ("online".equalsIgnoreCase(state)) {
+                online.add(name);
+            } else {
+                online.remove(name);
+            }
+        }
+
+        private void awaitInitialSync() throws InterruptedException {
+            if (initialSync.getCount() > 0 && !initialSync.await(INITIAL_SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Presence index for {} not synced yet, answering from partial data", path);
+            }
+        }
+
+        private void applySnapshot(DataSnapshot snapshot) {
+            Object value = snapshot.getValue();
+            String state = value instanceof Map ? (String) ((Map<?, ?>) value).get("state") : null;
+            apply(snapshot.getKey(), state);
+        }
+
+        private class Subscription implements ChildEventListener {
+
+            // Names seen in this subscription's initial pass; anyone else went away while unsubscribed
+            private Set<String> initialNames = new HashSet<>();
+
+            void synced() {
+                online.retainAll(initialNames);
+                initialNames = null;
+                failures.set(0);
+                logger.info("Presence index for {} loaded: {} online", path, online.size());
+                initialSync.countDown();
+            }
+
+            @Override
+            public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                if (initialNames != null) {
+                    initialNames.add(snapshot.getKey());
+                }
+                applySnapshot(snapshot);
+            }
+
+            @Override
+            public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                applySnapshot(snapshot);
+            }
+
+            @Override
+            public void onChildRemoved(DataSnapshot snapshot) {
+                online.remove(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                // Ordering is irrelevant for presence
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                int attempt = failures.getAndIncrement();
+                long delay = Math.min(MAX_RESUBSCRIBE_DELAY_SECONDS, INITIAL_RESUBSCRIBE_DELAY_SECONDS << Math.min(attempt, 16));
+                logger.error("Presence listener on {} cancelled, resubscribing in {}s: {}", path, delay, error.getMessage());
+                // Lookups answer from the last known state rather than waiting out the retry
+                initialSync.countDown();
+                reference.removeEventListener(this);
+                resubscriber.schedule(PresenceNode.this::subscribe, delay, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
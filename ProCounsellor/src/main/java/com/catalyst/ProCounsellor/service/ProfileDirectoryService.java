@@ -0,0 +1,148 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.DirectoryEntry;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Lazily loaded id -> (role, name, photo) directory for push notifications and
+ * review rendering. Users take precedence over counsellors, matching the lookup
+ * order used elsewhere. Only the name and photo fields are read, and an entry is
+ * dropped whenever the profile is written through its repository.
+ */
+@Service
+public class ProfileDirectoryService {
+
+    private static final String[] USER_FIELDS = { "firstName", "lastName", "photo", "photoSmall" };
+    private static final String[] COUNSELLOR_FIELDS = { "firstName", "lastName", "photoUrl", "photoUrlSmall" };
+    // Invalidation generations, striped by id, so a load that raced with a profile write is not cached
+    private static final int STRIPES = 64;
+
+    private final UserRepository userRepository;
+    private final CounsellorRepository counsellorRepository;
+    private final Cache<String, DirectoryEntry> entries;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    public ProfileDirectoryService(UserRepository userRepository, CounsellorRepository counsellorRepository,
+            @Value("${procounsellor.cache.directory.max-entries:50000}") long maxEntries,
+            @Value("${procounsellor.cache.directory.expire-after-write-minutes:60}") long expireAfterWriteMinutes) {
+        this.userRepository = userRepository;
+        this.counsellorRepository = counsellorRepository;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .build();
+        userRepository.addWriteListener(this::invalidate);
+        counsellorRepository.addWriteListener(this::invalidate);
+    }
+
+    /** Never null; check {@link DirectoryEntry#isFound()} for unknown ids. */
+    public DirectoryEntry resolve(String userName) throws ExecutionException, InterruptedException {
+        return resolveAll(List.of(userName)).get(userName);
+    }
+
+    /** Resolves all ids with at most one masked batch read per collection, in request order. */
+    public Map<String, DirectoryEntry> resolveAll(Collection<String> userNames) throws ExecutionException, InterruptedException {
+        Map<String, DirectoryEntry> resolved = new LinkedHashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String userName : userNames) {
+            DirectoryEntry entry = entries.getIfPresent(userName);
+            if (entry != null) {
+                resolved.put(userName, entry);
+            } else {
+                misses.add(userName);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, Long> loadGenerations = new LinkedHashMap<>();
+            for (String userName : misses) {
+                loadGenerations.put(userName, generations.get(stripe(userName)));
+            }
+            Map<String, DirectoryEntry> loaded = load(misses);
+            // Unknown ids are not cached, so a profile created meanwhile shows up on the next lookup
+            for (DirectoryEntry entry : loaded.values()) {
+                if (entry.isFound()) {
+                    cache(entry, loadGenerations.get(entry.getUserName()));
+                }
+            }
+            resolved.putAll(loaded);
+        }
+
+        Map<String, DirectoryEntry> ordered = new LinkedHashMap<>();
+        for (String userName : userNames) {
+            ordered.put(userName, resolved.get(userName));
+        }
+        return ordered;
+    }
+
+    private void invalidate(String userName) {
+        generations.incrementAndGet(stripe(userName));
+        entries.invalidate(userName);
+    }
+
+    // Skips the entry if the profile was written while it was being read
+    private void cache(DirectoryEntry entry, long loadGeneration) {
+        String userName = entry.getUserName();
+        if (generations.get(stripe(userName)) == loadGeneration) {
+            entries.put(userName, entry);
+            // A write may have landed between the check and the put
+            if (generations.get(stripe(userName)) != loadGeneration) {
+                entries.invalidate(userName);
+            }
+        }
+    }
+
+    private Map<String, DirectoryEntry> load(Set<String> userNames) throws ExecutionException, InterruptedException {
+        Map<String, DirectoryEntry> loaded = new LinkedHashMap<>();
+        userRepository.findAllFieldsById(userNames, USER_FIELDS).forEach((id, fields) ->
+                loaded.put(id, entry(id, "user", fields, "photo", "photoSmall")));
+
+        List<String> remaining = new ArrayList<>(userNames);
+        remaining.removeAll(loaded.keySet());
+        if (!remaining.isEmpty()) {
+            counsellorRepository.findAllFieldsById(remaining, COUNSELLOR_FIELDS).forEach((id, fields) ->
+                    loaded.put(id, entry(id, "counsellor", fields, "photoUrl", "photoUrlSmall")));
+        }
+
+        for (String userName : userNames) {
+            if (!loaded.containsKey(userName)) {
+                DirectoryEntry unknown = new DirectoryEntry();
+                unknown.setUserName(userName);
+                loaded.put(userName, unknown);
+            }
+        }
+        return loaded;
+    }
+
+    private static int stripe(String userName) {
+        return Math.floorMod(userName.hashCode(), STRIPES);
+    }
+
+    private static DirectoryEntry entry(String id, String role, Map<String, Object> fields, String photoField, String smallPhotoField) {
+        DirectoryEntry entry = new DirectoryEntry();
+        entry.setUserName(id);
+        entry.setRole(role);
+        entry.setFirstName((String) fields.get("firstName"));
+        entry.setLastName((String) fields.get("lastName"));
+        entry.setPhotoUrl((String) fields.get(photoField));
+        entry.setSmallPhotoUrl((String) fields.get(smallPhotoField));
+        return entry;
+    }
+}
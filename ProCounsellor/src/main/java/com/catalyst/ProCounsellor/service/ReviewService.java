@@ -1,32 +1,29 @@
 package com.catalyst.ProCounsellor.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.catalyst.ProCounsellor.dto.DirectoryEntry;
 import com.catalyst.ProCounsellor.dto.SendCounsellorReviews;
 import com.catalyst.ProCounsellor.dto.SendUserReviews;
-import com.catalyst.ProCounsellor.model.ActivityLog;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.User;
 import com.catalyst.ProCounsellor.model.UserReview;
 import com.catalyst.ProCounsellor.model.UserReviewComments;
-import com.google.api.core.ApiFuture;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.ReviewRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
 import com.google.cloud.Timestamp;
-import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.Query;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.firebase.cloud.FirestoreClient;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
@@ -36,18 +33,25 @@ public class ReviewService {
 	@Autowired
 	private SharedService sharedService;
 	
-    Firestore firestore = FirestoreClient.getFirestore();
-    
-    private boolean doesDocumentExist(String collection, String documentId) throws InterruptedException, ExecutionException {
-        DocumentReference ref = firestore.collection(collection).document(documentId);
-        return ref.get().get().exists();
-    }
+	@Autowired
+	private ReviewRepository reviewRepository;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private CounsellorRepository counsellorRepository;
+	
+	@Autowired
+	private ProfileDirectoryService profileDirectoryService;
+	
+	@Autowired
+	private ActivityFeedService activityFeedService;
 
 
     // Post a review from a user to a counsellor
     public void postReview(String userName, String counsellorName, UserReview review) throws Exception {   	
         String reviewId = UUID.randomUUID().toString();
-        DocumentReference documentReference = firestore.collection("reviews").document(reviewId);
         review.setReviewId(reviewId);
         
         review.setUserName(userName);
@@ -56,16 +60,16 @@ public class ReviewService {
         review.setNoOfLikes(0);
 
         // First, check if both user and counsellor exist
-        if (!doesDocumentExist("users", userName)) {
+        if (!userRepository.existsById(userName)) {
             throw new Exception("User with ID " + userName + " does not exist.");
         }
 
-        if (!doesDocumentExist("counsellors", counsellorName)) {
+        if (!counsellorRepository.existsById(counsellorName)) {
             throw new Exception("Counsellor with ID " + counsellorName + " does not exist.");
         }
         
         // Save the review
-        documentReference.set(review).get();
+        reviewRepository.save(reviewId, review);
 
         // Add the review to both the user's and the counsellor's review lists
         addReviewIDToUser(userName, reviewId);
@@ -82,28 +86,17 @@ public class ReviewService {
         dbRef.child(counsellorName).updateChildrenAsync(updates);
         
         User user = sharedService.getUserById(userName);
-        Counsellor counsellor = sharedService.getCounsellorById(counsellorName);
-        
-        if (counsellor.getActivityLog() == null) {
-        	counsellor.setActivityLog(new ArrayList<>());
-        }
         
         String activityString =  user.getFirstName() + " " + user.getLastName() + " (" + user.getUserName() + ")" + " has given you a review.";
-        
-        ActivityLog activity = sharedService.createActivityObject(activityString);
-        counsellor.getActivityLog().add(activity);
-        
-        sharedService.updateCounsellor(counsellor);
+        activityFeedService.publish(counsellorName, userName, ActivityFeedService.TYPE_REVIEW, activityString);
 	}
 
 
 	private void addReviewIDToUser(String userName, String reviewId) throws Exception {
-        DocumentReference userRef = firestore.collection("users").document(userName);
-        DocumentSnapshot userDoc = userRef.get().get();
+        User user = userRepository.findById(userName);
 
-        // Explicitly use GenericTypeIndicator for type-safe casting
-        List<String> currentReviews = userDoc.exists() 
-            ? (List<String>) userDoc.get("userReviewIds") 
+        List<String> currentReviews = user != null 
+            ? user.getUserReviewIds() 
             : new ArrayList<>();
 
         if (currentReviews == null) {
@@ -111,16 +104,14 @@ public class ReviewService {
         }
 
         currentReviews.add(reviewId);
-        userRef.update("userReviewIds", currentReviews).get(); // Wait for the update to complete
+        userRepository.update(userName, "userReviewIds", currentReviews); // Wait for the update to complete
     }
     
     private void addReviewIDToCounsellor(String counsellorName, String reviewId) throws Exception {
-        DocumentReference counsellorRef = firestore.collection("counsellors").document(counsellorName);
-        DocumentSnapshot counsellorDoc = counsellorRef.get().get();
+        Counsellor counsellor = counsellorRepository.findById(counsellorName);
 
-        // Explicitly use GenericTypeIndicator for type-safe casting
-        List<String> currentReviews = counsellorDoc.exists() 
-            ? (List<String>) counsellorDoc.get("reviewIds") 
+        List<String> currentReviews = counsellor != null 
+            ? counsellor.getReviewIds() 
             : new ArrayList<>();
 
         if (currentReviews == null) {
@@ -128,14 +119,11 @@ public class ReviewService {
         }
 
         currentReviews.add(reviewId);
-        counsellorRef.update("reviewIds", currentReviews).get(); // Wait for the update to complete
+        counsellorRepository.update(counsellorName, "reviewIds", currentReviews); // Wait for the update to complete
     }
     
     public void updateReview(String reviewId, UserReview updatedReview) throws Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot reviewDoc = reviewRef.get().get();
-
-        if (!reviewDoc.exists()) {
+        if (!reviewRepository.existsById(reviewId)) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
@@ -145,23 +133,22 @@ public class ReviewService {
         updateFields.put("rating", updatedReview.getRating());          // Assuming updatedReview contains a rating
 
         // Update the review document without overwriting likes and comments
-        reviewRef.update(updateFields).get(); 
+        reviewRepository.update(reviewId, updateFields); 
     }
     
     // Post a review from a user to a counsellor
     public void deleteReview(String reviewId) throws Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot reviewDoc = reviewRef.get().get();
         UserReview review = getReviewFromReviewId(reviewId);
-        String userName = review.getUserName();
-        String counsellorName = review.getCounsellorName();
 
-        if (!reviewDoc.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
+        String userName = review.getUserName();
+        String counsellorName = review.getCounsellorName();
+
         // Delete the review from the reviews collection
-        reviewRef.delete().get();
+        reviewRepository.deleteById(reviewId);
 
         // Remove the reviewId from the user's review list
         removeReviewIDFromUser(userName, reviewId);
@@ -171,54 +158,51 @@ public class ReviewService {
     }
     
     private void removeReviewIDFromUser(String userName, String reviewId) throws Exception {
-        DocumentReference userRef = firestore.collection("users").document(userName);
-        DocumentSnapshot userDoc = userRef.get().get();
+        User user = userRepository.findById(userName);
 
-        if (!userDoc.exists()) {
+        if (user == null) {
             throw new Exception("User with ID " + userName + " does not exist.");
         }
 
         // Fetch current reviews and remove the reviewId
-        List<String> currentReviews = userDoc.exists() ? (List<String>) userDoc.get("userReviewIds") : new ArrayList<>();
+        List<String> currentReviews = user.getUserReviewIds();
         currentReviews.remove(reviewId);
 
-        userRef.update("userReviewIds", currentReviews).get(); // Wait for the update to complete
+        userRepository.update(userName, "userReviewIds", currentReviews); // Wait for the update to complete
     }
 
     private void removeReviewIDFromCounsellor(String counsellorName, String reviewId) throws Exception {
-        DocumentReference counsellorRef = firestore.collection("counsellors").document(counsellorName);
-        DocumentSnapshot counsellorDoc = counsellorRef.get().get();
+        Counsellor counsellor = counsellorRepository.findById(counsellorName);
 
-        if (!counsellorDoc.exists()) {
+        if (counsellor == null) {
             throw new Exception("Counsellor with ID " + counsellorName + " does not exist.");
         }
 
         // Fetch current reviews and remove the reviewId
-        List<String> currentReviews = counsellorDoc.exists() ? (List<String>) counsellorDoc.get("reviewIds") : new ArrayList<>();
+        List<String> currentReviews = counsellor.getReviewIds();
         currentReviews.remove(reviewId);
 
-        counsellorRef.update("reviewIds", currentReviews).get(); // Wait for the update to complete
+        counsellorRepository.update(counsellorName, "reviewIds", currentReviews); // Wait for the update to complete
     }
 
     // Fetch all reviews given by a specific user
     public List<SendUserReviews> getReviewsByUser(String userName) throws InterruptedException, ExecutionException {
-        DocumentReference userRef = firestore.collection("users").document(userName);
-        DocumentSnapshot document = userRef.get().get();
+        User user = userRepository.findById(userName);
 
-        if (document.exists()) {
-            // Directly cast the result to List<String>
-            List<String> reviewIds = (List<String>) document.get("userReviewIds");
+        if (user != null) {
+            List<String> reviewIds = user.getUserReviewIds();
 
             if (reviewIds == null) {
                 return new ArrayList<>();
             }
 
+            // One batched read for the reviews and one for every profile they mention
+            Collection<Map<String, Object>> reviews = reviewRepository.findAllDataById(reviewIds).values();
+            Map<String, DirectoryEntry> authors = loadAuthors(reviews);
+
             List<SendUserReviews> allReviews = new ArrayList<>();
-            for (String reviewId : reviewIds) {
-            	SendUserReviews review = getReviewByUserFromReviewId(reviewId);
-                if (review != null) {
-                    allReviews.add(review);
-                }
+            for (Map<String, Object> review : reviews) {
+                allReviews.add(toSendUserReviews(review, authors));
             }
             return allReviews;
         }
@@ -227,23 +211,21 @@ public class ReviewService {
 
 	// Fetch all reviews for a specific counselor
     public List<SendCounsellorReviews> getReviewsForCounsellor(String counsellorName) throws InterruptedException, ExecutionException {
-        DocumentReference counsellorRef = firestore.collection("counsellors").document(counsellorName);
-        DocumentSnapshot document = counsellorRef.get().get();
+        Counsellor counsellor = counsellorRepository.findById(counsellorName);
 
-        if (document.exists()) {
-            // Directly cast the result to List<String>
-            List<String> reviewIds = (List<String>) document.get("reviewIds");
+        if (counsellor != null) {
+            List<String> reviewIds = counsellor.getReviewIds();
 
             if (reviewIds == null) {
                 return new ArrayList<>();
             }
 
+            Collection<Map<String, Object>> reviews = reviewRepository.findAllDataById(reviewIds).values();
+            Map<String, DirectoryEntry> authors = loadAuthors(reviews);
+
             List<SendCounsellorReviews> allReviews = new ArrayList<>();
-            for (String reviewId : reviewIds) {
-            	SendCounsellorReviews review = getReviewForCounsellorFromReviewId(reviewId);
-                if (review != null) {
-                    allReviews.add(review);
-                }
+            for (Map<String, Object> review : reviews) {
+                allReviews.add(toSendCounsellorReviews(review, authors));
             }
             return allReviews;
         }
@@ -252,23 +234,7 @@ public class ReviewService {
     
     public String getCounsellorFullNameFromUserName(String counsellorName) {
         try {
-            DocumentSnapshot documentSnapshot = firestore.collection("counsellors")
-                    .document(counsellorName)
-                    .get()
-                    .get();
-            
-            if (documentSnapshot.exists()) {
-                String firstName = documentSnapshot.getString("firstName");
-                String lastName = documentSnapshot.getString("lastName");
-                
-                if (firstName != null && lastName != null) {
-                    return firstName + " " + lastName;
-                } else {
-                    return counsellorName;
-                }
-            } else {
-                return "User not found";
-            }
+            return counsellorFullName(profileDirectoryService.resolve(counsellorName));
         } catch (Exception e) {
             e.printStackTrace();
             return "Error retrieving user details";
@@ -277,38 +243,7 @@ public class ReviewService {
     
     public String getFullNameFromUserName(String userName) {
         try {
-            DocumentSnapshot documentSnapshot = firestore.collection("users")
-                    .document(userName)
-                    .get()
-                    .get();
-            
-            if (documentSnapshot.exists()) {
-                String firstName = documentSnapshot.getString("firstName");
-                String lastName = documentSnapshot.getString("lastName");
-                
-                if (firstName != null && lastName != null) {
-                    return firstName + " " + lastName;
-                } else {
-                    return userName;
-                }
-            } else {
-            	DocumentSnapshot documentSnapshotCounsellor = firestore.collection("counsellors")
-                        .document(userName)
-                        .get()
-                        .get();
-                
-                if (documentSnapshotCounsellor.exists()) {
-                    String firstName = documentSnapshotCounsellor.getString("firstName");
-                    String lastName = documentSnapshotCounsellor.getString("lastName");
-                    
-                    if (firstName != null && lastName != null) {
-                        return firstName + " " + lastName;
-                    } else {
-                        return userName;
-                    }
-            }
-                return null;
-           }
+            return fullName(profileDirectoryService.resolve(userName));
         } catch (Exception e) {
             e.printStackTrace();
             return "Error retrieving Counsellor details";
@@ -317,17 +252,8 @@ public class ReviewService {
 
     // Fetch a specific review from a user to a counselor
     public UserReview getReview(String userName, String counsellorName) throws InterruptedException, ExecutionException, Exception {
-        // Reference the "reviews" collection in Firestore
-        CollectionReference reviewsRef = firestore.collection("reviews");
-
         // Query for a review that matches the userName and counsellorName
-        Query query = reviewsRef
-                .whereEqualTo("userName", userName)
-                .whereEqualTo("counsellorName", counsellorName);
-
-        // Execute the query and get the results
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        List<QueryDocumentSnapshot> documents = querySnapshot.get().getDocuments();
+        List<UserReview> documents = reviewRepository.findByUserAndCounsellor(userName, counsellorName);
 
         // Ensure that only one review is returned
         if (documents.size() > 1) {
@@ -336,24 +262,19 @@ public class ReviewService {
             throw new Exception("No review found for the given user and counselor.");
         }
 
-        // Convert the document into a UserReview object
-        QueryDocumentSnapshot document = documents.get(0);
-        UserReview review = document.toObject(UserReview.class);
-
-        return review;
+        return documents.get(0);
     }
     
     
     public void likeReview(String reviewId, String userId) throws ExecutionException, InterruptedException, Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot document = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!document.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
         // Fetch current List of userIdsLiked
-        List<String> userIdsLiked = (List<String>) document.get("userIdsLiked");
+        List<String> userIdsLiked = review.getUserIdsLiked();
         if (userIdsLiked == null) {
             userIdsLiked = new ArrayList<>();
         }
@@ -361,41 +282,32 @@ public class ReviewService {
         // Only add userId if not already in the List
         if (!userIdsLiked.contains(userId)) {
             userIdsLiked.add(userId);
-            reviewRef.update("userIdsLiked", userIdsLiked);
 
             // Update the noOfLikes field based on the size of userIdsLiked list
-            reviewRef.update("noOfLikes", userIdsLiked.size());
+            Map<String, Object> likeFields = new HashMap<>();
+            likeFields.put("userIdsLiked", userIdsLiked);
+            likeFields.put("noOfLikes", userIdsLiked.size());
+            reviewRepository.update(reviewId, likeFields);
         }
         
         updateRealtimeReviewLike(reviewId, userId);
         
-        String reviewGivenByUserId = (String) document.get("userName");
+        String reviewGivenByUserId = review.getUserName();
         notifyUserAboutLike(reviewGivenByUserId, userId, reviewId);
     }
     
     private void notifyUserAboutLike(String reviewGivenByUserId, String userId, String reviewId) throws ExecutionException, InterruptedException {
-    	 User user = sharedService.getUserById(reviewGivenByUserId);
     	 User userGivenLike = sharedService.getUserById(userId);
     	 
-    	 if (user.getActivityLog() == null) {
-        	 user.setActivityLog(new ArrayList<>());
-         }
-    	 
+    	 String activityString;
     	 if(userGivenLike == null) {
     		 Counsellor counsellorGivenLike = sharedService.getCounsellorById(userId);
-    		 
-    		 String activityString = counsellorGivenLike.getFirstName() + " " + counsellorGivenLike.getLastName() + " (" + counsellorGivenLike.getUserName() + ")" + " has liked your review.";
-    	     ActivityLog activity = sharedService.createActivityObject(activityString);
-    		 
-    		 user.getActivityLog().add(activity);
-             sharedService.updateUser(user);
+    		 activityString = counsellorGivenLike.getFirstName() + " " + counsellorGivenLike.getLastName() + " (" + counsellorGivenLike.getUserName() + ")" + " has liked your review.";
     	 }
     	 else {
-    		 String activityString = userGivenLike.getFirstName() + " " + userGivenLike.getLastName() + " (" + userGivenLike.getUserName() + ")" + " has liked your review.";
-    		 ActivityLog activity = sharedService.createActivityObject(activityString);
-    		 user.getActivityLog().add(activity);
-             sharedService.updateUser(user);
+    		 activityString = userGivenLike.getFirstName() + " " + userGivenLike.getLastName() + " (" + userGivenLike.getUserName() + ")" + " has liked your review.";
     	 }
+    	 activityFeedService.publish(reviewGivenByUserId, userId, ActivityFeedService.TYPE_REVIEW_LIKE, activityString);
 	}
 
 
@@ -414,49 +326,48 @@ public class ReviewService {
     }
 
     public void unlikeReview(String reviewId, String userId) throws ExecutionException, InterruptedException, Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot document = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!document.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
         // Fetch current List of userIdsLiked
-        List<String> userIdsLiked = (List<String>) document.get("userIdsLiked");
+        List<String> userIdsLiked = review.getUserIdsLiked();
         if (userIdsLiked == null || !userIdsLiked.contains(userId)) {
             throw new Exception("Review with ID " + reviewId + " does not have this user liked.");
         }
 
         // Remove the userId from the List
         userIdsLiked.remove(userId);
-        reviewRef.update("userIdsLiked", userIdsLiked);
 
         // Update the noOfLikes field based on the size of userIdsLiked list
-        reviewRef.update("noOfLikes", userIdsLiked.size());
+        Map<String, Object> likeFields = new HashMap<>();
+        likeFields.put("userIdsLiked", userIdsLiked);
+        likeFields.put("noOfLikes", userIdsLiked.size());
+        reviewRepository.update(reviewId, likeFields);
     }
 
     public Integer getReviewLikes(String reviewId) throws ExecutionException, InterruptedException, Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot document = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!document.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
-        List<String> userIdsLiked = (List<String>) document.get("userIdsLiked");
+        List<String> userIdsLiked = review.getUserIdsLiked();
         return (userIdsLiked != null) ? userIdsLiked.size() : 0;
     }
     
     // Method to add a comment to a review
     public void addComment(String reviewId, String userName, UserReviewComments comment) throws ExecutionException, InterruptedException, Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot reviewSnapshot = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!reviewSnapshot.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
-        List<UserReviewComments> comments = reviewSnapshot.toObject(UserReview.class).getComments();
+        List<UserReviewComments> comments = review.getComments();
         if (comments == null) {
             comments = new ArrayList<>();
         }
@@ -468,37 +379,25 @@ public class ReviewService {
         comment.setUserFullName(getFullName(userName));
 
         comments.add(comment);
-        reviewRef.update("comments", comments);
+        reviewRepository.update(reviewId, "comments", comments);
         updateRealtimeReviewComments(reviewId, userName, comment);
         
-        String reviewGivenByUserId = (String) reviewSnapshot.get("userName");
+        String reviewGivenByUserId = review.getUserName();
         notifyUserAboutComment(reviewGivenByUserId, userName, reviewId);
     }
     
     private void notifyUserAboutComment(String reviewGivenByUserId, String userId, String reviewId) throws ExecutionException, InterruptedException {
-   	 User user = sharedService.getUserById(reviewGivenByUserId);
    	 User userGivenComment = sharedService.getUserById(userId);
         
-        if (user.getActivityLog() == null) {
-       	 user.setActivityLog(new ArrayList<>());
-        }
-        
+        String activityString;
         if(userGivenComment == null) {
         	Counsellor counsellorGivenComment = sharedService.getCounsellorById(userId);
-        	String activityString = counsellorGivenComment.getFirstName() + " " + counsellorGivenComment.getLastName() + " (" + counsellorGivenComment.getUserName() + ")" + " has commented on your review.";
-            ActivityLog activity = sharedService.createActivityObject(activityString);
-        	
-        	user.getActivityLog().add(activity);
-            sharedService.updateUser(user);
+        	activityString = counsellorGivenComment.getFirstName() + " " + counsellorGivenComment.getLastName() + " (" + counsellorGivenComment.getUserName() + ")" + " has commented on your review.";
         }
         else {
-        	String activityString = userGivenComment.getFirstName() + " " + userGivenComment.getLastName() + " (" + userGivenComment.getUserName() + ")" + " has commented on your review.";
-            ActivityLog activity = sharedService.createActivityObject(activityString);
-                	
-        	
-        	user.getActivityLog().add(activity);
-            sharedService.updateUser(user);
+        	activityString = userGivenComment.getFirstName() + " " + userGivenComment.getLastName() + " (" + userGivenComment.getUserName() + ")" + " has commented on your review.";
         }
+        activityFeedService.publish(reviewGivenByUserId, userId, ActivityFeedService.TYPE_REVIEW_COMMENT, activityString);
 	}
     
     //To fetch notifications for real time comments on the review.
@@ -525,14 +424,13 @@ public class ReviewService {
     }
     
     public void updateComment(String reviewId, String commentId, UserReviewComments updatedComment) throws Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot reviewSnapshot = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!reviewSnapshot.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
-        List<UserReviewComments> comments = reviewSnapshot.toObject(UserReview.class).getComments();
+        List<UserReviewComments> comments = review.getComments();
         if (comments == null) {
             throw new Exception("No comments found for review with ID " + reviewId);
         }
@@ -552,19 +450,18 @@ public class ReviewService {
             throw new Exception("Comment with ID " + commentId + " not found in review.");
         }
 
-        reviewRef.update("comments", comments).get(); // Update the comments array
+        reviewRepository.update(reviewId, "comments", comments); // Update the comments array
     }
     
     public void deleteComment(String reviewId, String commentId) throws ExecutionException, InterruptedException, Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot reviewSnapshot = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!reviewSnapshot.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
         // Retrieve the list of comments for the review
-        List<UserReviewComments> comments = reviewSnapshot.toObject(UserReview.class).getComments();
+        List<UserReviewComments> comments = review.getComments();
         if (comments == null) {
             throw new Exception("No comments found for review with ID " + reviewId);
         }
@@ -586,138 +483,112 @@ public class ReviewService {
         comments.remove(commentToDelete);
 
         // Update the review document with the modified list of comments
-        reviewRef.update("comments", comments);
+        reviewRepository.update(reviewId, "comments", comments);
     }
 
     // Method to fetch all comments of a review
     public List<UserReviewComments> getComments(String reviewId) throws ExecutionException, InterruptedException, Exception {
-        DocumentReference reviewRef = firestore.collection("reviews").document(reviewId);
-        DocumentSnapshot reviewSnapshot = reviewRef.get().get();
+        UserReview review = reviewRepository.findById(reviewId);
 
-        if (!reviewSnapshot.exists()) {
+        if (review == null) {
             throw new Exception("Review with ID " + reviewId + " does not exist.");
         }
 
-        UserReview review = reviewSnapshot.toObject(UserReview.class);
         return review.getComments() != null ? review.getComments() : new ArrayList<>();
     }
     
     public String getPhotoUrl(String userName) throws InterruptedException, ExecutionException {
-    	DocumentReference userRef = firestore.collection("users").document(userName);
-        ApiFuture<DocumentSnapshot> future = userRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            User user = document.toObject(User.class);
-            if (user != null) {
-                return user.getPhoto();
-            }
-        }
-        else {
-        	DocumentReference counsellorRef = firestore.collection("counsellors").document(userName);
-            ApiFuture<DocumentSnapshot> counsellorFuture = counsellorRef.get();
-            DocumentSnapshot counsellorDocument = counsellorFuture.get();
-
-            if (counsellorDocument.exists()) {
-                Counsellor counsellor = counsellorDocument.toObject(Counsellor.class);
-                if (counsellor != null) {
-                    return counsellor.getPhotoUrl();
-                }
-            }
-        }
-        return null;
+        return profileDirectoryService.resolve(userName).getPhotoUrl();
     }
     
     public String getFullName(String userName) throws InterruptedException, ExecutionException {
-    	DocumentReference userRef = firestore.collection("users").document(userName);
-        ApiFuture<DocumentSnapshot> future = userRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            User user = document.toObject(User.class);
-            if (user != null) {
-                return user.getFirstName() + " " + user.getLastName();
-            }
-        }
-        else {
-        	DocumentReference counsellorRef = firestore.collection("counsellors").document(userName);
-            ApiFuture<DocumentSnapshot> counsellorFuture = counsellorRef.get();
-            DocumentSnapshot counsellorDocument = counsellorFuture.get();
-
-            if (counsellorDocument.exists()) {
-                Counsellor counsellor = counsellorDocument.toObject(Counsellor.class);
-                if (counsellor != null) {
-                	return counsellor.getFirstName() + " " + counsellor.getLastName();
-                }
-            }
-        }
-        return null;
+        DirectoryEntry entry = profileDirectoryService.resolve(userName);
+        return entry.isFound() ? entry.getFirstName() + " " + entry.getLastName() : null;
     }
     
     private UserReview getReviewFromReviewId(String reviewId) throws InterruptedException, ExecutionException {
-		DocumentSnapshot userReview = firestore.collection("reviews").document(reviewId).get().get();
-		return userReview.exists() ? userReview.toObject(UserReview.class) : null;
+		return reviewRepository.findById(reviewId);
 	}
     
-    private SendUserReviews getReviewByUserFromReviewId(String reviewId) throws InterruptedException, ExecutionException {
-		DocumentSnapshot userReview = firestore.collection("reviews").document(reviewId).get().get();
+    private SendUserReviews toSendUserReviews(Map<String, Object> userReview, Map<String, DirectoryEntry> authors) {
 		SendUserReviews sendUserReviews = new SendUserReviews();
-		sendUserReviews.setReviewId(userReview.getString("reviewId"));
-		sendUserReviews.setUserName(userReview.getString("userName"));
-		String counsellorName = userReview.getString("counsellorName");
+		sendUserReviews.setReviewId((String) userReview.get("reviewId"));
+		sendUserReviews.setUserName((String) userReview.get("userName"));
+		String counsellorName = (String) userReview.get("counsellorName");
 		sendUserReviews.setCounsellorName(counsellorName);
-		String counsellorFullName = getCounsellorFullNameFromUserName(counsellorName);
-		sendUserReviews.setCounsellorFullName(counsellorFullName);
-		sendUserReviews.setCounsellorPhotoUrl(getPhotoUrl(counsellorName));
-		sendUserReviews.setReviewText(userReview.getString("reviewText"));
+		sendUserReviews.setCounsellorFullName(counsellorFullName(authors.get(counsellorName)));
+		sendUserReviews.setCounsellorPhotoUrl(authors.get(counsellorName).getPhotoUrl());
+		sendUserReviews.setReviewText((String) userReview.get("reviewText"));
 		sendUserReviews.setUserIdsLiked((List<String>) userReview.get("userIdsLiked"));
-		sendUserReviews.setRating(userReview.getDouble("rating"));
-		sendUserReviews.setTimestamp(userReview.getTimestamp("timestamp"));
-		sendUserReviews.setNoOfLikes(userReview.getLong("noOfLikes").intValue());
-		
-		List<Map<String, Object>> listOfComments = (List<Map<String, Object>>) userReview.get("comments");
-		
-		if(listOfComments != null) {
-			for (Map<String, Object> commentMap : listOfComments) {
-			    String userNameOfComment = (String) commentMap.get("userName");
-			    commentMap.put("userFullName", getFullNameFromUserName(userNameOfComment));
-			    commentMap.put("photoUrl", getPhotoUrl(userNameOfComment));
-			}
-		}
-        
-		sendUserReviews.setComments(listOfComments);
-		
+		sendUserReviews.setRating(((Number) userReview.get("rating")).doubleValue());
+		sendUserReviews.setTimestamp((Timestamp) userReview.get("timestamp"));
+		sendUserReviews.setNoOfLikes(((Number) userReview.get("noOfLikes")).intValue());
+		sendUserReviews.setComments(enrichComments(userReview, authors));
 		return sendUserReviews;
 	}
     
-    private SendCounsellorReviews getReviewForCounsellorFromReviewId(String reviewId) throws InterruptedException, ExecutionException {
-		DocumentSnapshot userReview = firestore.collection("reviews").document(reviewId).get().get();
+    private SendCounsellorReviews toSendCounsellorReviews(Map<String, Object> userReview, Map<String, DirectoryEntry> authors) {
 		SendCounsellorReviews sendCounsellorReviews = new SendCounsellorReviews();
-		sendCounsellorReviews.setReviewId(userReview.getString("reviewId"));
-		sendCounsellorReviews.setCounsellorName(userReview.getString("counsellorName"));
-		String userName = userReview.getString("userName");
+		sendCounsellorReviews.setReviewId((String) userReview.get("reviewId"));
+		sendCounsellorReviews.setCounsellorName((String) userReview.get("counsellorName"));
+		String userName = (String) userReview.get("userName");
 		sendCounsellorReviews.setUserName(userName);
-		String userFullName = getFullNameFromUserName(userName);
-		sendCounsellorReviews.setUserFullName(userFullName);
-		sendCounsellorReviews.setUserPhotoUrl(getPhotoUrl(userName));
-		sendCounsellorReviews.setReviewText(userReview.getString("reviewText"));
+		sendCounsellorReviews.setUserFullName(fullName(authors.get(userName)));
+		sendCounsellorReviews.setUserPhotoUrl(authors.get(userName).getPhotoUrl());
+		sendCounsellorReviews.setReviewText((String) userReview.get("reviewText"));
 		sendCounsellorReviews.setUserIdsLiked((List<String>) userReview.get("userIdsLiked"));
-		sendCounsellorReviews.setRating(userReview.getDouble("rating"));
-		sendCounsellorReviews.setTimestamp(userReview.getTimestamp("timestamp"));
-		sendCounsellorReviews.setNoOfLikes(userReview.getLong("noOfLikes").intValue());
+		sendCounsellorReviews.setRating(((Number) userReview.get("rating")).doubleValue());
+		sendCounsellorReviews.setTimestamp((Timestamp) userReview.get("timestamp"));
+		sendCounsellorReviews.setNoOfLikes(((Number) userReview.get("noOfLikes")).intValue());
+		sendCounsellorReviews.setComments(enrichComments(userReview, authors));
+		return sendCounsellorReviews;
+	}
+    
+    private List<Map<String, Object>> enrichComments(Map<String, Object> userReview, Map<String, DirectoryEntry> authors) {
 		List<Map<String, Object>> listOfComments = (List<Map<String, Object>>) userReview.get("comments");
 		
 		if(listOfComments != null) {
 			for (Map<String, Object> commentMap : listOfComments) {
 			    String userNameOfComment = (String) commentMap.get("userName");
-			    commentMap.put("userFullName", getFullNameFromUserName(userNameOfComment));
-			    commentMap.put("photoUrl", getPhotoUrl(userNameOfComment));
+			    DirectoryEntry author = authors.get(userNameOfComment);
+			    commentMap.put("userFullName", fullName(author));
+			    commentMap.put("photoUrl", author.getPhotoUrl());
 			}
 		}
-        
-		sendCounsellorReviews.setComments(listOfComments);
-		
-		return sendCounsellorReviews;
+		return listOfComments;
 	}
+    
+    /**
+     * Resolves every profile referenced by the reviews (reviewer, counsellor and comment
+     * authors) through the profile directory, with at most one batched read per collection.
+     */
+    private Map<String, DirectoryEntry> loadAuthors(Collection<Map<String, Object>> reviews) throws InterruptedException, ExecutionException {
+        Set<String> names = new LinkedHashSet<>();
+        for (Map<String, Object> review : reviews) {
+            addName(names, review.get("userName"));
+            addName(names, review.get("counsellorName"));
+            List<Map<String, Object>> comments = (List<Map<String, Object>>) review.get("comments");
+            if (comments != null) {
+                for (Map<String, Object> comment : comments) {
+                    addName(names, comment.get("userName"));
+                }
+            }
+        }
+        return profileDirectoryService.resolveAll(names);
+    }
+    
+    private static void addName(Set<String> names, Object name) {
+        if (name instanceof String) {
+            names.add((String) name);
+        }
+    }
+    
+    // Same name/photo fallbacks as getFullNameFromUserName, getCounsellorFullNameFromUserName and getPhotoUrl
+    private static String fullName(DirectoryEntry entry) {
+        return entry.isFound() ? entry.getDisplayName() : null;
+    }
+    
+    private static String counsellorFullName(DirectoryEntry entry) {
+        return "counsellor".equals(entry.getRole()) ? entry.getDisplayName() : "User not found";
+    }
 }
-
@@ -1,52 +1,41 @@
 package com.catalyst.ProCounsellor.service;
 
 import com.catalyst.ProCounsellor.model.feedingModel.TrendingCourses;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.catalyst.ProCounsellor.repository.TrendingCoursesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 @Service
 public class TrendingCoursesService {
 
-    private static final String COLLECTION_NAME = "trendingCourses";
+    @Autowired
+    private TrendingCoursesRepository trendingCoursesRepository;
 
     public TrendingCourses createCourse(TrendingCourses course) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-        course.setCourseId(docRef.getId()); // Auto-generate courseId
-        ApiFuture<WriteResult> future = docRef.set(course);
-        future.get(); // wait
+        course.setCourseId(trendingCoursesRepository.newId()); // Auto-generate courseId
+        trendingCoursesRepository.save(course.getCourseId(), course);
         return course;
     }
 
     public TrendingCourses getCourseById(String courseId) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(courseId);
-        DocumentSnapshot document = docRef.get().get();
-        return document.exists() ? document.toObject(TrendingCourses.class) : null;
+        return trendingCoursesRepository.findById(courseId);
     }
 
     public List<TrendingCourses> getAllCourses() throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        List<QueryDocumentSnapshot> documents = firestore.collection(COLLECTION_NAME).get().get().getDocuments();
-        return documents.stream().map(doc -> doc.toObject(TrendingCourses.class)).collect(Collectors.toList());
+        return trendingCoursesRepository.findAll();
     }
 
     public TrendingCourses updateCourse(String courseId, TrendingCourses updatedCourse) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
         updatedCourse.setCourseId(courseId);
-        firestore.collection(COLLECTION_NAME).document(courseId).set(updatedCourse).get();
+        trendingCoursesRepository.save(courseId, updatedCourse);
         return updatedCourse;
     }
 
     public String deleteCourse(String courseId) throws ExecutionException, InterruptedException {
-        Firestore firestore = FirestoreClient.getFirestore();
-        firestore.collection(COLLECTION_NAME).document(courseId).delete().get();
+        trendingCoursesRepository.deleteById(courseId);
         return "Course with ID " + courseId + " deleted successfully.";
     }
 }
@@ -2,32 +2,27 @@ package com.catalyst.ProCounsellor.service;
 
 
 import com.catalyst.ProCounsellor.exception.UserNotFoundException;
-import com.catalyst.ProCounsellor.model.ActivityLog;
 import com.catalyst.ProCounsellor.model.AppointmentBooking;
 import com.catalyst.ProCounsellor.model.Counsellor;
 import com.catalyst.ProCounsellor.model.Course;
 import com.catalyst.ProCounsellor.model.States;
 import com.catalyst.ProCounsellor.model.User;
 import com.catalyst.ProCounsellor.model.UserState;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentQuery;
+import com.catalyst.ProCounsellor.repository.UserRepository;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -35,6 +30,9 @@ import org.springframework.web.bind.annotation.*;
 import com.catalyst.ProCounsellor.config.JwtKeyProvider;
 import com.catalyst.ProCounsellor.dto.AppointmentBookingRequest;
 import com.catalyst.ProCounsellor.dto.CounsellorDataInUserDashboard;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.dto.UserSummary;
 import com.catalyst.ProCounsellor.service.UserService;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
@@ -57,15 +55,28 @@ public class UserService {
 	@Autowired
     private AppointmentBookingService appointmentBookingService;
 	
-	private final Firestore firestore;
+	@Autowired
+	private PresenceService presenceService;
+	
+	@Autowired
+	private ActivityFeedService activityFeedService;
+	
+	@Autowired
+	private CounsellorSearchService counsellorSearchService;
+	
+	private final UserRepository userRepository;
+	
+	private final CounsellorRepository counsellorRepository;
 
-    public UserService(Firestore firestore) {
-        this.firestore = firestore;
+    public UserService(UserRepository userRepository, CounsellorRepository counsellorRepository) {
+        this.userRepository = userRepository;
+        this.counsellorRepository = counsellorRepository;
 	}
 	
-    private static final String USERS = "users";
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     
+    public static final int MAX_PAGE_SIZE = 100;
+    
     public String generateAndSendOtp(@RequestParam String phoneNumber) {
         String response = otpService.generateAndSendOtp(phoneNumber);
         return response;
@@ -75,11 +86,11 @@ public class UserService {
         logger.info("Fetching user by ID: {}", userId);
 
         try {
-            DocumentSnapshot snapshot = firestore.collection("users").document(userId).get().get();
+            User user = userRepository.findById(userId);
 
-            if (snapshot.exists()) {
+            if (user != null) {
                 logger.info("User found for ID: {}", userId);
-                return snapshot.toObject(User.class);
+                return user;
             } else {
                 logger.warn("No user found for ID: {}", userId);
                 return null;
@@ -152,13 +163,8 @@ public class UserService {
     public String userSignup(String phoneNumber) throws ExecutionException, InterruptedException {
         logger.info("Initiating user signup for phone number: {}", phoneNumber);
 
-        Firestore dbFirestore = FirestoreClient.getFirestore();
-
         // Check for uniqueness of phoneNumber
-        CollectionReference usersCollection = dbFirestore.collection(USERS);
-        Query phoneQuery = usersCollection.whereEqualTo("phoneNumber", phoneNumber);
-
-        boolean userExists = !phoneQuery.get().get().isEmpty();
+        boolean userExists = userRepository.findByPhoneNumber(phoneNumber) != null;
         if (userExists) {
             logger.warn("Signup attempt failed. Phone number already exists: {}", phoneNumber);
             return "Phone number already exists: " + phoneNumber;
@@ -171,13 +177,14 @@ public class UserService {
         user.setUserName(userName);
         user.setRole("user");
 
-        // Save new user
+        // Save new user; create-if-absent so an existing profile is never overwritten
         logger.info("Creating new user with ID: {}", userName);
-        DocumentReference userDocRef = dbFirestore.collection(USERS).document(userName);
-        ApiFuture<WriteResult> collectionsApiFuture = userDocRef.set(user);
-        WriteResult result = collectionsApiFuture.get();
+        if (!userRepository.create(userName, user)) {
+            logger.warn("Signup attempt failed. User already exists: {}", userName);
+            return "User already exists with userName: " + userName;
+        }
 
-        logger.info("User created successfully. ID: {}, Timestamp: {}", userName, result.getUpdateTime());
+        logger.info("User created successfully. ID: {}", userName);
 
         return "Signup successful! User ID: " + userName;
     }
@@ -185,32 +192,26 @@ public class UserService {
     public boolean isPhoneNumberExists(String phoneNumber) throws ExecutionException, InterruptedException {
         logger.info("Checking existence of phone number: {}", phoneNumber);
 
-        Firestore dbFirestore = FirestoreClient.getFirestore();
-        CollectionReference usersCollection = dbFirestore.collection(USERS);
-        Query phoneQuery = usersCollection.whereEqualTo("phoneNumber", phoneNumber);
-
-        boolean exists = !phoneQuery.get().get().isEmpty();
+        boolean exists = userRepository.findByPhoneNumber(phoneNumber) != null;
         logger.info("Phone number {} existence: {}", phoneNumber, exists);
 
         return exists;
     }
     
 	public User updateUserFields(String userId, Map<String, Object> updates) throws ExecutionException, InterruptedException {
-	    DocumentReference docRef = firestore.collection(USERS).document(userId);
-	    
 	    logger.info("Attempting to update user [{}] with fields: {}", userId, updates);
 
 	    try {
-	        // Perform the update
-	        ApiFuture<WriteResult> writeResult = docRef.update(updates);
-	        logger.info("Update submitted. Write time: {}", writeResult.get().getUpdateTime());
+	        // Perform the update; the wallet balance is only ever written by the ledger
+	        userRepository.update(userId, WalletLedgerService.withoutLedgerFields(updates));
+	        logger.info("Update submitted for user [{}]", userId);
 
 	        // Fetch the updated user
-	        DocumentSnapshot document = docRef.get().get();
+	        User user = userRepository.findById(userId);
 
-	        if (document.exists()) {
+	        if (user != null) {
 	            logger.info("Successfully fetched updated user [{}]", userId);
-	            return document.toObject(User.class);
+	            return user;
 	        } else {
 	            logger.warn("User with ID [{}] not found after update attempt", userId);
 	            throw new RuntimeException("User not found");
@@ -225,6 +226,10 @@ public class UserService {
 		return appointmentBookingService.bookAppointment(appointmentBookingRequest);
 	}
 	
+	public void cancelAppointment(String appointmentId, String userId) throws ExecutionException, InterruptedException {
+		appointmentBookingService.cancelAppointment(appointmentId, userId);
+	}
+	
 	public List<AppointmentBooking> getAppointmentsByUserId(String userId) throws Exception {
 		return appointmentBookingService.getAppointmentsByUserId(userId);
 	}
@@ -233,36 +238,29 @@ public class UserService {
 		return appointmentBookingService.getUpcomingAppointmentsByUserId(userId);
 	}
 	
+	public CursorPage<AppointmentBooking> getUpcomingAppointments(String userId, String cursor, int limit) throws ExecutionException, InterruptedException {
+		return appointmentBookingService.getUpcomingAppointments("userId", userId, cursor, limit);
+	}
+	
+	public CursorPage<AppointmentBooking> getPastAppointments(String userId, String cursor, int limit) throws ExecutionException, InterruptedException {
+		return appointmentBookingService.getPastAppointments("userId", userId, cursor, limit);
+	}
+	
+	public CursorPage<AppointmentBooking> getAppointmentsBetween(String userId, LocalDate from, LocalDate to, String cursor, int limit) throws ExecutionException, InterruptedException {
+		return appointmentBookingService.getAppointmentsBetween("userId", userId, from, to, cursor, limit);
+	}
+	
 	public List<CounsellorDataInUserDashboard> getCounsellorsByCourse(String course) {
         logger.info("Starting getCounsellorsByCourse for course: {}", course);
 
         List<CounsellorDataInUserDashboard> result = new ArrayList<>();
         try {
-            ApiFuture<QuerySnapshot> future = firestore
-                    .collection("counsellors")
-                    .whereArrayContains("expertise", course)
-                    .get();
-
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            logger.info("Fetched {} counsellor documents for course '{}'", documents.size(), course);
-
-            List<Counsellor> listOfCounsellors = documents.stream()
-                    .map(doc -> {
-                        try {
-                            Counsellor counsellor = doc.toObject(Counsellor.class);
-                            logger.debug("Mapped document ID {} to counsellor: {}", doc.getId(), counsellor);
-                            return counsellor;
-                        } catch (Exception e) {
-                            logger.error("Error mapping document ID {} to Counsellor class: {}", doc.getId(), e.getMessage());
-                            return null;
-                        }
-                    })
-                    .filter(c -> c != null)
-                    .collect(Collectors.toList());
+            List<CounsellorSummary> listOfCounsellors = counsellorSearchService.findByExpertise(course);
+            logger.info("Found {} indexed counsellors for course '{}'", listOfCounsellors.size(), course);
 
             result = mapRequiredCounsellorData(listOfCounsellors);
 
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (InterruptedException e) {
             logger.error("Error fetching counsellors by course '{}': {}", course, e.getMessage(), e);
             Thread.currentThread().interrupt();
         }
@@ -271,12 +269,12 @@ public class UserService {
         return result;
     }
 
-    private List<CounsellorDataInUserDashboard> mapRequiredCounsellorData(List<Counsellor> listOfCounsellors) {
+    private List<CounsellorDataInUserDashboard> mapRequiredCounsellorData(List<CounsellorSummary> listOfCounsellors) {
         logger.debug("Mapping {} counsellors to dashboard DTOs", listOfCounsellors.size());
 
         List<CounsellorDataInUserDashboard> dashboardList = new ArrayList<>();
 
-        for (Counsellor counsellor : listOfCounsellors) {
+        for (CounsellorSummary counsellor : listOfCounsellors) {
             try {
                 CounsellorDataInUserDashboard dto = new CounsellorDataInUserDashboard();
                 dto.setFirstName(counsellor.getFirstName());
@@ -305,33 +303,17 @@ public class UserService {
                 return false;
             }
 
-            if (user1.getFriendIds() == null) {
-                user1.setFriendIds(new ArrayList<>());
-            }
+            boolean newFriend = user2.getFriendIds() == null || !user2.getFriendIds().contains(userId1);
 
-            if (!user1.getFriendIds().contains(userId2)) {
-            	user1.getFriendIds().add(userId2);
-            }
-
-            if (user2.getFriendIds() == null) {
-            	user2.setFriendIds(new ArrayList<>());
-            }
-            
-            if(user2.getActivityLog() == null) {
-            	user2.setActivityLog(new ArrayList<>());
-            }
+            // Field-level adds: a full-profile save would write back stale fields
+            userRepository.arrayUnion(userId1, "friendIds", userId2);
+            userRepository.arrayUnion(userId2, "friendIds", userId1);
 
-            if (!user2.getFriendIds().contains(userId1)) {
-            	user2.getFriendIds().add(userId1);
+            if (newFriend) {
                 String activityString = user1.getFirstName() + " " + user1.getLastName() + " (" + user1.getUserName() + ")" + " subscribed you.";
-                ActivityLog activity = sharedService.createActivityObject(activityString);
-                user2.getActivityLog().add(activity);
+                activityFeedService.publish(userId2, userId1, ActivityFeedService.TYPE_FRIEND, activityString);
             }
 
-            // Update both entities in Firebase
-            updateUser(user1);
-            updateUser(user2);
-
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -349,39 +331,19 @@ public class UserService {
                 return false; // User or Counsellor not found
             }
 
-            // Check and initialize the user's subscribedCounsellorIds list if it's null
-            if (user.getSubscribedCounsellorIds() == null) {
-                user.setSubscribedCounsellorIds(new ArrayList<>());
-            }
-
-            // Add the counsellor's ID to the user's subscribedCounsellorIds list
-            if (!user.getSubscribedCounsellorIds().contains(counsellorId)) {
-                user.getSubscribedCounsellorIds().add(counsellorId);
-            }
+            boolean newClient = counsellor.getClientIds() == null || !counsellor.getClientIds().contains(userId);
 
-            // Check and initialize the counsellor's clientIds list if it's null
-            if (counsellor.getClientIds() == null) {
-                counsellor.setClientIds(new ArrayList<>());
-            }
+            // Field-level adds: a full-profile save would write back stale fields
+            userRepository.arrayUnion(userId, "subscribedCounsellorIds", counsellorId);
+            updateRealtimeSubscribers(counsellorId, userId);
             
-            if(counsellor.getActivityLog() == null) {
-            	counsellor.setActivityLog(new ArrayList<>());
-            }
+            counsellorRepository.arrayUnion(counsellorId, "clientIds", userId);
 
-            // Add the user's ID to the counsellor's clientIds list
-            if (!counsellor.getClientIds().contains(userId)) {
-                counsellor.getClientIds().add(userId);
+            if (newClient) {
                 String activityString = user.getFirstName() + " " + user.getLastName() + " (" + user.getUserName() + ")" + " subscribed you.";
-                ActivityLog activity = sharedService.createActivityObject(activityString);
-                counsellor.getActivityLog().add(activity);
+                activityFeedService.publish(counsellorId, userId, ActivityFeedService.TYPE_SUBSCRIBE, activityString);
             }
 
-            // Update both entities in Firebase
-            updateUser(user);
-            updateRealtimeSubscribers(counsellorId, userId);
-            
-            sharedService.updateCounsellor(counsellor);
-
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -465,39 +427,19 @@ public class UserService {
                 return false; // User or Counsellor not found
             }
 
-            // Check and initialize the user's followedCounsellorIds list if it's null
-            if (user.getFollowedCounsellorsIds() == null) {
-                user.setFollowedCounsellorsIds(new ArrayList<>());
-            }
-
-            // Add the counsellor's ID to the user's followedCounsellorIds list
-            if (!user.getFollowedCounsellorsIds().contains(counsellorId)) {
-                user.getFollowedCounsellorsIds().add(counsellorId);
-            }
+            boolean newFollower = counsellor.getFollowerIds() == null || !counsellor.getFollowerIds().contains(userId);
 
-            // Check and initialize the counsellor's clientIds list if it's null
-            if (counsellor.getFollowerIds() == null) {
-                counsellor.setFollowerIds(new ArrayList<>());
-            }
+            // Field-level adds: a full-profile save would write back stale fields
+            userRepository.arrayUnion(userId, "followedCounsellorsIds", counsellorId);
+            updateRealtimeFollowers(counsellorId, userId);
             
-            if (counsellor.getActivityLog() == null) {
-            	counsellor.setActivityLog(new ArrayList<>());
-            }
+            counsellorRepository.arrayUnion(counsellorId, "followerIds", userId);
 
-            // Add the user's ID to the counsellor's clientIds list
-            if (!counsellor.getFollowerIds().contains(userId)) {
-                counsellor.getFollowerIds().add(userId);
+            if (newFollower) {
                 String activityString = user.getFirstName() + " " + user.getLastName() + " (" + user.getUserName() + ")" + " followed you.";
-                ActivityLog activity = sharedService.createActivityObject(activityString);
-                counsellor.getActivityLog().add(activity);
+                activityFeedService.publish(counsellorId, userId, ActivityFeedService.TYPE_FOLLOW, activityString);
             }
 
-            // Update both entities in Firebase
-            updateUser(user);
-            updateRealtimeFollowers(counsellorId, userId);
-            
-            sharedService.updateCounsellor(counsellor);
-
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -560,19 +502,9 @@ public class UserService {
 	            return false; // Return false if user or counsellor doesn't exist
 	        }
 
-	        // Remove counsellor from user's subscribedCounsellorIds
-	        if (user.getSubscribedCounsellorIds() != null) {
-	            user.getSubscribedCounsellorIds().remove(counsellorId);
-	        }
-
-	        // Remove user from counsellor's clientIds
-	        if (counsellor.getClientIds() != null) {
-	            counsellor.getClientIds().remove(userId);
-	        }
-
-	        // Update both entities in Firebase
-	        updateUser(user);
-	        sharedService.updateCounsellor(counsellor);
+	        // Field-level removes: a full-profile save would write back stale fields
+	        userRepository.arrayRemove(userId, "subscribedCounsellorIds", counsellorId);
+	        counsellorRepository.arrayRemove(counsellorId, "clientIds", userId);
 
 	        return true;
 	    } catch (Exception e) {
@@ -590,16 +522,8 @@ public class UserService {
 	            return false;
 	        }
 
-	        if (user1.getFriendIds() != null) {
-	        	user1.getFriendIds().remove(userId2);
-	        }
-
-	        if (user2.getFriendIds() != null) {
-	        	user2.getFriendIds().remove(userId1);
-	        }
-
-	        updateUser(user1);
-	        updateUser(user2);
+	        userRepository.arrayRemove(userId1, "friendIds", userId2);
+	        userRepository.arrayRemove(userId2, "friendIds", userId1);
 
 	        return true;
 	    } catch (Exception e) {
@@ -608,10 +532,6 @@ public class UserService {
 	    }
 	}
 	
-	public void updateUser(User user) throws ExecutionException, InterruptedException {
-        firestore.collection("users").document(user.getUserName()).set(user).get();
-    }
-	
 	public boolean unfollowCounsellor(String userId, String counsellorId) {
 	    try {
 	        // Fetch user and counsellor
@@ -622,19 +542,9 @@ public class UserService {
 	            return false; // Return false if user or counsellor doesn't exist
 	        }
 
-	        // Remove counsellor from user's followedCounsellorIds
-	        if (user.getFollowedCounsellorsIds() != null) {
-	            user.getFollowedCounsellorsIds().remove(counsellorId);
-	        }
-
-	        // Remove user from counsellor's clientIds
-	        if (counsellor.getFollowerIds() != null) {
-	            counsellor.getFollowerIds().remove(userId);
-	        }
-
-	        // Update both entities in Firebase
-	        updateUser(user);
-	        sharedService.updateCounsellor(counsellor);
+	        // Field-level removes: a full-profile save would write back stale fields
+	        userRepository.arrayRemove(userId, "followedCounsellorsIds", counsellorId);
+	        counsellorRepository.arrayRemove(counsellorId, "followerIds", userId);
 
 	        return true;
 	    } catch (Exception e) {
@@ -644,8 +554,11 @@ public class UserService {
 	}
 
 	public void updateUserPhotoUrl(String userId, String photoUrl) {
-		Firestore firestore = FirestoreClient.getFirestore();
-        firestore.collection(USERS).document(userId).update("photo", photoUrl);
+		try {
+	        userRepository.update(userId, "photo", photoUrl);
+		} catch (InterruptedException | ExecutionException e) {
+			logger.error("Failed to update photo for user [{}]: {}", userId, e.getMessage(), e);
+		}
 	}
 	
 	 /**
@@ -660,10 +573,7 @@ public class UserService {
 	            DatabaseReference databaseReference = FirebaseDatabase.getInstance().getReference("userStates");
 
 	            // Check if the user exists in Firestore
-	            ApiFuture<DocumentSnapshot> future = firestore.collection(USERS).document(userName).get();
-	            DocumentSnapshot document = future.get();
-
-	            if (!document.exists()) {
+	            if (!userRepository.existsById(userName)) {
 	                System.err.println("User not found in Firestore: " + userName);
 	                return false; // User does not exist, deny the update
 	            }
@@ -674,6 +584,7 @@ public class UserService {
 	            userState.setState(state);
 
 	            databaseReference.child(userName).setValueAsync(userState);
+	            presenceService.recordUserState(userName, state);
 	            return true;
 
 	        } catch (Exception e) {
@@ -685,54 +596,13 @@ public class UserService {
 	 
 	 
 	 /**
-	  * Check if the user is online by fetching their state from Firebase Realtime Database.
+	  * Check if the user is online, answered from the listener-backed presence index.
 	  *
 	  * @param userName the username of the user
 	  * @return true if the user's state is "online", false otherwise
 	  */
 	 public boolean isUserOnline(String userName) throws InterruptedException {
-		    // Create a CountDownLatch initialized to 1 (indicating that we need to wait for 1 event)
-		    CountDownLatch latch = new CountDownLatch(1);
-
-		    // Variable to hold the result
-		    final boolean[] isOnline = {false};
-
-		    // Get the reference to the user's state in the Realtime Database
-		    DatabaseReference databaseReference = FirebaseDatabase.getInstance().getReference("userStates").child(userName);
-
-		    // Add listener to fetch the user's state
-		    databaseReference.addListenerForSingleValueEvent(new ValueEventListener() {
-		        @Override
-		        public void onDataChange(DataSnapshot dataSnapshot) {
-		            // Check if the user exists and retrieve their state
-		            if (dataSnapshot.exists()) {
-		                UserState userState = dataSnapshot.getValue(UserState.class);
-		                if (userState != null) {
-		                    // Check if the state is 'online'
-		                    isOnline[0] = "online".equalsIgnoreCase(userState.getState());
-		                }
-		            } else {
-		                System.err.println("User state not found in Realtime Database for: " + userName);
-		            }
-		            
-		            // Decrease the latch count, indicating that the operation has completed
-		            latch.countDown();
-		        }
-
-		        @Override
-		        public void onCancelled(DatabaseError databaseError) {
-		            // Log error
-		            System.err.println("Error fetching user state: " + databaseError.getMessage());
-		            // Decrease the latch count in case of an error
-		            latch.countDown();
-		        }
-		    });
-
-		    // Wait for the latch to count down to 0 (i.e., for the callback to complete)
-		    latch.await();
-
-		    // Return the result after the callback completes
-		    return isOnline[0];
+		    return presenceService.isUserOnline(userName);
 		}
 	 
 	 	/**
@@ -742,29 +612,17 @@ public class UserService {
 	    public List<Counsellor> getCounsellorsByCourseAndState(Course course, States state)
 	            throws ExecutionException, InterruptedException {
 	        
-	        ApiFuture<QuerySnapshot> future = firestore
-	                .collection("counsellors")
+	        return counsellorRepository.find(DocumentQuery.create()
 	                .whereArrayContains("expertise", course)
-	                .whereEqualTo("stateOfCounsellor", state) 
-	                .get();
-
-	        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-	        return documents.stream()
-	                        .map(doc -> doc.toObject(Counsellor.class))
-	                        .collect(Collectors.toList());
+	                .whereEqualTo("stateOfCounsellor", state));
 	    }
 	    
 	    
 	    public String getUserNameFromEmail(String email) throws ExecutionException, InterruptedException {
-	        Firestore dbFirestore = FirestoreClient.getFirestore();
-	        CollectionReference usersCollection = dbFirestore.collection(USERS);
-
 	        // Query to find user by email
-	        Query query = usersCollection.whereEqualTo("email", email);
-	        List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+	        User user = userRepository.findByEmail(email);
 
-	        if (!documents.isEmpty()) {
-	            User user = documents.get(0).toObject(User.class);
+	        if (user != null) {
 	            return user.getUserName();
 	        } else {
 	            throw new UserNotFoundException("No user found with email: " + email);
@@ -772,15 +630,10 @@ public class UserService {
 	    }
 
 	    public String getUserNameFromPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
-	        Firestore dbFirestore = FirestoreClient.getFirestore();
-	        CollectionReference usersCollection = dbFirestore.collection(USERS);
-
 	        // Query to find user by phone number
-	        Query query = usersCollection.whereEqualTo("phoneNumber", phoneNumber);
-	        List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+	        User user = userRepository.findByPhoneNumber(phoneNumber);
 
-	        if (!documents.isEmpty()) {
-	            User user = documents.get(0).toObject(User.class);
+	        if (user != null) {
 	            return user.getUserName();
 	        } else {
 	            throw new UserNotFoundException("No user found with phone number: " + phoneNumber);
@@ -788,34 +641,18 @@ public class UserService {
 	    }
 	    
 	    public User getUserFromPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
-	        Firestore dbFirestore = FirestoreClient.getFirestore();
-	        CollectionReference usersCollection = dbFirestore.collection(USERS);
-
 	        // Query to find user by phone number
-	        Query query = usersCollection.whereEqualTo("phoneNumber", phoneNumber);
-	        List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+	        User user = userRepository.findByPhoneNumber(phoneNumber);
 
-	        if (!documents.isEmpty()) {
-	            User user = documents.get(0).toObject(User.class);
+	        if (user != null) {
 	            return user;
 	        } else {
 	            throw new UserNotFoundException("No user found with phone number: " + phoneNumber);
 	        }
 	    }
 	    
-		public List<User> getAllUsers() {
-	        Firestore firestore = FirestoreClient.getFirestore();
-	        ApiFuture<QuerySnapshot> querySnapshot = firestore.collection(USERS).get();
-
-	        List<User> users = new ArrayList<>();
-	        try {
-	            for (QueryDocumentSnapshot doc : querySnapshot.get().getDocuments()) {
-	            	User user = doc.toObject(User.class);
-	            	users.add(user);
-	            }
-	        } catch (InterruptedException | ExecutionException e) {
-	            throw new RuntimeException("Error fetching all counsellors", e);
-	        }
-	        return users;
+		/** {@code cursor} is the nextCursor of the previous page, null for the first; throws IllegalArgumentException for a bad cursor. */
+		public CursorPage<UserSummary> getAllUsers(String cursor, int limit) throws ExecutionException, InterruptedException {
+	        return userRepository.findSummaryPage(cursor, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
 		}
 }
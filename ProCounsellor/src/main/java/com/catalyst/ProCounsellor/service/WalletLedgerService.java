@@ -0,0 +1,357 @@
+package com.catalyst.ProCounsellor.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.dto.WalletBalance;
+import com.catalyst.ProCounsellor.model.LedgerEntry;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentRepository;
+import com.catalyst.ProCounsellor.repository.DocumentTransaction;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.catalyst.ProCounsellor.repository.WalletLedgerRepository;
+
+/**
+ * Posts wallet transactions to the per-account ledger. Each posting writes a
+ * ledger entry carrying the balance after it, the wallet state document and the
+ * profile's walletAmount in one store transaction, so balances never drift from
+ * the ledger and concurrent postings cannot overdraw an account. The first
+ * posting for an account takes the profile's walletAmount as the opening balance.
+ */
+@Service
+public class WalletLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletLedgerService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String LEGACY_FIELD = "transactions";
+    // Profile fields written only by postings and the migration, never from client input
+    private static final Set<String> LEDGER_FIELDS = Set.of("walletAmount", LEGACY_FIELD);
+    private static final int MIGRATION_BATCH_SIZE = 100;
+
+    private final WalletLedgerRepository walletLedgerRepository;
+    private final UserRepository userRepository;
+    private final CounsellorRepository counsellorRepository;
+
+    public WalletLedgerService(WalletLedgerRepository walletLedgerRepository, UserRepository userRepository,
+            CounsellorRepository counsellorRepository) {
+        this.walletLedgerRepository = walletLedgerRepository;
+        this.userRepository = userRepository;
+        this.counsellorRepository = counsellorRepository;
+    }
+
+    /** Copy of a client-supplied profile update without the fields the ledger owns. */
+    public static Map<String, Object> withoutLedgerFields(Map<String, Object> updates) {
+        Map<String, Object> allowed = new LinkedHashMap<>(updates);
+        if (allowed.keySet().removeAll(LEDGER_FIELDS)) {
+            logger.warn("Ignoring ledger-owned fields in profile update: {}", LEDGER_FIELDS);
+        }
+        return allowed;
+    }
+
+    /** One side of a wallet transaction. Build with {@link #credit} or {@link #debit}. */
+    public static class Posting {
+        private final DocumentRepository<?> profiles;
+        private final String accountId;
+        private final String type;
+        private final long amount;
+        private final String description;
+        private String counterpartyId;
+        private String paymentId;
+        private String payoutId;
+        private String reversesEntryId;
+
+        private Posting(DocumentRepository<?> profiles, String accountId, String type, long amount, String description) {
+            if (amount <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            this.profiles = profiles;
+            this.accountId = accountId;
+            this.type = type;
+            this.amount = amount;
+            this.description = description;
+        }
+
+        public static Posting credit(DocumentRepository<?> profiles, String accountId, long amount, String description) {
+            return new Posting(profiles, accountId, "credit", amount, description);
+        }
+
+        public static Posting debit(DocumentRepository<?> profiles, String accountId, long amount, String description) {
+            return new Posting(profiles, accountId, "debit", amount, description);
+        }
+
+        public Posting counterparty(String counterpartyId) {
+            this.counterpartyId = counterpartyId;
+            return this;
+        }
+
+        public Posting paymentId(String paymentId) {
+            this.paymentId = paymentId;
+            return this;
+        }
+
+        public Posting payoutId(String payoutId) {
+            this.payoutId = payoutId;
+            return this;
+        }
+
+        public Posting reverses(String entryId) {
+            this.reversesEntryId = entryId;
+            return this;
+        }
+    }
+
+    private static class WalletState {
+        final boolean existed;
+        final long openingBalance;
+        long balance;
+        long seq;
+
+        WalletState(boolean existed, long openingBalance, long balance, long seq) {
+            this.existed = existed;
+            this.openingBalance = openingBalance;
+            this.balance = balance;
+            this.seq = seq;
+        }
+    }
+
+    /**
+     * Applies all postings atomically and returns the written entries in order.
+     * Throws IllegalArgumentException if a debit would take an account below zero;
+     * nothing is written in that case.
+     */
+    public List<LedgerEntry> post(Posting... postings) throws ExecutionException, InterruptedException {
+        return post(null, postings);
+    }
+
+    /**
+     * Like {@link #post(Posting...)}, but applies the postings at most once per
+     * idempotency key: if the key was already used, nothing is written and an empty
+     * list is returned. The key is recorded in the same transaction as the postings.
+     */
+    public List<LedgerEntry> post(String idempotencyKey, Posting... postings) throws ExecutionException, InterruptedException {
+        List<LedgerEntry> entries;
+        try {
+            entries = walletLedgerRepository.runTransaction(transaction -> apply(transaction, idempotencyKey, postings));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            throw e;
+        }
+        for (Posting posting : postings) {
+            posting.profiles.afterExternalWrite(posting.accountId);
+        }
+        return entries;
+    }
+
+    private List<LedgerEntry> apply(DocumentTransaction transaction, String idempotencyKey, Posting[] postings)
+            throws ExecutionException, InterruptedException {
+        // All reads first, as the transaction requires
+        if (idempotencyKey != null && transaction.getData(WalletLedgerRepository.IDEMPOTENCY_KEYS, idempotencyKey) != null) {
+            return new ArrayList<>();
+        }
+        Map<String, WalletState> wallets = new LinkedHashMap<>();
+        for (Posting posting : postings) {
+            if (!wallets.containsKey(posting.accountId)) {
+                wallets.put(posting.accountId, readWallet(transaction, posting));
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (Posting posting : postings) {
+            WalletState wallet = wallets.get(posting.accountId);
+            long balance = "debit".equals(posting.type) ? wallet.balance - posting.amount : wallet.balance + posting.amount;
+            if (balance < 0) {
+                throw new IllegalArgumentException("Insufficient balance");
+            }
+            wallet.balance = balance;
+            wallet.seq++;
+
+            LedgerEntry entry = new LedgerEntry();
+            entry.setId(String.format("%012d", wallet.seq));
+            entry.setSeq(wallet.seq);
+            entry.setType(posting.type);
+            entry.setAmount(posting.amount);
+            entry.setBalanceAfter(balance);
+            entry.setTimestamp(now);
+            entry.setDescription(posting.description);
+            entry.setCounterpartyId(posting.counterpartyId);
+            entry.setPaymentId(posting.paymentId);
+            entry.setPayoutId(posting.payoutId);
+            entry.setReversesEntryId(posting.reversesEntryId);
+            transaction.set(WalletLedgerRepository.ledgerCollection(posting.accountId), entry.getId(), entry);
+            entries.add(entry);
+        }
+
+        for (Posting posting : postings) {
+            WalletState wallet = wallets.remove(posting.accountId);
+            if (wallet == null) {
+                continue; // already written for an earlier posting to the same account
+            }
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("balance", wallet.balance);
+            state.put("seq", wallet.seq);
+            state.put("updatedAt", now);
+            if (!wallet.existed) {
+                state.put("openingBalance", wallet.openingBalance);
+            }
+            transaction.merge(WalletLedgerRepository.WALLETS, posting.accountId, state);
+            transaction.merge(posting.profiles.getCollection(), posting.accountId, Map.of("walletAmount", wallet.balance));
+        }
+        if (idempotencyKey != null) {
+            List<String> entryPaths = new ArrayList<>();
+            for (int i = 0; i < postings.length; i++) {
+                entryPaths.add(WalletLedgerRepository.ledgerCollection(postings[i].accountId) + "/" + entries.get(i).getId());
+            }
+            Map<String, Object> marker = new LinkedHashMap<>();
+            marker.put("appliedAt", now);
+            marker.put("entries", entryPaths);
+            transaction.set(WalletLedgerRepository.IDEMPOTENCY_KEYS, idempotencyKey, marker);
+        }
+        return entries;
+    }
+
+    private static WalletState readWallet(DocumentTransaction transaction, Posting posting) throws ExecutionException, InterruptedException {
+        Map<String, Object> wallet = transaction.getData(WalletLedgerRepository.WALLETS, posting.accountId);
+        if (wallet != null) {
+            return new WalletState(true, asLong(wallet.get("openingBalance")), asLong(wallet.get("balance")), asLong(wallet.get("seq")));
+        }
+        Map<String, Object> profile = transaction.getData(posting.profiles.getCollection(), posting.accountId);
+        if (profile == null) {
+            throw new IllegalArgumentException("Account not found: " + posting.accountId);
+        }
+        long opening = asLong(profile.get("walletAmount"));
+        return new WalletState(false, opening, opening, 0);
+    }
+
+    /** Current balance without reading any history. */
+    public WalletBalance getBalance(String accountId) throws ExecutionException, InterruptedException {
+        WalletBalance result = new WalletBalance();
+        result.setAccountId(accountId);
+        Map<String, Object> wallet = walletLedgerRepository.findWallet(accountId);
+        if (wallet != null) {
+            result.setBalance(asLong(wallet.get("balance")));
+            result.setLastSeq(asLong(wallet.get("seq")));
+            return result;
+        }
+        // No postings yet: the profile's walletAmount is still authoritative
+        Map<String, Object> profile = userRepository.findFieldsById(accountId, "walletAmount");
+        if (profile == null) {
+            profile = counsellorRepository.findFieldsById(accountId, "walletAmount");
+        }
+        if (profile == null) {
+            return null;
+        }
+        result.setBalance(asLong(profile.get("walletAmount")));
+        return result;
+    }
+
+    /** Newest first; pass the previous page's nextCursor to continue. */
+    public CursorPage<LedgerEntry> getStatement(String accountId, String cursor, int limit) throws ExecutionException, InterruptedException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return walletLedgerRepository.findStatement(accountId, cursor, pageSize);
+    }
+
+    public void recordPayoutId(String accountId, String entryId, String payoutId) throws ExecutionException, InterruptedException {
+        walletLedgerRepository.updateEntry(accountId, entryId, Map.of("payoutId", payoutId));
+    }
+
+    /**
+     * Credits back a withdrawal debit whose payout failed, with the failure reason in
+     * the description. Applied at most once per debit entry.
+     */
+    public void reverseFailedPayout(DocumentRepository<?> profiles, String accountId, LedgerEntry debit, String reason)
+            throws ExecutionException, InterruptedException {
+        boolean applied = !post("payout-reversal:" + accountId + ":" + debit.getId(),
+                Posting.credit(profiles, accountId, debit.getAmount(), "Withdrawal reversed, payout failed: " + reason)
+                        .reverses(debit.getId())).isEmpty();
+        if (applied) {
+            logger.info("Reversed withdrawal {} of account {}: {}", debit.getId(), accountId, reason);
+        }
+    }
+
+    /**
+     * Copies transactions arrays left on profiles into the ledgers and deletes the
+     * arrays. Legacy entries get seq values up to 0, so they sort before anything
+     * posted through the ledger, and their running balances are worked backwards
+     * from the opening balance (or the current walletAmount when the account has no
+     * ledger yet). Safe to re-run.
+     */
+    public Map<String, Object> migrateProfileTransactions() throws ExecutionException, InterruptedException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", migrate(userRepository));
+        result.put("counsellors", migrate(counsellorRepository));
+        return result;
+    }
+
+    private Map<String, Integer> migrate(DocumentRepository<?> profiles) throws ExecutionException, InterruptedException {
+        int profilesMigrated = 0;
+        int entriesCopied = 0;
+        String cursor = null;
+        do {
+            CursorPage<String> ids = profiles.findIdPage(cursor, MIGRATION_BATCH_SIZE);
+            cursor = ids.getNextCursor();
+            List<String> batch = ids.getItems();
+            for (Map.Entry<String, Map<String, Object>> profile : profiles.findAllFieldsById(batch, LEGACY_FIELD, "walletAmount").entrySet()) {
+                Object transactions = profile.getValue().get(LEGACY_FIELD);
+                if (!(transactions instanceof List)) {
+                    continue;
+                }
+                String accountId = profile.getKey();
+                Map<String, Object> wallet = walletLedgerRepository.findWallet(accountId);
+                long balance = wallet != null ? asLong(wallet.get("openingBalance")) : asLong(profile.getValue().get("walletAmount"));
+
+                List<?> legacy = (List<?>) transactions;
+                Map<String, LedgerEntry> entries = new LinkedHashMap<>();
+                for (int i = legacy.size() - 1; i >= 0; i--) {
+                    if (!(legacy.get(i) instanceof Map)) {
+                        continue;
+                    }
+                    Map<?, ?> transaction = (Map<?, ?>) legacy.get(i);
+                    LedgerEntry entry = new LedgerEntry();
+                    entry.setSeq(i - legacy.size() + 1);
+                    entry.setId(String.format("legacy-%06d", i));
+                    entry.setType("debit".equals(transaction.get("type")) ? "debit" : "credit");
+                    entry.setAmount(Math.round(asDouble(transaction.get("amount"))));
+                    entry.setBalanceAfter(balance);
+                    entry.setTimestamp(asLong(transaction.get("timestamp")));
+                    entry.setDescription((String) transaction.get("description"));
+                    entry.setPaymentId((String) transaction.get("paymentId"));
+                    entry.setPayoutId((String) transaction.get("payoutId"));
+                    entries.put(entry.getId(), entry);
+                    balance = "debit".equals(entry.getType()) ? balance + entry.getAmount() : balance - entry.getAmount();
+                }
+                if (!entries.isEmpty()) {
+                    walletLedgerRepository.saveEntries(accountId, entries);
+                }
+                profiles.removeFields(accountId, LEGACY_FIELD);
+                profilesMigrated++;
+                entriesCopied += entries.size();
+            }
+        } while (cursor != null);
+        logger.info("Moved {} wallet transactions off {} profiles", entriesCopied, profilesMigrated);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("profilesMigrated", profilesMigrated);
+        counts.put("entriesCopied", entriesCopied);
+        return counts;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static double asDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
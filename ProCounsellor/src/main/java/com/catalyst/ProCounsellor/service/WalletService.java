@@ -2,12 +2,12 @@ package com.catalyst.ProCounsellor.service;
 
 import com.catalyst.ProCounsellor.model.BankDetails;
 import com.catalyst.ProCounsellor.model.Counsellor;
-import com.catalyst.ProCounsellor.model.Transaction;
+import com.catalyst.ProCounsellor.model.LedgerEntry;
 import com.catalyst.ProCounsellor.model.User;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.FieldValue;
-import com.google.cloud.firestore.Firestore;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.catalyst.ProCounsellor.service.WalletLedgerService.Posting;
 import com.razorpay.FundAccount;
 import com.razorpay.Order;
 import com.razorpay.RazorpayClient;
@@ -21,11 +21,11 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -33,8 +33,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class WalletService {
 	
+    private static final Logger logger = LoggerFactory.getLogger(WalletService.class);
+	
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CounsellorRepository counsellorRepository;
+    
     @Autowired
-    private Firestore firestore;
+    private WalletLedgerService walletLedgerService;
     
     // @Value("${razorpay.key_id}")
     // private String keyId;
@@ -44,9 +52,6 @@ public class WalletService {
 
 	private final String keyId;
     	private final String keySecret;
-    
-    private final String USERS_COLLECTION = "users";
-    private final String COUNSELLORS_COLLECTION = "counsellors";
 
     public WalletService() {
         this.keyId = System.getenv("RAZORPAY_KEY_ID");
@@ -74,116 +79,57 @@ public class WalletService {
         return order.toString();
     }
     
-    public void addFunds(String userName, double amount, String paymentId) throws ExecutionException, InterruptedException {
-        DocumentReference userRef = firestore.collection(USERS_COLLECTION).document(userName);
-        DocumentSnapshot snapshot = userRef.get().get();
-
-        if (!snapshot.exists()) {
+    /**
+     * Credits a captured Razorpay payment. Applied at most once per paymentId; returns
+     * false if the payment was already credited.
+     */
+    public boolean addFunds(String userName, double amount, String paymentId) throws ExecutionException, InterruptedException {
+        if (!userRepository.existsById(userName)) {
             throw new IllegalArgumentException("User not found");
         }
 
-        Long currentBalance = snapshot.getLong("walletAmount");
-        if (currentBalance == null) {
-            currentBalance = 0L;
-        }
-
-        userRef.update("walletAmount", currentBalance + (long) amount);
-
-        // Create transaction
-        Transaction txn = new Transaction("credit", amount, System.currentTimeMillis(), "Funds added via Razorpay", paymentId);
-
-        // Add to Firestore as array
-        Map<String, Object> txnMap = new HashMap<>();
-        txnMap.put("type", txn.getType());
-        txnMap.put("amount", txn.getAmount());
-        txnMap.put("timestamp", txn.getTimestamp());
-        txnMap.put("description", txn.getDescription());
-        txnMap.put("paymentId", txn.getPaymentId());
-
-        userRef.update("transactions", FieldValue.arrayUnion(txnMap));
+        return !walletLedgerService.post("razorpay:" + paymentId,
+                Posting.credit(userRepository, userName, (long) amount, "Funds added via Razorpay").paymentId(paymentId)).isEmpty();
     }
 
     public void transferFunds(String userName, String counsellorName, double amount) throws ExecutionException, InterruptedException {
-        DocumentReference userRef = firestore.collection(USERS_COLLECTION).document(userName);
-        DocumentReference counsellorRef = firestore.collection(COUNSELLORS_COLLECTION).document(counsellorName);
-
-        DocumentSnapshot userSnapshot = userRef.get().get();
-        DocumentSnapshot counsellorSnapshot = counsellorRef.get().get();
-
-        if (!userSnapshot.exists() || !counsellorSnapshot.exists()) {
+        if (!userRepository.existsById(userName) || !counsellorRepository.existsById(counsellorName)) {
             throw new IllegalArgumentException("User or Counsellor not found");
         }
 
-        Long userBalance = userSnapshot.getLong("walletAmount");
-        if (userBalance == null) {
-        	userBalance = 0L;
-        }
-        Long counsellorBalance = counsellorSnapshot.getLong("walletAmount");
-        if (counsellorBalance == null) {
-        	counsellorBalance = 0L;
-        }
-
-        if (userBalance < amount) {
-            throw new IllegalArgumentException("Insufficient balance");
-        }
-
-        // Update balances
-        userRef.update("walletAmount", userBalance - (long) amount);
-        counsellorRef.update("walletAmount", counsellorBalance + (long) amount);
-
-        // Create transactions
-        Transaction debitTxn = new Transaction("debit", amount, System.currentTimeMillis(), "Transferred to " + counsellorName, null);
-        Transaction creditTxn = new Transaction("credit", amount, System.currentTimeMillis(), "Received from " + userName, null);
-
-        // Map for Firestore
-        Map<String, Object> debitTxnMap = new HashMap<>();
-        debitTxnMap.put("type", debitTxn.getType());
-        debitTxnMap.put("amount", debitTxn.getAmount());
-        debitTxnMap.put("timestamp", debitTxn.getTimestamp());
-        debitTxnMap.put("description", debitTxn.getDescription());
-
-        Map<String, Object> creditTxnMap = new HashMap<>();
-        creditTxnMap.put("type", creditTxn.getType());
-        creditTxnMap.put("amount", creditTxn.getAmount());
-        creditTxnMap.put("timestamp", creditTxn.getTimestamp());
-        creditTxnMap.put("description", creditTxn.getDescription());
-
-        // Update transactions array
-        userRef.update("transactions", FieldValue.arrayUnion(debitTxnMap));
-        counsellorRef.update("transactions", FieldValue.arrayUnion(creditTxnMap));
+        // Debit and credit commit together; the debit fails with "Insufficient balance" if it would overdraw
+        walletLedgerService.post(
+                Posting.debit(userRepository, userName, (long) amount, "Transferred to " + counsellorName).counterparty(counsellorName),
+                Posting.credit(counsellorRepository, counsellorName, (long) amount, "Received from " + userName).counterparty(userName));
     }
 
     public String withdrawFundsToBank(String userName, double amount) throws IOException, ExecutionException, InterruptedException {
-        DocumentReference userRef = firestore.collection(USERS_COLLECTION).document(userName);
-        DocumentSnapshot snapshot = userRef.get().get();
-
-        boolean isCounsellor = false;
-
-        // Step 1: Check if user exists in USERS_COLLECTION
-        if (!snapshot.exists()) {
-            // Step 2: If not found, check COUNSELLORS_COLLECTION
-            userRef = firestore.collection(COUNSELLORS_COLLECTION).document(userName);
-            snapshot = userRef.get().get();
-            isCounsellor = true;
+        DocumentRepository<?> accountRepository = userRepository;
+        BankDetails bankDetails;
+        String name;
+        String email;
+        String phoneNumber;
+
+        // Step 1: Check if user exists in the users collection
+        User user = userRepository.findById(userName);
+        if (user != null) {
+            bankDetails = user.getBankDetails();
+            name = user.getFirstName() + " " + user.getLastName();
+            email = user.getEmail();
+            phoneNumber = user.getPhoneNumber();
+        } else {
+            // Step 2: If not found, check the counsellors collection
+            Counsellor counsellor = counsellorRepository.findById(userName);
 
-            if (!snapshot.exists()) {
+            if (counsellor == null) {
                 throw new IllegalArgumentException("User or Counsellor not found");
             }
-        }
 
-        Long currentBalance = snapshot.getLong("walletAmount");
-        if (currentBalance == null || currentBalance < amount) {
-            throw new IllegalArgumentException("Insufficient balance");
-        }
-
-        BankDetails bankDetails;
-
-        if (isCounsellor) {
-            // Map counsellor entity to get bank details
-            bankDetails = snapshot.toObject(Counsellor.class).getBankDetails();
-        } else {
-            // Map user entity to get bank details (assuming users also have bank details)
-            bankDetails = snapshot.toObject(User.class).getBankDetails();
+            accountRepository = counsellorRepository;
+            bankDetails = counsellor.getBankDetails();
+            name = counsellor.getFirstName() + " " + counsellor.getLastName();
+            email = counsellor.getEmail();
+            phoneNumber = counsellor.getPhoneNumber();
         }
 
         String accountNumber = bankDetails.getBankAccountNumber();
@@ -193,8 +139,9 @@ public class WalletService {
             throw new IllegalArgumentException("Bank details not found for withdrawal");
         }
 
-        // Deduct balance from Firestore wallet
-        userRef.update("walletAmount", currentBalance - (long) amount);
+        // Deduct balance from the wallet; fails with "Insufficient balance" if it would overdraw
+        LedgerEntry debit = walletLedgerService.post(
+                Posting.debit(accountRepository, userName, (long) amount, "Withdrawal to bank account")).get(0);
 
         // Razorpay Payout API Request
         String apiUrl = "https://api.razorpay.com/v1/payouts";
@@ -208,9 +155,9 @@ public class WalletService {
                 .put("account_number", accountNumber)
                 .put("ifsc", ifscCode))
             .put("contact", new JSONObject()
-                .put("name", snapshot.getString("firstName") + " " + snapshot.getString("lastName"))
-                .put("email", snapshot.getString("email"))
-                .put("contact", snapshot.getString("phoneNumber"))
+                .put("name", name)
+                .put("email", email)
+                .put("contact", phoneNumber)
                 .put("type", "vendor"));
 
         payoutRequest.put("fund_account", fundAccount);
@@ -220,27 +167,38 @@ public class WalletService {
         payoutRequest.put("purpose", "withdrawal");
         payoutRequest.put("queue_if_low_balance", true);
 
-        // Send HTTP Request
-        String payoutResponse = sendHttpPost(apiUrl, payoutRequest.toString());
+        // Send HTTP Request; if it fails the money goes back to the wallet with the reason on the statement
+        String payoutResponse;
+        try {
+            payoutResponse = sendHttpPost(apiUrl, payoutRequest.toString());
+        } catch (IOException | RuntimeException e) {
+            reverseWithdrawal(accountRepository, userName, debit, e);
+            throw e;
+        }
 
         // Optionally parse Razorpay response to get payout ID or reference
         JSONObject payoutResponseJson = new JSONObject(payoutResponse);
         String payoutId = payoutResponseJson.optString("id", "N/A"); // Razorpay payout ID
 
-        // Create a debit transaction entry
-        Map<String, Object> txnMap = new HashMap<>();
-        txnMap.put("type", "debit");
-        txnMap.put("amount", amount);
-        txnMap.put("timestamp", System.currentTimeMillis());
-        txnMap.put("description", "Withdrawal to bank account");
-        txnMap.put("payoutId", payoutId);
-
-        // Add transaction to transactions array
-        userRef.update("transactions", FieldValue.arrayUnion(txnMap));
+        walletLedgerService.recordPayoutId(userName, debit.getId(), payoutId);
 
         return payoutResponse;
     }
     
+    private void reverseWithdrawal(DocumentRepository<?> accountRepository, String accountId, LedgerEntry debit, Exception payoutFailure) {
+        String reason = payoutFailure.getMessage() != null ? payoutFailure.getMessage() : payoutFailure.getClass().getSimpleName();
+        try {
+            walletLedgerService.reverseFailedPayout(accountRepository, accountId, debit, reason);
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("Failed to reverse withdrawal {} of account {} after payout failure: {}", debit.getId(), accountId, reason, e);
+            payoutFailure.addSuppressed(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while reversing withdrawal {} of account {}", debit.getId(), accountId);
+            payoutFailure.addSuppressed(e);
+        }
+    }
+    
     private String sendHttpPost(String apiUrl, String jsonBody) throws IOException {
         URL url = new URL(apiUrl);
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
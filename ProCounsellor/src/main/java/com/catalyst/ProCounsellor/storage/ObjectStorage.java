@@ -0,0 +1,33 @@
+package com.catalyst.ProCounsellor.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * Object storage for uploaded media (profile photos, news images, chat files).
+ * Paths are bucket-relative, e.g. {@code users/alice/photo.png}. Uploaded objects
+ * are publicly readable at the URL returned by {@link #upload}.
+ */
+public interface ObjectStorage {
+
+    /** Stores the bytes at the path, replacing any existing object, and returns its public URL. */
+    String upload(String path, byte[] content, String contentType) throws IOException;
+
+    String upload(String path, InputStream content, String contentType) throws IOException;
+
+    /** Returns the object's bytes, or null if there is no object at the path. */
+    byte[] download(String path) throws IOException;
+
+    String publicUrl(String path);
+
+    /** Returns size and content type of the object, or null if there is none at the path. */
+    StoredObject stat(String path) throws IOException;
+
+    /**
+     * Issues a short-lived URL the client can upload one object to directly, so the
+     * bytes never pass through this server. The upload must use the given content
+     * type and may not exceed {@code maxBytes}; the object is publicly readable.
+     */
+    SignedUpload signUpload(String path, String contentType, long maxBytes, Duration ttl) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.catalyst.ProCounsellor.storage;
+
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * A pre-authorised upload: the client sends the file with {@code method} to
+ * {@code uploadUrl}, including every header in {@code headers}, before
+ * {@code expiresAt} (epoch millis).
+ */
+@Data
+public class SignedUpload {
+    private String objectPath;
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> headers;
+    private long expiresAt;
+    // Where the object can be read once uploaded
+    private String fileUrl;
+}
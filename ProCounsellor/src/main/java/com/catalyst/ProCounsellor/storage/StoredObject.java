@@ -0,0 +1,10 @@
+package com.catalyst.ProCounsellor.storage;
+
+import lombok.Data;
+
+@Data
+public class StoredObject {
+    private String path;
+    private long size;
+    private String contentType;
+}
@@ -0,0 +1,162 @@
+package com.catalyst.ProCounsellor.storage.gcs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.catalyst.ProCounsellor.storage.ObjectStorage;
+import com.catalyst.ProCounsellor.storage.SignedUpload;
+import com.catalyst.ProCounsellor.storage.StoredObject;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.HttpMethod;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.Storage.PredefinedAcl;
+import com.google.cloud.storage.StorageException;
+import com.google.cloud.storage.StorageOptions;
+import com.google.common.base.Suppliers;
+
+/**
+ * {@link ObjectStorage} on a Cloud Storage bucket. The service-account credentials
+ * are fetched from the config bucket once and a single {@link Storage} client (and
+ * its HTTP connection pool) is shared by every upload. If bootstrapping fails the
+ * next call tries again.
+ */
+public class GcsObjectStorage implements ObjectStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(GcsObjectStorage.class);
+
+    private static final String PUBLIC_HOST = "https://storage.googleapis.com/";
+
+    private final String bucket;
+    private final Supplier<Storage> storage;
+
+    public GcsObjectStorage(String bucket, String credentialsBucket, String credentialsPath) {
+        this.bucket = bucket;
+        this.storage = Suppliers.memoize(() -> createClient(credentialsBucket, credentialsPath));
+    }
+
+    @Override
+    public String upload(String path, byte[] content, String contentType) throws IOException {
+        try {
+            // The ACL travels with the upload instead of costing a second request
+            client().create(blobInfo(path, contentType), content, Storage.BlobTargetOption.predefinedAcl(PredefinedAcl.PUBLIC_READ));
+        } catch (StorageException e) {
+            throw new IOException("Upload of " + path + " failed: " + e.getMessage(), e);
+        }
+        return publicUrl(path);
+    }
+
+    @Override
+    public String upload(String path, InputStream content, String contentType) throws IOException {
+        try {
+            client().createFrom(blobInfo(path, contentType), content, Storage.BlobWriteOption.predefinedAcl(PredefinedAcl.PUBLIC_READ));
+        } catch (StorageException e) {
+            throw new IOException("Upload of " + path + " failed: " + e.getMessage(), e);
+        }
+        return publicUrl(path);
+    }
+
+    @Override
+    public byte[] download(String path) throws IOException {
+        try {
+            Blob blob = client().get(BlobId.of(bucket, path));
+            return blob != null ? blob.getContent() : null;
+        } catch (StorageException e) {
+            throw new IOException("Download of " + path + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String publicUrl(String path) {
+        return PUBLIC_HOST + bucket + "/" + path;
+    }
+
+    @Override
+    public StoredObject stat(String path) throws IOException {
+        try {
+            Blob blob = client().get(BlobId.of(bucket, path));
+            if (blob == null) {
+                return null;
+            }
+            StoredObject object = new StoredObject();
+            object.setPath(path);
+            object.setSize(blob.getSize() != null ? blob.getSize() : 0);
+            object.setContentType(blob.getContentType());
+            return object;
+        } catch (StorageException e) {
+            throw new IOException("Lookup of " + path + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public SignedUpload signUpload(String path, String contentType, long maxBytes, Duration ttl) throws IOException {
+        // Extension headers are part of the V4 signature, so the client cannot drop
+        // the public-read ACL or the size limit
+        Map<String, String> extensionHeaders = new LinkedHashMap<>();
+        extensionHeaders.put("x-goog-acl", "public-read");
+        extensionHeaders.put("x-goog-content-length-range", "0," + maxBytes);
+        URL url;
+        try {
+            url = client().signUrl(blobInfo(path, contentType), ttl.toMillis(), TimeUnit.MILLISECONDS,
+                    Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                    Storage.SignUrlOption.withContentType(),
+                    Storage.SignUrlOption.withExtHeaders(extensionHeaders),
+                    Storage.SignUrlOption.withV4Signature());
+        } catch (StorageException | IllegalStateException e) {
+            throw new IOException("Could not sign upload for " + path + ": " + e.getMessage(), e);
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>(extensionHeaders);
+        headers.put("Content-Type", contentType);
+        SignedUpload upload = new SignedUpload();
+        upload.setObjectPath(path);
+        upload.setUploadUrl(url.toString());
+        upload.setMethod("PUT");
+        upload.setHeaders(headers);
+        upload.setExpiresAt(System.currentTimeMillis() + ttl.toMillis());
+        upload.setFileUrl(publicUrl(path));
+        return upload;
+    }
+
+    private BlobInfo blobInfo(String path, String contentType) {
+        return BlobInfo.newBuilder(BlobId.of(bucket, path)).setContentType(contentType).build();
+    }
+
+    private Storage client() throws IOException {
+        try {
+            return storage.get();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Storage createClient(String credentialsBucket, String credentialsPath) {
+        Blob credentials = StorageOptions.getDefaultInstance().getService().get(credentialsBucket, credentialsPath);
+        if (credentials == null) {
+            throw new UncheckedIOException(new IOException("Storage credentials not found at " + credentialsBucket + "/" + credentialsPath));
+        }
+        try {
+            Storage client = StorageOptions.newBuilder()
+                    .setCredentials(ServiceAccountCredentials.fromStream(new ByteArrayInputStream(credentials.getContent())))
+                    .build()
+                    .getService();
+            logger.info("Cloud Storage client initialised");
+            return client;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
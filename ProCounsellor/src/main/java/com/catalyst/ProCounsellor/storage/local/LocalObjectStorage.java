@@ -0,0 +1,181 @@
+package com.catalyst.ProCounsellor.storage.local;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.catalyst.ProCounsellor.storage.ObjectStorage;
+import com.catalyst.ProCounsellor.storage.SignedUpload;
+import com.catalyst.ProCounsellor.storage.StoredObject;
+
+/**
+ * {@link ObjectStorage} on the local filesystem, for development and upload
+ * benchmarks without cloud credentials. Objects are written under the root
+ * directory and their URLs are built from the configured base URL.
+ * <p>
+ * Signed uploads mimic Cloud Storage: the URL carries an HMAC over the path,
+ * content type, size limit and expiry, checked by {@link #acceptSignedUpload}
+ * (served by LocalStorageUploadController). The key is random per process.
+ */
+public class LocalObjectStorage implements ObjectStorage {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Path root;
+    private final String baseUrl;
+    private final String uploadBaseUrl;
+    private final byte[] signingKey = new byte[32];
+    // Content types are not stored on disk, so remember the ones uploads declared
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+
+    public LocalObjectStorage(Path root, String baseUrl, String uploadBaseUrl) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        this.baseUrl = withTrailingSlash(baseUrl);
+        this.uploadBaseUrl = withTrailingSlash(uploadBaseUrl);
+        new SecureRandom().nextBytes(signingKey);
+    }
+
+    @Override
+    public String upload(String path, byte[] content, String contentType) throws IOException {
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+        rememberContentType(path, contentType);
+        return publicUrl(path);
+    }
+
+    @Override
+    public String upload(String path, InputStream content, String contentType) throws IOException {
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+        rememberContentType(path, contentType);
+        return publicUrl(path);
+    }
+
+    @Override
+    public byte[] download(String path) throws IOException {
+        try {
+            return Files.readAllBytes(resolve(path));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String publicUrl(String path) {
+        return baseUrl + path;
+    }
+
+    @Override
+    public StoredObject stat(String path) throws IOException {
+        Path target = resolve(path);
+        if (!Files.isRegularFile(target)) {
+            return null;
+        }
+        StoredObject object = new StoredObject();
+        object.setPath(path);
+        object.setSize(Files.size(target));
+        object.setContentType(contentTypes.getOrDefault(path, Files.probeContentType(target)));
+        return object;
+    }
+
+    @Override
+    public SignedUpload signUpload(String path, String contentType, long maxBytes, Duration ttl) throws IOException {
+        resolve(path);
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+        SignedUpload upload = new SignedUpload();
+        upload.setObjectPath(path);
+        upload.setUploadUrl(uploadBaseUrl + path
+                + "?expires=" + expiresAt
+                + "&maxBytes=" + maxBytes
+                + "&signature=" + URLEncoder.encode(sign(path, contentType, maxBytes, expiresAt), StandardCharsets.UTF_8));
+        upload.setMethod("PUT");
+        upload.setHeaders(Collections.singletonMap("Content-Type", contentType));
+        upload.setExpiresAt(expiresAt);
+        upload.setFileUrl(publicUrl(path));
+        return upload;
+    }
+
+    /**
+     * Stores the body of a signed upload after checking the signature, expiry and
+     * size limit. Throws {@link SecurityException} if the request was not authorised.
+     */
+    public void acceptSignedUpload(String path, String contentType, long maxBytes, long expiresAt, String signature,
+            InputStream content) throws IOException {
+        String expected = sign(path, contentType, maxBytes, expiresAt);
+        if (signature == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), signature.getBytes(StandardCharsets.UTF_8))) {
+            throw new SecurityException("Invalid upload signature");
+        }
+        if (System.currentTimeMillis() > expiresAt) {
+            throw new SecurityException("Upload URL expired");
+        }
+
+        Path target = resolve(path);
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (OutputStream out = Files.newOutputStream(partial)) {
+            byte[] buffer = new byte[64 * 1024];
+            long written = 0;
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                written += read;
+                if (written > maxBytes) {
+                    throw new SecurityException("Upload exceeds " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | SecurityException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        rememberContentType(path, contentType);
+    }
+
+    private String sign(String path, String contentType, long maxBytes, long expiresAt) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(signingKey, HMAC));
+            String canonical = path + "\n" + contentType + "\n" + maxBytes + "\n" + expiresAt;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not sign upload", e);
+        }
+    }
+
+    private void rememberContentType(String path, String contentType) {
+        if (contentType != null) {
+            contentTypes.put(path, contentType);
+        }
+    }
+
+    private Path resolve(String path) throws IOException {
+        Path target = root.resolve(path).normalize();
+        if (!target.startsWith(root)) {
+            throw new IOException("Path escapes the storage root: " + path);
+        }
+        return target;
+    }
+
+    private static String withTrailingSlash(String url) {
+        return url.endsWith("/") ? url : url + "/";
+    }
+}
@@ -0,0 +1,101 @@
+package com.catalyst.ProCounsellor.image;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Resize path used for profile photo variants. Not run by the test phase; after
+ * {@code mvn test-compile}, start {@link #main} with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageResizerBenchmark {
+
+    // Typical phone camera upload sizes
+    @Param({ "1080x1350", "3024x4032" })
+    public String size;
+
+    private byte[] upload;
+    private BufferedImage decoded;
+    private BufferedImage medium;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] parts = size.split("x");
+        BufferedImage image = new BufferedImage(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, image.getWidth(), image.getHeight(), Color.BLUE));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        upload = out.toByteArray();
+        decoded = ImageResizer.decode(upload);
+        medium = ImageResizer.resize(decoded, 512);
+    }
+
+    @Benchmark
+    public BufferedImage decode() throws IOException {
+        return ImageResizer.decode(upload);
+    }
+
+    @Benchmark
+    public BufferedImage decodeSubsampled() throws IOException {
+        return ImageResizer.decode(upload, 512);
+    }
+
+    @Benchmark
+    public BufferedImage resizeMedium() {
+        return ImageResizer.resize(decoded, 512);
+    }
+
+    @Benchmark
+    public BufferedImage resizeSmallFromMedium() {
+        return ImageResizer.resize(medium, 128);
+    }
+
+    @Benchmark
+    public byte[] encodeMedium() throws IOException {
+        return ImageResizer.encodeJpeg(medium, 0.8f);
+    }
+
+    /** The whole variant stage: decode once, cascade both sizes, encode both. */
+    @Benchmark
+    public int fullPipeline() throws IOException {
+        BufferedImage original = ImageResizer.decode(upload, 512);
+        BufferedImage mediumVariant = ImageResizer.resize(original, 512);
+        BufferedImage smallVariant = ImageResizer.resize(mediumVariant, 128);
+        return ImageResizer.encodeJpeg(mediumVariant, 0.8f).length + ImageResizer.encodeJpeg(smallVariant, 0.8f).length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageResizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.catalyst.ProCounsellor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.catalyst.ProCounsellor.dto.AppointmentBookingRequest;
+import com.catalyst.ProCounsellor.model.AppointmentBooking;
+import com.catalyst.ProCounsellor.repository.AppointmentRepository;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.catalyst.ProCounsellor.repository.memory.InMemoryDocumentStore;
+
+/**
+ * Many users racing for the same few slots of one counsellor, against the in-memory
+ * store with simulated round-trip latency so that requests interleave.
+ */
+class AppointmentSlotReservationTest {
+
+    private static final String COUNSELLOR = "counsellor1";
+    private static final List<String> WEEK = List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday");
+    // 09:00 to 13:00 gives eight 30-minute slots per day
+    private static final int SLOTS_PER_DAY = 8;
+    private static final int DAYS = 2;
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 64;
+
+    private InMemoryDocumentStore store;
+    private AppointmentRepository appointmentRepository;
+    private AppointmentBookingService bookingService;
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new InMemoryDocumentStore(1, 2, 2);
+        appointmentRepository = new AppointmentRepository(store);
+        UserRepository userRepository = new UserRepository(store, null);
+        CounsellorRepository counsellorRepository = new CounsellorRepository(store, null);
+
+        bookingService = new AppointmentBookingService();
+        ReflectionTestUtils.setField(bookingService, "appointmentRepository", appointmentRepository);
+        ReflectionTestUtils.setField(bookingService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(bookingService, "counsellorRepository", counsellorRepository);
+        ReflectionTestUtils.setField(bookingService, "counsellorAvailabilityService",
+                new CounsellorAvailabilityService(appointmentRepository, counsellorRepository, 31, 100, 60));
+
+        store.set("counsellors", COUNSELLOR, Map.of("userName", COUNSELLOR, "workingDays", WEEK,
+                "officeStartTime", "09:00", "officeEndTime", "13:00"));
+        for (int i = 0; i < REQUESTS; i++) {
+            store.set("users", user(i), Map.of("userName", user(i)));
+        }
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void concurrentBookingsNeverDoubleBookASlot() throws Exception {
+        Map<String, String> winners = bookConcurrently();
+
+        assertEquals(DAYS * SLOTS_PER_DAY, winners.size(), "every slot should be booked by exactly one request");
+        assertNoDoubleBookings(DAYS * SLOTS_PER_DAY);
+    }
+
+    @Test
+    void cancelledSlotsCanBeRebookedWithoutDoubleBooking() throws Exception {
+        Map<String, String> first = bookConcurrently();
+
+        List<Callable<Void>> cancellations = new ArrayList<>();
+        for (String appointmentId : first.values()) {
+            AppointmentBooking appointment = appointmentRepository.findById(appointmentId);
+            cancellations.add(() -> {
+                bookingService.cancelAppointment(appointmentId, appointment.getUserId());
+                return null;
+            });
+        }
+        for (Future<Void> cancellation : pool.invokeAll(cancellations)) {
+            cancellation.get();
+        }
+
+        Map<String, String> second = bookConcurrently();
+        assertEquals(DAYS * SLOTS_PER_DAY, second.size(), "every freed slot should be booked again exactly once");
+        assertNoDoubleBookings(DAYS * SLOTS_PER_DAY);
+    }
+
+    // Fires REQUESTS bookings at once, spread over all slots; returns slot -> winning appointment id
+    private Map<String, String> bookConcurrently() throws Exception {
+        LocalDate firstDay = LocalDate.now().plusDays(7);
+        Map<String, String> winners = new ConcurrentHashMap<>();
+        Set<String> failures = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            int slot = i % (DAYS * SLOTS_PER_DAY);
+            AppointmentBookingRequest request = new AppointmentBookingRequest();
+            request.setUserId(user(i));
+            request.setCounsellorId(COUNSELLOR);
+            request.setDate(firstDay.plusDays(slot / SLOTS_PER_DAY).toString());
+            request.setStartTime(String.format("%02d:%02d", 9 + (slot % SLOTS_PER_DAY) / 2, (slot % 2) * 30));
+            request.setMode("call");
+            requests.add(pool.submit(() -> {
+                start.await();
+                try {
+                    String appointmentId = bookingService.bookAppointment(request);
+                    String previous = winners.putIfAbsent(request.getDate() + " " + request.getStartTime(), appointmentId);
+                    assertEquals(null, previous, "slot won twice: " + request.getDate() + " " + request.getStartTime());
+                } catch (RuntimeException e) {
+                    failures.add(e.getMessage());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> request : requests) {
+            request.get(2, TimeUnit.MINUTES);
+        }
+
+        assertEquals(Collections.singleton("Selected slot is already booked"), failures);
+        return winners;
+    }
+
+    private void assertNoDoubleBookings(int expectedActive) throws Exception {
+        Map<String, Integer> activePerSlot = new HashMap<>();
+        for (AppointmentBooking appointment : appointmentRepository.findActive()) {
+            activePerSlot.merge(appointment.getDate() + " " + appointment.getStartTime(), 1, Integer::sum);
+            assertEquals(appointment.getAppointmentId(), appointmentRepository.findSlotHolder(
+                    appointment.getCounsellorId(), appointment.getDate(), appointment.getStartTime()));
+        }
+        assertEquals(expectedActive, activePerSlot.size());
+        assertTrue(activePerSlot.values().stream().allMatch(count -> count == 1), "double bookings: " + activePerSlot);
+    }
+
+    private static String user(int i) {
+        return "user" + i;
+    }
+}
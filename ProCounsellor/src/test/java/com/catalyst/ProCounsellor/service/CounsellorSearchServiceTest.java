@@ -0,0 +1,166 @@
+package com.catalyst.ProCounsellor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.catalyst.ProCounsellor.dto.CounsellorSearchQuery;
+import com.catalyst.ProCounsellor.dto.CounsellorSearchResult;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.repository.CollectionListener;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.DocumentWatch;
+import com.catalyst.ProCounsellor.repository.memory.InMemoryDocumentStore;
+
+/**
+ * Search over the in-memory index fed by the in-memory store: facet counts, cursor
+ * paging through ties, and removals seen live or only after a resubscribe.
+ */
+class CounsellorSearchServiceTest {
+
+    private FailingWatchStore store;
+    private CounsellorSearchService searchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new FailingWatchStore();
+        store.set("counsellors", "alice", counsellor(5, 10.0, List.of("Engineering"), List.of("English", "Hindi"), true));
+        store.set("counsellors", "bob", counsellor(4, 12.0, List.of("Engineering", "Medical"), List.of("Hindi"), false));
+        store.set("counsellors", "carol", counsellor(4, 8.0, List.of("Medical"), List.of("English"), true));
+        store.set("counsellors", "dave", counsellor(3, 15.0, List.of("Law"), List.of("Tamil"), true));
+        searchService = new CounsellorSearchService(new CounsellorRepository(store, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchService.shutdown();
+    }
+
+    @Test
+    void facetCountsIgnoreTheirOwnFilter() throws Exception {
+        CounsellorSearchQuery query = new CounsellorSearchQuery();
+        query.setExpertise("Engineering");
+        query.setLanguage("English");
+
+        CounsellorSearchResult result = searchService.search(query, null, 10);
+
+        assertEquals(List.of("alice"), userNames(result.getItems()));
+        assertEquals(1, result.getTotal());
+        // English speakers, whatever their expertise: alice and carol
+        assertEquals(Map.of("Engineering", 1, "Medical", 1), result.getFacets().get("expertise"));
+        // Engineering counsellors, whatever their language: alice and bob
+        assertEquals(Map.of("English", 1, "Hindi", 2), result.getFacets().get("languagesKnow"));
+        // Filters that are not set still narrow to the full match set
+        assertEquals(Map.of("true", 1), result.getFacets().get("verified"));
+    }
+
+    @Test
+    void cursorContinuesThroughEqualRatings() throws Exception {
+        for (int i = 0; i < 23; i++) {
+            store.set("counsellors", String.format("tied%02d", i), counsellor(4, 10.0, List.of("Design"), List.of("English"), true));
+        }
+        CounsellorSearchQuery query = new CounsellorSearchQuery();
+        query.setMinRating(4);
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CounsellorSearchResult page = searchService.search(query, cursor, 4);
+            assertEquals(26, page.getTotal());
+            seen.addAll(userNames(page.getItems()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<String> expected = new ArrayList<>(List.of("alice", "bob", "carol"));
+        for (int i = 0; i < 23; i++) {
+            expected.add(String.format("tied%02d", i));
+        }
+        expected.sort((a, b) -> a.equals("alice") ? -1 : b.equals("alice") ? 1 : a.compareTo(b));
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void deleteRemovesFromResults() throws Exception {
+        store.delete("counsellors", "bob");
+
+        CounsellorSearchResult result = searchService.search(new CounsellorSearchQuery(), null, 10);
+
+        assertEquals(List.of("alice", "carol", "dave"), userNames(result.getItems()));
+        assertEquals(3, result.getTotal());
+        assertEquals(Map.of("Engineering", 1, "Law", 1, "Medical", 1), result.getFacets().get("expertise"));
+    }
+
+    @Test
+    void resubscribeDropsCounsellorsDeletedWhileDisconnected() throws Exception {
+        store.disconnect();
+        store.delete("counsellors", "dave");
+        store.set("counsellors", "erin", counsellor(2, 9.0, List.of("Law"), List.of("Tamil"), false));
+        assertTrue(userNames(searchService.search(new CounsellorSearchQuery(), null, 10).getItems()).contains("dave"));
+
+        store.failWatch(new Exception("listener cancelled"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        List<String> names;
+        do {
+            Thread.sleep(100);
+            names = userNames(searchService.search(new CounsellorSearchQuery(), null, 10).getItems());
+        } while (names.contains("dave") && System.nanoTime() < deadline);
+
+        assertFalse(names.contains("dave"));
+        assertEquals(List.of("alice", "bob", "carol", "erin"), names);
+        assertEquals(Map.of("Law", 1, "Engineering", 2, "Medical", 2),
+                searchService.search(new CounsellorSearchQuery(), null, 10).getFacets().get("expertise"));
+    }
+
+    private static Map<String, Object> counsellor(int rating, double ratePerMinute, List<String> expertise,
+            List<String> languages, boolean verified) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("rating", rating);
+        data.put("ratePerMinute", ratePerMinute);
+        data.put("expertise", expertise);
+        data.put("languagesKnow", languages);
+        data.put("verified", verified);
+        return data;
+    }
+
+    private static List<String> userNames(List<CounsellorSummary> hits) {
+        List<String> names = new ArrayList<>();
+        hits.forEach(hit -> names.add(hit.getUserName()));
+        return names;
+    }
+
+    /** In-memory store whose collection watch can be dropped and then failed, like a cancelled listener. */
+    private static class FailingWatchStore extends InMemoryDocumentStore {
+        private CollectionListener listener;
+        private DocumentWatch watch;
+
+        @Override
+        public synchronized DocumentWatch watchCollection(String collection, CollectionListener listener) {
+            this.listener = listener;
+            this.watch = super.watchCollection(collection, listener);
+            return watch;
+        }
+
+        synchronized void disconnect() {
+            watch.close();
+        }
+
+        void failWatch(Exception error) {
+            CollectionListener failed;
+            synchronized (this) {
+                failed = listener;
+            }
+            failed.onError(error);
+        }
+    }
+}
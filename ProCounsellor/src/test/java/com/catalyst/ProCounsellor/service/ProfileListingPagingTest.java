@@ -0,0 +1,127 @@
+package com.catalyst.ProCounsellor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.catalyst.ProCounsellor.controller.CounsellorController;
+import com.catalyst.ProCounsellor.controller.UserController;
+import com.catalyst.ProCounsellor.dto.CounsellorSummary;
+import com.catalyst.ProCounsellor.dto.CursorPage;
+import com.catalyst.ProCounsellor.dto.UserSummary;
+import com.catalyst.ProCounsellor.repository.CounsellorRepository;
+import com.catalyst.ProCounsellor.repository.UserRepository;
+import com.catalyst.ProCounsellor.repository.memory.InMemoryDocumentStore;
+
+/**
+ * Cursor paging of the user and counsellor listings against the in-memory store,
+ * through the controllers so that bad cursors are checked at the HTTP status.
+ */
+class ProfileListingPagingTest {
+
+    private static final int PAGE_SIZE = 20;
+    // Exactly two full pages, so the second page must not hand out a cursor to an empty third
+    private static final int PROFILES = 2 * PAGE_SIZE;
+
+    private UserService userService;
+    private CounsellorService counsellorService;
+    private UserController userController;
+    private CounsellorController counsellorController;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryDocumentStore store = new InMemoryDocumentStore();
+        UserRepository userRepository = new UserRepository(store, null);
+        CounsellorRepository counsellorRepository = new CounsellorRepository(store, null);
+
+        userService = new UserService(userRepository, counsellorRepository);
+        counsellorService = new CounsellorService();
+        ReflectionTestUtils.setField(counsellorService, "counsellorRepository", counsellorRepository);
+        userController = new UserController();
+        ReflectionTestUtils.setField(userController, "userService", userService);
+        counsellorController = new CounsellorController();
+        ReflectionTestUtils.setField(counsellorController, "counsellorService", counsellorService);
+
+        for (int i = 0; i < PROFILES; i++) {
+            store.set("users", id("user", i), Map.of("firstName", "User " + i, "walletAmount", 100));
+            Map<String, Object> counsellor = new HashMap<>();
+            counsellor.put("firstName", "Counsellor " + i);
+            counsellor.put("rating", i % 5);
+            store.set("counsellors", id("counsellor", i), counsellor);
+        }
+    }
+
+    @Test
+    void usersPageAcrossTheBoundary() throws Exception {
+        CursorPage<UserSummary> first = userService.getAllUsers(null, PAGE_SIZE);
+        assertEquals(PAGE_SIZE, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+
+        CursorPage<UserSummary> second = userService.getAllUsers(first.getNextCursor(), PAGE_SIZE);
+        assertEquals(PAGE_SIZE, second.getItems().size());
+        assertNull(second.getNextCursor());
+
+        List<String> seen = new ArrayList<>();
+        first.getItems().forEach(user -> seen.add(user.getUserName()));
+        second.getItems().forEach(user -> seen.add(user.getUserName()));
+        assertEquals(ids("user"), seen);
+        assertEquals("User 20", second.getItems().get(0).getFirstName());
+    }
+
+    @Test
+    void counsellorsPageAcrossTheBoundary() throws Exception {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<CounsellorSummary> page = counsellorService.getAllCounsellors(cursor, PAGE_SIZE);
+            page.getItems().forEach(counsellor -> seen.add(counsellor.getUserName()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(2, pages);
+        assertEquals(ids("counsellor"), seen);
+    }
+
+    @Test
+    void ratingCursorOnPlainListingIsBadRequest() throws Exception {
+        String ratingCursor = counsellorService.getAllCounsellorsSortedByRating(null, PAGE_SIZE).getNextCursor();
+        assertNotNull(ratingCursor);
+
+        ResponseEntity<?> response = counsellorController.getAllCounsellors(ratingCursor, PAGE_SIZE);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        // The rating listing itself still accepts it
+        assertEquals(HttpStatus.OK, counsellorController.getCounsellorsSortedByRating(ratingCursor, PAGE_SIZE).getStatusCode());
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, userController.getAllUsers("not-a-cursor", PAGE_SIZE).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, counsellorController.getAllCounsellors("not-a-cursor", PAGE_SIZE).getStatusCode());
+    }
+
+    private static String id(String prefix, int i) {
+        return String.format("%s%02d", prefix, i);
+    }
+
+    private static List<String> ids(String prefix) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < PROFILES; i++) {
+            ids.add(id(prefix, i));
+        }
+        return ids;
+    }
+}